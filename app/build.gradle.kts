@@ -33,6 +33,7 @@ android {
 
 dependencies {
 
+    implementation(project(":simulacion"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
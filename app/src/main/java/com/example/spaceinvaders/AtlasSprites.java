@@ -0,0 +1,186 @@
+package com.example.spaceinvaders;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import com.example.spaceinvaders.simulacion.Entidades;
+import com.example.spaceinvaders.simulacion.Renderer;
+
+import static com.example.spaceinvaders.simulacion.Renderer.DISPARO_ENEMIGO;
+import static com.example.spaceinvaders.simulacion.Renderer.DISPARO_JUGADOR;
+import static com.example.spaceinvaders.simulacion.Renderer.ENTIDAD;
+import static com.example.spaceinvaders.simulacion.Renderer.INVASOR;
+import static com.example.spaceinvaders.simulacion.Renderer.NAVE;
+
+/**
+ * AtlasSprites: las formas del juego (invasor con antenas, nave con canion y
+ * un rectangulo por tipo de entidad, del tamanio de ese tipo) rasterizadas
+ * una sola vez en un unico Bitmap.
+ * Cada entidad se dibuja despues con un drawBitmap sobre el mismo Paint, sin
+ * cambiar de color, en lugar de varias llamadas a drawRect con setColor.
+ * El atlas se regenera solo cuando cambia el tamanio de alguna entidad
+ * (nuevo Surface o formacion de otro tamanio) o la calidad (setCalidad).
+ * Los sprites se identifican con los numeros de Renderer; el backend Canvas
+ * dibuja desde aqui y el de OpenGL ES sube el mismo Bitmap como textura.
+ */
+final class AtlasSprites {
+
+    private static final int NUM_SPRITES = Renderer.NUM_SPRITES;
+
+    // Separacion entre sprites dentro del atlas, para que no se contaminen al filtrar
+    private static final int MARGEN = 1;
+
+    private Bitmap atlas;
+    private final Rect[] origen = new Rect[NUM_SPRITES];
+    // Los detalles (antenas, canion) sobresalen por encima de la caja de colision
+    private final int[] sobresale = new int[NUM_SPRITES];
+    private final RectF destino = new RectF();
+
+    // --- Tamanios con los que se genero el atlas actual ---
+    private int tamEnemigo;
+    private int anchoJugador;
+    private int altoJugador;
+    private int numTipos;
+    private final int[] anchoTipo = new int[Entidades.MAX_TIPOS];
+    private final int[] altoTipo = new int[Entidades.MAX_TIPOS];
+
+    // Color de cada tipo de entidad: los disparos en amarillo y rojo, los demas de esta paleta
+    private static final int[] COLORES_OTROS_TIPOS = {Color.MAGENTA, Color.WHITE, 0xFFFF8800};
+
+    // --- Calidad (GobernadorCalidad) ---
+    private boolean suavizado = true;
+    private boolean antenas = true;
+
+    AtlasSprites() {
+        for (int i = 0; i < NUM_SPRITES; i++) {
+            origen[i] = new Rect();
+        }
+    }
+
+    /**
+     * Genera el atlas si los tamanios (en pixeles) han cambiado desde la
+     * ultima vez.
+     *
+     * @return true si se ha regenerado.
+     */
+    boolean preparar(int tamEnemigo, int anchoJugador, int altoJugador,
+                     int numTipos, int[] anchoTipo, int[] altoTipo) {
+        if (atlas != null && tamEnemigo == this.tamEnemigo && anchoJugador == this.anchoJugador
+                && altoJugador == this.altoJugador && mismosTipos(numTipos, anchoTipo, altoTipo)) {
+            return false;
+        }
+        this.tamEnemigo = tamEnemigo;
+        this.anchoJugador = anchoJugador;
+        this.altoJugador = altoJugador;
+        this.numTipos = numTipos;
+        System.arraycopy(anchoTipo, 0, this.anchoTipo, 0, numTipos);
+        System.arraycopy(altoTipo, 0, this.altoTipo, 0, numTipos);
+        liberar();
+
+        int antena = tamEnemigo / 4;
+        int canion = altoJugador / 4;
+
+        // Sprites en fila, de izquierda a derecha
+        int x = 0;
+        x = colocar(INVASOR, x, tamEnemigo, tamEnemigo + antena, antena);
+        x = colocar(NAVE, x, anchoJugador, altoJugador + canion, canion);
+        int alto = Math.max(tamEnemigo + antena, altoJugador + canion);
+        for (int t = 0; t < numTipos; t++) {
+            x = colocar(ENTIDAD + t, x, anchoTipo[t], altoTipo[t], 0);
+            alto = Math.max(alto, altoTipo[t]);
+        }
+
+        atlas = Bitmap.createBitmap(Math.max(1, x), Math.max(1, alto), Bitmap.Config.ARGB_8888);
+        Canvas c = new Canvas(atlas);
+        Paint p = new Paint();
+        p.setAntiAlias(suavizado);
+
+        // Invasor: cuerpo verde y dos antenas amarillas (decorativas)
+        Rect o = origen[INVASOR];
+        int ecx = o.left + tamEnemigo / 2;
+        p.setColor(Color.GREEN);
+        c.drawRect(o.left, o.top + antena, o.left + tamEnemigo, o.bottom, p);
+        if (antenas) {
+            p.setColor(Color.YELLOW);
+            c.drawRect(ecx - tamEnemigo / 3, o.top, ecx - tamEnemigo / 6, o.top + antena, p);
+            c.drawRect(ecx + tamEnemigo / 6, o.top, ecx + tamEnemigo / 3, o.top + antena, p);
+        }
+
+        // Nave: cuerpo cian y canion blanco
+        o = origen[NAVE];
+        float cx = o.left + anchoJugador / 2f;
+        p.setColor(Color.CYAN);
+        c.drawRect(o.left, o.top + canion, o.left + anchoJugador, o.bottom, p);
+        p.setColor(Color.WHITE);
+        c.drawRect(cx - anchoJugador / 10, o.top, cx + anchoJugador / 10, o.top + canion, p);
+
+        // Disparos y demas tipos de entidad
+        for (int t = 0; t < numTipos; t++) {
+            int sprite = ENTIDAD + t;
+            p.setColor(sprite == DISPARO_JUGADOR ? Color.YELLOW
+                    : sprite == DISPARO_ENEMIGO ? Color.RED
+                    : COLORES_OTROS_TIPOS[t % COLORES_OTROS_TIPOS.length]);
+            c.drawRect(origen[sprite], p);
+        }
+        return true;
+    }
+
+    private boolean mismosTipos(int numTipos, int[] anchoTipo, int[] altoTipo) {
+        if (numTipos != this.numTipos) return false;
+        for (int t = 0; t < numTipos; t++) {
+            if (anchoTipo[t] != this.anchoTipo[t] || altoTipo[t] != this.altoTipo[t]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Cambia el suavizado y las antenas de los invasores; el atlas se
+     * regenera en el siguiente preparar(). Las cajas no cambian: sin antenas
+     * su hueco queda transparente.
+     */
+    void setCalidad(boolean suavizado, boolean antenas) {
+        if (suavizado == this.suavizado && antenas == this.antenas) return;
+        this.suavizado = suavizado;
+        this.antenas = antenas;
+        liberar();
+    }
+
+    private int colocar(int sprite, int x, int ancho, int alto, int sobresaleArriba) {
+        origen[sprite].set(x, 0, x + ancho, alto);
+        sobresale[sprite] = sobresaleArriba;
+        return x + ancho + MARGEN;
+    }
+
+    /**
+     * Dibuja un sprite cuya caja de colision empieza en (x, y).
+     */
+    void dibujar(Canvas canvas, int sprite, float x, float y, Paint paint) {
+        Rect o = origen[sprite];
+        float arriba = y - sobresale[sprite];
+        destino.set(x, arriba, x + o.width(), arriba + o.height());
+        canvas.drawBitmap(atlas, o, destino, paint);
+    }
+
+    Bitmap getBitmap() {
+        return atlas;
+    }
+
+    Rect getOrigen(int sprite) {
+        return origen[sprite];
+    }
+
+    int getSobresale(int sprite) {
+        return sobresale[sprite];
+    }
+
+    void liberar() {
+        if (atlas != null) {
+            atlas.recycle();
+            atlas = null;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.spaceinvaders;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import com.example.spaceinvaders.simulacion.ResumenPerfil;
+
+/**
+ * CapasEstaticas: las partes de la pantalla que casi nunca cambian,
+ * rasterizadas en Bitmaps fuera de pantalla y compuestas en cada frame
+ * con un solo drawBitmap.
+ *
+ * - Fondo: negro + linea de instrucciones. Se genera al cambiar el tamanio
+ *   del Surface.
+ * - Marcador: el texto "Puntuacion: N". Se vuelve a rasterizar solo cuando
+ *   cambia la puntuacion, asi que no se construye ningun String por frame.
+ * - Pantalla de fin: se genera una vez al terminar la partida y se reutiliza
+ *   hasta que cambia su contenido (nueva partida con otro resultado).
+ * - Panel de perfil: percentiles por fase; se rasteriza una vez por ventana
+ *   del Perfilador, con un StringBuilder reutilizado.
+ */
+final class CapasEstaticas {
+
+    // --- Pinceles: solo se tocan al rasterizar una capa ---
+    private final Paint paintTexto;
+    private final Paint paintFin;
+
+    private int ancho;
+    private int alto;
+
+    // --- Fondo ---
+    private Bitmap fondo;
+
+    // --- Marcador ---
+    private Bitmap marcador;
+    private final Canvas canvasMarcador = new Canvas();
+    private int puntuacionMarcador = -1;
+    private float yMarcador;
+
+    // --- Pantalla de fin ---
+    private Bitmap pantallaFin;
+    private boolean finGano;
+    private int finPuntuacion = -1;
+    private int finRecord = -1;
+
+    // --- Panel de perfil ---
+    private static final int MARGEN_PERFIL = 8;
+    private Bitmap perfil;
+    private final Canvas canvasPerfil = new Canvas();
+    private final Paint paintPerfil;
+    private final StringBuilder linea = new StringBuilder(64);
+    private int perfilVersionSim = -1;
+    private int perfilVersionDibujo = -1;
+    private float altoLineaPerfil;
+
+    // --- Coste: veces que se ha rasterizado alguna capa ---
+    private int rasterizaciones;
+
+    private boolean suavizado = true;
+
+    CapasEstaticas() {
+        paintTexto = new Paint();
+        paintTexto.setColor(Color.WHITE);
+        paintTexto.setAntiAlias(true);
+        paintTexto.setTextAlign(Paint.Align.CENTER);
+
+        paintFin = new Paint();
+        paintFin.setAntiAlias(true);
+        paintFin.setTextAlign(Paint.Align.CENTER);
+
+        paintPerfil = new Paint();
+        paintPerfil.setColor(Color.GREEN);
+        paintPerfil.setAntiAlias(true);
+        paintPerfil.setTypeface(Typeface.MONOSPACE);
+    }
+
+    /**
+     * Ajusta las capas al tamanio del Surface. Solo regenera si ha cambiado.
+     *
+     * @return true si se han regenerado.
+     */
+    boolean preparar(int ancho, int alto) {
+        if (fondo != null && ancho == this.ancho && alto == this.alto) return false;
+        liberar();
+        this.ancho = ancho;
+        this.alto = alto;
+
+        // Fondo opaco: RGB_565 ocupa la mitad y se compone sin mezcla
+        fondo = Bitmap.createBitmap(ancho, alto, Bitmap.Config.RGB_565);
+        Canvas c = new Canvas(fondo);
+        c.drawColor(Color.BLACK);
+        paintTexto.setTextSize(alto / 45f);
+        c.drawText("Arrastra para mover | Toca para disparar", ancho / 2f, alto - alto / 30f, paintTexto);
+
+        // Marcador: una franja del ancho de la pantalla y la altura del texto
+        paintTexto.setTextSize(alto / 28f);
+        float ascenso = paintTexto.ascent();
+        int altoMarcador = (int) Math.ceil(paintTexto.descent() - ascenso);
+        marcador = Bitmap.createBitmap(ancho, Math.max(1, altoMarcador), Bitmap.Config.ARGB_8888);
+        canvasMarcador.setBitmap(marcador);
+        yMarcador = alto / 20f + ascenso;
+        puntuacionMarcador = -1;
+        rasterizaciones++;
+        return true;
+    }
+
+    /**
+     * Activa o quita el suavizado de los textos (GobernadorCalidad). Las
+     * capas se vuelven a rasterizar cuando se pidan.
+     */
+    void setSuavizado(boolean suavizado) {
+        if (suavizado == this.suavizado) return;
+        this.suavizado = suavizado;
+        paintTexto.setAntiAlias(suavizado);
+        paintFin.setAntiAlias(suavizado);
+        paintPerfil.setAntiAlias(suavizado);
+        liberar();
+    }
+
+    /** Fondo opaco con las instrucciones, del tamanio del Surface. */
+    Bitmap getFondo() {
+        return fondo;
+    }
+
+    /** Compone el fondo con las instrucciones; sustituye al drawColor del frame. */
+    void dibujarFondo(Canvas canvas) {
+        canvas.drawBitmap(fondo, 0, 0, null);
+    }
+
+    /** Devuelve el marcador, rasterizandolo antes si la puntuacion ha cambiado. */
+    Bitmap actualizarMarcador(int puntuacion) {
+        if (puntuacion != puntuacionMarcador) {
+            puntuacionMarcador = puntuacion;
+            marcador.eraseColor(Color.TRANSPARENT);
+            canvasMarcador.drawText("Puntuacion: " + puntuacion, ancho / 2f, -paintTexto.ascent(), paintTexto);
+            rasterizaciones++;
+        }
+        return marcador;
+    }
+
+    /** Coordenada Y de la esquina superior del marcador en pantalla. */
+    float getYMarcador() {
+        return yMarcador;
+    }
+
+    void dibujarPuntuacion(Canvas canvas, int puntuacion) {
+        canvas.drawBitmap(actualizarMarcador(puntuacion), 0, yMarcador, null);
+    }
+
+    /**
+     * Devuelve la pantalla de fin de partida (game over o victoria). Se
+     * rasteriza la primera vez y se reutiliza mientras no cambie el resultado.
+     */
+    Bitmap actualizarPantallaFin(boolean gano, int puntuacion, int record) {
+        if (pantallaFin == null || gano != finGano || puntuacion != finPuntuacion || record != finRecord) {
+            if (pantallaFin == null) {
+                pantallaFin = Bitmap.createBitmap(ancho, alto, Bitmap.Config.RGB_565);
+            }
+            finGano = gano;
+            finPuntuacion = puntuacion;
+            finRecord = record;
+            rasterizarPantallaFin(new Canvas(pantallaFin), gano, puntuacion, record);
+            rasterizaciones++;
+        }
+        return pantallaFin;
+    }
+
+    void dibujarPantallaFin(Canvas canvas, boolean gano, int puntuacion, int record) {
+        canvas.drawBitmap(actualizarPantallaFin(gano, puntuacion, record), 0, 0, null);
+    }
+
+    private void rasterizarPantallaFin(Canvas c, boolean gano, int puntuacion, int record) {
+        c.drawColor(Color.BLACK);
+        paintFin.setTextSize(alto / 12f);
+        if (gano) {
+            paintFin.setColor(Color.GREEN);
+            c.drawText("VICTORIA", ancho / 2f, alto / 3f, paintFin);
+        } else {
+            paintFin.setColor(Color.RED);
+            c.drawText("GAME OVER", ancho / 2f, alto / 3f, paintFin);
+        }
+        paintFin.setColor(Color.WHITE);
+        paintFin.setTextSize(alto / 22f);
+        c.drawText("Puntuacion: " + puntuacion, ancho / 2f, alto / 2f, paintFin);
+        paintFin.setTextSize(alto / 30f);
+        if (record > 0) {
+            c.drawText(puntuacion >= record ? "Nuevo record" : "Record: " + record,
+                    ancho / 2f, alto * 7 / 12f, paintFin);
+        }
+        c.drawText("Toca para reiniciar", ancho / 2f, alto * 2 / 3f, paintFin);
+    }
+
+    /**
+     * Devuelve el panel de perfil, rasterizandolo antes si alguno de los dos
+     * resumenes ha cerrado una ventana nueva. Una linea por fase con
+     * p50/p95/p99/max en microsegundos y una con los contadores.
+     */
+    Bitmap actualizarPerfil(ResumenPerfil simulacion, ResumenPerfil dibujo) {
+        if (perfil == null) {
+            paintPerfil.setTextSize(alto / 70f);
+            altoLineaPerfil = paintPerfil.descent() - paintPerfil.ascent();
+            int lineas = 2 + simulacion.getNumFases() + dibujo.getNumFases() + 1;
+            perfil = Bitmap.createBitmap(ancho, (int) Math.ceil(lineas * altoLineaPerfil) + 2 * MARGEN_PERFIL,
+                    Bitmap.Config.ARGB_8888);
+            canvasPerfil.setBitmap(perfil);
+            perfilVersionSim = -1;
+        }
+        if (simulacion.getVersion() != perfilVersionSim || dibujo.getVersion() != perfilVersionDibujo) {
+            perfilVersionSim = simulacion.getVersion();
+            perfilVersionDibujo = dibujo.getVersion();
+            perfil.eraseColor(0xA0000000); // negro translucido
+            float y = MARGEN_PERFIL - paintPerfil.ascent();
+            linea.setLength(0);
+            linea.append("us       p50    p95    p99    max");
+            y = escribirLinea(y);
+            y = escribirFases(simulacion, y);
+            y = escribirFases(dibujo, y);
+            linea.setLength(0);
+            escribirContadores(simulacion);
+            escribirContadores(dibujo);
+            escribirLinea(y);
+            rasterizaciones++;
+        }
+        return perfil;
+    }
+
+    private float escribirFases(ResumenPerfil r, float y) {
+        for (int f = 0; f < r.getNumFases(); f++) {
+            linea.setLength(0);
+            linea.append(r.getNombreFase(f));
+            columna(r.getP50(f), 12);
+            columna(r.getP95(f), 19);
+            columna(r.getP99(f), 26);
+            columna(r.getMaximo(f), 33);
+            y = escribirLinea(y);
+        }
+        return y;
+    }
+
+    /** Anade nanos en microsegundos, alineados para terminar en la columna fin. */
+    private void columna(long nanos, int fin) {
+        long micros = nanos / 1000;
+        int digitos = 1;
+        for (long v = micros; v >= 10; v /= 10) {
+            digitos++;
+        }
+        do {
+            linea.append(' ');
+        } while (linea.length() + digitos < fin);
+        linea.append(micros);
+    }
+
+    private void escribirContadores(ResumenPerfil r) {
+        for (int c = 0; c < r.getNumContadores(); c++) {
+            linea.append(r.getNombreContador(c)).append(' ').append(r.getContador(c)).append("  ");
+        }
+    }
+
+    private float escribirLinea(float y) {
+        canvasPerfil.drawText(linea, 0, linea.length(), MARGEN_PERFIL, y, paintPerfil);
+        return y + altoLineaPerfil;
+    }
+
+    /** Coordenada Y del panel de perfil: justo debajo del marcador. */
+    float getYPerfil() {
+        return yMarcador + marcador.getHeight();
+    }
+
+    void dibujarPerfil(Canvas canvas, ResumenPerfil simulacion, ResumenPerfil dibujo) {
+        canvas.drawBitmap(actualizarPerfil(simulacion, dibujo), 0, getYPerfil(), null);
+    }
+
+    /** Numero total de veces que se ha rasterizado una capa (para medir la cache). */
+    int getRasterizaciones() {
+        return rasterizaciones;
+    }
+
+    void liberar() {
+        if (fondo != null) {
+            fondo.recycle();
+            fondo = null;
+        }
+        if (marcador != null) {
+            canvasMarcador.setBitmap(null);
+            marcador.recycle();
+            marcador = null;
+        }
+        if (pantallaFin != null) {
+            pantallaFin.recycle();
+            pantallaFin = null;
+        }
+        if (perfil != null) {
+            canvasPerfil.setBitmap(null);
+            perfil.recycle();
+            perfil = null;
+        }
+    }
+}
@@ -1,370 +1,459 @@
 package com.example.spaceinvaders;
 
 import android.content.Context;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Rect;
+import android.os.Build;
+import android.os.PowerManager;
+import android.util.Log;
+import android.view.Display;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.example.spaceinvaders.simulacion.AlmacenPartidas;
+import com.example.spaceinvaders.simulacion.BufferTriple;
+import com.example.spaceinvaders.simulacion.CicloJuego;
+import com.example.spaceinvaders.simulacion.ColaEntrada;
+import com.example.spaceinvaders.simulacion.EntradaTactil;
+import com.example.spaceinvaders.simulacion.Escena;
+import com.example.spaceinvaders.simulacion.GeneradorOleadas;
+import com.example.spaceinvaders.simulacion.GobernadorCalidad;
+import com.example.spaceinvaders.simulacion.GrabadorRepeticion;
+import com.example.spaceinvaders.simulacion.HiloSimulacion;
+import com.example.spaceinvaders.simulacion.Instantanea;
+import com.example.spaceinvaders.simulacion.LatenciaEntrada;
+import com.example.spaceinvaders.simulacion.PartidaGuardada;
+import com.example.spaceinvaders.simulacion.Perfilador;
+import com.example.spaceinvaders.simulacion.Renderer;
+import com.example.spaceinvaders.simulacion.Simulacion;
+import com.example.spaceinvaders.simulacion.TablaRecords;
 
 /**
  * GameView: clase principal del juego.
  * Extiende SurfaceView e implementa Runnable para ejecutar el bucle
- * de juego en un hilo secundario, separado del hilo principal de la UI.
+ * de dibujo en un hilo secundario, separado del hilo principal de la UI.
+ * La fisica corre en un tercer hilo (HiloSimulacion) y le pasa el estado
+ * mediante instantaneas en un BufferTriple, sin cerrojos. Los dos hilos
+ * salen de un unico ejecutor propio y solo corren con la Activity en primer
+ * plano y Surface valido; en pausa o con la partida terminada aparcan en el
+ * CicloJuego hasta que llega un toque.
  * Implementa SurfaceHolder.Callback para responder a los eventos del Surface.
  */
 public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Callback {
 
-    // --- Hilo del juego ---
-    private Thread gameThread;
-    private boolean corriendo;
+    // --- Backends de dibujo seleccionables en tiempo de ejecucion ---
+    public static final int RENDER_SOFTWARE = 0;
+    public static final int RENDER_HARDWARE = 1;
+    public static final int RENDER_GLES = 2;
+
+    // --- Hilos del juego: un ejecutor con dos hilos, dibujo (run) y simulacion.
+    //     Las tareas las entrega y las espera solo el hilo de la UI ---
+    private final ExecutorService hilos;
+    private Future<?> tareaDibujo;
+    private Future<?> tareaSimulacion;
+    private volatile boolean corriendo;
+
+    // --- Estado del juego y reposo: en pausa o en la pantalla de fin no hay
+    //     ticks ni frames hasta que llega un toque o cambia el estado ---
+    private final CicloJuego ciclo = new CicloJuego();
+    private final Runnable redibujar = ciclo::despertar;
+    private boolean finDibujado; // hilo de dibujo
+    private int recordDibujado; // hilo de dibujo
 
     // --- Surface ---
     private final SurfaceHolder holder;
 
     // --- Herramientas de dibujo ---
-    private final Paint paint;
-
-    // --- Dimensiones de la pantalla ---
-    private int anchoP;
-    private int altoP;
-
-    // --- Entidades del juego ---
-    private Jugador jugador;
-    private List<Enemigo> enemigos;
-    private List<Disparo> disparosJugador;
-    private List<Disparo> disparosEnemigos;
-
-    // --- Temporizadores ---
-    private long tiempoUltimoDisparoEnemigo;
-    private static final long INTERVALO_DISPARO_ENEMIGO = 1200; // ms
-
-    // --- Estado del juego ---
-    private boolean gameOver;
-    private boolean victoria;
-    private int puntuacion;
-
-    // --- Control tactil ---
-    private float touchX;
-
-    // --- Temporizador de movimiento de enemigos ---
-    private long tiempoUltimoMovimientoEnemigos;
-    private static final long INTERVALO_MOVIMIENTO_ENEMIGOS = 600; // ms
-    private int direccionEnemigos = 1; // 1 = derecha, -1 = izquierda
-
-    // --- Fuente de texto ---
-    private final Paint paintTexto;
-    private final Paint paintGame;
+    // Sprites pre-rasterizados y capas cacheadas, compartidos por todos los backends
+    private final AtlasSprites atlas = new AtlasSprites();
+    private final CapasEstaticas capas = new CapasEstaticas();
+    private final Escena escena = new Escena();
+
+    // El backend solo se cambia desde el hilo del juego, entre frames
+    private volatile int rendererPedido;
+    private int rendererActivo = -1;
+    private Renderer renderer;
+
+    // --- Coste del ultimo frame dibujado ---
+    private int llamadasDibujo;
+
+    // Latencia de la entrada medida en el hilo de dibujo, al presentar cada frame
+    private final LatenciaEntrada latencia = new LatenciaEntrada();
+    // Su media, para que el hilo de la UI adelante la prediccion del toque
+    private volatile long latenciaMediaNanos;
+
+    // --- Calidad adaptativa: la decide el gobernador, la aplica el hilo de dibujo ---
+    private final GobernadorCalidad gobernador = new GobernadorCalidad();
+    private int calidadAplicada = -1;
+    private long vsyncs;
+    private PowerManager.OnThermalStatusChangedListener oyenteTermico; // hilo de la UI
+
+    // --- Perfil: panel superpuesto que se muestra/oculta con un toque de tres dedos ---
+    private static final int DEDOS_PANEL_PERFIL = 3;
+    private volatile boolean perfilVisible;
+
+    // --- Dimensiones de la pantalla (las escribe el hilo de la UI) ---
+    private volatile int anchoP;
+    private volatile int altoP;
+
+    // --- Logica del juego (modulo :simulacion, independiente de Android) ---
+    private final Simulacion simulacion;
+    // Dedos de la pantalla a eventos de la cola de entrada (hilo de la UI)
+    private final EntradaTactil tactil;
+    // Graba la entrada de la partida en curso para reproducirla en el escritorio
+    private final GrabadorRepeticion grabador = new GrabadorRepeticion();
+    private GeneradorOleadas oleadas = GeneradorOleadas.campania();
+    private boolean oleadasElegidas;
+
+    // --- Persistencia: partida en curso, records y repeticion, en el hilo del almacen ---
+    private static final String TAG = "SpaceInvaders";
+    private final AlmacenPartidas almacen;
+    private boolean partidaPreparada; // hilo de la UI
+    private int partidasAnotadas; // hilo de dibujo
+
+    // --- Paso fijo: la fisica avanza a la frecuencia de la partida en su propio
+    //     hilo (30 Hz con el ahorro de energia; el dibujo interpola igual) ---
+    private static final int MAX_TICKS_POR_FRAME = 5;
+    private static final int FRECUENCIA_AHORRO = 30;
+    private int frecuenciaPedida; // 0 = segun el ahorro de energia
+    private final BufferTriple instantaneas = new BufferTriple();
+    private final HiloSimulacion hiloSimulacion;
+
+    // --- Ritmo de frames: un frame por vsync ---
+    private final MarcapasosChoreographer marcapasos;
 
     public GameView(Context context) {
         super(context);
         holder = getHolder();
         holder.addCallback(this);
 
-        paint = new Paint();
-        paint.setAntiAlias(true);
-
-        paintTexto = new Paint();
-        paintTexto.setColor(Color.WHITE);
-        paintTexto.setAntiAlias(true);
-        paintTexto.setTextAlign(Paint.Align.CENTER);
-
-        paintGame = new Paint();
-        paintGame.setColor(Color.RED);
-        paintGame.setAntiAlias(true);
-        paintGame.setTextAlign(Paint.Align.CENTER);
-
+        rendererPedido = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O ? RENDER_HARDWARE : RENDER_SOFTWARE;
+
+        almacen = new AlmacenPartidas(context.getFilesDir());
+        simulacion = new Simulacion();
+        simulacion.setGrabador(grabador);
+        tactil = new EntradaTactil(simulacion.getEntrada());
+        simulacion.getPerfilador().setTrazador(TrazadorAndroid.INSTANCIA);
+        escena.getPerfilador().setTrazador(TrazadorAndroid.INSTANCIA);
+        hiloSimulacion = new HiloSimulacion(simulacion, instantaneas, MAX_TICKS_POR_FRAME, ciclo);
+        marcapasos = new MarcapasosChoreographer(Simulacion.TICKS_POR_SEGUNDO);
+        hilos = Executors.newFixedThreadPool(2, tarea -> {
+            Thread t = new Thread(tarea, "juego");
+            t.setDaemon(true);
+            return t;
+        });
         corriendo = false;
-        gameOver = false;
-        victoria = false;
-        puntuacion = 0;
-        touchX = -1;
-        tiempoUltimoDisparoEnemigo = System.currentTimeMillis();
-        tiempoUltimoMovimientoEnemigos = System.currentTimeMillis();
     }
 
     /**
      * Inicializa todas las entidades del juego usando las dimensiones reales del Surface.
+     * Cada partida tiene su propia semilla, que queda guardada en la repeticion.
      */
     private void inicializarJuego() {
-        int tamJugador = anchoP / 12;
-        jugador = new Jugador(anchoP / 2 - tamJugador / 2,
-                altoP - tamJugador * 2,
-                tamJugador, tamJugador * 2);
-
-        disparosJugador = new ArrayList<>();
-        disparosEnemigos = new ArrayList<>();
-        enemigos = new ArrayList<>();
-
-        // Crear una cuadricula de enemigos (4 filas x 7 columnas)
-        int cols = 7;
-        int filas = 4;
-        int tamEnemigo = anchoP / (cols + 4);
-        int espacioH = tamEnemigo + tamEnemigo / 3;
-        int espacioV = tamEnemigo + tamEnemigo / 4;
-        int offsetX = (anchoP - (cols * espacioH)) / 2;
-        int offsetY = (int) (altoP * 0.08f);
-
-        for (int fila = 0; fila < filas; fila++) {
-            for (int col = 0; col < cols; col++) {
-                int ex = offsetX + col * espacioH;
-                int ey = offsetY + fila * espacioV;
-                enemigos.add(new Enemigo(ex, ey, tamEnemigo, tamEnemigo));
-            }
-        }
-
-        gameOver = false;
-        victoria = false;
-        puntuacion = 0;
-        tiempoUltimoDisparoEnemigo = System.currentTimeMillis();
-        tiempoUltimoMovimientoEnemigos = System.currentTimeMillis();
+        simulacion.setFrecuencia(elegirFrecuencia());
+        simulacion.inicializar(anchoP, altoP, oleadas, System.nanoTime());
     }
 
-    // =====================================================================
-    // GAME LOOP: nucleo del juego
-    // Este bucle se ejecuta en un hilo separado. En cada iteracion:
-    //   1. Actualiza la logica (fisica, colisiones, IA).
-    //   2. Dibuja el estado actual en el canvas.
-    //   3. Limita la velocidad a aproximadamente 60 FPS.
-    // =====================================================================
-    @Override
-    public void run() {
-        final long FPS_OBJETIVO = 60;
-        final long MS_POR_FRAME = 1000 / FPS_OBJETIVO;
-
-        while (corriendo) {
-            if (!holder.getSurface().isValid()) continue;
-
-            long inicioFrame = System.currentTimeMillis();
+    /**
+     * Ticks por segundo de una partida nueva: los pedidos o, si no, 30 con el
+     * ahorro de energia activado y 60 sin el. Una partida guardada conserva
+     * los suyos.
+     */
+    private int elegirFrecuencia() {
+        if (frecuenciaPedida > 0) return frecuenciaPedida;
+        PowerManager energia = (PowerManager) getContext().getSystemService(Context.POWER_SERVICE);
+        if (energia != null && energia.isPowerSaveMode()) return FRECUENCIA_AHORRO;
+        return Simulacion.TICKS_POR_SEGUNDO;
+    }
 
-            Canvas canvas = holder.lockCanvas();
+    /**
+     * Continua la partida guardada en la ultima pausa, si la hay y es valida
+     * (se copia el estado, no se vuelve a simular: unos milisegundos); si
+     * no, empieza una nueva. Si se guardo con otra proporcion de pantalla, el
+     * cambio se aplica en el primer tick como un giro; con otra resolucion y
+     * la misma proporcion el mundo es identico.
+     */
+    private void prepararPartida() {
+        if (!oleadasElegidas) {
             try {
-                synchronized (holder) {
-                    if (!gameOver && !victoria) {
-                        actualizarFisica();
+                byte[] guardada = almacen.leer(AlmacenPartidas.FICHERO_PARTIDA);
+                if (guardada != null) {
+                    PartidaGuardada.restaurar(guardada, simulacion);
+                    if (simulacion.getAlto() != Simulacion.altoMundo(anchoP, altoP)) {
+                        publicarTamanio(anchoP, altoP);
                     }
-                    dibujar(canvas);
-                }
-            } finally {
-                if (canvas != null) {
-                    holder.unlockCanvasAndPost(canvas);
-                }
-            }
-
-            // Control de velocidad de frames
-            long tiempoFrame = System.currentTimeMillis() - inicioFrame;
-            if (tiempoFrame < MS_POR_FRAME) {
-                try {
-                    Thread.sleep(MS_POR_FRAME - tiempoFrame);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+                    return;
                 }
+            } catch (IOException | IllegalArgumentException e) {
+                Log.w(TAG, "No se pudo continuar la partida guardada", e);
             }
         }
+        inicializarJuego();
     }
 
     /**
-     * Actualiza la logica del juego: posiciones, disparos y deteccion de colisiones.
+     * Elige la secuencia de oleadas (por defecto la campania) y descarta la
+     * partida guardada. Debe llamarse antes de que se cree el Surface.
      */
-    private void actualizarFisica() {
-        // Mover jugador hacia la posicion tactil
-        if (touchX >= 0) {
-            jugador.moverHacia(touchX, anchoP);
-        }
+    public void setOleadas(GeneradorOleadas oleadas) {
+        this.oleadas = oleadas;
+        oleadasElegidas = true;
+    }
 
-        // Mover disparos del jugador
-        Iterator<Disparo> itDJ = disparosJugador.iterator();
-        while (itDJ.hasNext()) {
-            Disparo d = itDJ.next();
-            d.actualizar();
-            if (d.fueraDePantalla()) {
-                itDJ.remove();
-            }
+    /**
+     * Fija los ticks por segundo de las partidas nuevas (0 = automatico).
+     * Debe llamarse antes de que se cree el Surface.
+     *
+     * @throws IllegalArgumentException si esta fuera del rango de la Simulacion.
+     */
+    public void setFrecuencia(int ticksPorSegundo) {
+        if (ticksPorSegundo != 0 && (ticksPorSegundo < Simulacion.FRECUENCIA_MINIMA
+                || ticksPorSegundo > Simulacion.FRECUENCIA_MAXIMA)) {
+            throw new IllegalArgumentException("Frecuencia fuera de rango: " + ticksPorSegundo);
         }
+        frecuenciaPedida = ticksPorSegundo;
+    }
 
-        // Mover disparos de enemigos
-        Iterator<Disparo> itDE = disparosEnemigos.iterator();
-        while (itDE.hasNext()) {
-            Disparo d = itDE.next();
-            d.actualizar();
-            if (d.fueraDePantalla()) {
-                itDE.remove();
-            }
+    /**
+     * Guarda la partida en curso y su repeticion (la grabacion continua).
+     * Una partida ya terminada no se guarda: se borra la anterior, para que
+     * el siguiente arranque empiece una nueva en vez de la pantalla de fin.
+     * Solo con el juego en pausa, cuando el hilo de simulacion esta parado:
+     * aqui solo se copia el estado; el disco lo escribe el hilo del almacen.
+     */
+    public void guardarPartida() {
+        IOException error = almacen.tomarUltimoError();
+        if (error != null) {
+            Log.w(TAG, "Fallo una escritura anterior", error);
         }
-
-        // Mover enemigos en bloque cada cierto tiempo
-        long ahora = System.currentTimeMillis();
-        if (ahora - tiempoUltimoMovimientoEnemigos > INTERVALO_MOVIMIENTO_ENEMIGOS) {
-            tiempoUltimoMovimientoEnemigos = ahora;
-            moverBloqueEnemigos();
+        if (!partidaPreparada) return;
+        if (simulacion.terminada()) {
+            almacen.borrar(AlmacenPartidas.FICHERO_PARTIDA);
+        } else {
+            almacen.escribir(AlmacenPartidas.FICHERO_PARTIDA, PartidaGuardada.serializar(simulacion));
         }
+        almacen.escribir(AlmacenPartidas.FICHERO_REPETICION, grabador.toByteArray(simulacion.getTicks()));
+    }
 
-        // Disparos aleatorios de enemigos
-        if (ahora - tiempoUltimoDisparoEnemigo > INTERVALO_DISPARO_ENEMIGO && !enemigos.isEmpty()) {
-            tiempoUltimoDisparoEnemigo = ahora;
-            int indice = (int) (Math.random() * enemigos.size());
-            Enemigo tirador = enemigos.get(indice);
-            int cx = tirador.getBounds().centerX();
-            int cy = tirador.getBounds().bottom;
-            disparosEnemigos.add(new Disparo(cx, cy, altoP / 100 * 2, altoP, false));
-        }
+    /** Mejores puntuaciones guardadas (copia de solo lectura). */
+    public TablaRecords getRecords() {
+        return almacen.getRecords();
+    }
 
-        // Colision: disparos del jugador vs enemigos
-        Iterator<Disparo> itD = disparosJugador.iterator();
-        while (itD.hasNext()) {
-            Disparo d = itD.next();
-            Iterator<Enemigo> itE = enemigos.iterator();
-            while (itE.hasNext()) {
-                Enemigo e = itE.next();
-                // Deteccion de colision mediante Bounding Box (Rect.intersect)
-                if (Rect.intersects(d.getBounds(), e.getBounds())) {
-                    itD.remove();
-                    itE.remove();
-                    puntuacion += 10;
-                    break;
-                }
-            }
+    // =====================================================================
+    // GAME LOOP: nucleo del juego
+    // Este bucle se ejecuta en el hilo de dibujo. En cada iteracion:
+    //   1. Espera al siguiente vsync (Marcapasos). En pausa, o con la
+    //      pantalla de fin ya dibujada, deja de pedir vsyncs y aparca.
+    //   2. Toma la instantanea mas reciente que haya publicado el hilo de
+    //      simulacion (wait-free; si no hay nueva, repite la anterior).
+    //   3. Dibuja el estado interpolado al instante del vsync a traves del
+    //      Renderer activo. Mientras tanto la fisica sigue en su hilo.
+    //   4. Anota lo que ha costado el frame en el GobernadorCalidad, que
+    //      baja o sube la calidad (y a la vez salta vsyncs) segun la carga.
+    // =====================================================================
+    @Override
+    public void run() {
+        Thread.currentThread().setName("dibujo");
+        // Cada reanudacion parte de la calidad completa; el termico se conserva
+        gobernador.reiniciar();
+        finDibujado = false;
+        try {
+            bucleJuego();
+        } finally {
+            // Por si se reanudo tras aparcar mientras la UI lo detenia
+            marcapasos.detener();
+            // Los recursos del backend (p. ej. el contexto EGL) son de este hilo
+            liberarRenderer();
         }
+    }
 
-        // Colision: disparos enemigos vs jugador
-        Iterator<Disparo> itDE2 = disparosEnemigos.iterator();
-        while (itDE2.hasNext()) {
-            Disparo d = itDE2.next();
-            if (Rect.intersects(d.getBounds(), jugador.getBounds())) {
-                gameOver = true;
-                return;
+    private void bucleJuego() {
+        while (corriendo) {
+            long instanteFrame;
+            try {
+                if (aparcar()) continue;
+                instanteFrame = marcapasos.esperarFrame();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             }
-        }
+            if (!corriendo) break;
+            if (gobernador.actualizarNivel()) {
+                anotarCalidad();
+            }
+            // A media frecuencia se salta un vsync de cada dos; los ticks no cambian
+            if (++vsyncs % gobernador.getDivisorFrames() != 0) continue;
 
-        // Colision: enemigos llegan al jugador (invasion completada)
-        for (Enemigo e : enemigos) {
-            if (e.getBounds().bottom >= jugador.getBounds().top) {
-                gameOver = true;
-                return;
+            if (instantaneas.tomar()) {
+                // Primera vez que se dibuja esta instantanea: su entrada llega a pantalla
+                instantaneas.getLectura().getEntrada().traspasarPendientes(latencia);
             }
-        }
+            Instantanea inst = instantaneas.getLectura();
+            if (!inst.esValida()) continue;
+
+            // Partida recien terminada: a la tabla de records en el hilo del almacen,
+            // y fuera la guardada, que ya no se puede continuar
+            if (inst.getPartidasTerminadas() != partidasAnotadas) {
+                partidasAnotadas = inst.getPartidasTerminadas();
+                almacen.borrar(AlmacenPartidas.FICHERO_PARTIDA);
+                // Si bate el record, la pantalla de fin (quiza ya en reposo) se redibuja
+                almacen.anotarPartida(inst.getPuntuacionFinal(), inst.getOleadaFinal(),
+                        System.currentTimeMillis(), redibujar);
+            }
+            int record = almacen.getMejorPuntuacion();
+            escena.setRecord(record);
 
-        // Victoria
-        if (enemigos.isEmpty()) {
-            victoria = true;
+            if (rendererPedido != rendererActivo) {
+                cambiarRenderer(rendererPedido);
+            }
+            if (gobernador.getNivel() != calidadAplicada) {
+                aplicarCalidad();
+            }
+            Perfilador perfil = escena.getPerfilador();
+            long inicioFrame = System.nanoTime();
+            perfil.comenzar(Escena.FASE_FRAME);
+            boolean frameAbierto = renderer.comenzarFrame(anchoP, altoP);
+            if (!frameAbierto && renderer instanceof RendererGles && ((RendererGles) renderer).haFallado()) {
+                // Sin OpenGL ES 3.0: se vuelve al Canvas para el resto de la sesion
+                rendererPedido = RENDER_HARDWARE;
+            }
+            if (!frameAbierto) {
+                perfil.terminar(Escena.FASE_FRAME);
+                finDibujado = false;
+                continue;
+            }
+            try {
+                escena.setPantalla(anchoP, altoP);
+                float alfa = inst.alfa(instanteFrame, hiloSimulacion.getNanosPorTick());
+                llamadasDibujo = escena.dibujar(inst, alfa, renderer);
+                perfil.contar(Escena.CONTADOR_CALIDAD, calidadAplicada);
+                if (perfilVisible) {
+                    renderer.dibujarPerfil(inst.getPerfil(), perfil.getResumen());
+                    llamadasDibujo++;
+                }
+            } finally {
+                renderer.terminarFrame();
+                finDibujado = inst.terminada();
+                recordDibujado = record;
+                perfil.terminar(Escena.FASE_FRAME);
+                long presentado = System.nanoTime();
+                latencia.presentado(presentado);
+                latenciaMediaNanos = latencia.getMediaNanos();
+                if (gobernador.registrarFrame(presentado - inicioFrame, marcapasos.getPeriodoNanos())) {
+                    anotarCalidad();
+                }
+            }
         }
     }
 
     /**
-     * Mueve todos los enemigos a la derecha o izquierda en bloque.
-     * Cuando alguno toca el borde de la pantalla, el bloque baja y cambia de direccion.
+     * Reposo del dibujo: con el juego pausado, o con la pantalla de fin ya en
+     * pantalla y nada nuevo que mostrar, deja de pedir vsyncs y espera en el
+     * CicloJuego. Lo despiertan un toque, un cambio de estado, una
+     * instantanea nueva o el record recien guardado.
+     *
+     * @return true si ha estado aparcado (hay que volver a mirar el estado).
      */
-    private void moverBloqueEnemigos() {
-        int paso = anchoP / 30;
-        boolean bajar = false;
-
-        for (Enemigo e : enemigos) {
-            int nuevaX = e.getBounds().left + (paso * direccionEnemigos);
-            if (nuevaX <= 0 || nuevaX + e.getBounds().width() >= anchoP) {
-                bajar = true;
-                break;
-            }
-        }
-
-        if (bajar) {
-            direccionEnemigos *= -1;
-            int bajada = altoP / 25;
-            for (Enemigo e : enemigos) {
-                e.mover(0, bajada);
-            }
-        } else {
-            for (Enemigo e : enemigos) {
-                e.mover(paso * direccionEnemigos, 0);
-            }
-        }
+    private boolean aparcar() throws InterruptedException {
+        long version = ciclo.getVersion();
+        int estado = ciclo.getEstado();
+        boolean reposo = estado == CicloJuego.PAUSADO
+                || (estado == CicloJuego.TERMINADO && finDibujado && !instantaneas.hayNueva()
+                        && recordDibujado == almacen.getMejorPuntuacion());
+        if (!reposo || !corriendo) return false;
+        marcapasos.detener();
+        ciclo.esperarCambio(version);
+        marcapasos.iniciar();
+        return true;
     }
 
     /**
-     * Dibuja todos los elementos del juego sobre el canvas.
+     * Lleva el nivel del gobernador al atlas y a las capas, que se vuelven a
+     * rasterizar una vez en el siguiente frame. La frecuencia se aplica sola
+     * en el bucle (getDivisorFrames).
      */
-    private void dibujar(Canvas canvas) {
-        // Fondo negro (espacio)
-        canvas.drawColor(Color.BLACK);
+    private void aplicarCalidad() {
+        atlas.setCalidad(gobernador.conSuavizado(), gobernador.conAntenas());
+        capas.setSuavizado(gobernador.conSuavizado());
+        calidadAplicada = gobernador.getNivel();
+    }
 
-        if (gameOver) {
-            dibujarPantallaFin(canvas, false);
-            return;
-        }
-        if (victoria) {
-            dibujarPantallaFin(canvas, true);
-            return;
-        }
+    /** Deja constancia de un cambio de nivel en el log y en el trazado del sistema. */
+    private void anotarCalidad() {
+        int nivel = gobernador.getNivel();
+        Log.i(TAG, "Calidad: " + GobernadorCalidad.NIVELES[nivel]
+                + " (" + GobernadorCalidad.MOTIVOS[gobernador.getMotivo()]
+                + ", termico " + gobernador.getEstadoTermico() + ")");
+        TrazadorAndroid.INSTANCIA.contador("calidad", nivel);
+    }
 
-        // Dibujar jugador (nave)
-        paint.setColor(Color.CYAN);
-        canvas.drawRect(jugador.getBounds(), paint);
-
-        // Detalle visual: "canion" de la nave
-        Rect b = jugador.getBounds();
-        paint.setColor(Color.WHITE);
-        int cx = b.centerX();
-        canvas.drawRect(cx - b.width() / 10, b.top - b.height() / 4,
-                cx + b.width() / 10, b.top, paint);
-
-        // Dibujar enemigos
-        paint.setColor(Color.GREEN);
-        for (Enemigo e : enemigos) {
-            canvas.drawRect(e.getBounds(), paint);
-            // Detalle visual: "antenas"
-            Rect eb = e.getBounds();
-            int ecx = eb.centerX();
-            paint.setColor(Color.YELLOW);
-            canvas.drawRect(ecx - eb.width() / 3, eb.top - eb.height() / 4,
-                    ecx - eb.width() / 6, eb.top, paint);
-            canvas.drawRect(ecx + eb.width() / 6, eb.top - eb.height() / 4,
-                    ecx + eb.width() / 3, eb.top, paint);
-            paint.setColor(Color.GREEN);
+    private void cambiarRenderer(int tipo) {
+        liberarRenderer();
+        if (tipo == RENDER_GLES) {
+            renderer = new RendererGles(holder, atlas, capas);
+        } else {
+            renderer = new RendererCanvas(holder, atlas, capas, tipo == RENDER_HARDWARE);
         }
+        rendererActivo = tipo;
+    }
 
-        // Dibujar disparos del jugador
-        paint.setColor(Color.YELLOW);
-        for (Disparo d : disparosJugador) {
-            canvas.drawRect(d.getBounds(), paint);
+    private void liberarRenderer() {
+        if (renderer != null) {
+            renderer.liberar();
+            renderer = null;
         }
+        rendererActivo = -1;
+        // Con el backend liberado ya nadie usa el atlas ni las capas; se regeneran en el proximo frame
+        atlas.liberar();
+        capas.liberar();
+    }
 
-        // Dibujar disparos de enemigos
-        paint.setColor(Color.RED);
-        for (Disparo d : disparosEnemigos) {
-            canvas.drawRect(d.getBounds(), paint);
-        }
+    /**
+     * Elige el backend de dibujo (RENDER_SOFTWARE, RENDER_HARDWARE o RENDER_GLES).
+     * Se aplica en el siguiente frame; puede llamarse desde cualquier hilo.
+     */
+    public void setRenderer(int tipo) {
+        rendererPedido = tipo;
+    }
 
-        // HUD: puntuacion
-        paintTexto.setTextSize(altoP / 28f);
-        canvas.drawText("Puntuacion: " + puntuacion, anchoP / 2f, altoP / 20f, paintTexto);
+    /** Estado del juego (CicloJuego.JUGANDO ... SEGUNDO_PLANO). */
+    public int getEstado() {
+        return ciclo.getEstado();
+    }
 
-        // Instrucciones
-        paintTexto.setTextSize(altoP / 45f);
-        canvas.drawText("Arrastra para mover | Toca para disparar", anchoP / 2f, altoP - altoP / 30f, paintTexto);
+    /**
+     * Veces que un hilo del juego ha salido del reposo; no crece mientras la
+     * pantalla de fin o la pausa esperan sin que llegue nada.
+     */
+    public long getDespertares() {
+        return ciclo.getDespertares();
+    }
+
+    /** Nivel de calidad actual (GobernadorCalidad.COMPLETA ... MEDIA_FRECUENCIA). */
+    public int getNivelCalidad() {
+        return gobernador.getNivel();
     }
 
     /**
-     * Muestra la pantalla de fin de partida (game over o victoria).
+     * Primitivas de dibujo emitidas en el ultimo frame (crece con las entidades
+     * vivas). Con RENDER_GLES los sprites se agrupan en muy pocas llamadas GL.
      */
-    private void dibujarPantallaFin(Canvas canvas, boolean gano) {
-        paintGame.setTextSize(altoP / 12f);
-        if (gano) {
-            paintGame.setColor(Color.GREEN);
-            canvas.drawText("VICTORIA", anchoP / 2f, altoP / 3f, paintGame);
-        } else {
-            paintGame.setColor(Color.RED);
-            canvas.drawText("GAME OVER", anchoP / 2f, altoP / 3f, paintGame);
-        }
-        paintGame.setColor(Color.WHITE);
-        paintGame.setTextSize(altoP / 22f);
-        canvas.drawText("Puntuacion: " + puntuacion, anchoP / 2f, altoP / 2f, paintGame);
-        paintGame.setTextSize(altoP / 30f);
-        canvas.drawText("Toca para reiniciar", anchoP / 2f, altoP * 2 / 3f, paintGame);
+    public int getLlamadasDibujo() {
+        return llamadasDibujo;
+    }
+
+    /**
+     * Veces que se ha rasterizado alguna capa estatica desde el arranque; es
+     * el unico sitio donde se modifican Paints, nunca en un frame normal.
+     */
+    public int getRasterizacionesCapas() {
+        return capas.getRasterizaciones();
     }
 
     // =====================================================================
@@ -373,78 +462,244 @@ public class GameView extends SurfaceView implements Runnable, SurfaceHolder.Cal
 
     @Override
     public void surfaceCreated(SurfaceHolder surfaceHolder) {
-        // El Surface esta listo. Se obtienen las dimensiones reales y se inicializa el juego.
-        anchoP = getWidth();
-        altoP = getHeight();
-        inicializarJuego();
-        resume();
+        // El Surface esta listo. La primera vez se prepara la partida con las
+        // dimensiones reales; al volver de segundo plano se continua la que habia.
+        if (!partidaPreparada) {
+            anchoP = getWidth();
+            altoP = getHeight();
+            prepararPartida();
+            partidaPreparada = true;
+        } else {
+            redimensionar(getWidth(), getHeight());
+        }
+        actualizarFrecuenciaPantalla();
+        ciclo.setSuperficie(true);
+        actualizarHilos();
     }
 
     @Override
     public void surfaceChanged(SurfaceHolder surfaceHolder, int format, int width, int height) {
-        // No se necesita accion especial ante cambios de superficie.
+        // La pantalla puede haber cambiado de modo (p. ej. 60 -> 120 Hz).
+        actualizarFrecuenciaPantalla();
+        redimensionar(width, height);
+    }
+
+    /**
+     * Giro o pantalla partida: la simulacion reescala la partida en curso en
+     * el siguiente tick, por la cola de entrada para que quede grabado.
+     */
+    private void redimensionar(int ancho, int alto) {
+        if (ancho != anchoP || alto != altoP) {
+            anchoP = ancho;
+            altoP = alto;
+            publicarTamanio(ancho, alto);
+        }
+    }
+
+    private void publicarTamanio(int ancho, int alto) {
+        ColaEntrada entrada = simulacion.getEntrada();
+        long instante = System.nanoTime();
+        entrada.publicar(ColaEntrada.ANCHO, ancho, instante);
+        entrada.publicar(ColaEntrada.ALTO, alto, instante);
+        ciclo.notificarEntrada();
     }
 
     @Override
     public void surfaceDestroyed(SurfaceHolder surfaceHolder) {
-        // El Surface va a ser destruido. Se detiene el hilo para evitar fugas de memoria.
-        pause();
+        // El Surface va a ser destruido. Se detienen los hilos antes de volver,
+        // para que el backend se libere mientras el Surface aun existe.
+        ciclo.setSuperficie(false);
+        actualizarHilos();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean conFoco) {
+        super.onWindowFocusChanged(conFoco);
+        // Sin foco (notificaciones, dialogo del sistema...) la partida se pausa
+        ciclo.setFoco(conFoco);
+    }
+
+    private void actualizarFrecuenciaPantalla() {
+        Display display = getDisplay();
+        if (display != null) {
+            marcapasos.setFrecuenciaPantalla(display.getRefreshRate());
+        }
     }
 
     /**
-     * Pausa el hilo del juego de forma segura.
-     * Se usa join() para asegurar que el hilo ha terminado antes de continuar.
+     * La Activity pasa a segundo plano: detiene los hilos del juego y espera a
+     * que terminen. Se puede llamar varias veces (hilo de la UI).
      */
     public void pause() {
-        corriendo = false;
-        if (gameThread != null) {
-            try {
-                gameThread.join();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            gameThread = null;
-        }
+        ciclo.setPrimerPlano(false);
+        actualizarHilos();
     }
 
     /**
-     * Reanuda el hilo del juego creando una nueva instancia de Thread.
+     * La Activity vuelve al primer plano. Los hilos arrancan aqui o al crearse
+     * el Surface, lo que llegue despues, y nunca por duplicado (hilo de la UI).
      */
     public void resume() {
+        ciclo.setPrimerPlano(true);
+        actualizarHilos();
+    }
+
+    /** Detiene el juego y libera el ejecutor; la vista no se puede volver a usar. */
+    public void liberar() {
+        pause();
+        hilos.shutdown();
+    }
+
+    /** Arranca o detiene las tareas segun el CicloJuego; idempotente. */
+    private void actualizarHilos() {
+        if (ciclo.isActivo()) {
+            arrancarHilos();
+        } else {
+            detenerHilos();
+        }
+    }
+
+    private void arrancarHilos() {
+        if (tareaDibujo != null) return;
+        // El hilo de simulacion reinicia su bucle al arrancar: el tiempo en
+        // pausa no se convierte en ticks de recuperacion.
+        marcapasos.iniciar();
+        vigilarTemperatura();
         corriendo = true;
-        gameThread = new Thread(this);
-        gameThread.start();
+        hiloSimulacion.iniciar();
+        tareaSimulacion = hilos.submit(() -> {
+            Thread.currentThread().setName("simulacion");
+            hiloSimulacion.run();
+        });
+        tareaDibujo = hilos.submit(this);
+    }
+
+    private void detenerHilos() {
+        if (tareaDibujo == null) return;
+        dejarDeVigilarTemperatura();
+        corriendo = false;
+        // Despierta a los dos hilos si esperan un tick, un vsync o un cambio de estado
+        hiloSimulacion.detener();
+        marcapasos.detener();
+        esperar(tareaSimulacion);
+        esperar(tareaDibujo);
+        tareaSimulacion = null;
+        tareaDibujo = null;
+    }
+
+    private static void esperar(Future<?> tarea) {
+        try {
+            tarea.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Fallo un hilo del juego", e.getCause());
+        }
+    }
+
+    /**
+     * Con API 29+ el estado termico del sistema fija un nivel minimo de
+     * calidad; el oyente se llama en el hilo de la UI.
+     */
+    private void vigilarTemperatura() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q || oyenteTermico != null) return;
+        PowerManager energia = (PowerManager) getContext().getSystemService(Context.POWER_SERVICE);
+        if (energia == null) return;
+        oyenteTermico = gobernador::setEstadoTermico;
+        gobernador.setEstadoTermico(energia.getCurrentThermalStatus());
+        energia.addThermalStatusListener(oyenteTermico);
+    }
+
+    private void dejarDeVigilarTemperatura() {
+        if (oyenteTermico == null) return;
+        PowerManager energia = (PowerManager) getContext().getSystemService(Context.POWER_SERVICE);
+        if (energia != null) {
+            energia.removeThermalStatusListener(oyenteTermico);
+        }
+        oyenteTermico = null;
     }
 
     // =====================================================================
     // ENTRADA TACTIL
     // =====================================================================
 
+    /**
+     * Se ejecuta en el hilo de la UI: no toca el estado de la simulacion, solo
+     * publica el evento en la cola de entrada, que el hilo del juego drena al
+     * principio de cada tick. El instante del evento (getEventTime, misma base
+     * monotona que System.nanoTime) sirve para medir su latencia hasta pantalla.
+     * Las X se publican ya en unidades del mundo, asi que la repeticion no
+     * depende de la resolucion. EntradaTactil decide que dedo arrastra y cual
+     * dispara, y adelanta el arrastre con sus muestras intermedias.
+     */
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        switch (event.getAction()) {
+        if (event.getActionMasked() == MotionEvent.ACTION_POINTER_DOWN
+                && event.getPointerCount() == DEDOS_PANEL_PERFIL) {
+            perfilVisible = !perfilVisible;
+            ciclo.despertar();
+            return true;
+        }
+        long instante = event.getEventTime() * 1_000_000L;
+        switch (event.getActionMasked()) {
             case MotionEvent.ACTION_DOWN:
-            case MotionEvent.ACTION_MOVE:
-                // Si hay game over o victoria, un toque reinicia la partida.
-                if (gameOver || victoria) {
-                    inicializarJuego();
-                    return true;
-                }
-                touchX = event.getX();
-
-                // Disparar al tocar (ACTION_DOWN unicamente)
-                if (event.getAction() == MotionEvent.ACTION_DOWN) {
-                    int cx = jugador.getBounds().centerX();
-                    int cy = jugador.getBounds().top;
-                    int velDisparo = altoP / 100 * 3;
-                    disparosJugador.add(new Disparo(cx, cy, velDisparo, altoP, true));
+            case MotionEvent.ACTION_POINTER_DOWN: {
+                // El primer dedo mueve y dispara; los demas solo disparan.
+                // Si hay game over o victoria, cualquiera reinicia la partida.
+                int i = event.getActionIndex();
+                tactil.abajo(event.getPointerId(i), xMundo(event.getX(i)), instante);
+                break;
+            }
+
+            case MotionEvent.ACTION_MOVE: {
+                if (tactil.getDedoArrastre() == EntradaTactil.NINGUNO) break;
+                int i = event.findPointerIndex(tactil.getDedoArrastre());
+                if (i < 0) break;
+                // Muestras que Android ha agrupado desde el evento anterior, y la actual
+                for (int h = 0; h < event.getHistorySize(); h++) {
+                    tactil.muestra(xMundo(event.getHistoricalX(i, h)),
+                            event.getHistoricalEventTime(h) * 1_000_000L);
                 }
+                tactil.muestra(xMundo(event.getX(i)), instante);
+                // Fuera de la partida la simulacion ignora los arrastres: ni se
+                // publican ni despiertan a los hilos aparcados en cada muestra
+                if (ciclo.getEstado() != CicloJuego.JUGANDO) return true;
+                tactil.setHorizonteNanos(latenciaMediaNanos);
+                tactil.mover(instante);
                 break;
+            }
 
             case MotionEvent.ACTION_UP:
-                touchX = -1;
+            case MotionEvent.ACTION_POINTER_UP:
+                tactil.arriba(event.getPointerId(event.getActionIndex()), instante);
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+                tactil.cancelar(instante);
                 break;
         }
+        // Saca del reposo a los hilos aparcados (p. ej. un toque en la pantalla de fin)
+        ciclo.notificarEntrada();
         return true;
     }
-}
\ No newline at end of file
+
+    /**
+     * Pixel de la pantalla a unidades del mundo. El mundo siempre tiene la
+     * proporcion de la pantalla, asi que basta con el ancho.
+     */
+    private float xMundo(float xPantalla) {
+        int ancho = anchoP;
+        return ancho > 0 ? xPantalla * Simulacion.ANCHO_MUNDO / ancho : xPantalla;
+    }
+
+    /** Muestra u oculta el panel de perfil (tambien con un toque de tres dedos). */
+    public void setPerfilVisible(boolean visible) {
+        perfilVisible = visible;
+        ciclo.despertar();
+    }
+
+    /** Latencia media desde un toque hasta el frame que lo muestra, en nanosegundos. */
+    public long getLatenciaMediaEntrada() {
+        return latencia.getMediaNanos();
+    }
+}
@@ -2,6 +2,9 @@ package com.example.spaceinvaders;
 
 import android.app.Activity;
 import android.os.Bundle;
+import android.util.Log;
+
+import com.example.spaceinvaders.simulacion.GeneradorOleadas;
 
 /**
  * MainActivity: punto de entrada de la aplicacion.
@@ -10,6 +13,19 @@ import android.os.Bundle;
  */
 public class MainActivity extends Activity {
 
+    // Extra opcional para elegir el backend de dibujo: "software", "hardware" o "gles"
+    // (adb shell am start -n com.example.spaceinvaders/.MainActivity --es renderer gles)
+    public static final String EXTRA_RENDERER = "renderer";
+
+    // Extra opcional para elegir las oleadas: "clasica", "campania" (por defecto),
+    // "estres" o "estres:N" con N invasores por oleada (--es oleadas estres:5000)
+    public static final String EXTRA_OLEADAS = "oleadas";
+    private static final int INVASORES_ESTRES = 2000;
+
+    // Extra opcional con los ticks por segundo de la simulacion (--ei hz 30);
+    // sin el, 30 con el ahorro de energia y 60 sin el
+    public static final String EXTRA_HZ = "hz";
+
     private GameView gameView;
 
     @Override
@@ -18,20 +34,61 @@ public class MainActivity extends Activity {
         // Se instancia el GameView y se establece como contenido de la Activity.
         // No se usa ningún layout XML complejo para la pantalla de juego.
         gameView = new GameView(this);
+        elegirRenderer(getIntent().getStringExtra(EXTRA_RENDERER));
+        elegirOleadas(getIntent().getStringExtra(EXTRA_OLEADAS));
+        try {
+            gameView.setFrecuencia(getIntent().getIntExtra(EXTRA_HZ, 0));
+        } catch (IllegalArgumentException e) {
+            Log.w("SpaceInvaders", "Frecuencia no valida", e);
+        }
         setContentView(gameView);
     }
 
+    private void elegirRenderer(String nombre) {
+        if ("software".equals(nombre)) {
+            gameView.setRenderer(GameView.RENDER_SOFTWARE);
+        } else if ("hardware".equals(nombre)) {
+            gameView.setRenderer(GameView.RENDER_HARDWARE);
+        } else if ("gles".equals(nombre)) {
+            gameView.setRenderer(GameView.RENDER_GLES);
+        }
+    }
+
+    private void elegirOleadas(String nombre) {
+        if ("clasica".equals(nombre)) {
+            gameView.setOleadas(GeneradorOleadas.unica(4, 7));
+        } else if ("estres".equals(nombre)) {
+            gameView.setOleadas(GeneradorOleadas.estres(INVASORES_ESTRES));
+        } else if (nombre != null && nombre.startsWith("estres:")) {
+            try {
+                gameView.setOleadas(GeneradorOleadas.estres(Integer.parseInt(nombre.substring(7))));
+            } catch (IllegalArgumentException e) {
+                Log.w("SpaceInvaders", "Oleadas no validas: " + nombre, e);
+            }
+        }
+    }
+
     @Override
     protected void onPause() {
         super.onPause();
-        // Cuando la Activity pasa a segundo plano, se pausa el hilo del juego.
+        // Cuando la Activity pasa a segundo plano, se detienen los hilos del juego.
         gameView.pause();
+        // Partida, repeticion y records se escriben en segundo plano (AlmacenPartidas)
+        gameView.guardarPartida();
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        // Cuando la Activity vuelve al primer plano, se reanuda el hilo del juego.
+        // Cuando la Activity vuelve al primer plano, se reanuda el juego; los
+        // hilos arrancan en cuanto tambien haya Surface (una sola vez).
         gameView.resume();
     }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Libera el ejecutor de los hilos del juego
+        gameView.liberar();
+    }
 }
\ No newline at end of file
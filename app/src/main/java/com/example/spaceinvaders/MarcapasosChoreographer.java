@@ -0,0 +1,101 @@
+package com.example.spaceinvaders;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import com.example.spaceinvaders.simulacion.Marcapasos;
+
+/**
+ * MarcapasosChoreographer: despierta al hilo del juego exactamente en cada vsync.
+ * El Choreographer solo existe en hilos con Looper, asi que las callbacks se
+ * registran en el hilo principal y el hilo del juego espera en un monitor hasta
+ * que doFrame() le entrega el instante del siguiente frame.
+ * El periodo parte de la frecuencia que reporta el Display y se afina con los
+ * intervalos observados entre vsyncs.
+ */
+class MarcapasosChoreographer implements Marcapasos, Choreographer.FrameCallback {
+
+    private final Handler hiloPrincipal = new Handler(Looper.getMainLooper());
+    private final Object cerrojo = new Object();
+
+    // --- Estado compartido (protegido por cerrojo) ---
+    private boolean activo;
+    private long ultimoFrame;
+    private long frameEntregado;
+
+    // --- Periodo de refresco estimado ---
+    private volatile long periodoNanos;
+    private long frameAnterior;
+
+    MarcapasosChoreographer(float frecuenciaHz) {
+        setFrecuenciaPantalla(frecuenciaHz);
+    }
+
+    /**
+     * Fija el periodo a partir de la frecuencia que reporta el Display.
+     */
+    void setFrecuenciaPantalla(float frecuenciaHz) {
+        if (frecuenciaHz > 0) {
+            periodoNanos = (long) (1_000_000_000L / frecuenciaHz);
+        }
+    }
+
+    @Override
+    public void iniciar() {
+        synchronized (cerrojo) {
+            if (activo) return;
+            activo = true;
+            frameAnterior = 0;
+        }
+        hiloPrincipal.post(() -> Choreographer.getInstance().postFrameCallback(this));
+    }
+
+    @Override
+    public void detener() {
+        synchronized (cerrojo) {
+            activo = false;
+            cerrojo.notifyAll();
+        }
+        hiloPrincipal.post(() -> Choreographer.getInstance().removeFrameCallback(this));
+    }
+
+    /**
+     * Callback del Choreographer (hilo principal), una vez por vsync.
+     */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        synchronized (cerrojo) {
+            if (!activo) return;
+            ultimoFrame = frameTimeNanos;
+            cerrojo.notifyAll();
+
+            if (frameAnterior != 0) {
+                // Media movil de los intervalos; los vsyncs perdidos (intervalos largos)
+                // se ignoran y las bajadas de frecuencia llegan por setFrecuenciaPantalla.
+                long intervalo = frameTimeNanos - frameAnterior;
+                if (intervalo > 0 && intervalo < periodoNanos * 3 / 2) {
+                    periodoNanos += (intervalo - periodoNanos) / 8;
+                }
+            }
+            frameAnterior = frameTimeNanos;
+        }
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    public long esperarFrame() throws InterruptedException {
+        synchronized (cerrojo) {
+            while (activo && ultimoFrame == frameEntregado) {
+                cerrojo.wait();
+            }
+            frameEntregado = ultimoFrame;
+            return ultimoFrame;
+        }
+    }
+
+    @Override
+    public long getPeriodoNanos() {
+        return periodoNanos;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.spaceinvaders;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.os.Build;
+import android.view.SurfaceHolder;
+
+import com.example.spaceinvaders.simulacion.Renderer;
+import com.example.spaceinvaders.simulacion.ResumenPerfil;
+
+/**
+ * RendererCanvas: backend sobre el Canvas del SurfaceHolder.
+ * Con porHardware = true y API 26+ usa lockHardwareCanvas(), cuyas llamadas
+ * se graban en una display list y las rasteriza la GPU; en otro caso usa
+ * lockCanvas(), que rasteriza en la CPU.
+ * Cada sprite es un drawBitmap desde el atlas y las capas estaticas se
+ * componen ya rasterizadas.
+ */
+final class RendererCanvas implements Renderer {
+
+    private final SurfaceHolder holder;
+    private final AtlasSprites atlas;
+    private final CapasEstaticas capas;
+    private final boolean porHardware;
+
+    // paintSprites no se modifica nunca durante un frame
+    private final Paint paintSprites;
+
+    private Canvas canvas;
+
+    RendererCanvas(SurfaceHolder holder, AtlasSprites atlas, CapasEstaticas capas, boolean porHardware) {
+        this.holder = holder;
+        this.atlas = atlas;
+        this.capas = capas;
+        this.porHardware = porHardware && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O;
+        paintSprites = new Paint();
+        paintSprites.setFilterBitmap(false);
+    }
+
+    @Override
+    public boolean comenzarFrame(int ancho, int alto) {
+        canvas = porHardware ? holder.lockHardwareCanvas() : holder.lockCanvas();
+        if (canvas == null) return false;
+        capas.preparar(ancho, alto);
+        return true;
+    }
+
+    @Override
+    public void prepararSprites(int tamEnemigo, int anchoJugador, int altoJugador,
+                                int numTipos, int[] anchoTipo, int[] altoTipo) {
+        atlas.preparar(tamEnemigo, anchoJugador, altoJugador, numTipos, anchoTipo, altoTipo);
+    }
+
+    @Override
+    public void dibujarFondo() {
+        capas.dibujarFondo(canvas);
+    }
+
+    @Override
+    public void dibujarSprite(int sprite, float x, float y) {
+        atlas.dibujar(canvas, sprite, x, y, paintSprites);
+    }
+
+    @Override
+    public void dibujarPuntuacion(int puntuacion) {
+        capas.dibujarPuntuacion(canvas, puntuacion);
+    }
+
+    @Override
+    public void dibujarPerfil(ResumenPerfil simulacion, ResumenPerfil dibujo) {
+        capas.dibujarPerfil(canvas, simulacion, dibujo);
+    }
+
+    @Override
+    public void dibujarPantallaFin(boolean victoria, int puntuacion, int record) {
+        capas.dibujarPantallaFin(canvas, victoria, puntuacion, record);
+    }
+
+    @Override
+    public void terminarFrame() {
+        if (canvas != null) {
+            holder.unlockCanvasAndPost(canvas);
+            canvas = null;
+        }
+    }
+
+    boolean esPorHardware() {
+        return porHardware;
+    }
+}
@@ -0,0 +1,443 @@
+package com.example.spaceinvaders;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.opengl.EGL14;
+import android.opengl.EGLConfig;
+import android.opengl.EGLContext;
+import android.opengl.EGLDisplay;
+import android.opengl.EGLExt;
+import android.opengl.EGLSurface;
+import android.opengl.GLES30;
+import android.opengl.GLUtils;
+import android.view.SurfaceHolder;
+
+import com.example.spaceinvaders.simulacion.Renderer;
+import com.example.spaceinvaders.simulacion.ResumenPerfil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * RendererGles: backend OpenGL ES 3.0 para oleadas con muchas entidades.
+ * Todo se dibuja como quads texturizados instanciados: cada instancia lleva
+ * su caja de destino en pixeles y su rectangulo de origen en la textura, y el
+ * vertex shader genera las cuatro esquinas a partir de gl_VertexID. Los
+ * sprites consecutivos que comparten textura (el atlas) se acumulan en un lote
+ * y salen en un unico glDrawArraysInstanced, asi que una oleada completa
+ * cuesta una llamada de dibujo en lugar de una por invasor.
+ *
+ * Las texturas son los mismos Bitmaps de AtlasSprites y CapasEstaticas; se
+ * suben a la GPU solo cuando cambian. El contexto EGL pertenece al hilo que
+ * llama a comenzarFrame() y se destruye en liberar(), que debe llamarse desde
+ * ese mismo hilo.
+ */
+final class RendererGles implements Renderer {
+
+    // destino (x, y, ancho, alto) + origen en la textura (u0, v0, u1, v1)
+    private static final int FLOATS_POR_QUAD = 8;
+    private static final int MAX_QUADS_POR_LOTE = 4096;
+
+    // --- Texturas ---
+    private static final int TEX_ATLAS = 0;
+    private static final int TEX_FONDO = 1;
+    private static final int TEX_MARCADOR = 2;
+    private static final int TEX_FIN = 3;
+    private static final int TEX_PERFIL = 4;
+    private static final int NUM_TEXTURAS = 5;
+
+    private static final String SHADER_VERTICES =
+            "#version 300 es\n"
+            + "layout(location = 0) in vec4 aDestino;\n"
+            + "layout(location = 1) in vec4 aOrigen;\n"
+            + "uniform vec2 uPantalla;\n"
+            + "out vec2 vUv;\n"
+            + "void main() {\n"
+            + "    vec2 esquina = vec2(float(gl_VertexID & 1), float(gl_VertexID >> 1));\n"
+            + "    vec2 p = aDestino.xy + esquina * aDestino.zw;\n"
+            + "    vUv = mix(aOrigen.xy, aOrigen.zw, esquina);\n"
+            + "    gl_Position = vec4(p.x / uPantalla.x * 2.0 - 1.0, 1.0 - p.y / uPantalla.y * 2.0, 0.0, 1.0);\n"
+            + "}\n";
+
+    private static final String SHADER_FRAGMENTOS =
+            "#version 300 es\n"
+            + "precision mediump float;\n"
+            + "in vec2 vUv;\n"
+            + "uniform sampler2D uTextura;\n"
+            + "out vec4 color;\n"
+            + "void main() {\n"
+            + "    color = texture(uTextura, vUv);\n"
+            + "}\n";
+
+    private final SurfaceHolder holder;
+    private final AtlasSprites atlas;
+    private final CapasEstaticas capas;
+
+    // --- EGL ---
+    private EGLDisplay display = EGL14.EGL_NO_DISPLAY;
+    private EGLContext contexto = EGL14.EGL_NO_CONTEXT;
+    private EGLSurface superficie = EGL14.EGL_NO_SURFACE;
+    private boolean fallido;
+
+    // --- Objetos GL ---
+    private int programa;
+    private int uPantalla;
+    private int uTextura;
+    private final int[] vao = new int[1];
+    private final int[] vbo = new int[1];
+    private final int[] texturas = new int[NUM_TEXTURAS];
+
+    // --- Lo que hay subido en cada textura, para no repetir la subida ---
+    private final Bitmap[] bitmapSubido = new Bitmap[NUM_TEXTURAS];
+    private int puntuacionSubida = -1;
+    private boolean finGanoSubido;
+    private int finPuntuacionSubida = -1;
+    private int finRecordSubido = -1;
+    private int perfilSimSubido = -1;
+    private int perfilDibujoSubido = -1;
+
+    // --- Lote de instancias pendiente ---
+    private final float[] lote = new float[MAX_QUADS_POR_LOTE * FLOATS_POR_QUAD];
+    private final FloatBuffer instancias;
+    private int quadsEnLote;
+    private int texturaLote = -1;
+
+    private int ancho;
+    private int alto;
+    private int llamadasGl;
+
+    RendererGles(SurfaceHolder holder, AtlasSprites atlas, CapasEstaticas capas) {
+        this.holder = holder;
+        this.atlas = atlas;
+        this.capas = capas;
+        instancias = ByteBuffer.allocateDirect(lote.length * 4)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+    }
+
+    // =====================================================================
+    // FRAME
+    // =====================================================================
+
+    @Override
+    public boolean comenzarFrame(int ancho, int alto) {
+        if (fallido || !asegurarContexto()) return false;
+        if (ancho != this.ancho || alto != this.alto) {
+            this.ancho = ancho;
+            this.alto = alto;
+            GLES30.glViewport(0, 0, ancho, alto);
+        }
+        capas.preparar(ancho, alto);
+        GLES30.glUseProgram(programa);
+        GLES30.glUniform2f(uPantalla, ancho, alto);
+        llamadasGl = 0;
+        return true;
+    }
+
+    @Override
+    public void prepararSprites(int tamEnemigo, int anchoJugador, int altoJugador,
+                                int numTipos, int[] anchoTipo, int[] altoTipo) {
+        atlas.preparar(tamEnemigo, anchoJugador, altoJugador, numTipos, anchoTipo, altoTipo);
+    }
+
+    @Override
+    public void dibujarFondo() {
+        GLES30.glClearColor(0f, 0f, 0f, 1f);
+        GLES30.glClear(GLES30.GL_COLOR_BUFFER_BIT);
+        dibujarCapa(TEX_FONDO, capas.getFondo(), 0f);
+    }
+
+    @Override
+    public void dibujarSprite(int sprite, float x, float y) {
+        Bitmap bitmap = atlas.getBitmap();
+        if (texturaLote != TEX_ATLAS) {
+            vaciarLote();
+            subirSiCambia(TEX_ATLAS, bitmap);
+            texturaLote = TEX_ATLAS;
+        } else if (quadsEnLote == MAX_QUADS_POR_LOTE) {
+            vaciarLote();
+            texturaLote = TEX_ATLAS;
+        }
+        Rect o = atlas.getOrigen(sprite);
+        float anchoAtlas = bitmap.getWidth();
+        float altoAtlas = bitmap.getHeight();
+        anadirQuad(x, y - atlas.getSobresale(sprite), o.width(), o.height(),
+                o.left / anchoAtlas, o.top / altoAtlas, o.right / anchoAtlas, o.bottom / altoAtlas);
+    }
+
+    @Override
+    public void dibujarPuntuacion(int puntuacion) {
+        Bitmap marcador = capas.actualizarMarcador(puntuacion);
+        if (puntuacion != puntuacionSubida) {
+            bitmapSubido[TEX_MARCADOR] = null; // mismo Bitmap, contenido nuevo
+            puntuacionSubida = puntuacion;
+        }
+        dibujarCapa(TEX_MARCADOR, marcador, capas.getYMarcador());
+    }
+
+    @Override
+    public void dibujarPerfil(ResumenPerfil simulacion, ResumenPerfil dibujo) {
+        Bitmap panel = capas.actualizarPerfil(simulacion, dibujo);
+        if (simulacion.getVersion() != perfilSimSubido || dibujo.getVersion() != perfilDibujoSubido) {
+            bitmapSubido[TEX_PERFIL] = null;
+            perfilSimSubido = simulacion.getVersion();
+            perfilDibujoSubido = dibujo.getVersion();
+        }
+        dibujarCapa(TEX_PERFIL, panel, capas.getYPerfil());
+    }
+
+    @Override
+    public void dibujarPantallaFin(boolean victoria, int puntuacion, int record) {
+        Bitmap pantalla = capas.actualizarPantallaFin(victoria, puntuacion, record);
+        if (victoria != finGanoSubido || puntuacion != finPuntuacionSubida || record != finRecordSubido) {
+            bitmapSubido[TEX_FIN] = null;
+            finGanoSubido = victoria;
+            finPuntuacionSubida = puntuacion;
+            finRecordSubido = record;
+        }
+        dibujarCapa(TEX_FIN, pantalla, 0f);
+    }
+
+    @Override
+    public void terminarFrame() {
+        vaciarLote();
+        if (!EGL14.eglSwapBuffers(display, superficie)) {
+            // El Surface ya no es valido: se recreara en el proximo frame
+            liberarSuperficie();
+        }
+    }
+
+    /** Llamadas glDrawArraysInstanced emitidas en el ultimo frame. */
+    int getLlamadasGl() {
+        return llamadasGl;
+    }
+
+    /** true si el dispositivo no ha podido crear un contexto OpenGL ES 3.0. */
+    boolean haFallado() {
+        return fallido;
+    }
+
+    // =====================================================================
+    // LOTES
+    // =====================================================================
+
+    /** Una capa de pantalla completa o una franja: un quad con toda la textura. */
+    private void dibujarCapa(int textura, Bitmap bitmap, float y) {
+        vaciarLote();
+        subirSiCambia(textura, bitmap);
+        texturaLote = textura;
+        anadirQuad(0f, y, bitmap.getWidth(), bitmap.getHeight(), 0f, 0f, 1f, 1f);
+        vaciarLote();
+    }
+
+    private void anadirQuad(float x, float y, float w, float h, float u0, float v0, float u1, float v1) {
+        int i = quadsEnLote++ * FLOATS_POR_QUAD;
+        lote[i] = x;
+        lote[i + 1] = y;
+        lote[i + 2] = w;
+        lote[i + 3] = h;
+        lote[i + 4] = u0;
+        lote[i + 5] = v0;
+        lote[i + 6] = u1;
+        lote[i + 7] = v1;
+    }
+
+    private void vaciarLote() {
+        if (quadsEnLote > 0) {
+            instancias.clear();
+            instancias.put(lote, 0, quadsEnLote * FLOATS_POR_QUAD);
+            instancias.flip();
+            GLES30.glBindBuffer(GLES30.GL_ARRAY_BUFFER, vbo[0]);
+            // Se reasigna el almacenamiento para no esperar al frame anterior
+            GLES30.glBufferData(GLES30.GL_ARRAY_BUFFER, lote.length * 4, null, GLES30.GL_STREAM_DRAW);
+            GLES30.glBufferSubData(GLES30.GL_ARRAY_BUFFER, 0, quadsEnLote * FLOATS_POR_QUAD * 4, instancias);
+            GLES30.glBindTexture(GLES30.GL_TEXTURE_2D, texturas[texturaLote]);
+            GLES30.glDrawArraysInstanced(GLES30.GL_TRIANGLE_STRIP, 0, 4, quadsEnLote);
+            llamadasGl++;
+        }
+        quadsEnLote = 0;
+        texturaLote = -1;
+    }
+
+    private void subirSiCambia(int textura, Bitmap bitmap) {
+        if (bitmapSubido[textura] == bitmap) return;
+        GLES30.glBindTexture(GLES30.GL_TEXTURE_2D, texturas[textura]);
+        GLUtils.texImage2D(GLES30.GL_TEXTURE_2D, 0, bitmap, 0);
+        bitmapSubido[textura] = bitmap;
+    }
+
+    // =====================================================================
+    // CONTEXTO EGL Y RECURSOS GL
+    // =====================================================================
+
+    private boolean asegurarContexto() {
+        if (superficie != EGL14.EGL_NO_SURFACE) return true;
+        if (holder.getSurface() == null || !holder.getSurface().isValid()) return false;
+
+        if (display == EGL14.EGL_NO_DISPLAY) {
+            display = EGL14.eglGetDisplay(EGL14.EGL_DEFAULT_DISPLAY);
+            int[] version = new int[2];
+            if (!EGL14.eglInitialize(display, version, 0, version, 1)) {
+                return fallar();
+            }
+        }
+        int[] atributos = {
+                EGL14.EGL_RED_SIZE, 8,
+                EGL14.EGL_GREEN_SIZE, 8,
+                EGL14.EGL_BLUE_SIZE, 8,
+                EGL14.EGL_ALPHA_SIZE, 8,
+                EGL14.EGL_RENDERABLE_TYPE, EGLExt.EGL_OPENGL_ES3_BIT_KHR,
+                EGL14.EGL_NONE
+        };
+        EGLConfig[] configs = new EGLConfig[1];
+        int[] numConfigs = new int[1];
+        if (!EGL14.eglChooseConfig(display, atributos, 0, configs, 0, 1, numConfigs, 0) || numConfigs[0] == 0) {
+            return fallar();
+        }
+        boolean contextoNuevo = false;
+        if (contexto == EGL14.EGL_NO_CONTEXT) {
+            int[] atributosContexto = {EGL14.EGL_CONTEXT_CLIENT_VERSION, 3, EGL14.EGL_NONE};
+            contexto = EGL14.eglCreateContext(display, configs[0], EGL14.EGL_NO_CONTEXT, atributosContexto, 0);
+            if (contexto == null || contexto == EGL14.EGL_NO_CONTEXT) {
+                contexto = EGL14.EGL_NO_CONTEXT;
+                return fallar();
+            }
+            contextoNuevo = true;
+        }
+        superficie = EGL14.eglCreateWindowSurface(display, configs[0], holder.getSurface(),
+                new int[]{EGL14.EGL_NONE}, 0);
+        if (superficie == null || superficie == EGL14.EGL_NO_SURFACE) {
+            superficie = EGL14.EGL_NO_SURFACE;
+            return false;
+        }
+        if (!EGL14.eglMakeCurrent(display, superficie, superficie, contexto)) {
+            liberarSuperficie();
+            return false;
+        }
+        if (contextoNuevo && !crearRecursosGl()) {
+            return fallar();
+        }
+        ancho = 0;
+        alto = 0;
+        return true;
+    }
+
+    private boolean crearRecursosGl() {
+        programa = crearPrograma();
+        if (programa == 0) return false;
+        uPantalla = GLES30.glGetUniformLocation(programa, "uPantalla");
+        uTextura = GLES30.glGetUniformLocation(programa, "uTextura");
+        GLES30.glUseProgram(programa);
+        GLES30.glUniform1i(uTextura, 0);
+
+        // Atributos por instancia: divisor 1, sin buffer de vertices
+        GLES30.glGenVertexArrays(1, vao, 0);
+        GLES30.glBindVertexArray(vao[0]);
+        GLES30.glGenBuffers(1, vbo, 0);
+        GLES30.glBindBuffer(GLES30.GL_ARRAY_BUFFER, vbo[0]);
+        int paso = FLOATS_POR_QUAD * 4;
+        GLES30.glEnableVertexAttribArray(0);
+        GLES30.glVertexAttribPointer(0, 4, GLES30.GL_FLOAT, false, paso, 0);
+        GLES30.glVertexAttribDivisor(0, 1);
+        GLES30.glEnableVertexAttribArray(1);
+        GLES30.glVertexAttribPointer(1, 4, GLES30.GL_FLOAT, false, paso, 16);
+        GLES30.glVertexAttribDivisor(1, 1);
+
+        GLES30.glGenTextures(NUM_TEXTURAS, texturas, 0);
+        for (int t = 0; t < NUM_TEXTURAS; t++) {
+            GLES30.glBindTexture(GLES30.GL_TEXTURE_2D, texturas[t]);
+            GLES30.glTexParameteri(GLES30.GL_TEXTURE_2D, GLES30.GL_TEXTURE_MIN_FILTER, GLES30.GL_NEAREST);
+            GLES30.glTexParameteri(GLES30.GL_TEXTURE_2D, GLES30.GL_TEXTURE_MAG_FILTER, GLES30.GL_NEAREST);
+            GLES30.glTexParameteri(GLES30.GL_TEXTURE_2D, GLES30.GL_TEXTURE_WRAP_S, GLES30.GL_CLAMP_TO_EDGE);
+            GLES30.glTexParameteri(GLES30.GL_TEXTURE_2D, GLES30.GL_TEXTURE_WRAP_T, GLES30.GL_CLAMP_TO_EDGE);
+            bitmapSubido[t] = null;
+        }
+        puntuacionSubida = -1;
+        finPuntuacionSubida = -1;
+        finRecordSubido = -1;
+        perfilSimSubido = -1;
+        perfilDibujoSubido = -1;
+
+        // Los Bitmaps se suben con alfa premultiplicado
+        GLES30.glEnable(GLES30.GL_BLEND);
+        GLES30.glBlendFunc(GLES30.GL_ONE, GLES30.GL_ONE_MINUS_SRC_ALPHA);
+        GLES30.glActiveTexture(GLES30.GL_TEXTURE0);
+        return true;
+    }
+
+    private static int crearPrograma() {
+        int vertices = compilar(GLES30.GL_VERTEX_SHADER, SHADER_VERTICES);
+        int fragmentos = compilar(GLES30.GL_FRAGMENT_SHADER, SHADER_FRAGMENTOS);
+        if (vertices == 0 || fragmentos == 0) return 0;
+        int programa = GLES30.glCreateProgram();
+        GLES30.glAttachShader(programa, vertices);
+        GLES30.glAttachShader(programa, fragmentos);
+        GLES30.glLinkProgram(programa);
+        GLES30.glDeleteShader(vertices);
+        GLES30.glDeleteShader(fragmentos);
+        int[] enlazado = new int[1];
+        GLES30.glGetProgramiv(programa, GLES30.GL_LINK_STATUS, enlazado, 0);
+        if (enlazado[0] == 0) {
+            GLES30.glDeleteProgram(programa);
+            return 0;
+        }
+        return programa;
+    }
+
+    private static int compilar(int tipo, String codigo) {
+        int shader = GLES30.glCreateShader(tipo);
+        GLES30.glShaderSource(shader, codigo);
+        GLES30.glCompileShader(shader);
+        int[] compilado = new int[1];
+        GLES30.glGetShaderiv(shader, GLES30.GL_COMPILE_STATUS, compilado, 0);
+        if (compilado[0] == 0) {
+            GLES30.glDeleteShader(shader);
+            return 0;
+        }
+        return shader;
+    }
+
+    private boolean fallar() {
+        fallido = true;
+        liberar();
+        return false;
+    }
+
+    private void liberarSuperficie() {
+        if (superficie != EGL14.EGL_NO_SURFACE) {
+            EGL14.eglMakeCurrent(display, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_CONTEXT);
+            EGL14.eglDestroySurface(display, superficie);
+            superficie = EGL14.EGL_NO_SURFACE;
+        }
+    }
+
+    /**
+     * Destruye el contexto y la superficie EGL. Imprescindible antes de volver
+     * a usar el Surface con lockCanvas(). Debe llamarse desde el hilo de render.
+     */
+    @Override
+    public void liberar() {
+        if (display == EGL14.EGL_NO_DISPLAY) return;
+        if (contexto != EGL14.EGL_NO_CONTEXT && superficie != EGL14.EGL_NO_SURFACE) {
+            // Con el contexto actual, los objetos GL se pueden borrar explicitamente
+            GLES30.glDeleteTextures(NUM_TEXTURAS, texturas, 0);
+            GLES30.glDeleteBuffers(1, vbo, 0);
+            GLES30.glDeleteVertexArrays(1, vao, 0);
+            GLES30.glDeleteProgram(programa);
+        }
+        liberarSuperficie();
+        if (contexto != EGL14.EGL_NO_CONTEXT) {
+            EGL14.eglDestroyContext(display, contexto);
+            contexto = EGL14.EGL_NO_CONTEXT;
+        }
+        EGL14.eglReleaseThread();
+        EGL14.eglTerminate(display);
+        display = EGL14.EGL_NO_DISPLAY;
+        for (int t = 0; t < NUM_TEXTURAS; t++) {
+            bitmapSubido[t] = null;
+        }
+        quadsEnLote = 0;
+        texturaLote = -1;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.spaceinvaders;
+
+import android.os.Build;
+import android.os.Trace;
+
+import com.example.spaceinvaders.simulacion.Trazador;
+
+/**
+ * TrazadorAndroid: las fases del Perfilador como secciones de android.os.Trace.
+ * Con un trazado de Perfetto o systrace en marcha aparecen anidadas en la
+ * pista de cada hilo ("simulacion" y el de dibujo); sin trazado activo cada
+ * llamada solo comprueba un indicador del sistema. Los contadores (API 29+)
+ * aparecen como pistas de valores en el proceso.
+ */
+final class TrazadorAndroid implements Trazador {
+
+    static final TrazadorAndroid INSTANCIA = new TrazadorAndroid();
+
+    private TrazadorAndroid() {
+    }
+
+    @Override
+    public void comenzar(String seccion) {
+        Trace.beginSection(seccion);
+    }
+
+    @Override
+    public void terminar() {
+        Trace.endSection();
+    }
+
+    @Override
+    public void contador(String nombre, long valor) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.setCounter(nombre, valor);
+        }
+    }
+}
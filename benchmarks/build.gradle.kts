@@ -0,0 +1,27 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(project(":simulacion"))
+}
+
+// ./gradlew :benchmarks:jmh
+// Resultados en build/results/jmh/results.json (incluye el perfil de memoria -prof gc).
+// Para ejecutar un subconjunto: ./gradlew :benchmarks:jmh -Pjmh.includes=TickBenchmark
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    (findProperty("jmh.includes") as String?)?.let { includes.add(it) }
+}
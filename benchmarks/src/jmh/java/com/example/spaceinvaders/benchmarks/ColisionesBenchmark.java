@@ -0,0 +1,99 @@
+package com.example.spaceinvaders.benchmarks;
+
+import com.example.spaceinvaders.simulacion.Formacion;
+import com.example.spaceinvaders.simulacion.Limites;
+import com.example.spaceinvaders.simulacion.RejillaColisiones;
+import com.example.spaceinvaders.simulacion.Simulacion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fase de colisiones disparos del jugador vs formacion: la rejilla de fase
+ * amplia frente al recorrido de fuerza bruta (disparos x enemigos) que
+ * usaba actualizarFisica(). Solo consulta, sin eliminar, para que el
+ * estado no cambie entre invocaciones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ColisionesBenchmark {
+
+    @Param({"4x7", "10x28", "40x70", "100x100"})
+    public String formacion;
+
+    @Param({"16", "256", "4096"})
+    public int balas;
+
+    private final Formacion bloque = new Formacion();
+    private final RejillaColisiones rejilla = new RejillaColisiones(64);
+    private final Limites caja = new Limites(0, 0, 0, 0);
+    private int[] bx;
+    private int[] by;
+    private static final int ANCHO_BALA = Simulacion.ANCHO_DISPARO;
+    private static final int ALTO_BALA = Escenario.ALTO / 25;
+
+    @Setup
+    public void preparar() {
+        int filas = Escenario.filas(formacion);
+        int cols = Escenario.columnas(formacion);
+        int tam = Math.max(1, Escenario.ANCHO * 85 / 100 * 3 / (4 * cols));
+        int espacioH = tam + tam / 3;
+        int espacioV = tam + tam / 4;
+        bloque.configurar(filas, cols, 50 * Escenario.UNIDAD, 200 * Escenario.UNIDAD, tam, espacioH, espacioV);
+        rejilla.configurar(0, 0, espacioH, cols * espacioH, filas * espacioV);
+        for (int e = 0; e < filas * cols; e++) {
+            int x = (e % cols) * espacioH;
+            int y = (e / cols) * espacioV;
+            rejilla.insertar(e, RejillaColisiones.ENEMIGO, x, y, x + tam, y + tam);
+        }
+        rejilla.construir();
+
+        Random random = new Random(1);
+        bx = new int[balas];
+        by = new int[balas];
+        for (int i = 0; i < balas; i++) {
+            bx[i] = random.nextInt(Escenario.ANCHO);
+            by[i] = random.nextInt(Escenario.ALTO);
+        }
+    }
+
+    @Benchmark
+    public int rejilla() {
+        int impactos = 0;
+        int ox = bloque.getOrigenX();
+        int oy = bloque.getOrigenY();
+        for (int i = 0; i < balas; i++) {
+            int x = bx[i] - ox;
+            int y = by[i] - oy;
+            impactos += rejilla.consultar(x, y, x + ANCHO_BALA, y + ALTO_BALA, RejillaColisiones.ENEMIGO);
+        }
+        return impactos;
+    }
+
+    @Benchmark
+    public int fuerzaBruta() {
+        int impactos = 0;
+        int total = bloque.getTotal();
+        for (int i = 0; i < balas; i++) {
+            for (int e = 0; e < total; e++) {
+                bloque.limites(e, caja);
+                if (bx[i] < caja.derecha && caja.izquierda < bx[i] + ANCHO_BALA
+                        && by[i] < caja.abajo && caja.arriba < by[i] + ALTO_BALA) {
+                    impactos++;
+                    break;
+                }
+            }
+        }
+        return impactos;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.spaceinvaders.benchmarks;
+
+import com.example.spaceinvaders.simulacion.Entidades;
+import com.example.spaceinvaders.simulacion.Simulacion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rotacion de proyectiles: cada invocacion mueve todas las balas un tick
+ * (los sistemas de Entidades) y repone las que salen del mundo. Con -prof gc,
+ * gc.alloc.rate.norm debe ser 0 B/op: el almacen no reserva memoria en
+ * regimen estable.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DisparosBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int balas;
+
+    private final Entidades pool = new Entidades(16);
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        // Mismos tipos y en el mismo orden que la Simulacion
+        pool.registrarTipo("disparo jugador", Entidades.JUGADOR);
+        pool.registrarTipo("disparo enemigo", Entidades.ENEMIGO);
+        pool.setTamanio(Simulacion.DISPARO_JUGADOR, Simulacion.ANCHO_DISPARO, Escenario.ALTO / 25);
+        pool.setTamanio(Simulacion.DISPARO_ENEMIGO, Simulacion.ANCHO_DISPARO, Escenario.ALTO / 25);
+        reponer();
+    }
+
+    @Benchmark
+    public int tick() {
+        pool.integrar();
+        pool.descartarFuera(Escenario.ANCHO, Escenario.ALTO);
+        reponer();
+        return pool.getCantidad();
+    }
+
+    private void reponer() {
+        while (pool.getCantidad() < balas) {
+            int n = siguiente++;
+            boolean jugador = (n & 1) == 0;
+            int velocidad = (40 + n % 30) * Escenario.UNIDAD;
+            pool.crearCentrada(jugador ? Simulacion.DISPARO_JUGADOR : Simulacion.DISPARO_ENEMIGO,
+                    (n * Escenario.UNIDAD) % Escenario.ANCHO, (n * 31 * Escenario.UNIDAD) % Escenario.ALTO,
+                    0, jugador ? -velocidad : velocidad);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.spaceinvaders.benchmarks;
+
+import com.example.spaceinvaders.simulacion.Simulacion;
+
+/**
+ * Escenario: parametros comunes a todos los benchmarks.
+ * Las formaciones se describen como "filasxcolumnas" para poder pasarlas
+ * como @Param de JMH: 4x7 (28, la partida real), 10x28 (280), 40x70 (2800)
+ * y 100x100 (10000 invasores).
+ */
+final class Escenario {
+
+    /**
+     * Tamanio del mundo en unidades: el de una pantalla 1080x2340 tipica, y
+     * el de cualquier otra con la misma proporcion (la resolucion no cuenta).
+     */
+    static final int ANCHO = Simulacion.ANCHO_MUNDO;
+    static final int ALTO = Simulacion.altoMundo(1080, 2340);
+    /** Unidades del mundo por pixel de la pantalla de referencia. */
+    static final int UNIDAD = Simulacion.SUBUNIDADES;
+
+    private Escenario() {
+    }
+
+    static int filas(String formacion) {
+        return Integer.parseInt(formacion.substring(0, formacion.indexOf('x')));
+    }
+
+    static int columnas(String formacion) {
+        return Integer.parseInt(formacion.substring(formacion.indexOf('x') + 1));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.spaceinvaders.benchmarks;
+
+import com.example.spaceinvaders.simulacion.Formacion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Movimiento de la formacion: desplazamiento con deteccion de bordes y el
+ * coste de abatir la formacion completa (mantenimiento de los extremos vivos).
+ * Ninguno deberia depender del numero de invasores salvo el barrido completo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FormacionBenchmark {
+
+    @Param({"4x7", "10x28", "40x70", "100x100"})
+    public String formacion;
+
+    private final Formacion bloque = new Formacion();
+    private int filas;
+    private int columnas;
+    private int direccion = 1;
+
+    @Setup
+    public void preparar() {
+        filas = Escenario.filas(formacion);
+        columnas = Escenario.columnas(formacion);
+        bloque.configurar(filas, columnas, 100 * Escenario.UNIDAD, 200 * Escenario.UNIDAD,
+                8 * Escenario.UNIDAD, 10 * Escenario.UNIDAD, 10 * Escenario.UNIDAD);
+    }
+
+    /** Un paso del bloque, con la comprobacion de bordes de moverBloqueEnemigos(). */
+    @Benchmark
+    public int mover() {
+        int dx = 36 * Escenario.UNIDAD * direccion;
+        if (bloque.izquierdaViva() + dx <= 0 || bloque.derechaViva() + dx >= Escenario.ANCHO) {
+            direccion = -direccion;
+            bloque.desplazar(0, 1);
+        } else {
+            bloque.desplazar(dx, 0);
+        }
+        return bloque.getOrigenX();
+    }
+
+    /** Abatir todos los invasores en orden aleatorio fijo; coste por oleada. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int abatirOleada() {
+        bloque.configurar(filas, columnas, 100 * Escenario.UNIDAD, 200 * Escenario.UNIDAD,
+                8 * Escenario.UNIDAD, 10 * Escenario.UNIDAD, 10 * Escenario.UNIDAD);
+        int total = filas * columnas;
+        int paso = pasoCoprimo(total);
+        int e = 0;
+        int suma = 0;
+        for (int i = 0; i < total; i++) {
+            e = (e + paso) % total;
+            bloque.eliminar(e);
+            suma += bloque.abajoVivo();
+        }
+        return suma;
+    }
+
+    private static int pasoCoprimo(int n) {
+        int p = 7919;
+        while (n % p == 0) p += 2;
+        return p;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.spaceinvaders.benchmarks;
+
+import com.example.spaceinvaders.simulacion.CodificadorInstantaneas;
+import com.example.spaceinvaders.simulacion.ColaEntrada;
+import com.example.spaceinvaders.simulacion.DecodificadorInstantaneas;
+import com.example.spaceinvaders.simulacion.GeneradorOleadas;
+import com.example.spaceinvaders.simulacion.Instantanea;
+import com.example.spaceinvaders.simulacion.Simulacion;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instantaneas de red: coste de codificar y decodificar un tick como
+ * diferencia con el anterior (el cliente confirma cada tick) y bytes por
+ * tick, sobre una secuencia de ticks reales de una partida con 1000 y 10000
+ * invasores. Cada invocacion recorre la secuencia entera tras un paquete
+ * completo fuera de la medida, asi que el resultado es por tick en regimen
+ * estable. Con -prof gc, gc.alloc.rate.norm debe ser 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InstantaneasRedBenchmark {
+
+    private static final int TICKS = 256;
+
+    /** Bytes por tick de la ultima invocacion, junto al tiempo en los resultados. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Tamanio {
+        public double bytesPorTick;
+    }
+
+    @Param({"1000", "10000"})
+    public int invasores;
+
+    private final Instantanea[] secuencia = new Instantanea[TICKS];
+    private final byte[][] paquetes = new byte[TICKS][];
+    private final int[] longitudes = new int[TICKS];
+
+    private final CodificadorInstantaneas codificador = new CodificadorInstantaneas();
+    private final DecodificadorInstantaneas decodificador = new DecodificadorInstantaneas();
+    private final Instantanea destino = new Instantanea();
+    private final byte[] paquete = new byte[256 * 1024];
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340, GeneradorOleadas.estres(invasores), Simulacion.SEMILLA_POR_DEFECTO);
+        // Unos segundos de partida con disparos en vuelo y bajas en la formacion
+        for (int t = 0; t < 4 * TICKS + TICKS; t++) {
+            if (t % 8 == 0) {
+                sim.getEntrada().publicar(ColaEntrada.PULSAR, (t * 977) % Simulacion.ANCHO_MUNDO, 0);
+            }
+            sim.tick();
+            int k = t - 4 * TICKS;
+            if (k < 0) continue;
+            secuencia[k] = new Instantanea();
+            secuencia[k].capturar(sim, sim.getTicks(), 0, false);
+            int n = codificador.codificar(secuencia[k], paquete);
+            codificador.confirmar(secuencia[k].getTick());
+            paquetes[k] = Arrays.copyOf(paquete, n);
+            longitudes[k] = n;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void empezarSecuencia() {
+        // Primer tick completo, fuera de la medida
+        codificador.reiniciar();
+        codificador.codificar(secuencia[0], paquete);
+        codificador.confirmar(secuencia[0].getTick());
+        decodificador.reiniciar();
+        decodificador.decodificar(paquetes[0], longitudes[0], destino, 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS - 1)
+    public long codificar(Tamanio tamanio) {
+        long bytes = 0;
+        for (int k = 1; k < TICKS; k++) {
+            bytes += codificador.codificar(secuencia[k], paquete);
+            codificador.confirmar(secuencia[k].getTick());
+        }
+        tamanio.bytesPorTick = (double) bytes / (TICKS - 1);
+        return bytes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS - 1)
+    public int decodificar() {
+        int vivos = 0;
+        for (int k = 1; k < TICKS; k++) {
+            decodificador.decodificar(paquetes[k], longitudes[k], destino, 0);
+            vivos += destino.getVivos();
+        }
+        return vivos;
+    }
+
+    /** Referencia: el mismo tick entero, sin base. */
+    @Benchmark
+    public int codificarCompleta() {
+        codificador.reiniciar();
+        return codificador.codificar(secuencia[TICKS - 1], paquete);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.spaceinvaders.benchmarks;
+
+import com.example.spaceinvaders.simulacion.EjecutorHeadless;
+import com.example.spaceinvaders.simulacion.GrabadorRepeticion;
+import com.example.spaceinvaders.simulacion.Repeticion;
+import com.example.spaceinvaders.simulacion.ReproductorRepeticion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Una partida completa reproducida desde su grabacion: misma semilla y misma
+ * entrada en cada invocacion, asi que el trabajo medido es identico entre
+ * ejecuciones y versiones del codigo (benchmark de regresion).
+ * La partida la graba el bot de EjecutorHeadless en el setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepeticionBenchmark {
+
+    @Param({"1", "42", "1978"})
+    public long semilla;
+
+    private ReproductorRepeticion reproductor;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        EjecutorHeadless ejecutor = new EjecutorHeadless(Escenario.ANCHO, Escenario.ALTO, semilla);
+        GrabadorRepeticion grabador = new GrabadorRepeticion();
+        ejecutor.setGrabador(grabador);
+        ejecutor.jugarPartida();
+        byte[] datos = grabador.toByteArray(ejecutor.getSimulacion().getTicks());
+        reproductor = new ReproductorRepeticion(Repeticion.leer(datos));
+    }
+
+    @Benchmark
+    public int reproducir() {
+        return reproductor.reproducir().getPuntuacion();
+    }
+}
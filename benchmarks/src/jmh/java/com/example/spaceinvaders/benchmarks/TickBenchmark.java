@@ -0,0 +1,75 @@
+package com.example.spaceinvaders.benchmarks;
+
+import com.example.spaceinvaders.simulacion.Entidades;
+import com.example.spaceinvaders.simulacion.Simulacion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Un tick completo de Simulacion (el equivalente al antiguo actualizarFisica):
+ * jugador, disparos, formacion, disparos enemigos y colisiones.
+ * Cada tick se rellenan disparos enemigos hasta tener "balas" en vuelo, en
+ * carriles que no pasan por la nave, para medir el coste con muchas balas
+ * sin que la partida termine. El jugador dispara cada 15 ticks como el bot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TickBenchmark {
+
+    @Param({"4x7", "10x28", "40x70", "100x100"})
+    public String formacion;
+
+    @Param({"0", "256", "4096"})
+    public int balas;
+
+    private Simulacion simulacion;
+    private int filas;
+    private int columnas;
+    private int carril;
+    private long ticks;
+
+    @Setup(Level.Iteration)
+    public void preparar() {
+        filas = Escenario.filas(formacion);
+        columnas = Escenario.columnas(formacion);
+        simulacion = new Simulacion();
+        simulacion.inicializar(Escenario.ANCHO, Escenario.ALTO, filas, columnas);
+    }
+
+    @Benchmark
+    public int tick() {
+        if (simulacion.terminada()) {
+            simulacion.inicializar(Escenario.ANCHO, Escenario.ALTO, filas, columnas);
+        }
+        rellenarBalas();
+        if (ticks++ % 15 == 0) {
+            simulacion.disparar();
+        }
+        simulacion.tick();
+        return simulacion.getPuntuacion();
+    }
+
+    private void rellenarBalas() {
+        Entidades disparos = simulacion.getEntidades();
+        int hueco = simulacion.getJugador().getBounds().izquierda - 40 * Escenario.UNIDAD;
+        int anchoHueco = simulacion.getJugador().getBounds().ancho() + 80 * Escenario.UNIDAD;
+        while (disparos.getCantidad() < balas) {
+            // Carriles repartidos por la pantalla, saltando la columna de la nave
+            int x = (carril++ * 37 * Escenario.UNIDAD) % (Escenario.ANCHO - anchoHueco);
+            if (x >= hueco) x += anchoHueco;
+            int y = (carril * 53 * Escenario.UNIDAD) % (Escenario.ALTO / 2);
+            disparos.crearCentrada(Simulacion.DISPARO_ENEMIGO, x, y, 0, Escenario.ALTO * 2 / 100);
+        }
+    }
+}
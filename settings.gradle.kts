@@ -21,3 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "VideojuegosAndroid"
 include(":app")
+include(":simulacion")
+include(":benchmarks")
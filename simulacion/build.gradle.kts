@@ -0,0 +1,18 @@
+plugins {
+    `java-library`
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+application {
+    // ./gradlew :simulacion:run --args="10000 1080 2340"
+    mainClass.set("com.example.spaceinvaders.simulacion.EjecutorHeadless")
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
@@ -0,0 +1,41 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * Aleatorio: generador pseudoaleatorio con semilla (SplitMix64), uno por
+ * partida. A diferencia de Math.random(), la misma semilla produce siempre
+ * la misma secuencia en cualquier JVM, que es lo que permite repetir una
+ * partida a partir de su semilla y su entrada (Repeticion).
+ * Sin sincronizacion ni reservas: lo usa solo el hilo de la simulacion.
+ */
+public final class Aleatorio {
+
+    private long estado;
+
+    public Aleatorio(long semilla) {
+        sembrar(semilla);
+    }
+
+    public void sembrar(long semilla) {
+        estado = semilla;
+    }
+
+    public long siguienteLong() {
+        long z = (estado += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Entero uniforme en [0, limite), con multiplicacion y desplazamiento en
+     * lugar de modulo (limite > 0).
+     */
+    public int siguienteInt(int limite) {
+        return (int) (((siguienteLong() >>> 33) * limite) >>> 31);
+    }
+
+    /** Estado interno, para guardarlo y continuar la secuencia mas tarde. */
+    public long getEstado() {
+        return estado;
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AlmacenPartidas: ficheros del juego en un directorio (la partida en curso,
+ * los records y la ultima repeticion). Toda la E/S ocurre en un unico hilo
+ * propio, en orden: quien guarda solo encola los bytes y sigue, de modo que
+ * ni el hilo de dibujo ni el de la UI esperan nunca al disco.
+ *
+ * Cada escritura es atomica: los bytes van a un fichero temporal por
+ * FileChannel, se fuerzan al disco y el temporal sustituye al definitivo con
+ * un rename. Si el proceso muere a mitad, queda el fichero anterior entero;
+ * un fichero danado por otra causa lo rechaza el CRC de su SobreBinario.
+ *
+ * La tabla de records solo la toca el hilo del almacen; los demas hilos leen
+ * la ultima copia publicada (getRecords) o la mejor puntuacion.
+ */
+public final class AlmacenPartidas {
+
+    /** Estado completo de la partida en curso (PartidaGuardada). */
+    public static final String FICHERO_PARTIDA = "partida.sav";
+    /** TablaRecords. */
+    public static final String FICHERO_RECORDS = "records.dat";
+    /**
+     * Repeticion de la ultima partida, para ReproductorRepeticion
+     * (adb exec-out run-as com.example.spaceinvaders cat files/ultima.rep > ultima.rep).
+     */
+    public static final String FICHERO_REPETICION = "ultima.rep";
+
+    private static final String SUFIJO_TEMPORAL = ".tmp";
+
+    private final File directorio;
+    private final ExecutorService hilo;
+
+    // --- Records: la tabla es del hilo del almacen; las copias, de solo lectura ---
+    private final TablaRecords records = new TablaRecords();
+    private volatile TablaRecords publicados = new TablaRecords();
+
+    private volatile IOException ultimoError;
+
+    /** Crea el hilo del almacen y empieza a leer los records en el. */
+    public AlmacenPartidas(File directorio) {
+        this.directorio = directorio;
+        hilo = Executors.newSingleThreadExecutor(tarea -> {
+            Thread t = new Thread(tarea, "almacen");
+            t.setDaemon(true);
+            return t;
+        });
+        hilo.execute(this::cargarRecords);
+    }
+
+    // =====================================================================
+    // FICHEROS
+    // =====================================================================
+
+    /**
+     * Encola la escritura atomica de un fichero completo y vuelve en el acto.
+     * El array pasa a ser del almacen: no debe modificarse despues.
+     */
+    public void escribir(String nombre, byte[] datos) {
+        hilo.execute(() -> {
+            try {
+                escribirAtomico(new File(directorio, nombre), ByteBuffer.wrap(datos));
+            } catch (IOException e) {
+                ultimoError = e;
+            }
+        });
+    }
+
+    /**
+     * Lee un fichero completo despues de las escrituras ya encoladas (bloquea
+     * a quien llama; pensado para el arranque).
+     *
+     * @return el contenido, o null si el fichero no existe.
+     */
+    public byte[] leer(String nombre) throws IOException {
+        try {
+            return hilo.submit(() -> leerFichero(new File(directorio, nombre))).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Lectura interrumpida", e);
+        }
+    }
+
+    /** Encola el borrado de un fichero (si existe). */
+    public void borrar(String nombre) {
+        hilo.execute(() -> {
+            File fichero = new File(directorio, nombre);
+            if (fichero.exists() && !fichero.delete()) {
+                ultimoError = new IOException("No se pudo borrar " + fichero);
+            }
+        });
+    }
+
+    /**
+     * Escribe en un temporal junto al destino, lo fuerza al disco y lo
+     * renombra sobre el destino (rename es atomico dentro de un directorio).
+     */
+    static void escribirAtomico(File destino, ByteBuffer datos) throws IOException {
+        File temporal = new File(destino.getPath() + SUFIJO_TEMPORAL);
+        try (FileOutputStream salida = new FileOutputStream(temporal)) {
+            FileChannel canal = salida.getChannel();
+            while (datos.hasRemaining()) {
+                canal.write(datos);
+            }
+            canal.force(true);
+        }
+        if (!temporal.renameTo(destino)) {
+            temporal.delete();
+            throw new IOException("No se pudo sustituir " + destino);
+        }
+    }
+
+    static byte[] leerFichero(File fichero) throws IOException {
+        try (FileInputStream entrada = new FileInputStream(fichero)) {
+            FileChannel canal = entrada.getChannel();
+            long tamanio = canal.size();
+            if (tamanio > Integer.MAX_VALUE) throw new IOException("Fichero demasiado grande: " + fichero);
+            ByteBuffer buffer = ByteBuffer.allocate((int) tamanio);
+            while (buffer.hasRemaining()) {
+                if (canal.read(buffer) < 0) throw new IOException("Fichero truncado al leer: " + fichero);
+            }
+            return buffer.array();
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    // =====================================================================
+    // RECORDS
+    // =====================================================================
+
+    private void cargarRecords() {
+        try {
+            byte[] datos = leerFichero(new File(directorio, FICHERO_RECORDS));
+            if (datos == null) return;
+            records.restaurar(datos);
+            publicarRecords();
+        } catch (IOException e) {
+            ultimoError = e;
+        } catch (IllegalArgumentException e) {
+            // Tabla danada: se empieza de cero y se sobrescribe con el siguiente record
+            ultimoError = new IOException("Records no validos", e);
+        }
+    }
+
+    /**
+     * Encola una partida terminada; si entra en la tabla, la tabla se
+     * publica y se guarda. Vuelve en el acto (se puede llamar desde el hilo
+     * de dibujo).
+     *
+     * @param oleada  oleada alcanzada (0 = la primera).
+     */
+    public void anotarPartida(int puntuacion, int oleada, long fechaMillis) {
+        anotarPartida(puntuacion, oleada, fechaMillis, null);
+    }
+
+    /**
+     * Igual que anotarPartida(puntuacion, oleada, fechaMillis), y despues
+     * ejecuta alPublicar en el hilo del almacen (haya record o no), p. ej.
+     * para redibujar una pantalla de fin que ya no se refresca sola.
+     */
+    public void anotarPartida(int puntuacion, int oleada, long fechaMillis, Runnable alPublicar) {
+        hilo.execute(() -> {
+            if (records.anotar(puntuacion, oleada, fechaMillis) < 0) {
+                if (alPublicar != null) alPublicar.run();
+                return;
+            }
+            publicarRecords();
+            if (alPublicar != null) alPublicar.run();
+            try {
+                escribirAtomico(new File(directorio, FICHERO_RECORDS), ByteBuffer.wrap(records.serializar()));
+            } catch (IOException e) {
+                ultimoError = e;
+            }
+        });
+    }
+
+    private void publicarRecords() {
+        TablaRecords copia = new TablaRecords();
+        copia.copiar(records);
+        publicados = copia;
+    }
+
+    /** Ultima tabla publicada; no se modifica una vez devuelta. */
+    public TablaRecords getRecords() {
+        return publicados;
+    }
+
+    public int getMejorPuntuacion() {
+        return publicados.getMejor();
+    }
+
+    // =====================================================================
+    // CICLO DE VIDA
+    // =====================================================================
+
+    /**
+     * Devuelve el error de la ultima operacion en segundo plano que fallo
+     * (null si ninguna) y lo olvida.
+     */
+    public IOException tomarUltimoError() {
+        IOException e = ultimoError;
+        ultimoError = null;
+        return e;
+    }
+
+    /** Espera a que termine todo lo encolado hasta ahora. */
+    public void esperar() throws InterruptedException {
+        try {
+            hilo.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Termina lo encolado y detiene el hilo; despues no admite mas operaciones. */
+    public void cerrar() throws InterruptedException {
+        hilo.shutdown();
+        hilo.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * BucleFijo: acumulador de paso fijo que desacopla la fisica del renderizado.
+ * Cada frame se le pasa el instante actual (System.nanoTime() en el dispositivo)
+ * y devuelve cuantos ticks de simulacion hay que ejecutar para ponerse al dia.
+ * El tiempo sobrante queda en el acumulador y se expone como alfa, la fraccion
+ * de tick transcurrida, para interpolar las posiciones al dibujar.
+ */
+public final class BucleFijo {
+
+    private long nanosPorTick;
+    private final int maxPasosPorFrame;
+
+    private long acumulado;
+    private long instanteAnterior;
+    private boolean iniciado;
+
+    /**
+     * @param ticksPorSegundo   frecuencia fija de la simulacion.
+     * @param maxPasosPorFrame  tope de ticks de recuperacion por frame; si el
+     *                          retraso es mayor se descarta (la partida se
+     *                          ralentiza en lugar de entrar en espiral de muerte).
+     */
+    public BucleFijo(int ticksPorSegundo, int maxPasosPorFrame) {
+        this.nanosPorTick = 1_000_000_000L / ticksPorSegundo;
+        this.maxPasosPorFrame = maxPasosPorFrame;
+    }
+
+    /**
+     * Acumula el tiempo transcurrido desde la llamada anterior.
+     *
+     * @param ahoraNanos  instante actual en nanosegundos (monotono).
+     * @return numero de ticks a simular en este frame.
+     */
+    public int avanzar(long ahoraNanos) {
+        if (!iniciado) {
+            iniciado = true;
+            instanteAnterior = ahoraNanos;
+            return 0;
+        }
+        acumulado += ahoraNanos - instanteAnterior;
+        instanteAnterior = ahoraNanos;
+
+        long pasos = acumulado / nanosPorTick;
+        if (pasos > maxPasosPorFrame) {
+            // Demasiado retraso (jank, depurador...): se simula el tope y se olvida el resto.
+            acumulado = 0;
+            return maxPasosPorFrame;
+        }
+        acumulado -= pasos * nanosPorTick;
+        return (int) pasos;
+    }
+
+    /**
+     * Fraccion del siguiente tick ya transcurrida, en [0, 1).
+     */
+    public float alfa() {
+        return (float) acumulado / nanosPorTick;
+    }
+
+    /** Cambia la frecuencia; solo entre partidas, seguido de reiniciar(). */
+    public void setTicksPorSegundo(int ticksPorSegundo) {
+        nanosPorTick = 1_000_000_000L / ticksPorSegundo;
+    }
+
+    /**
+     * Olvida el tiempo acumulado; se usa al reanudar tras una pausa para que
+     * el tiempo en segundo plano no se convierta en ticks de recuperacion.
+     */
+    public void reiniciar() {
+        acumulado = 0;
+        iniciado = false;
+    }
+
+    public long getNanosPorTick() {
+        return nanosPorTick;
+    }
+}
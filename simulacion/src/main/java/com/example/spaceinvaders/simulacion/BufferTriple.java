@@ -0,0 +1,81 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BufferTriple: intercambio de Instantaneas entre el hilo de simulacion
+ * (productor) y el de render (consumidor) sin cerrojos ni esperas.
+ *
+ * Hay tres instantaneas: una en escritura (del productor), una en lectura
+ * (del consumidor) y una intermedia, la ultima publicada. Publicar y tomar
+ * son un unico getAndSet sobre un entero que guarda el indice de la
+ * intermedia y un bit NUEVA, asi que ninguno de los dos lados espera nunca
+ * al otro (wait-free) y no se reserva memoria. Si el productor publica dos
+ * veces antes de que el consumidor tome, la mas antigua se descarta: el
+ * render siempre dibuja la mas reciente.
+ */
+public final class BufferTriple {
+
+    private static final int INDICE = 3;
+    private static final int NUEVA = 4;
+
+    private final Instantanea[] instantaneas = {new Instantanea(), new Instantanea(), new Instantanea()};
+    private final AtomicInteger intermedia = new AtomicInteger(2);
+
+    // Cada indice pertenece a un solo hilo
+    private int escritura = 0;
+    private int lectura = 1;
+    private boolean escrituraDescartada; // solo productor
+
+    // =====================================================================
+    // PRODUCTOR (hilo de simulacion)
+    // =====================================================================
+
+    /** Instantanea que el productor puede rellenar libremente. */
+    public Instantanea getEscritura() {
+        return instantaneas[escritura];
+    }
+
+    /**
+     * true si la instantanea de escritura actual se llego a publicar pero el
+     * consumidor nunca la leyo (lo que llevaba, p. ej. su entrada, no se ha visto).
+     */
+    public boolean isEscrituraDescartada() {
+        return escrituraDescartada;
+    }
+
+    /**
+     * Publica la instantanea de escritura y recupera la intermedia anterior
+     * como nueva instantanea de escritura.
+     */
+    public void publicar() {
+        int anterior = intermedia.getAndSet(escritura | NUEVA);
+        escritura = anterior & INDICE;
+        escrituraDescartada = (anterior & NUEVA) != 0;
+    }
+
+    // =====================================================================
+    // CONSUMIDOR (hilo de render)
+    // =====================================================================
+
+    /**
+     * Pasa a leer la instantanea publicada mas reciente, si hay alguna nueva.
+     *
+     * @return true si getLectura() ha cambiado desde la llamada anterior.
+     */
+    public boolean tomar() {
+        if ((intermedia.get() & NUEVA) == 0) return false;
+        lectura = intermedia.getAndSet(lectura) & INDICE;
+        return true;
+    }
+
+    /** true si hay una instantanea publicada que tomar() aun no ha recogido. */
+    public boolean hayNueva() {
+        return (intermedia.get() & NUEVA) != 0;
+    }
+
+    /** Instantanea que el consumidor esta leyendo; nadie la modifica mientras tanto. */
+    public Instantanea getLectura() {
+        return instantaneas[lectura];
+    }
+}
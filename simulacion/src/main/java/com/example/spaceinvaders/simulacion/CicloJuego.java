@@ -0,0 +1,130 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * CicloJuego: estado del juego visto desde el ciclo de vida (jugando,
+ * pausado, terminado o en segundo plano) y monitor en el que aparcan los
+ * hilos del juego cuando no tienen nada que hacer.
+ *
+ * El estado se deduce de cuatro condiciones que llegan de distintos hilos:
+ * la Activity en primer plano, el Surface valido, el foco de la ventana
+ * (hilo de la UI) y la partida terminada (hilo de simulacion). Los hilos
+ * solo deben correr con primer plano y Surface (isActivo); en PAUSADO y en
+ * TERMINADO aparcan con esperarCambio() hasta que cambie el estado o llegue
+ * un evento de entrada, sin ticks, sin frames y sin despertares periodicos.
+ *
+ * Cada cambio incrementa una version: quien aparca pasa la que leyo antes de
+ * decidir que no tenia trabajo, asi que un aviso que llegue entre la
+ * comprobacion y la espera no se pierde.
+ */
+public final class CicloJuego {
+
+    // --- Estados ---
+    public static final int JUGANDO = 0;
+    public static final int PAUSADO = 1;
+    public static final int TERMINADO = 2;
+    public static final int SEGUNDO_PLANO = 3;
+    public static final String[] NOMBRES = {"jugando", "pausado", "terminado", "segundo plano"};
+
+    // --- Condiciones (protegidas por this) ---
+    private boolean primerPlano;
+    private boolean superficie;
+    private boolean foco = true;
+    private boolean partidaTerminada;
+
+    private int estado = SEGUNDO_PLANO;
+    private long version;
+
+    // --- Medida: veces que un hilo aparcado ha vuelto a correr (se escribe con this) ---
+    private volatile long despertares;
+
+    /** La Activity pasa a primer plano (onResume) o sale de el (onPause). */
+    public synchronized void setPrimerPlano(boolean primerPlano) {
+        this.primerPlano = primerPlano;
+        recalcular();
+    }
+
+    /** El Surface se ha creado o se va a destruir. */
+    public synchronized void setSuperficie(boolean superficie) {
+        this.superficie = superficie;
+        recalcular();
+    }
+
+    /** La ventana gana o pierde el foco (p. ej. al desplegar las notificaciones). */
+    public synchronized void setFoco(boolean foco) {
+        this.foco = foco;
+        recalcular();
+    }
+
+    /** Lo anota el hilo de simulacion tras cada tanda de ticks. */
+    public synchronized void setPartidaTerminada(boolean partidaTerminada) {
+        if (this.partidaTerminada == partidaTerminada) return;
+        this.partidaTerminada = partidaTerminada;
+        recalcular();
+    }
+
+    /** Ha llegado un evento de entrada: despierta a los hilos aparcados. */
+    public synchronized void notificarEntrada() {
+        cambiar();
+    }
+
+    /** Despierta a los hilos aparcados sin cambiar el estado (para detenerlos o redibujar). */
+    public synchronized void despertar() {
+        cambiar();
+    }
+
+    private void recalcular() {
+        int nuevo;
+        if (!primerPlano) {
+            nuevo = SEGUNDO_PLANO;
+        } else if (!superficie || !foco) {
+            nuevo = PAUSADO;
+        } else if (partidaTerminada) {
+            nuevo = TERMINADO;
+        } else {
+            nuevo = JUGANDO;
+        }
+        if (nuevo != estado) {
+            estado = nuevo;
+            cambiar();
+        }
+    }
+
+    private void cambiar() {
+        version++;
+        notifyAll();
+    }
+
+    public synchronized int getEstado() {
+        return estado;
+    }
+
+    /** true si los hilos del juego deben existir: primer plano y Surface valido. */
+    public synchronized boolean isActivo() {
+        return primerPlano && superficie;
+    }
+
+    /** Version actual; se lee antes de comprobar si hay trabajo. */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Bloquea el hilo que llama hasta que la version deje de ser la indicada
+     * (cambio de estado, entrada o despertar()). Vuelve en el acto si ya ha
+     * cambiado.
+     */
+    public void esperarCambio(long versionVista) throws InterruptedException {
+        synchronized (this) {
+            if (version != versionVista) return;
+            do {
+                wait();
+            } while (version == versionVista);
+            despertares++;
+        }
+    }
+
+    /** Veces que un hilo aparcado ha vuelto a correr; quieto en reposo si no llega nada. */
+    public long getDespertares() {
+        return despertares;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * ClientePartida: lado remoto de ServidorPartida. Decodifica las
+ * instantaneas que llegan por el Transporte en una Instantanea que Escena
+ * dibuja igual que las locales, y devuelve al servidor la confirmacion de la
+ * ultima recibida junto con la entrada del jugador. No simula nada: lo que
+ * se ve es siempre el estado del servidor. No reserva memoria en cada tick.
+ */
+public final class ClientePartida {
+
+    /** Bits del tipo de evento en el paquete de entrada. */
+    static final int BITS_TIPO = 3;
+    /** Eventos que se acumulan entre dos envios; los de mas se descartan. */
+    public static final int MAX_EVENTOS = 64;
+
+    private final Transporte transporte;
+    private final DecodificadorInstantaneas decodificador = new DecodificadorInstantaneas();
+    private final Instantanea recibida = new Instantanea();
+    private final EscritorBits escritor = new EscritorBits();
+    private final byte[] paquete;
+
+    // --- Entrada pendiente de enviar ---
+    private final byte[] tipos = new byte[MAX_EVENTOS];
+    private final int[] valores = new int[MAX_EVENTOS];
+    private int numEventos;
+    private int eventosDescartados;
+
+    private long paquetesDanados;
+
+    public ClientePartida(Transporte transporte) {
+        this.transporte = transporte;
+        this.paquete = new byte[transporte.getTamMaximo()];
+    }
+
+    /**
+     * Anota un evento (MOVER, PULSAR, SOLTAR o DISPARAR, con X en unidades del mundo)
+     * para el siguiente actualizar().
+     */
+    public void publicar(byte tipo, float valor) {
+        if (numEventos == MAX_EVENTOS) {
+            eventosDescartados++;
+            return;
+        }
+        tipos[numEventos] = tipo;
+        valores[numEventos] = Math.round(valor);
+        numEventos++;
+    }
+
+    /**
+     * Decodifica todo lo recibido, copia en destino la instantanea mas
+     * reciente y envia al servidor la confirmacion y la entrada pendiente.
+     *
+     * @param instanteNanos  instante local, para interpolar al dibujar.
+     * @return true si destino ha cambiado.
+     */
+    public boolean actualizar(Instantanea destino, long instanteNanos) {
+        boolean nueva = false;
+        int longitud;
+        while ((longitud = transporte.recibir(paquete)) >= 0) {
+            try {
+                if (decodificador.decodificar(paquete, longitud, recibida, instanteNanos)) {
+                    // Se copia ya: un paquete danado despues deja recibida a medias
+                    destino.copiarEstado(recibida);
+                    nueva = true;
+                }
+            } catch (IllegalArgumentException e) {
+                // destino conserva la ultima buena, de este lote o de antes
+                paquetesDanados++;
+            }
+        }
+        enviar();
+        return nueva;
+    }
+
+    private void enviar() {
+        escritor.reiniciar(paquete);
+        escritor.escribirNatural(decodificador.getUltimoTick() + 1);
+        escritor.escribirNatural(numEventos);
+        for (int i = 0; i < numEventos; i++) {
+            escritor.escribir(tipos[i], BITS_TIPO);
+            escritor.escribirEntero(valores[i]);
+        }
+        numEventos = 0;
+        transporte.enviar(paquete, escritor.terminar());
+    }
+
+    /** Tick de la ultima instantanea recibida, o -1. */
+    public long getUltimoTick() {
+        return decodificador.getUltimoTick();
+    }
+
+    public DecodificadorInstantaneas getDecodificador() {
+        return decodificador;
+    }
+
+    public int getEventosDescartados() {
+        return eventosDescartados;
+    }
+
+    public long getPaquetesDanados() {
+        return paquetesDanados;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * CodificadorInstantaneas: lado del servidor de la codificacion delta. Cada
+ * Instantanea se envia como diferencia con la ultima que el cliente ha
+ * confirmado (confirmar), o completa si aun no hay ninguna o la confirmada
+ * es ya demasiado antigua. Como la base siempre es algo que el cliente tiene,
+ * un paquete perdido no rompe los siguientes: solo crecen un poco hasta la
+ * siguiente confirmacion.
+ *
+ * Paquete: tick y distancia a la base (0 = completa) en Exp-Golomb y despues
+ * Instantanea.escribirDelta. Un codificador por cliente; no es seguro entre
+ * hilos y, una vez dimensionado, no reserva memoria.
+ */
+public final class CodificadorInstantaneas {
+
+    /**
+     * Instantaneas enviadas que se recuerdan para cuando llegue su
+     * confirmacion; el DecodificadorInstantaneas guarda las mismas.
+     */
+    public static final int HISTORIAL = 32;
+
+    private final Instantanea[] enviadas = new Instantanea[HISTORIAL];
+    private final Instantanea vacia = new Instantanea();
+    private final Instantanea base = new Instantanea();
+    private boolean conBase;
+    private final EscritorBits escritor = new EscritorBits();
+
+    // --- Medida ---
+    private long paquetes;
+    private long bytes;
+    private long completas;
+
+    public CodificadorInstantaneas() {
+        for (int i = 0; i < HISTORIAL; i++) {
+            enviadas[i] = new Instantanea();
+        }
+    }
+
+    /**
+     * Codifica una instantanea (sus ticks deben crecer de una llamada a otra)
+     * y la recuerda como posible base.
+     *
+     * @return bytes escritos en destino.
+     * @throws IllegalArgumentException si no cabe en destino; la instantanea
+     *         no cuenta como enviada y el codificador sigue como estaba.
+     */
+    public int codificar(Instantanea actual, byte[] destino) {
+        long tick = actual.getTick();
+        long distancia = conBase ? tick - base.getTick() : 0;
+        if (distancia <= 0 || distancia >= HISTORIAL) {
+            // Sin base que el cliente conserve seguro: completa
+            distancia = 0;
+        }
+        escritor.reiniciar(destino);
+        escritor.escribirNatural(tick);
+        escritor.escribirNatural(distancia);
+        actual.escribirDelta(escritor, distancia == 0 ? vacia : base);
+        int longitud = escritor.terminar();
+
+        enviadas[(int) (tick % HISTORIAL)].copiarEstado(actual);
+        if (distancia == 0) completas++;
+        paquetes++;
+        bytes += longitud;
+        return longitud;
+    }
+
+    /**
+     * El cliente ha recibido el tick indicado: pasa a ser la base si es mas
+     * reciente que la actual y aun se recuerda. Las confirmaciones
+     * repetidas, atrasadas o desconocidas se ignoran.
+     */
+    public void confirmar(long tick) {
+        if (conBase && tick <= base.getTick()) return;
+        Instantanea enviada = enviadas[(int) (tick % HISTORIAL)];
+        if (enviada.getTick() != tick) return;
+        base.copiarEstado(enviada);
+        conBase = true;
+    }
+
+    /** Olvida la base: el siguiente paquete va completo (cliente nuevo). */
+    public void reiniciar() {
+        conBase = false;
+    }
+
+    /** Tick de la base actual, o -1 si no hay. */
+    public long getTickBase() {
+        return conBase ? base.getTick() : -1;
+    }
+
+    public long getPaquetes() {
+        return paquetes;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    /** Paquetes enviados completos, sin base. */
+    public long getCompletas() {
+        return completas;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ColaEntrada: buffer circular sin cerrojos de un productor y un consumidor
+ * (SPSC) para los eventos de entrada.
+ * El hilo de la UI publica eventos con su instante y la simulacion los drena
+ * al principio de cada tick, en el hilo del juego, de modo que la entrada se
+ * aplica siempre en la frontera entre ticks y nunca a mitad de uno.
+ *
+ * Cada lado solo escribe su propio contador (escritos / leidos) y lo publica
+ * con lazySet, una escritura ordenada sin barrera completa; el productor
+ * guarda en cache la ultima posicion leida del consumidor para no tocar su
+ * linea de cache en cada evento. Ninguna operacion reserva memoria.
+ * Si la cola esta llena, el evento se descarta y se cuenta.
+ */
+public final class ColaEntrada {
+
+    // --- Tipos de evento ---
+    /** Mueve la nave hacia X (valor = X en unidades del mundo, 0..Simulacion.ANCHO_MUNDO). */
+    public static final byte MOVER = 0;
+    /** Dedo abajo: mueve hacia X y dispara; con la partida terminada, reinicia. */
+    public static final byte PULSAR = 1;
+    /** Dedo arriba: la nave se detiene. */
+    public static final byte SOLTAR = 2;
+    /**
+     * Nuevo ancho de la pantalla; se aplica con el ALTO que le sigue. Solo
+     * cuenta la proporcion: el mundo mide siempre ANCHO_MUNDO unidades de
+     * ancho y su alto sale de ella (Simulacion.redimensionar).
+     */
+    public static final byte ANCHO = 3;
+    /** Nuevo alto de la pantalla: redimensiona el mundo con el ultimo ANCHO recibido. */
+    public static final byte ALTO = 4;
+    /** Otro dedo mientras se arrastra: dispara sin mover la nave; con la partida terminada, reinicia. */
+    public static final byte DISPARAR = 5;
+
+    /** Recibe los eventos drenados, en el orden en que se publicaron. */
+    public interface Consumidor {
+        void aplicar(byte tipo, float valor, long instanteNanos);
+    }
+
+    private final int mascara;
+    private final byte[] tipos;
+    private final float[] valores;
+    private final long[] instantes;
+
+    // --- Contadores: cada uno lo escribe un solo hilo ---
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong leidos = new AtomicLong();
+    private long leidosCache; // solo productor
+    private volatile int descartados;
+
+    /**
+     * @param capacidad  numero de eventos; se redondea a potencia de dos.
+     */
+    public ColaEntrada(int capacidad) {
+        int tam = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        mascara = tam - 1;
+        tipos = new byte[tam];
+        valores = new float[tam];
+        instantes = new long[tam];
+    }
+
+    /**
+     * Publica un evento. Solo debe llamarse desde el hilo productor.
+     *
+     * @param instanteNanos  instante del evento en la base de System.nanoTime().
+     * @return false si la cola estaba llena y el evento se ha descartado.
+     */
+    public boolean publicar(byte tipo, float valor, long instanteNanos) {
+        long w = escritos.get();
+        if (w - leidosCache > mascara) {
+            leidosCache = leidos.get();
+            if (w - leidosCache > mascara) {
+                descartados++;
+                return false;
+            }
+        }
+        int i = (int) w & mascara;
+        tipos[i] = tipo;
+        valores[i] = valor;
+        instantes[i] = instanteNanos;
+        escritos.lazySet(w + 1); // publica el evento despues de escribirlo
+        return true;
+    }
+
+    /**
+     * Entrega al consumidor todos los eventos publicados hasta ahora, en orden.
+     * Solo debe llamarse desde el hilo consumidor.
+     *
+     * @return numero de eventos entregados.
+     */
+    public int drenar(Consumidor destino) {
+        long r = leidos.get();
+        long w = escritos.get();
+        if (r == w) return 0;
+        for (long k = r; k < w; k++) {
+            int i = (int) k & mascara;
+            destino.aplicar(tipos[i], valores[i], instantes[i]);
+        }
+        leidos.lazySet(w); // libera los huecos para el productor
+        return (int) (w - r);
+    }
+
+    /** Eventos publicados y aun no drenados (aproximado si se llama desde otro hilo). */
+    public int getPendientes() {
+        return (int) (escritos.get() - leidos.get());
+    }
+
+    public int getCapacidad() {
+        return mascara + 1;
+    }
+
+    public int getDescartados() {
+        return descartados;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * DecodificadorInstantaneas: lado del cliente de la codificacion delta.
+ * Recuerda las ultimas HISTORIAL instantaneas recibidas, que son las bases
+ * que el servidor puede usar, y descarta los paquetes que llegan tarde o
+ * duplicados. Tras decodificar, el cliente confirma getUltimoTick() al
+ * servidor (CodificadorInstantaneas.confirmar). Sin reservas una vez
+ * dimensionado.
+ */
+public final class DecodificadorInstantaneas {
+
+    private final Instantanea[] recibidas = new Instantanea[CodificadorInstantaneas.HISTORIAL];
+    private final Instantanea vacia = new Instantanea();
+    private final LectorBits lector = new LectorBits();
+    private long ultimoTick = -1;
+    private long descartados;
+
+    public DecodificadorInstantaneas() {
+        for (int i = 0; i < recibidas.length; i++) {
+            recibidas[i] = new Instantanea();
+        }
+    }
+
+    /**
+     * Decodifica un paquete de CodificadorInstantaneas en destino.
+     *
+     * @param instanteNanos  instante local de recepcion (para interpolar al dibujar).
+     * @return false si el paquete es anterior al ultimo recibido o su base ya
+     *         no se conserva; destino no cambia.
+     * @throws IllegalArgumentException si el paquete esta danado; destino
+     *         queda a medias y no debe dibujarse.
+     */
+    public boolean decodificar(byte[] datos, int longitud, Instantanea destino, long instanteNanos) {
+        lector.reiniciar(datos, longitud);
+        long tick = lector.leerNatural();
+        long distancia = lector.leerNatural();
+        if (tick <= ultimoTick || distancia > tick) {
+            descartados++;
+            return false;
+        }
+        Instantanea base = vacia;
+        if (distancia > 0) {
+            base = recibidas[(int) ((tick - distancia) % recibidas.length)];
+            if (base.getTick() != tick - distancia) {
+                descartados++;
+                return false;
+            }
+        }
+        // Se decodifica en destino y despues se copia: la base puede ocupar
+        // la misma posicion del historial que la nueva
+        destino.leerDelta(lector, base, tick, instanteNanos);
+        recibidas[(int) (tick % recibidas.length)].copiarEstado(destino);
+        ultimoTick = tick;
+        return true;
+    }
+
+    /** Olvida lo recibido (otro servidor u otra partida): espera un paquete completo. */
+    public void reiniciar() {
+        for (Instantanea r : recibidas) {
+            r.invalidar();
+        }
+        ultimoTick = -1;
+    }
+
+    /** Tick de la ultima instantanea decodificada, o -1. */
+    public long getUltimoTick() {
+        return ultimoTick;
+    }
+
+    /** Paquetes descartados por llegar tarde o sin base. */
+    public long getDescartados() {
+        return descartados;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * EjecutorHeadless: lanza partidas completas en una JVM sin pantalla ni Android.
+ * Los ticks se encadenan sin esperar al reloj, por lo que cada partida dura
+ * lo que tarde la CPU en simularla. La nave la controla un bot
+ * sencillo que persigue al enemigo mas cercano y dispara periodicamente.
+ * El bot juega por la cola de entrada, como el dedo en GameView, asi que sus
+ * partidas se pueden grabar (setGrabador) y reproducir. La partida n usa la
+ * semilla base + n: la serie completa es reproducible.
+ *
+ * Uso: EjecutorHeadless [partidas] [ancho] [alto] [semilla] [repeticion.rep] [perfil.csv] [oleadas] [hz]
+ * (con fichero de repeticion se graba la ultima partida; "-" para omitirlo.
+ * Con fichero de perfil se vuelcan los tiempos por fase de todos los ticks.
+ * Oleadas: "clasica" (4x7, por defecto), "campania", "estres", "estres:N" o
+ * una descripcion de GeneradorOleadas con ';' como salto de linea. Hz: ticks
+ * por segundo de la simulacion, 60 por defecto)
+ *
+ * Un ejecutor juega sus partidas una tras otra en un hilo; para repartir
+ * tandas grandes entre todos los nucleos esta MotorLotes.
+ */
+public class EjecutorHeadless {
+
+    /** Limite de seguridad para que una partida bloqueada no cuelgue el ejecutor. */
+    public static final long MAX_PASOS_POR_PARTIDA = 200_000;
+    /** Cadencia de disparo del bot en ticks a 60 Hz (250 ms). */
+    private static final int CADENCIA_BOT = 15;
+
+    private final int ancho;
+    private final int alto;
+    private final long semillaBase;
+    private final GeneradorOleadas oleadas;
+    private final Simulacion simulacion = new Simulacion();
+    private float ultimoObjetivo;
+
+    // --- Resultados acumulados ---
+    private int partidas;
+    private int victorias;
+    private long pasosTotales;
+    private long puntuacionTotal;
+    private long oleadasSuperadas;
+
+    public EjecutorHeadless(int ancho, int alto) {
+        this(ancho, alto, Simulacion.SEMILLA_POR_DEFECTO);
+    }
+
+    public EjecutorHeadless(int ancho, int alto, long semillaBase) {
+        this(ancho, alto, semillaBase, GeneradorOleadas.unica(4, 7));
+    }
+
+    public EjecutorHeadless(int ancho, int alto, long semillaBase, GeneradorOleadas oleadas) {
+        this.ancho = ancho;
+        this.alto = alto;
+        this.semillaBase = semillaBase;
+        this.oleadas = oleadas;
+    }
+
+    /** Graba las partidas siguientes (cada jugarPartida() empieza una repeticion). */
+    public void setGrabador(GrabadorRepeticion grabador) {
+        simulacion.setGrabador(grabador);
+    }
+
+    /**
+     * Juega una partida completa y devuelve el numero de ticks simulados.
+     */
+    public long jugarPartida() {
+        simulacion.inicializar(ancho, alto, oleadas, semillaBase + partidas);
+        ColaEntrada entrada = simulacion.getEntrada();
+        ultimoObjetivo = -1;
+        int cadencia = Math.max(1, CADENCIA_BOT * simulacion.getFrecuencia() / Simulacion.TICKS_POR_SEGUNDO);
+
+        long pasos = 0;
+        while (!simulacion.terminada() && pasos < MAX_PASOS_POR_PARTIDA) {
+            float objetivo = objetivoBot();
+            if (pasos % cadencia == 0) {
+                entrada.publicar(ColaEntrada.PULSAR, objetivo, 0);
+            } else if (objetivo != ultimoObjetivo) {
+                // Solo los cambios: el objetivo se mantiene entre ticks
+                entrada.publicar(ColaEntrada.MOVER, objetivo, 0);
+            }
+            ultimoObjetivo = objetivo;
+            simulacion.tick();
+            simulacion.getLatencia().descartarPendientes();
+            pasos++;
+        }
+
+        partidas++;
+        oleadasSuperadas += simulacion.isVictoria() ? simulacion.getNumeroOleada() + 1 : simulacion.getNumeroOleada();
+        if (simulacion.isVictoria()) victorias++;
+        pasosTotales += pasos;
+        puntuacionTotal += simulacion.getPuntuacion();
+        return pasos;
+    }
+
+    /**
+     * El bot apunta al centro de la columna con enemigos mas proxima a la nave.
+     */
+    private float objetivoBot() {
+        Formacion formacion = simulacion.getFormacion();
+        int cx = simulacion.getJugador().getBounds().centroX();
+        int mejor = cx;
+        int mejorDist = Integer.MAX_VALUE;
+        for (int col = 0; col < formacion.getColumnas(); col++) {
+            if (formacion.getVivosEnColumna(col) == 0) continue;
+            int ex = formacion.centroColumna(col);
+            int dist = Math.abs(ex - cx);
+            if (dist < mejorDist) {
+                mejorDist = dist;
+                mejor = ex;
+            }
+        }
+        return mejor;
+    }
+
+    public Simulacion getSimulacion() {
+        return simulacion;
+    }
+
+    public int getPartidas() {
+        return partidas;
+    }
+
+    public int getVictorias() {
+        return victorias;
+    }
+
+    public long getPasosTotales() {
+        return pasosTotales;
+    }
+
+    public long getPuntuacionTotal() {
+        return puntuacionTotal;
+    }
+
+    public long getOleadasSuperadas() {
+        return oleadasSuperadas;
+    }
+
+    /** Oleadas por nombre o, si no es un nombre conocido, por su descripcion. */
+    static GeneradorOleadas elegirOleadas(String nombre) {
+        if (nombre.equals("clasica")) return GeneradorOleadas.unica(4, 7);
+        if (nombre.equals("campania")) return GeneradorOleadas.campania();
+        if (nombre.equals("estres")) return GeneradorOleadas.estres(10_000);
+        if (nombre.startsWith("estres:")) return GeneradorOleadas.estres(Integer.parseInt(nombre.substring(7)));
+        return GeneradorOleadas.leer(nombre.replace(';', '\n'));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int partidas = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int ancho = args.length > 1 ? Integer.parseInt(args[1]) : 1080;
+        int alto = args.length > 2 ? Integer.parseInt(args[2]) : 2340;
+        long semilla = args.length > 3 ? Long.parseLong(args[3]) : Simulacion.SEMILLA_POR_DEFECTO;
+        String fichero = args.length > 4 && !args[4].equals("-") ? args[4] : null;
+        String csv = args.length > 5 && !args[5].equals("-") ? args[5] : null;
+        GeneradorOleadas oleadas = elegirOleadas(args.length > 6 && !args[6].equals("-") ? args[6] : "clasica");
+        int frecuencia = args.length > 7 ? Integer.parseInt(args[7]) : Simulacion.TICKS_POR_SEGUNDO;
+
+        EjecutorHeadless ejecutor = new EjecutorHeadless(ancho, alto, semilla, oleadas);
+        ejecutor.getSimulacion().setFrecuencia(frecuencia);
+        // Sin volcado no se mide: el perfil cuesta varias lecturas del reloj por tick
+        ejecutor.getSimulacion().getPerfilador().setActivo(csv != null);
+        GrabadorRepeticion grabador = fichero != null ? new GrabadorRepeticion() : null;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < partidas; i++) {
+            if (grabador != null && i == partidas - 1) {
+                ejecutor.setGrabador(grabador);
+            }
+            ejecutor.jugarPartida();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        if (grabador != null) {
+            try (OutputStream out = new FileOutputStream(fichero)) {
+                grabador.escribir(out, ejecutor.getSimulacion().getTicks());
+            }
+            System.out.printf("Repeticion: %s (%d eventos, %d bytes)%n", fichero,
+                    grabador.getEventos(), grabador.getLongitud());
+        }
+
+        System.out.printf("Partidas: %d (%dx%d, %d Hz)%n", partidas, ancho, alto, frecuencia);
+        System.out.printf("Oleadas superadas por partida: %.2f%n", (double) ejecutor.getOleadasSuperadas() / partidas);
+        System.out.printf("Victorias: %d (%.1f%%)%n", ejecutor.getVictorias(),
+                100.0 * ejecutor.getVictorias() / partidas);
+        System.out.printf("Puntuacion media: %.1f%n", (double) ejecutor.getPuntuacionTotal() / partidas);
+        System.out.printf("Ticks: %d (%.0f ticks/s, %.0fx tiempo real)%n", ejecutor.getPasosTotales(),
+                ejecutor.getPasosTotales() / segundos,
+                ejecutor.getPasosTotales() / segundos / frecuencia);
+        System.out.printf("Tiempo: %.2f s (%.0f partidas/s)%n", segundos, partidas / segundos);
+
+        if (csv != null) {
+            try (Writer out = new FileWriter(csv)) {
+                ejecutor.getSimulacion().getPerfilador().escribirCsv(out);
+            }
+            System.out.printf("Perfil por fases: %s%n", csv);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Entidades: almacen orientado a datos de todo lo que vuela por el mundo
+ * (hoy los disparos del jugador y de los enemigos), guardado como estructura
+ * de arrays: un array primitivo denso por componente (posicion, tamanio,
+ * velocidad, tipo y faccion). Las entidades vivas son exactamente las
+ * [0, getCantidad()): crear escribe en la primera posicion libre y eliminar
+ * mueve la ultima al hueco (swap-remove), ambos en O(1), asi que no hace
+ * falta una marca de vida ni saltar huecos al recorrerlas. Una vez que la
+ * capacidad se ajusta al pico, el juego no vuelve a reservar memoria. El
+ * orden no se conserva tras una eliminacion.
+ *
+ * Un tipo nuevo (escudo, ovni, mejora...) es un registrarTipo() con su
+ * faccion y su tamanio, no una clase con su propia lista: lo mueven los
+ * mismos sistemas (integrar(), descartarFuera()), las colisiones de la
+ * Simulacion lo tratan segun su faccion y la Instantanea lo lleva con su
+ * tipo hasta Escena, que lo dibuja con su sprite (Renderer.ENTIDAD + tipo).
+ */
+public final class Entidades {
+
+    // --- Facciones: contra quien colisiona cada entidad ---
+    public static final byte JUGADOR = 0;
+    public static final byte ENEMIGO = 1;
+
+    public static final int MAX_TIPOS = 16;
+
+    // --- Tipos registrados: faccion y tamanio actual en el mundo ---
+    private final byte[] faccionTipo = new byte[MAX_TIPOS];
+    private final int[] anchoTipo = new int[MAX_TIPOS];
+    private final int[] altoTipo = new int[MAX_TIPOS];
+    private int numTipos;
+
+    // --- Componentes, uno por entidad viva ---
+    private int[] x;          // borde izquierdo
+    private int[] y;          // borde superior
+    private int[] xAnterior;  // en el tick anterior (interpolacion)
+    private int[] yAnterior;
+    private int[] ancho;
+    private int[] alto;
+    private int[] vx;
+    private int[] vy;         // negativa = sube, positiva = baja
+    private byte[] tipo;
+    private byte[] faccion;
+    private int cantidad;
+
+    public Entidades(int capacidadInicial) {
+        x = new int[capacidadInicial];
+        y = new int[capacidadInicial];
+        xAnterior = new int[capacidadInicial];
+        yAnterior = new int[capacidadInicial];
+        ancho = new int[capacidadInicial];
+        alto = new int[capacidadInicial];
+        vx = new int[capacidadInicial];
+        vy = new int[capacidadInicial];
+        tipo = new byte[capacidadInicial];
+        faccion = new byte[capacidadInicial];
+    }
+
+    // =====================================================================
+    // TIPOS
+    // =====================================================================
+
+    /**
+     * Da de alta un tipo de entidad. Los identificadores se asignan en orden
+     * de registro (0, 1, ...), asi que quien registra siempre en el mismo
+     * orden obtiene siempre los mismos: son los que se guardan.
+     *
+     * @return identificador del tipo.
+     */
+    public byte registrarTipo(String nombre, byte faccion) {
+        if (numTipos == MAX_TIPOS) {
+            throw new IllegalStateException("Demasiados tipos de entidad: " + nombre);
+        }
+        faccionTipo[numTipos] = faccion;
+        return (byte) numTipos++;
+    }
+
+    /**
+     * Tamanio de las entidades de un tipo que se creen a partir de ahora (y
+     * de todas las del tipo tras reescalar()).
+     */
+    public void setTamanio(byte tipo, int ancho, int alto) {
+        anchoTipo[tipo] = ancho;
+        altoTipo[tipo] = alto;
+    }
+
+    public int getNumTipos() {
+        return numTipos;
+    }
+
+    public int getAnchoTipo(byte tipo) {
+        return anchoTipo[tipo];
+    }
+
+    public int getAltoTipo(byte tipo) {
+        return altoTipo[tipo];
+    }
+
+    // =====================================================================
+    // CREAR Y ELIMINAR
+    // =====================================================================
+
+    /**
+     * Crea una entidad del tipo indicado con su esquina superior izquierda en
+     * (x, y) y el tamanio actual del tipo.
+     *
+     * @return indice de la nueva entidad.
+     */
+    public int crear(byte tipo, int x, int y, int vx, int vy) {
+        if (cantidad == this.x.length) {
+            crecer();
+        }
+        int i = cantidad++;
+        this.x[i] = x;
+        this.y[i] = y;
+        xAnterior[i] = x;
+        yAnterior[i] = y;
+        ancho[i] = anchoTipo[tipo];
+        alto[i] = altoTipo[tipo];
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+        this.tipo[i] = tipo;
+        faccion[i] = faccionTipo[tipo];
+        return i;
+    }
+
+    /**
+     * Crea una entidad con la parte inferior centrada en (cx, abajo), como
+     * un proyectil que sale de un canion.
+     *
+     * @return indice de la nueva entidad.
+     */
+    public int crearCentrada(byte tipo, int cx, int abajo, int vx, int vy) {
+        return crear(tipo, cx - anchoTipo[tipo] / 2, abajo - altoTipo[tipo], vx, vy);
+    }
+
+    /**
+     * Elimina la entidad i moviendo la ultima a su posicion.
+     * Al recorrerlas, tras eliminar no hay que avanzar el indice.
+     */
+    public void eliminar(int i) {
+        int ultima = --cantidad;
+        x[i] = x[ultima];
+        y[i] = y[ultima];
+        xAnterior[i] = xAnterior[ultima];
+        yAnterior[i] = yAnterior[ultima];
+        ancho[i] = ancho[ultima];
+        alto[i] = alto[ultima];
+        vx[i] = vx[ultima];
+        vy[i] = vy[ultima];
+        tipo[i] = tipo[ultima];
+        faccion[i] = faccion[ultima];
+    }
+
+    /** Elimina todas las entidades; conserva los tipos y los arrays reservados. */
+    public void vaciar() {
+        cantidad = 0;
+    }
+
+    private void crecer() {
+        int capacidad = Math.max(16, x.length * 2);
+        x = Arrays.copyOf(x, capacidad);
+        y = Arrays.copyOf(y, capacidad);
+        xAnterior = Arrays.copyOf(xAnterior, capacidad);
+        yAnterior = Arrays.copyOf(yAnterior, capacidad);
+        ancho = Arrays.copyOf(ancho, capacidad);
+        alto = Arrays.copyOf(alto, capacidad);
+        vx = Arrays.copyOf(vx, capacidad);
+        vy = Arrays.copyOf(vy, capacidad);
+        tipo = Arrays.copyOf(tipo, capacidad);
+        faccion = Arrays.copyOf(faccion, capacidad);
+    }
+
+    // =====================================================================
+    // SISTEMAS (una pasada lineal por componente)
+    // =====================================================================
+
+    /**
+     * Memoriza la posicion actual como la del tick anterior y suma la
+     * velocidad. Sin ramas ni llamadas: el JIT puede vectorizarlo.
+     */
+    public void integrar() {
+        int n = cantidad;
+        for (int i = 0; i < n; i++) {
+            xAnterior[i] = x[i];
+            yAnterior[i] = y[i];
+            x[i] += vx[i];
+            y[i] += vy[i];
+        }
+    }
+
+    /** Elimina las entidades que han salido por completo del mundo. */
+    public void descartarFuera(int anchoMundo, int altoMundo) {
+        int i = 0;
+        while (i < cantidad) {
+            if (x[i] + ancho[i] < 0 || x[i] > anchoMundo || y[i] + alto[i] < 0 || y[i] > altoMundo) {
+                eliminar(i); // el hueco lo ocupa la ultima: se vuelve a examinar i
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Lleva las entidades a un mundo de otro tamanio: posiciones (por el
+     * centro) y velocidades se escalan en proporcion (aritmetica entera,
+     * determinista) y cada una toma el tamanio actual de su tipo, que se
+     * ajusta antes con setTamanio().
+     */
+    public void reescalar(int anchoAntes, int altoAntes, int anchoAhora, int altoAhora) {
+        for (int i = 0; i < cantidad; i++) {
+            byte t = tipo[i];
+            int cx = (int) ((long) (x[i] + ancho[i] / 2) * anchoAhora / anchoAntes);
+            ancho[i] = anchoTipo[t];
+            alto[i] = altoTipo[t];
+            x[i] = cx - ancho[i] / 2;
+            y[i] = (int) ((long) y[i] * altoAhora / altoAntes);
+            xAnterior[i] = x[i];
+            yAnterior[i] = y[i];
+            vx[i] = (int) ((long) vx[i] * anchoAhora / anchoAntes);
+            vy[i] = (int) ((long) vy[i] * altoAhora / altoAntes);
+        }
+    }
+
+    // --- Guardado (PartidaGuardada); los tipos los registra el dueno ---
+
+    int bytesGuardados() {
+        return 4 + cantidad * (8 * 4 + 1);
+    }
+
+    void guardar(ByteBuffer destino) {
+        destino.putInt(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            destino.put(tipo[i]).putInt(x[i]).putInt(y[i]).putInt(xAnterior[i]).putInt(yAnterior[i])
+                    .putInt(ancho[i]).putInt(alto[i]).putInt(vx[i]).putInt(vy[i]);
+        }
+    }
+
+    void restaurar(ByteBuffer origen) {
+        int n = origen.getInt();
+        cantidad = 0;
+        while (x.length < n) {
+            crecer();
+        }
+        for (int i = 0; i < n; i++) {
+            byte t = origen.get();
+            if (t < 0 || t >= numTipos) {
+                throw new IllegalArgumentException("Tipo de entidad desconocido: " + t);
+            }
+            tipo[i] = t;
+            faccion[i] = faccionTipo[t];
+            x[i] = origen.getInt();
+            y[i] = origen.getInt();
+            xAnterior[i] = origen.getInt();
+            yAnterior[i] = origen.getInt();
+            ancho[i] = origen.getInt();
+            alto[i] = origen.getInt();
+            vx[i] = origen.getInt();
+            vy[i] = origen.getInt();
+        }
+        cantidad = n;
+    }
+
+    // =====================================================================
+    // CONSULTAS
+    // =====================================================================
+
+    /**
+     * Copia las entidades vivas en los arrays indicados (al menos getCantidad()
+     * de largo), para publicarlas en una Instantanea. El tamanio de cada una
+     * es el de su tipo (copiarTipos).
+     */
+    void copiar(byte[] destinoTipo, int[] destinoX, int[] destinoY, int[] destinoXAnterior,
+                int[] destinoYAnterior) {
+        System.arraycopy(tipo, 0, destinoTipo, 0, cantidad);
+        System.arraycopy(x, 0, destinoX, 0, cantidad);
+        System.arraycopy(y, 0, destinoY, 0, cantidad);
+        System.arraycopy(xAnterior, 0, destinoXAnterior, 0, cantidad);
+        System.arraycopy(yAnterior, 0, destinoYAnterior, 0, cantidad);
+    }
+
+    /**
+     * Copia el tamanio actual y la faccion de cada tipo registrado en los
+     * arrays indicados (MAX_TIPOS de largo).
+     *
+     * @return numero de tipos registrados.
+     */
+    int copiarTipos(int[] destinoAncho, int[] destinoAlto, byte[] destinoFaccion) {
+        System.arraycopy(anchoTipo, 0, destinoAncho, 0, numTipos);
+        System.arraycopy(altoTipo, 0, destinoAlto, 0, numTipos);
+        System.arraycopy(faccionTipo, 0, destinoFaccion, 0, numTipos);
+        return numTipos;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public int getCapacidad() {
+        return x.length;
+    }
+
+    public int getX(int i) {
+        return x[i];
+    }
+
+    public int getY(int i) {
+        return y[i];
+    }
+
+    /** Borde izquierdo en el tick anterior: el segmento recorrido empieza aqui. */
+    public int getXAnterior(int i) {
+        return xAnterior[i];
+    }
+
+    public int getYAnterior(int i) {
+        return yAnterior[i];
+    }
+
+    public int getAncho(int i) {
+        return ancho[i];
+    }
+
+    public int getAlto(int i) {
+        return alto[i];
+    }
+
+    public int getVelocidadY(int i) {
+        return vy[i];
+    }
+
+    public byte getTipo(int i) {
+        return tipo[i];
+    }
+
+    public byte getFaccion(int i) {
+        return faccion[i];
+    }
+}
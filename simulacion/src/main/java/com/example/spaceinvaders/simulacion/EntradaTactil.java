@@ -0,0 +1,98 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * EntradaTactil: convierte los dedos de la pantalla en eventos de la
+ * ColaEntrada. El primer dedo que baja es el de arrastre: dispara al bajar
+ * (PULSAR) y mueve la nave mientras se desliza. Cualquier otro dedo que
+ * baje mientras tanto solo dispara (DISPARAR), sin mover la nave, asi que se
+ * puede apuntar con un dedo y disparar con otro.
+ *
+ * Del dedo de arrastre cuentan todas las muestras, tambien las intermedias
+ * que Android agrupa entre frames; alimentan un PredictorToque y por cada
+ * lote se publica un solo MOVER con la posicion prevista al cabo de la
+ * latencia de la entrada. Asi la cola y la repeticion no crecen con la
+ * frecuencia del digitalizador.
+ *
+ * Las X y los identificadores de los dedos los da el llamador (GameView),
+ * ya en unidades del mundo. Solo se usa desde el hilo productor de la cola.
+ */
+public final class EntradaTactil {
+
+    /** Sin dedo de arrastre. */
+    public static final int NINGUNO = -1;
+
+    private final ColaEntrada entrada;
+    private final PredictorToque predictor = new PredictorToque();
+    private int dedoArrastre = NINGUNO;
+    private long horizonteNanos;
+
+    public EntradaTactil(ColaEntrada entrada) {
+        this.entrada = entrada;
+    }
+
+    /** Un dedo baja en x. */
+    public void abajo(int dedo, float x, long instanteNanos) {
+        if (dedoArrastre == NINGUNO) {
+            dedoArrastre = dedo;
+            predictor.reiniciar();
+            predictor.anotar(x, instanteNanos);
+            entrada.publicar(ColaEntrada.PULSAR, x, instanteNanos);
+        } else if (dedo != dedoArrastre) {
+            entrada.publicar(ColaEntrada.DISPARAR, x, instanteNanos);
+        }
+    }
+
+    /**
+     * Una muestra del dedo de arrastre, de la mas antigua a la mas reciente.
+     * Tras las de un mismo evento hay que llamar a mover().
+     */
+    public void muestra(float x, long instanteNanos) {
+        if (dedoArrastre != NINGUNO) {
+            predictor.anotar(x, instanteNanos);
+        }
+    }
+
+    /** Publica la posicion prevista del dedo de arrastre tras un lote de muestras. */
+    public void mover(long instanteNanos) {
+        if (dedoArrastre == NINGUNO) return;
+        float x = predictor.predecir(horizonteNanos);
+        x = Math.max(0, Math.min(Simulacion.ANCHO_MUNDO, x));
+        entrada.publicar(ColaEntrada.MOVER, x, instanteNanos);
+    }
+
+    /** Un dedo sube: si es el de arrastre, la nave se detiene. */
+    public void arriba(int dedo, long instanteNanos) {
+        if (dedo == dedoArrastre) {
+            soltar(instanteNanos);
+        }
+    }
+
+    /** El sistema cancela el gesto (ACTION_CANCEL): como si subieran todos. */
+    public void cancelar(long instanteNanos) {
+        if (dedoArrastre != NINGUNO) {
+            soltar(instanteNanos);
+        }
+    }
+
+    private void soltar(long instanteNanos) {
+        dedoArrastre = NINGUNO;
+        entrada.publicar(ColaEntrada.SOLTAR, -1, instanteNanos);
+    }
+
+    /** Identificador del dedo de arrastre, o NINGUNO. */
+    public int getDedoArrastre() {
+        return dedoArrastre;
+    }
+
+    /**
+     * Cuanto se adelanta la prediccion; lo normal es la latencia media de la
+     * entrada hasta la pantalla. Se acota a PredictorToque.MAX_HORIZONTE_NANOS.
+     */
+    public void setHorizonteNanos(long horizonteNanos) {
+        this.horizonteNanos = horizonteNanos;
+    }
+
+    public PredictorToque getPredictor() {
+        return predictor;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * Escena: recorre una Instantanea del juego y la describe a un Renderer.
+ * Es el unico codigo que sabe que se dibuja y en que orden; los backends solo
+ * saben como. Lee solo la instantanea, nunca la Simulacion viva, asi que
+ * puede ejecutarse en un hilo distinto al de los ticks. No reserva memoria.
+ * Es tambien el unico sitio donde las coordenadas del mundo pasan a pixeles
+ * (Vista), segun el tamanio de pantalla de setPantalla().
+ * Cada seccion del dibujo se mide con su Perfilador, del hilo de render.
+ */
+public final class Escena {
+
+    // --- Fases y contadores del Perfilador: FASE_FRAME la abre y cierra quien
+    //     presenta el frame, para incluir comenzarFrame/terminarFrame ---
+    public static final int FASE_FRAME = 0;
+    public static final int FASE_FONDO = 1;
+    public static final int FASE_INVASORES = 2;
+    public static final int FASE_DISPAROS = 3;
+    public static final int FASE_MARCADOR = 4;
+    public static final String[] FASES = {"frame", "fondo", "invasores", "disparos", "marcador"};
+    public static final int CONTADOR_LLAMADAS = 0;
+    /** Nivel de GobernadorCalidad con el que se dibuja; lo anota quien presenta el frame. */
+    public static final int CONTADOR_CALIDAD = 1;
+    public static final String[] CONTADORES = {"llamadas", "calidad"};
+
+    /** Frames por ventana de percentiles. */
+    private static final int VENTANA = 60;
+
+    private final Perfilador perfilador = new Perfilador(FASES, CONTADORES, VENTANA);
+
+    // Mejor puntuacion guardada, para la pantalla de fin
+    private int record;
+
+    // --- Transformacion del mundo a la pantalla ---
+    private final Vista vista = new Vista();
+    private int anchoPantalla;
+    private int altoPantalla;
+    // Tamanio en pixeles de cada tipo de entidad, para prepararSprites
+    private final int[] anchoTipo = new int[Entidades.MAX_TIPOS];
+    private final int[] altoTipo = new int[Entidades.MAX_TIPOS];
+
+    /**
+     * Emite las primitivas de un frame (sin comenzarFrame ni terminarFrame).
+     *
+     * @param alfa  fraccion del tick en curso, para interpolar las posiciones.
+     * @return numero de primitivas de dibujo emitidas.
+     */
+    public int dibujar(Instantanea inst, float alfa, Renderer renderer) {
+        if (inst.terminada()) {
+            renderer.dibujarPantallaFin(inst.isVictoria(), inst.getPuntuacion(), record);
+            perfilador.contar(CONTADOR_LLAMADAS, 1);
+            return 1;
+        }
+
+        // Fondo negro (espacio) con las instrucciones
+        perfilador.comenzar(FASE_FONDO);
+        renderer.dibujarFondo();
+        int llamadas = 1;
+        perfilador.terminar(FASE_FONDO);
+
+        vista.ajustar(inst.getAnchoMundo(), inst.getAltoMundo(), anchoPantalla, altoPantalla);
+        int numTipos = inst.getNumTipos();
+        for (int t = 0; t < numTipos; t++) {
+            anchoTipo[t] = vista.longitudPantalla(inst.getAnchoTipo(t));
+            altoTipo[t] = vista.longitudPantalla(inst.getAltoTipo(t));
+        }
+        renderer.prepararSprites(vista.longitudPantalla(inst.getTamEnemigo()),
+                vista.longitudPantalla(inst.getJugadorAncho()), vista.longitudPantalla(inst.getJugadorAlto()),
+                numTipos, anchoTipo, altoTipo);
+
+        // Jugador (nave con su canion)
+        perfilador.comenzar(FASE_INVASORES);
+        renderer.dibujarSprite(Renderer.NAVE, vista.xPantalla(inst.jugadorIzquierdaInterpolada(alfa)),
+                vista.yPantalla(inst.getJugadorArriba()));
+        llamadas++;
+
+        // Enemigos: la caja de cada uno se deriva del origen de la formacion
+        int columnas = inst.getColumnas();
+        int y = inst.getOrigenY();
+        for (int fila = 0, e = 0; fila < inst.getFilas(); fila++, y += inst.getEspacioV()) {
+            float yPantalla = vista.yPantalla(y);
+            int x = inst.getOrigenX();
+            for (int col = 0; col < columnas; col++, e++, x += inst.getEspacioH()) {
+                if (!inst.estaVivo(e)) continue;
+                renderer.dibujarSprite(Renderer.INVASOR, vista.xPantalla(x), yPantalla);
+                llamadas++;
+            }
+        }
+        perfilador.terminar(FASE_INVASORES);
+
+        // Disparos y demas entidades: un sprite por tipo, interpolado en los dos ejes
+        perfilador.comenzar(FASE_DISPAROS);
+        for (int i = 0; i < inst.getNumEntidades(); i++) {
+            renderer.dibujarSprite(Renderer.ENTIDAD + inst.getEntidadTipo(i),
+                    vista.xPantalla(inst.entidadXInterpolada(i, alfa)),
+                    vista.yPantalla(inst.entidadYInterpolada(i, alfa)));
+            llamadas++;
+        }
+        perfilador.terminar(FASE_DISPAROS);
+
+        // HUD: puntuacion
+        perfilador.comenzar(FASE_MARCADOR);
+        renderer.dibujarPuntuacion(inst.getPuntuacion());
+        llamadas++;
+        perfilador.terminar(FASE_MARCADOR);
+        perfilador.contar(CONTADOR_LLAMADAS, llamadas);
+        return llamadas;
+    }
+
+    /**
+     * Tamanio en pixeles del destino de los frames siguientes (el mismo que
+     * recibe comenzarFrame). Sin llamarlo se dibuja en unidades del mundo.
+     */
+    public void setPantalla(int ancho, int alto) {
+        anchoPantalla = ancho;
+        altoPantalla = alto;
+    }
+
+    /** Transformacion del ultimo frame dibujado. */
+    public Vista getVista() {
+        return vista;
+    }
+
+    /** Mejor puntuacion guardada; se muestra en la pantalla de fin. */
+    public void setRecord(int record) {
+        this.record = record;
+    }
+
+    public Perfilador getPerfilador() {
+        return perfilador;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * EscritorBits: escribe campos de cualquier numero de bits, sin alinear a
+ * bytes, sobre un array que se le presta (el paquete de red). Los bits van
+ * de mayor a menor peso; LectorBits los lee en el mismo orden.
+ *
+ * Los enteros de tamanio variable usan Exp-Golomb: 0 ocupa un bit y cada
+ * valor crece unos 2*log2(v) bits, asi que las diferencias pequenas que deja
+ * la codificacion delta (casi siempre 0) cuestan muy poco. No reserva memoria.
+ */
+public final class EscritorBits {
+
+    private byte[] datos;
+    private int posicion; // bytes completos escritos
+    private long acumulador; // bits pendientes en los de menor peso
+    private int pendientes; // menos de 8 entre llamadas
+
+    /** Empieza a escribir al principio de destino. */
+    public void reiniciar(byte[] destino) {
+        datos = destino;
+        posicion = 0;
+        acumulador = 0;
+        pendientes = 0;
+    }
+
+    /** Los n bits de menor peso de valor (0 <= n <= 64). */
+    public void escribir(long valor, int n) {
+        if (n > 32) {
+            escribir32((int) (valor >>> 32), n - 32);
+            escribir32((int) valor, 32);
+        } else {
+            escribir32((int) valor, n);
+        }
+    }
+
+    private void escribir32(int valor, int n) {
+        if (n == 0) return;
+        if (posicion + ((pendientes + n + 7) >> 3) > datos.length) {
+            throw new IllegalArgumentException("El paquete no cabe en " + datos.length + " bytes");
+        }
+        acumulador = (acumulador << n) | (valor & (-1L >>> (64 - n)));
+        pendientes += n;
+        while (pendientes >= 8) {
+            pendientes -= 8;
+            datos[posicion++] = (byte) (acumulador >>> pendientes);
+        }
+    }
+
+    public void escribirBooleano(boolean valor) {
+        escribir32(valor ? 1 : 0, 1);
+    }
+
+    /** Natural (v >= 0) en Exp-Golomb de orden 0. */
+    public void escribirNatural(long v) {
+        if (v < 0 || v == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Natural fuera de rango: " + v);
+        }
+        long x = v + 1;
+        int n = 64 - Long.numberOfLeadingZeros(x);
+        escribir(0, n - 1);
+        escribir(x, n);
+    }
+
+    /** Entero con signo: zigzag (0, -1, 1, -2...) y despues Exp-Golomb. */
+    public void escribirEntero(long v) {
+        escribirNatural((v << 1) ^ (v >> 63));
+    }
+
+    /** Completa el ultimo byte con ceros. @return bytes ocupados. */
+    public int terminar() {
+        if (pendientes > 0) {
+            datos[posicion++] = (byte) (acumulador << (8 - pendientes));
+            pendientes = 0;
+        }
+        return posicion;
+    }
+
+    /** Bits escritos hasta ahora. */
+    public long getBits() {
+        return posicion * 8L + pendientes;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Formacion: el bloque de invasores como una unica entidad.
+ * Todos los enemigos comparten un origen (esquina superior izquierda de la
+ * celda 0,0) y ocupan celdas de una cuadricula filas x columnas; de cada uno
+ * solo se guarda si sigue vivo, en un bitset por filas.
+ *
+ * Mover el bloque es mover el origen, O(1). Las columnas vivas mas a la
+ * izquierda y a la derecha y la fila viva mas baja se mantienen en cache:
+ * al caer un enemigo solo se recalculan si su fila o columna se queda vacia,
+ * y cada recalculo avanza hacia dentro, asi que el coste total por oleada es
+ * lineal en filas + columnas (O(1) amortizado por baja).
+ * Las cajas de cada enemigo en coordenadas del mundo se derivan bajo demanda
+ * (limites()) solo para dibujar o para la fase estrecha de colisiones.
+ */
+public final class Formacion {
+
+    // --- Geometria ---
+    private int filas;
+    private int columnas;
+    private int tamEnemigo;
+    private int espacioH;
+    private int espacioV;
+    private int origenX;
+    private int origenY;
+
+    // --- Supervivientes: bit (fila * columnas + col) ---
+    private long[] vivos = new long[1];
+    private int[] vivosPorFila = new int[1];
+    private int[] vivosPorColumna = new int[1];
+    private int totalVivos;
+
+    // --- Extremos vivos en cache ---
+    private int columnaIzquierda;
+    private int columnaDerecha;
+    private int filaInferior;
+
+    /**
+     * Coloca una formacion completa (todos vivos). Solo reserva memoria si la
+     * nueva cuadricula es mayor que la anterior.
+     */
+    public void configurar(int filas, int columnas, int origenX, int origenY,
+                           int tamEnemigo, int espacioH, int espacioV) {
+        this.filas = filas;
+        this.columnas = columnas;
+        this.origenX = origenX;
+        this.origenY = origenY;
+        this.tamEnemigo = tamEnemigo;
+        this.espacioH = espacioH;
+        this.espacioV = espacioV;
+
+        int total = filas * columnas;
+        int palabras = (total + 63) >>> 6;
+        if (vivos.length < palabras) vivos = new long[palabras];
+        if (vivosPorFila.length < filas) vivosPorFila = new int[filas];
+        if (vivosPorColumna.length < columnas) vivosPorColumna = new int[columnas];
+
+        Arrays.fill(vivos, 0, palabras, -1L);
+        if ((total & 63) != 0) {
+            vivos[palabras - 1] = (1L << (total & 63)) - 1;
+        }
+        Arrays.fill(vivosPorFila, 0, filas, columnas);
+        Arrays.fill(vivosPorColumna, 0, columnas, filas);
+        totalVivos = total;
+        columnaIzquierda = 0;
+        columnaDerecha = columnas - 1;
+        filaInferior = filas - 1;
+    }
+
+    /**
+     * Cambia el origen y el tamanio de las celdas conservando los
+     * supervivientes y los extremos en cache (cambio de tamanio del mundo).
+     */
+    public void recolocar(int origenX, int origenY, int tamEnemigo, int espacioH, int espacioV) {
+        this.origenX = origenX;
+        this.origenY = origenY;
+        this.tamEnemigo = tamEnemigo;
+        this.espacioH = espacioH;
+        this.espacioV = espacioV;
+    }
+
+    /**
+     * Desplaza el bloque completo: O(1).
+     */
+    public void desplazar(int dx, int dy) {
+        origenX += dx;
+        origenY += dy;
+    }
+
+    public boolean estaVivo(int indice) {
+        return (vivos[indice >>> 6] & (1L << indice)) != 0;
+    }
+
+    /**
+     * Retira al enemigo indicado y actualiza los extremos en cache.
+     * No hace nada si ya estaba muerto.
+     */
+    public void eliminar(int indice) {
+        if (!estaVivo(indice)) return;
+        vivos[indice >>> 6] &= ~(1L << indice);
+        totalVivos--;
+        int fila = indice / columnas;
+        int col = indice - fila * columnas;
+        vivosPorFila[fila]--;
+        vivosPorColumna[col]--;
+        if (totalVivos == 0) return;
+
+        while (vivosPorColumna[columnaIzquierda] == 0) columnaIzquierda++;
+        while (vivosPorColumna[columnaDerecha] == 0) columnaDerecha--;
+        while (vivosPorFila[filaInferior] == 0) filaInferior--;
+    }
+
+    /**
+     * Indice del n-esimo enemigo vivo en orden de filas (0 <= n < getVivos()).
+     * Salta palabras completas del bitset con bitCount: O(filas * columnas / 64).
+     */
+    public int enesimoVivo(int n) {
+        int w = 0;
+        int enPalabra = Long.bitCount(vivos[0]);
+        while (n >= enPalabra) {
+            n -= enPalabra;
+            enPalabra = Long.bitCount(vivos[++w]);
+        }
+        long palabra = vivos[w];
+        for (int i = 0; i < n; i++) {
+            palabra &= palabra - 1; // quitar el bit menos significativo
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(palabra);
+    }
+
+    /**
+     * Escribe en destino la caja del enemigo indicado, en coordenadas del mundo.
+     */
+    public void limites(int indice, Limites destino) {
+        int fila = indice / columnas;
+        int col = indice - fila * columnas;
+        int x = origenX + col * espacioH;
+        int y = origenY + fila * espacioV;
+        destino.set(x, y, x + tamEnemigo, y + tamEnemigo);
+    }
+
+    /** Numero de palabras de 64 bits que ocupa el bitset de vivos. */
+    public int getPalabrasVivos() {
+        return (filas * columnas + 63) >>> 6;
+    }
+
+    /** Copia el bitset de vivos (al menos getPalabrasVivos() de largo). */
+    void copiarVivos(long[] destino) {
+        System.arraycopy(vivos, 0, destino, 0, getPalabrasVivos());
+    }
+
+    // =====================================================================
+    // GUARDADO (PartidaGuardada): geometria + bitset; los extremos se recalculan
+    // =====================================================================
+
+    int bytesGuardados() {
+        return 7 * 4 + getPalabrasVivos() * 8;
+    }
+
+    void guardar(ByteBuffer destino) {
+        destino.putInt(filas).putInt(columnas).putInt(origenX).putInt(origenY)
+                .putInt(tamEnemigo).putInt(espacioH).putInt(espacioV);
+        for (int w = 0; w < getPalabrasVivos(); w++) {
+            destino.putLong(vivos[w]);
+        }
+    }
+
+    void restaurar(ByteBuffer origen) {
+        configurar(origen.getInt(), origen.getInt(), origen.getInt(), origen.getInt(),
+                origen.getInt(), origen.getInt(), origen.getInt());
+        for (int w = 0; w < getPalabrasVivos(); w++) {
+            // Se parte de todos vivos: se eliminan los que faltan en la palabra guardada
+            long bajas = vivos[w] & ~origen.getLong();
+            while (bajas != 0) {
+                eliminar((w << 6) + Long.numberOfTrailingZeros(bajas));
+                bajas &= bajas - 1;
+            }
+        }
+    }
+
+    // =====================================================================
+    // EXTREMOS VIVOS: O(1)
+    // =====================================================================
+
+    /** Borde izquierdo del enemigo vivo mas a la izquierda. */
+    public int izquierdaViva() {
+        return origenX + columnaIzquierda * espacioH;
+    }
+
+    /** Borde derecho del enemigo vivo mas a la derecha. */
+    public int derechaViva() {
+        return origenX + columnaDerecha * espacioH + tamEnemigo;
+    }
+
+    /** Borde inferior del enemigo vivo mas bajo. */
+    public int abajoVivo() {
+        return origenY + filaInferior * espacioV + tamEnemigo;
+    }
+
+    // =====================================================================
+    // CONSULTAS
+    // =====================================================================
+
+    public int getVivos() {
+        return totalVivos;
+    }
+
+    public int getTotal() {
+        return filas * columnas;
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    public int getVivosEnColumna(int col) {
+        return vivosPorColumna[col];
+    }
+
+    public int getOrigenX() {
+        return origenX;
+    }
+
+    public int getOrigenY() {
+        return origenY;
+    }
+
+    public int getTamEnemigo() {
+        return tamEnemigo;
+    }
+
+    public int getEspacioH() {
+        return espacioH;
+    }
+
+    public int getEspacioV() {
+        return espacioV;
+    }
+
+    /** Coordenada X del centro de la columna indicada, en el mundo. */
+    public int centroColumna(int col) {
+        return origenX + col * espacioH + tamEnemigo / 2;
+    }
+}
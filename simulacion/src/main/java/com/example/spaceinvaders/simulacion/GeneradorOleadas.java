@@ -0,0 +1,243 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GeneradorOleadas: la secuencia de oleadas de una partida, descrita en texto.
+ * Cada linea es una oleada (los comentarios empiezan por #):
+ * <pre>
+ *   4x7 mover=36 disparo=72 rafaga=1 patron=XXXXXXX/X.X.X.X/...
+ *   repetir
+ *   estres 10000
+ * </pre>
+ * "filasxcolumnas" es obligatorio; mover y disparo son intervalos en ticks y
+ * rafaga el numero de disparos por rafaga (por defecto los de la partida
+ * clasica). El patron da las filas separadas por '/', con X para un invasor y
+ * '.' para un hueco.
+ *
+ * Sin "repetir", limpiar la ultima oleada es la victoria. Con "repetir" la
+ * lista vuelve a empezar y en cada vuelta los intervalos se reducen a 3/4.
+ * "estres N" genera oleadas sin fin de N invasores desde la primera, cada vez
+ * mas rapidas y con rafagas que crecen con N: la carga con la que se mide que
+ * movimiento, colisiones y dibujo aguantan 60 fps con miles de enemigos.
+ *
+ * El texto identifica la secuencia completa y se guarda en las repeticiones.
+ */
+public final class GeneradorOleadas {
+
+    /** Campania por defecto del juego en el dispositivo. */
+    public static final String CAMPANIA = ""
+            + "# Campania: la clasica y despues formas cada vez mas densas\n"
+            + "4x7\n"
+            + "5x9 mover=32 disparo=64 patron=XXXXXXXXX/X.XXXXX.X/XXXXXXXXX/.XX.X.XX./XXXXXXXXX\n"
+            + "6x11 mover=28 disparo=56 rafaga=2\n"
+            + "8x13 mover=24 disparo=48 rafaga=2 patron=XXXXXXXXXXXXX/XXXXXXXXXXXXX/XXX.XXXXX.XXX/XX...XXX...XX/"
+            + "XX...XXX...XX/XXX.XXXXX.XXX/XXXXXXXXXXXXX/XXXXXXXXXXXXX\n"
+            + "10x18 mover=20 disparo=40 rafaga=3\n"
+            + "repetir\n";
+
+    /** Intervalo minimo tras acelerar, en ticks. */
+    private static final int INTERVALO_MINIMO = 2;
+
+    private final String texto;
+    private final byte[] textoUtf8; // como se guarda en repeticiones y partidas
+    // Las definidas en el texto y, detras, las vueltas o las de estres ya generadas
+    private final List<Oleada> oleadas = new ArrayList<>();
+    private int definidas;
+    private final boolean repetir;
+    private final int invasoresEstres; // 0 = lista fija
+
+    private GeneradorOleadas(String texto, boolean repetir, int invasoresEstres) {
+        this.texto = texto;
+        this.textoUtf8 = texto.getBytes(StandardCharsets.UTF_8);
+        this.repetir = repetir;
+        this.invasoresEstres = invasoresEstres;
+    }
+
+    // =====================================================================
+    // CREACION
+    // =====================================================================
+
+    /** Una sola oleada completa de filas x columnas: la partida clasica. */
+    public static GeneradorOleadas unica(int filas, int columnas) {
+        return leer(filas + "x" + columnas);
+    }
+
+    public static GeneradorOleadas campania() {
+        return leer(CAMPANIA);
+    }
+
+    /** Oleadas procedurales sin fin de "invasores" enemigos cada una. */
+    public static GeneradorOleadas estres(int invasores) {
+        return leer("estres " + invasores);
+    }
+
+    /**
+     * Interpreta una descripcion de oleadas.
+     *
+     * @throws IllegalArgumentException si alguna linea no es valida.
+     */
+    public static GeneradorOleadas leer(String texto) {
+        boolean repetir = false;
+        int invasoresEstres = 0;
+        List<Oleada> leidas = new ArrayList<>();
+        String[] lineas = texto.split("\n");
+        for (int n = 0; n < lineas.length; n++) {
+            String linea = lineas[n].trim();
+            if (linea.isEmpty() || linea.startsWith("#")) continue;
+            String[] partes = linea.split("\\s+");
+            try {
+                if (partes[0].equals("repetir")) {
+                    repetir = true;
+                } else if (partes[0].equals("estres")) {
+                    invasoresEstres = Integer.parseInt(partes[1]);
+                    if (invasoresEstres < 1) throw new IllegalArgumentException("estres necesita N > 0");
+                } else {
+                    leidas.add(leerOleada(partes));
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Linea " + (n + 1) + ": " + linea + " (" + e.getMessage() + ")", e);
+            }
+        }
+        if (invasoresEstres > 0 && !leidas.isEmpty()) {
+            throw new IllegalArgumentException("estres no se combina con oleadas fijas");
+        }
+        if (invasoresEstres == 0 && leidas.isEmpty()) {
+            throw new IllegalArgumentException("No hay ninguna oleada");
+        }
+        GeneradorOleadas g = new GeneradorOleadas(texto, repetir, invasoresEstres);
+        g.oleadas.addAll(leidas);
+        g.definidas = leidas.size();
+        return g;
+    }
+
+    private static Oleada leerOleada(String[] partes) {
+        int x = partes[0].indexOf('x');
+        int filas = Integer.parseInt(partes[0].substring(0, x));
+        int columnas = Integer.parseInt(partes[0].substring(x + 1));
+        if (filas < 1 || columnas < 1) throw new IllegalArgumentException("cuadricula vacia");
+        int mover = Simulacion.INTERVALO_MOVIMIENTO_ENEMIGOS;
+        int disparo = Simulacion.INTERVALO_DISPARO_ENEMIGO;
+        int rafaga = 1;
+        long[] patron = null;
+        for (int i = 1; i < partes.length; i++) {
+            int igual = partes[i].indexOf('=');
+            String clave = partes[i].substring(0, igual);
+            String valor = partes[i].substring(igual + 1);
+            switch (clave) {
+                case "mover":
+                    mover = positivo(valor);
+                    break;
+                case "disparo":
+                    disparo = positivo(valor);
+                    break;
+                case "rafaga":
+                    rafaga = positivo(valor);
+                    break;
+                case "patron":
+                    patron = leerPatron(valor, filas, columnas);
+                    break;
+                default:
+                    throw new IllegalArgumentException("clave desconocida: " + clave);
+            }
+        }
+        return new Oleada(filas, columnas, mover, disparo, rafaga, patron);
+    }
+
+    private static int positivo(String valor) {
+        int v = Integer.parseInt(valor);
+        if (v < 1) throw new IllegalArgumentException("debe ser > 0: " + valor);
+        return v;
+    }
+
+    private static long[] leerPatron(String valor, int filas, int columnas) {
+        String[] filasPatron = valor.split("/");
+        if (filasPatron.length != filas) throw new IllegalArgumentException("el patron no tiene " + filas + " filas");
+        long[] bits = new long[(filas * columnas + 63) >>> 6];
+        boolean alguno = false;
+        for (int f = 0; f < filas; f++) {
+            if (filasPatron[f].length() != columnas) {
+                throw new IllegalArgumentException("la fila " + (f + 1) + " del patron no tiene " + columnas + " columnas");
+            }
+            for (int c = 0; c < columnas; c++) {
+                char ch = filasPatron[f].charAt(c);
+                if (ch == 'X') {
+                    int i = f * columnas + c;
+                    bits[i >>> 6] |= 1L << i;
+                    alguno = true;
+                } else if (ch != '.') {
+                    throw new IllegalArgumentException("caracter no valido en el patron: " + ch);
+                }
+            }
+        }
+        if (!alguno) throw new IllegalArgumentException("el patron esta vacio");
+        return bits;
+    }
+
+    // =====================================================================
+    // SECUENCIA
+    // =====================================================================
+
+    /** true si existe la oleada indicada (0 = la primera); si no, limpiar la anterior es la victoria. */
+    public boolean hay(int numero) {
+        return invasoresEstres > 0 || repetir || numero < definidas;
+    }
+
+    /**
+     * Definicion de la oleada indicada, ya acelerada segun la vuelta.
+     * Solo reserva memoria la primera vez que se pide cada oleada.
+     */
+    public Oleada get(int numero) {
+        if (invasoresEstres > 0) {
+            while (oleadas.size() <= numero) {
+                oleadas.add(generarEstres(oleadas.size()));
+            }
+            return oleadas.get(numero);
+        }
+        while (oleadas.size() <= numero) {
+            int i = oleadas.size();
+            Oleada original = oleadas.get(i % definidas);
+            int vuelta = i / definidas;
+            oleadas.add(original.conRitmo(acelerar(original.getIntervaloMovimiento(), vuelta),
+                    acelerar(original.getIntervaloDisparo(), vuelta), original.getRafaga() + vuelta));
+        }
+        return oleadas.get(numero);
+    }
+
+    private static int acelerar(int intervalo, int vuelta) {
+        for (int v = 0; v < vuelta; v++) {
+            intervalo = intervalo * 3 / 4;
+        }
+        return Math.max(INTERVALO_MINIMO, intervalo);
+    }
+
+    /**
+     * Oleada n del modo estres: los invasores pedidos en proporcion 4:7 como
+     * la clasica, cada oleada mas rapida que la anterior. Las rafagas crecen
+     * con el tamanio para que el fuego enemigo tambien escale.
+     */
+    private Oleada generarEstres(int n) {
+        int filas = (int) Math.max(1, Math.round(Math.sqrt(invasoresEstres * 4 / 7.0)));
+        int columnas = (invasoresEstres + filas - 1) / filas;
+        int mover = Math.max(INTERVALO_MINIMO * 2, Simulacion.INTERVALO_MOVIMIENTO_ENEMIGOS - 4 * n);
+        int disparo = Math.max(INTERVALO_MINIMO * 2, Simulacion.INTERVALO_DISPARO_ENEMIGO - 8 * n);
+        int rafaga = Math.max(1, filas * columnas / 500);
+        return new Oleada(filas, columnas, mover, disparo, rafaga, null);
+    }
+
+    /** Descripcion original; basta para reconstruir la secuencia (leer()). */
+    public String getTexto() {
+        return texto;
+    }
+
+    /** El texto en UTF-8; no modificar. */
+    byte[] getTextoUtf8() {
+        return textoUtf8;
+    }
+
+    public boolean isEstres() {
+        return invasoresEstres > 0;
+    }
+}
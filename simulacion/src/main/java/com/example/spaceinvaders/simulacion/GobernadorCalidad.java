@@ -0,0 +1,195 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * GobernadorCalidad: baja la calidad del dibujo por niveles cuando los frames
+ * no caben en el periodo de refresco (o el dispositivo se calienta) y la
+ * vuelve a subir cuando sobra margen. Solo afecta al dibujo: la simulacion
+ * sigue a su paso fijo en su hilo, asi que la partida es la misma en
+ * cualquier nivel.
+ *
+ * Niveles, de mas a menos calidad:
+ * <ol start="0">
+ *   <li>COMPLETA: todo con suavizado.</li>
+ *   <li>SIN_SUAVIZADO: sprites y textos sin anti-aliasing.</li>
+ *   <li>SIN_ANTENAS: ademas, invasores sin las antenas decorativas.</li>
+ *   <li>MEDIA_FRECUENCIA: ademas, se dibuja un vsync de cada dos.</li>
+ * </ol>
+ *
+ * Cada ventana de FRAMES_VENTANA frames se decide como mucho un paso: se baja
+ * si demasiados frames pasan del umbral de carga y se sube solo tras varias
+ * ventanas seguidas holgadas, para no oscilar entre dos niveles. El estado
+ * termico (misma escala que PowerManager.THERMAL_STATUS_*) fija un nivel
+ * minimo mientras dure.
+ *
+ * registrarFrame() lo llama un solo hilo (el de dibujo); setEstadoTermico()
+ * puede llamarse desde cualquiera. No reserva memoria.
+ */
+public final class GobernadorCalidad {
+
+    // --- Niveles ---
+    public static final int COMPLETA = 0;
+    public static final int SIN_SUAVIZADO = 1;
+    public static final int SIN_ANTENAS = 2;
+    public static final int MEDIA_FRECUENCIA = 3;
+    public static final String[] NIVELES = {"completa", "sin suavizado", "sin antenas", "media frecuencia"};
+
+    // --- Estado termico (valores de PowerManager.THERMAL_STATUS_*) ---
+    public static final int TERMICO_NINGUNO = 0;
+    public static final int TERMICO_LIGERO = 1;
+    public static final int TERMICO_MODERADO = 2;
+    public static final int TERMICO_GRAVE = 3;
+
+    // --- Motivos del ultimo cambio ---
+    public static final int MOTIVO_NINGUNO = 0;
+    public static final int MOTIVO_CARGA = 1;
+    public static final int MOTIVO_MARGEN = 2;
+    public static final int MOTIVO_TERMICO = 3;
+    public static final String[] MOTIVOS = {"ninguno", "carga", "margen", "termico"};
+
+    /** Frames por decision (medio segundo a 60 Hz). */
+    static final int FRAMES_VENTANA = 30;
+    /** Un frame va justo si su trabajo pasa de este porcentaje del periodo. */
+    static final int PORCENTAJE_JUSTO = 80;
+    /** Se baja de nivel si van justos mas de estos frames en una ventana. */
+    static final int FRAMES_JUSTOS_PARA_BAJAR = 3;
+    /** Se sube de nivel si ningun frame pasa de este porcentaje... */
+    static final int PORCENTAJE_HOLGADO = 50;
+    /** ...durante estas ventanas seguidas. */
+    static final int VENTANAS_PARA_SUBIR = 4;
+
+    private volatile int estadoTermico = TERMICO_NINGUNO;
+
+    // --- Ventana en curso (hilo de dibujo) ---
+    private int framesVentana;
+    private int framesJustos;
+    private long maximoVentana;
+    private int ventanasHolgadas;
+
+    // --- Nivel por carga y nivel efectivo (con el minimo termico) ---
+    private int nivelCarga = COMPLETA;
+    private int nivelCargaAplicado = COMPLETA;
+    private int nivel = COMPLETA;
+    private int motivo = MOTIVO_NINGUNO;
+    private int cambios;
+
+    /**
+     * Anota el trabajo de un frame dibujado, desde que empieza hasta que se
+     * presenta (sin la espera al vsync).
+     *
+     * @param periodoNanos  periodo de refresco de la pantalla.
+     * @return true si el nivel ha cambiado.
+     */
+    public boolean registrarFrame(long nanosTrabajo, long periodoNanos) {
+        if (nanosTrabajo * 100 > periodoNanos * PORCENTAJE_JUSTO) framesJustos++;
+        if (nanosTrabajo > maximoVentana) maximoVentana = nanosTrabajo;
+        if (++framesVentana >= FRAMES_VENTANA) {
+            cerrarVentana(periodoNanos);
+        }
+        return actualizarNivel();
+    }
+
+    private void cerrarVentana(long periodoNanos) {
+        if (framesJustos > FRAMES_JUSTOS_PARA_BAJAR) {
+            ventanasHolgadas = 0;
+            if (nivelCarga < MEDIA_FRECUENCIA) {
+                nivelCarga++;
+                motivo = MOTIVO_CARGA;
+            }
+        } else if (maximoVentana * 100 <= periodoNanos * PORCENTAJE_HOLGADO) {
+            // A media frecuencia cada frame tiene dos periodos, pero se mide
+            // contra uno: solo se sube si tambien cabria a frecuencia completa
+            if (++ventanasHolgadas >= VENTANAS_PARA_SUBIR) {
+                ventanasHolgadas = 0;
+                if (nivelCarga > COMPLETA) {
+                    nivelCarga--;
+                    motivo = MOTIVO_MARGEN;
+                }
+            }
+        } else {
+            ventanasHolgadas = 0;
+        }
+        framesVentana = 0;
+        framesJustos = 0;
+        maximoVentana = 0;
+    }
+
+    /**
+     * Comprueba el estado termico sin esperar a un frame (p. ej. mientras no
+     * se dibuja nada).
+     *
+     * @return true si el nivel ha cambiado.
+     */
+    public boolean actualizarNivel() {
+        int minimo = nivelMinimoTermico(estadoTermico);
+        int nuevo = Math.max(nivelCarga, minimo);
+        boolean porCarga = nivelCarga != nivelCargaAplicado;
+        nivelCargaAplicado = nivelCarga;
+        if (nuevo == nivel) return false;
+        if (!porCarga || minimo > nivelCarga) {
+            // No lo ha movido la carga: se ha calentado o enfriado
+            motivo = MOTIVO_TERMICO;
+        }
+        nivel = nuevo;
+        cambios++;
+        return true;
+    }
+
+    private static int nivelMinimoTermico(int estado) {
+        if (estado >= TERMICO_GRAVE) return MEDIA_FRECUENCIA;
+        if (estado >= TERMICO_MODERADO) return SIN_ANTENAS;
+        if (estado >= TERMICO_LIGERO) return SIN_SUAVIZADO;
+        return COMPLETA;
+    }
+
+    /**
+     * Estado termico del dispositivo con la escala de
+     * PowerManager.THERMAL_STATUS_* (0 = ninguno ... 6 = apagado). Se aplica
+     * en el siguiente frame.
+     */
+    public void setEstadoTermico(int estado) {
+        estadoTermico = estado;
+    }
+
+    public int getEstadoTermico() {
+        return estadoTermico;
+    }
+
+    /** Nivel de calidad efectivo (COMPLETA ... MEDIA_FRECUENCIA). */
+    public int getNivel() {
+        return nivel;
+    }
+
+    /** Por que cambio el nivel la ultima vez (MOTIVO_*). */
+    public int getMotivo() {
+        return motivo;
+    }
+
+    /** Cambios de nivel desde el arranque. */
+    public int getCambios() {
+        return cambios;
+    }
+
+    public boolean conSuavizado() {
+        return nivel < SIN_SUAVIZADO;
+    }
+
+    public boolean conAntenas() {
+        return nivel < SIN_ANTENAS;
+    }
+
+    /** Se dibuja un vsync de cada getDivisorFrames(). */
+    public int getDivisorFrames() {
+        return nivel >= MEDIA_FRECUENCIA ? 2 : 1;
+    }
+
+    /** Vuelve a calidad completa y olvida la ventana en curso (p. ej. al reanudar). */
+    public void reiniciar() {
+        framesVentana = 0;
+        framesJustos = 0;
+        maximoVentana = 0;
+        ventanasHolgadas = 0;
+        nivelCarga = COMPLETA;
+        motivo = MOTIVO_NINGUNO;
+        actualizarNivel();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * GrabadorRepeticion: escribe una Repeticion mientras se juega. La Simulacion
+ * le pasa cada evento de entrada en el tick en que lo aplica (setGrabador),
+ * de modo que lo grabado es exactamente lo que vio la simulacion, no lo que
+ * toco el usuario. Formato descrito en Repeticion.
+ *
+ * Escribe en un byte[] que solo crece (sin reservas por evento una vez que
+ * tiene el tamanio de una partida). La grabacion nunca se cierra: cada copia
+ * (toByteArray, escribir) lleva su propio registro FIN, asi que se puede
+ * guardar a mitad de partida y seguir grabando. Lo usa solo el hilo de la
+ * simulacion; las copias se hacen con ese hilo parado.
+ */
+public final class GrabadorRepeticion {
+
+    private static final int CAPACIDAD_INICIAL = 4096;
+
+    private byte[] datos = new byte[CAPACIDAD_INICIAL];
+    private int longitud;
+    private long ultimoTick;
+    private int eventos;
+    private final byte[] cierre = new byte[11]; // varint de 64 bits + FIN
+
+    /** Descarta lo grabado y escribe la cabecera de una partida nueva. */
+    public void comenzar(int ancho, int alto, int frecuencia, GeneradorOleadas oleadas, long semilla) {
+        longitud = 0;
+        ultimoTick = 0;
+        eventos = 0;
+        entero(Repeticion.MAGIA);
+        octeto(Repeticion.VERSION);
+        varint(ancho);
+        varint(alto);
+        varint(frecuencia);
+        byte[] texto = oleadas.getTextoUtf8();
+        varint(texto.length);
+        for (byte b : texto) {
+            octeto(b);
+        }
+        entero((int) (semilla >>> 32));
+        entero((int) semilla);
+    }
+
+    /** Anota un evento aplicado en el tick indicado (ticks no decrecientes). */
+    public void registrar(long tick, byte tipo, float valor) {
+        varint(tick - ultimoTick);
+        ultimoTick = tick;
+        octeto(tipo);
+        if (tipo != ColaEntrada.SOLTAR) {
+            entero(Float.floatToRawIntBits(valor));
+        }
+        eventos++;
+    }
+
+    /**
+     * Copia de la repeticion hasta ahora.
+     *
+     * @param ticksTotales  duracion de la partida en ticks (Simulacion.getTicks()).
+     */
+    public byte[] toByteArray(long ticksTotales) {
+        int n = cerrar(ticksTotales);
+        byte[] copia = Arrays.copyOf(datos, longitud + n);
+        System.arraycopy(cierre, 0, copia, longitud, n);
+        return copia;
+    }
+
+    public void escribir(OutputStream out, long ticksTotales) throws IOException {
+        int n = cerrar(ticksTotales);
+        out.write(datos, 0, longitud);
+        out.write(cierre, 0, n);
+    }
+
+    /** Codifica el registro FIN en cierre y devuelve su longitud. */
+    private int cerrar(long ticksTotales) {
+        long v = Math.max(0, ticksTotales - ultimoTick);
+        int n = 0;
+        while ((v & ~0x7FL) != 0) {
+            cierre[n++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        cierre[n++] = (byte) v;
+        cierre[n++] = Repeticion.FIN;
+        return n;
+    }
+
+    public int getLongitud() {
+        return longitud;
+    }
+
+    public int getEventos() {
+        return eventos;
+    }
+
+    // =====================================================================
+    // GUARDADO (PartidaGuardada): la grabacion continua tras restaurar
+    // =====================================================================
+
+    int bytesGuardados() {
+        return 4 + longitud + 8 + 4;
+    }
+
+    void guardar(ByteBuffer destino) {
+        destino.putInt(longitud);
+        destino.put(datos, 0, longitud);
+        destino.putLong(ultimoTick);
+        destino.putInt(eventos);
+    }
+
+    void restaurar(ByteBuffer origen) {
+        longitud = origen.getInt();
+        if (datos.length < longitud) {
+            datos = new byte[Integer.highestOneBit(longitud) << 1];
+        }
+        origen.get(datos, 0, longitud);
+        ultimoTick = origen.getLong();
+        eventos = origen.getInt();
+    }
+
+    /** Salta una grabacion guardada sin leerla (simulacion sin grabador). */
+    static void saltar(ByteBuffer origen) {
+        int n = origen.getInt();
+        origen.position(origen.position() + n + 8 + 4);
+    }
+
+    // =====================================================================
+    // CODIFICACION
+    // =====================================================================
+
+    private void octeto(int b) {
+        if (longitud == datos.length) {
+            datos = Arrays.copyOf(datos, datos.length * 2);
+        }
+        datos[longitud++] = (byte) b;
+    }
+
+    private void entero(int v) {
+        octeto(v >>> 24);
+        octeto(v >>> 16);
+        octeto(v >>> 8);
+        octeto(v);
+    }
+
+    private void varint(long v) {
+        while ((v & ~0x7FL) != 0) {
+            octeto((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        octeto((int) v);
+    }
+}
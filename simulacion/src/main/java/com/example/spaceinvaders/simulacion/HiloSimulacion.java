@@ -0,0 +1,122 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HiloSimulacion: ejecuta la Simulacion a paso fijo (su getFrecuencia(), que
+ * se lee cada vez que arranca el hilo) en su propio hilo y
+ * publica una Instantanea tras cada tanda de ticks en un BufferTriple.
+ * El dibujo corre en otro hilo a su ritmo (el vsync), de modo que el tiempo
+ * de fisica y el de rasterizado se solapan en lugar de sumarse.
+ *
+ * Entre tanda y tanda duerme hasta el siguiente limite de tick (parkNanos),
+ * sin girar en vacio. Usa System.nanoTime(), la misma base que el
+ * Choreographer, para que el render pueda interpolar con el instante del vsync.
+ *
+ * Con un CicloJuego, el hilo aparca del todo mientras el juego este pausado
+ * o la partida terminada sin entrada pendiente: no hay nada que simular, asi
+ * que no se ejecutan ticks ni se despierta hasta que llegue un toque o
+ * cambie el estado.
+ */
+public final class HiloSimulacion implements Runnable {
+
+    private final Simulacion simulacion;
+    private final BufferTriple buffer;
+    private final BucleFijo bucle;
+    private final CicloJuego ciclo; // null: nunca aparca (pruebas)
+
+    private volatile boolean corriendo;
+    private volatile long ticks; // solo lo escribe este hilo
+    private volatile long nanosPorTick;
+    private boolean publicadaSinAviso; // solo este hilo
+
+    public HiloSimulacion(Simulacion simulacion, BufferTriple buffer, int maxPasosPorFrame) {
+        this(simulacion, buffer, maxPasosPorFrame, null);
+    }
+
+    public HiloSimulacion(Simulacion simulacion, BufferTriple buffer, int maxPasosPorFrame, CicloJuego ciclo) {
+        this.simulacion = simulacion;
+        this.buffer = buffer;
+        this.bucle = new BucleFijo(Simulacion.TICKS_POR_SEGUNDO, maxPasosPorFrame);
+        this.nanosPorTick = bucle.getNanosPorTick();
+        this.ciclo = ciclo;
+    }
+
+    /** Se llama antes de arrancar el hilo. */
+    public void iniciar() {
+        corriendo = true;
+    }
+
+    /** El hilo termina tras la tanda en curso; el llamante debe hacer join(). */
+    public void detener() {
+        corriendo = false;
+        if (ciclo != null) ciclo.despertar();
+    }
+
+    @Override
+    public void run() {
+        bucle.setTicksPorSegundo(simulacion.getFrecuencia());
+        bucle.reiniciar();
+        long nanosPorTick = bucle.getNanosPorTick();
+        this.nanosPorTick = nanosPorTick;
+        publicar(System.nanoTime()); // estado inicial, para que el render tenga algo que dibujar
+        while (corriendo) {
+            if (ciclo != null && aparcar()) continue;
+            long ahora = System.nanoTime();
+            int pasos = bucle.avanzar(ahora);
+            for (int i = 0; i < pasos; i++) {
+                simulacion.tick();
+            }
+            if (pasos > 0) {
+                ticks += pasos;
+                // Instante nominal del ultimo tick ejecutado
+                publicar(ahora - (long) (bucle.alfa() * nanosPorTick));
+            }
+            LockSupport.parkNanos((long) ((1f - bucle.alfa()) * nanosPorTick));
+        }
+    }
+
+    /**
+     * Sin nada que simular espera en el CicloJuego a que cambie algo.
+     *
+     * @return true si ha estado aparcado (hay que volver a mirar el estado).
+     */
+    private boolean aparcar() {
+        ciclo.setPartidaTerminada(simulacion.terminada());
+        if (ciclo.getEstado() == CicloJuego.JUGANDO) return false;
+        if (publicadaSinAviso) {
+            // Lo ultimo publicado (p. ej. un giro en la pantalla de fin) aun no se ha dibujado
+            publicadaSinAviso = false;
+            ciclo.despertar();
+        }
+        long version = ciclo.getVersion();
+        int estado = ciclo.getEstado();
+        boolean reposo = estado == CicloJuego.PAUSADO
+                || (estado == CicloJuego.TERMINADO && simulacion.getEntrada().getPendientes() == 0);
+        if (!reposo) return false;
+        try {
+            ciclo.esperarCambio(version);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            corriendo = false;
+        }
+        // El tiempo aparcado no se convierte en ticks de recuperacion
+        bucle.reiniciar();
+        return true;
+    }
+
+    private void publicar(long instanteTick) {
+        buffer.getEscritura().capturar(simulacion, ticks, instanteTick, buffer.isEscrituraDescartada());
+        buffer.publicar();
+        publicadaSinAviso = true;
+    }
+
+    /** Duracion de un tick de la partida en curso; se puede leer desde cualquier hilo. */
+    public long getNanosPorTick() {
+        return nanosPorTick;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+}
@@ -0,0 +1,579 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * Instantanea: copia de todo lo que hace falta para dibujar un frame,
+ * tomada al final de un tick. El hilo de simulacion la rellena y el de render
+ * la lee sin compartir nada mas; se intercambian con BufferTriple.
+ *
+ * Todas las coordenadas estan en unidades del mundo; Escena las pasa a
+ * pixeles. Contiene la posicion actual y la del tick anterior de lo que se mueve
+ * (nave y entidades) para interpolar, el tipo de cada entidad con el tamanio
+ * de cada tipo, la geometria de la formacion con una copia del bitset de vivos
+ * y el estado de la partida. Los arrays solo crecen: una vez alcanzado el pico
+ * de entidades, capturar() no reserva memoria.
+ *
+ * Para la red se codifica en bits como diferencia con otra instantanea (la
+ * ultima que confirmo el cliente, ver CodificadorInstantaneas): cada campo
+ * que no cambia ocupa un bit, la formacion solo envia las palabras del
+ * bitset de vivos que cambian y cada entidad se predice con su velocidad.
+ */
+public final class Instantanea {
+
+    // --- Estado ---
+    private long tick = -1; // -1 = aun no capturada
+    private long instanteNanos;
+    private boolean gameOver;
+    private boolean victoria;
+    private int puntuacion;
+    private int partidasTerminadas;
+    private int puntuacionFinal;
+    private int oleadaFinal;
+    private int anchoMundo;
+    private int altoMundo;
+
+    // --- Jugador ---
+    private int jugadorIzquierda;
+    private int jugadorIzquierdaAnterior;
+    private int jugadorArriba;
+    private int jugadorAncho;
+    private int jugadorAlto;
+
+    // --- Formacion ---
+    private int filas;
+    private int columnas;
+    private int origenX;
+    private int origenY;
+    private int tamEnemigo;
+    private int espacioH;
+    private int espacioV;
+    private int vivos;
+    private long[] bitsVivos = new long[1];
+
+    // --- Tipos de entidad: tamanio actual y faccion ---
+    private int numTipos;
+    private final int[] anchoTipo = new int[Entidades.MAX_TIPOS];
+    private final int[] altoTipo = new int[Entidades.MAX_TIPOS];
+    private final byte[] faccionTipo = new byte[Entidades.MAX_TIPOS];
+
+    // --- Entidades (proyectiles y cualquier otro tipo) ---
+    private int numEntidades;
+    private byte[] entidadTipo = new byte[Simulacion.CAPACIDAD_INICIAL_DISPAROS];
+    private int[] entidadX = new int[Simulacion.CAPACIDAD_INICIAL_DISPAROS];
+    private int[] entidadY = new int[Simulacion.CAPACIDAD_INICIAL_DISPAROS];
+    private int[] entidadXAnterior = new int[Simulacion.CAPACIDAD_INICIAL_DISPAROS];
+    private int[] entidadYAnterior = new int[Simulacion.CAPACIDAD_INICIAL_DISPAROS];
+
+    // Cambios en una palabra del bitset de vivos que se envian como lista de
+    // posiciones (6 bits cada una); con mas, la palabra entera
+    private static final int MAX_CAMBIOS_LISTA = 10;
+    // Topes de un paquete: uno danado no provoca reservas enormes
+    private static final int MAX_ENTIDADES_RED = 1 << 20;
+    private static final int MAX_ENEMIGOS_RED = 1 << 22;
+
+    // Entrada aplicada desde la ultima instantanea leida, para medir su latencia
+    private final LatenciaEntrada entrada = new LatenciaEntrada();
+
+    // Tiempos por fase de la simulacion, para el panel de perfil
+    private final ResumenPerfil perfil = new ResumenPerfil(Simulacion.FASES, Simulacion.CONTADORES);
+
+    /**
+     * Copia el estado de la simulacion.
+     *
+     * @param tick           numero de tick al que corresponde.
+     * @param instanteNanos  instante nominal de ese tick (base de System.nanoTime).
+     * @param acumular       true si esta instantanea se publico y nadie llego a
+     *                       leerla: su entrada pendiente se conserva y se suma.
+     */
+    public void capturar(Simulacion sim, long tick, long instanteNanos, boolean acumular) {
+        this.tick = tick;
+        this.instanteNanos = instanteNanos;
+        gameOver = sim.isGameOver();
+        victoria = sim.isVictoria();
+        puntuacion = sim.getPuntuacion();
+        partidasTerminadas = sim.getPartidasTerminadas();
+        puntuacionFinal = sim.getPuntuacionFinal();
+        oleadaFinal = sim.getOleadaFinal();
+        anchoMundo = sim.getAncho();
+        altoMundo = sim.getAlto();
+
+        Jugador jugador = sim.getJugador();
+        Limites b = jugador.getBounds();
+        jugadorIzquierda = b.izquierda;
+        jugadorIzquierdaAnterior = jugador.getIzquierdaAnterior();
+        jugadorArriba = b.arriba;
+        jugadorAncho = b.ancho();
+        jugadorAlto = b.alto();
+
+        Formacion f = sim.getFormacion();
+        filas = f.getFilas();
+        columnas = f.getColumnas();
+        origenX = f.getOrigenX();
+        origenY = f.getOrigenY();
+        tamEnemigo = f.getTamEnemigo();
+        espacioH = f.getEspacioH();
+        espacioV = f.getEspacioV();
+        vivos = f.getVivos();
+        reservarVivos(f.getPalabrasVivos());
+        f.copiarVivos(bitsVivos);
+
+        Entidades d = sim.getEntidades();
+        numTipos = d.copiarTipos(anchoTipo, altoTipo, faccionTipo);
+        numEntidades = d.getCantidad();
+        reservarEntidades(numEntidades);
+        d.copiar(entidadTipo, entidadX, entidadY, entidadXAnterior, entidadYAnterior);
+
+        if (!acumular) {
+            entrada.descartarPendientes();
+        }
+        sim.getLatencia().traspasarPendientes(entrada);
+        perfil.copiar(sim.getPerfilador().getResumen());
+    }
+
+    /**
+     * Copia el estado de otra instantanea (no la entrada ni el perfil, que
+     * son locales). Sin reservas una vez dimensionados los arrays.
+     */
+    void copiarEstado(Instantanea o) {
+        tick = o.tick;
+        instanteNanos = o.instanteNanos;
+        gameOver = o.gameOver;
+        victoria = o.victoria;
+        puntuacion = o.puntuacion;
+        partidasTerminadas = o.partidasTerminadas;
+        puntuacionFinal = o.puntuacionFinal;
+        oleadaFinal = o.oleadaFinal;
+        anchoMundo = o.anchoMundo;
+        altoMundo = o.altoMundo;
+        jugadorIzquierda = o.jugadorIzquierda;
+        jugadorIzquierdaAnterior = o.jugadorIzquierdaAnterior;
+        jugadorArriba = o.jugadorArriba;
+        jugadorAncho = o.jugadorAncho;
+        jugadorAlto = o.jugadorAlto;
+        filas = o.filas;
+        columnas = o.columnas;
+        origenX = o.origenX;
+        origenY = o.origenY;
+        tamEnemigo = o.tamEnemigo;
+        espacioH = o.espacioH;
+        espacioV = o.espacioV;
+        vivos = o.vivos;
+        int palabras = palabrasVivos();
+        reservarVivos(palabras);
+        System.arraycopy(o.bitsVivos, 0, bitsVivos, 0, palabras);
+        numTipos = o.numTipos;
+        System.arraycopy(o.anchoTipo, 0, anchoTipo, 0, numTipos);
+        System.arraycopy(o.altoTipo, 0, altoTipo, 0, numTipos);
+        System.arraycopy(o.faccionTipo, 0, faccionTipo, 0, numTipos);
+        numEntidades = o.numEntidades;
+        reservarEntidades(numEntidades);
+        System.arraycopy(o.entidadTipo, 0, entidadTipo, 0, numEntidades);
+        System.arraycopy(o.entidadX, 0, entidadX, 0, numEntidades);
+        System.arraycopy(o.entidadY, 0, entidadY, 0, numEntidades);
+        System.arraycopy(o.entidadXAnterior, 0, entidadXAnterior, 0, numEntidades);
+        System.arraycopy(o.entidadYAnterior, 0, entidadYAnterior, 0, numEntidades);
+    }
+
+    /** Vuelve a no valida (como antes de la primera captura). */
+    void invalidar() {
+        tick = -1;
+    }
+
+    private int palabrasVivos() {
+        return (filas * columnas + 63) >>> 6;
+    }
+
+    /** Bits de la palabra w que corresponden a algun enemigo. */
+    private long mascaraVivos(int w) {
+        int resto = filas * columnas - (w << 6);
+        return resto >= 64 ? -1L : (1L << resto) - 1;
+    }
+
+    private void reservarVivos(int palabras) {
+        if (bitsVivos.length < palabras) {
+            bitsVivos = new long[palabras];
+        }
+    }
+
+    private void reservarEntidades(int n) {
+        if (entidadX.length < n) {
+            int capacidad = Math.max(n, entidadX.length * 2);
+            entidadTipo = new byte[capacidad];
+            entidadX = new int[capacidad];
+            entidadY = new int[capacidad];
+            entidadXAnterior = new int[capacidad];
+            entidadYAnterior = new int[capacidad];
+        }
+    }
+
+    // =====================================================================
+    // RED: diferencia con una instantanea base, en bits
+    // =====================================================================
+
+    /**
+     * Escribe esta instantanea como diferencia con base (una instantanea
+     * vacia para enviarla completa). El tick lo escribe quien llama.
+     */
+    void escribirDelta(EscritorBits e, Instantanea base) {
+        e.escribirBooleano(gameOver);
+        e.escribirBooleano(victoria);
+        e.escribirEntero((long) puntuacion - base.puntuacion);
+        e.escribirEntero((long) partidasTerminadas - base.partidasTerminadas);
+        e.escribirEntero((long) puntuacionFinal - base.puntuacionFinal);
+        e.escribirEntero((long) oleadaFinal - base.oleadaFinal);
+        e.escribirEntero((long) anchoMundo - base.anchoMundo);
+        e.escribirEntero((long) altoMundo - base.altoMundo);
+
+        // La posicion anterior de la nave viaja como su velocidad
+        e.escribirEntero((long) jugadorIzquierda - base.jugadorIzquierda);
+        e.escribirEntero((long) (jugadorIzquierda - jugadorIzquierdaAnterior)
+                - (base.jugadorIzquierda - base.jugadorIzquierdaAnterior));
+        e.escribirEntero((long) jugadorArriba - base.jugadorArriba);
+        e.escribirEntero((long) jugadorAncho - base.jugadorAncho);
+        e.escribirEntero((long) jugadorAlto - base.jugadorAlto);
+
+        e.escribirEntero((long) filas - base.filas);
+        e.escribirEntero((long) columnas - base.columnas);
+        e.escribirEntero((long) origenX - base.origenX);
+        e.escribirEntero((long) origenY - base.origenY);
+        e.escribirEntero((long) tamEnemigo - base.tamEnemigo);
+        e.escribirEntero((long) espacioH - base.espacioH);
+        e.escribirEntero((long) espacioV - base.espacioV);
+        escribirVivos(e, base);
+
+        // Tipos: los que no estan en la base se comparan con cero
+        e.escribirEntero((long) numTipos - base.numTipos);
+        for (int t = 0; t < numTipos; t++) {
+            boolean enBase = t < base.numTipos;
+            e.escribirEntero((long) anchoTipo[t] - (enBase ? base.anchoTipo[t] : 0));
+            e.escribirEntero((long) altoTipo[t] - (enBase ? base.altoTipo[t] : 0));
+            e.escribirEntero((long) faccionTipo[t] - (enBase ? base.faccionTipo[t] : 0));
+        }
+
+        e.escribirEntero((long) numEntidades - base.numEntidades);
+        long ticks = tick - base.tick;
+        for (int i = 0; i < numEntidades; i++) {
+            int vx = entidadX[i] - entidadXAnterior[i];
+            int vy = entidadY[i] - entidadYAnterior[i];
+            if (i < base.numEntidades) {
+                // Se predice que sigue igual que en la base, a su velocidad
+                int vxBase = base.entidadX[i] - base.entidadXAnterior[i];
+                int vyBase = base.entidadY[i] - base.entidadYAnterior[i];
+                e.escribirEntero((long) entidadTipo[i] - base.entidadTipo[i]);
+                e.escribirEntero(entidadX[i] - (base.entidadX[i] + vxBase * ticks));
+                e.escribirEntero(entidadY[i] - (base.entidadY[i] + vyBase * ticks));
+                e.escribirEntero((long) vx - vxBase);
+                e.escribirEntero((long) vy - vyBase);
+            } else {
+                e.escribirNatural(entidadTipo[i]);
+                e.escribirEntero(entidadX[i]);
+                e.escribirEntero(entidadY[i]);
+                e.escribirEntero(vx);
+                e.escribirEntero(vy);
+            }
+        }
+    }
+
+    /**
+     * Bitset de vivos: un bit si no ha cambiado nada; si no, por palabra un
+     * bit de cambio y las posiciones que cambian (o la palabra entera). Con
+     * otra cuadricula se compara con todos vivos, como empieza una oleada.
+     */
+    private void escribirVivos(EscritorBits e, Instantanea base) {
+        boolean misma = base.filas == filas && base.columnas == columnas;
+        int palabras = palabrasVivos();
+        boolean cambia = false;
+        for (int w = 0; w < palabras && !cambia; w++) {
+            long referencia = misma ? base.bitsVivos[w] : -1L;
+            cambia = ((bitsVivos[w] ^ referencia) & mascaraVivos(w)) != 0;
+        }
+        e.escribirBooleano(cambia);
+        if (!cambia) return;
+        for (int w = 0; w < palabras; w++) {
+            long referencia = misma ? base.bitsVivos[w] : -1L;
+            long cambios = (bitsVivos[w] ^ referencia) & mascaraVivos(w);
+            e.escribirBooleano(cambios != 0);
+            if (cambios == 0) continue;
+            int k = Long.bitCount(cambios);
+            e.escribirNatural(k - 1);
+            if (k > MAX_CAMBIOS_LISTA) {
+                e.escribir(cambios, 64);
+                continue;
+            }
+            while (cambios != 0) {
+                e.escribir(Long.numberOfTrailingZeros(cambios), 6);
+                cambios &= cambios - 1;
+            }
+        }
+    }
+
+    /**
+     * Lee lo que escribio escribirDelta() con la misma base.
+     *
+     * @param tick           tick de la instantanea (viaja en la cabecera).
+     * @param instanteNanos  instante local en que se recibe, para interpolar.
+     * @throws IllegalArgumentException si el paquete esta truncado o danado.
+     */
+    void leerDelta(LectorBits l, Instantanea base, long tick, long instanteNanos) {
+        this.tick = tick;
+        this.instanteNanos = instanteNanos;
+        gameOver = l.leerBooleano();
+        victoria = l.leerBooleano();
+        puntuacion = base.puntuacion + l.leerInt();
+        partidasTerminadas = base.partidasTerminadas + l.leerInt();
+        puntuacionFinal = base.puntuacionFinal + l.leerInt();
+        oleadaFinal = base.oleadaFinal + l.leerInt();
+        anchoMundo = base.anchoMundo + l.leerInt();
+        altoMundo = base.altoMundo + l.leerInt();
+
+        jugadorIzquierda = base.jugadorIzquierda + l.leerInt();
+        int velocidadJugador = (base.jugadorIzquierda - base.jugadorIzquierdaAnterior) + l.leerInt();
+        jugadorIzquierdaAnterior = jugadorIzquierda - velocidadJugador;
+        jugadorArriba = base.jugadorArriba + l.leerInt();
+        jugadorAncho = base.jugadorAncho + l.leerInt();
+        jugadorAlto = base.jugadorAlto + l.leerInt();
+
+        filas = base.filas + l.leerInt();
+        columnas = base.columnas + l.leerInt();
+        if (filas < 0 || columnas < 0 || (long) filas * columnas > MAX_ENEMIGOS_RED) {
+            throw new IllegalArgumentException("Formacion no valida: " + filas + "x" + columnas);
+        }
+        origenX = base.origenX + l.leerInt();
+        origenY = base.origenY + l.leerInt();
+        tamEnemigo = base.tamEnemigo + l.leerInt();
+        espacioH = base.espacioH + l.leerInt();
+        espacioV = base.espacioV + l.leerInt();
+        leerVivos(l, base);
+
+        long tipos = (long) base.numTipos + l.leerEntero();
+        if (tipos < 0 || tipos > Entidades.MAX_TIPOS) {
+            throw new IllegalArgumentException("Numero de tipos no valido: " + tipos);
+        }
+        numTipos = (int) tipos;
+        for (int t = 0; t < numTipos; t++) {
+            boolean enBase = t < base.numTipos;
+            anchoTipo[t] = (enBase ? base.anchoTipo[t] : 0) + l.leerInt();
+            altoTipo[t] = (enBase ? base.altoTipo[t] : 0) + l.leerInt();
+            faccionTipo[t] = (byte) ((enBase ? base.faccionTipo[t] : 0) + l.leerInt());
+        }
+
+        long n = (long) base.numEntidades + l.leerEntero();
+        if (n < 0 || n > MAX_ENTIDADES_RED) {
+            throw new IllegalArgumentException("Numero de entidades no valido: " + n);
+        }
+        numEntidades = (int) n;
+        reservarEntidades(numEntidades);
+        long ticks = tick - base.tick;
+        for (int i = 0; i < numEntidades; i++) {
+            long tipo;
+            int vx;
+            int vy;
+            if (i < base.numEntidades) {
+                int vxBase = base.entidadX[i] - base.entidadXAnterior[i];
+                int vyBase = base.entidadY[i] - base.entidadYAnterior[i];
+                tipo = base.entidadTipo[i] + l.leerEntero();
+                entidadX[i] = (int) (base.entidadX[i] + vxBase * ticks + l.leerEntero());
+                entidadY[i] = (int) (base.entidadY[i] + vyBase * ticks + l.leerEntero());
+                vx = vxBase + l.leerInt();
+                vy = vyBase + l.leerInt();
+            } else {
+                tipo = l.leerNatural();
+                entidadX[i] = l.leerInt();
+                entidadY[i] = l.leerInt();
+                vx = l.leerInt();
+                vy = l.leerInt();
+            }
+            if (tipo < 0 || tipo >= numTipos) {
+                throw new IllegalArgumentException("Tipo de entidad no valido: " + tipo);
+            }
+            entidadTipo[i] = (byte) tipo;
+            entidadXAnterior[i] = entidadX[i] - vx;
+            entidadYAnterior[i] = entidadY[i] - vy;
+        }
+    }
+
+    private void leerVivos(LectorBits l, Instantanea base) {
+        boolean misma = base.filas == filas && base.columnas == columnas;
+        int palabras = palabrasVivos();
+        reservarVivos(palabras);
+        boolean cambia = l.leerBooleano();
+        vivos = 0;
+        for (int w = 0; w < palabras; w++) {
+            long bits = (misma ? base.bitsVivos[w] : -1L) & mascaraVivos(w);
+            if (cambia && l.leerBooleano()) {
+                int k = (int) l.leerNatural() + 1;
+                if (k > 64) throw new IllegalArgumentException("Cambios no validos: " + k);
+                if (k > MAX_CAMBIOS_LISTA) {
+                    bits ^= l.leer(64);
+                } else {
+                    for (int j = 0; j < k; j++) {
+                        bits ^= 1L << l.leer(6);
+                    }
+                }
+                bits &= mascaraVivos(w);
+            }
+            bitsVivos[w] = bits;
+            vivos += Long.bitCount(bits);
+        }
+    }
+
+    /**
+     * Fraccion del tick transcurrida en el instante indicado, en [0, 1].
+     */
+    public float alfa(long ahoraNanos, long nanosPorTick) {
+        float alfa = (float) (ahoraNanos - instanteNanos) / nanosPorTick;
+        return alfa < 0f ? 0f : (alfa > 1f ? 1f : alfa);
+    }
+
+    // =====================================================================
+    // CONSULTAS (para Escena)
+    // =====================================================================
+
+    /** false hasta la primera captura. */
+    public boolean esValida() {
+        return tick >= 0;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public boolean terminada() {
+        return gameOver || victoria;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public boolean isVictoria() {
+        return victoria;
+    }
+
+    public int getPuntuacion() {
+        return puntuacion;
+    }
+
+    /** Contador de partidas terminadas; al cambiar, las dos siguientes describen la ultima. */
+    public int getPartidasTerminadas() {
+        return partidasTerminadas;
+    }
+
+    public int getPuntuacionFinal() {
+        return puntuacionFinal;
+    }
+
+    public int getOleadaFinal() {
+        return oleadaFinal;
+    }
+
+    /** Ancho del mundo en unidades. */
+    public int getAnchoMundo() {
+        return anchoMundo;
+    }
+
+    public int getAltoMundo() {
+        return altoMundo;
+    }
+
+    public float jugadorIzquierdaInterpolada(float alfa) {
+        return jugadorIzquierdaAnterior + (jugadorIzquierda - jugadorIzquierdaAnterior) * alfa;
+    }
+
+    public int getJugadorArriba() {
+        return jugadorArriba;
+    }
+
+    public int getJugadorAncho() {
+        return jugadorAncho;
+    }
+
+    public int getJugadorAlto() {
+        return jugadorAlto;
+    }
+
+    public int getTotalEnemigos() {
+        return filas * columnas;
+    }
+
+    public int getVivos() {
+        return vivos;
+    }
+
+    public boolean estaVivo(int indice) {
+        return (bitsVivos[indice >>> 6] & (1L << indice)) != 0;
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    public int getOrigenX() {
+        return origenX;
+    }
+
+    public int getOrigenY() {
+        return origenY;
+    }
+
+    public int getEspacioH() {
+        return espacioH;
+    }
+
+    public int getEspacioV() {
+        return espacioV;
+    }
+
+    public int getTamEnemigo() {
+        return tamEnemigo;
+    }
+
+    /** Tipos registrados en Entidades (los identificadores van de 0 a getNumTipos() - 1). */
+    public int getNumTipos() {
+        return numTipos;
+    }
+
+    /** Ancho actual de las entidades del tipo, en unidades del mundo. */
+    public int getAnchoTipo(int tipo) {
+        return anchoTipo[tipo];
+    }
+
+    public int getAltoTipo(int tipo) {
+        return altoTipo[tipo];
+    }
+
+    public int getNumEntidades() {
+        return numEntidades;
+    }
+
+    /** Tipo de Entidades de la entidad i; su sprite es Renderer.ENTIDAD + tipo. */
+    public byte getEntidadTipo(int i) {
+        return entidadTipo[i];
+    }
+
+    /** Entidades.JUGADOR o Entidades.ENEMIGO, segun su tipo. */
+    public byte getEntidadFaccion(int i) {
+        return faccionTipo[entidadTipo[i]];
+    }
+
+    public float entidadXInterpolada(int i, float alfa) {
+        return entidadXAnterior[i] + (entidadX[i] - entidadXAnterior[i]) * alfa;
+    }
+
+    public float entidadYInterpolada(int i, float alfa) {
+        return entidadYAnterior[i] + (entidadY[i] - entidadYAnterior[i]) * alfa;
+    }
+
+    /** Entrada pendiente de presentar que viaja con esta instantanea. */
+    public LatenciaEntrada getEntrada() {
+        return entrada;
+    }
+
+    /** Percentiles de las fases del tick en la ultima ventana cerrada. */
+    public ResumenPerfil getPerfil() {
+        return perfil;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Jugador: representa la nave controlada por el usuario.
+ * Almacena su posicion y dimension mediante unos Limites (Bounding Box),
+ * que tambien se usa para la deteccion de colisiones.
+ */
+public class Jugador {
+
+    private final Limites bounds;
+    private int velocidad;
+
+    // Posicion X del tick anterior, para interpolar al dibujar entre dos ticks.
+    private int izquierdaAnterior;
+
+    public Jugador(int x, int y, int ancho, int alto) {
+        bounds = new Limites(x, y, x + ancho, y + alto);
+        // La velocidad de desplazamiento es proporcional al ancho del jugador.
+        colocar(x, y, ancho, alto, ancho / 3);
+    }
+
+    /**
+     * Recoloca y redimensiona la nave sin crear objetos nuevos (reinicio de
+     * partida o cambio de tamanio del mundo). No deja rastro que interpolar.
+     *
+     * @param velocidad  desplazamiento maximo por tick, en unidades del mundo.
+     */
+    public void colocar(int x, int y, int ancho, int alto, int velocidad) {
+        bounds.set(x, y, x + ancho, y + alto);
+        this.velocidad = velocidad;
+        izquierdaAnterior = x;
+    }
+
+    /**
+     * Memoriza la posicion actual como la del tick anterior.
+     * Se llama al comienzo de cada tick, antes de mover la nave.
+     */
+    public void guardarPosicionAnterior() {
+        izquierdaAnterior = bounds.izquierda;
+    }
+
+    /**
+     * Mueve la nave horizontalmente hacia la posicion tactil indicada, como
+     * mucho velocidad por tick. Si esta mas cerca llega exactamente, sin
+     * quedarse a hasta un paso del dedo. Se evita que la nave salga de los
+     * limites del mundo.
+     *
+     * @param objetivoX  coordenada X del punto de toque, en el mundo.
+     * @param anchoMundo  ancho total del mundo.
+     */
+    public void moverHacia(float objetivoX, int anchoMundo) {
+        int distancia = Math.round(objetivoX) - bounds.centroX();
+        if (distancia != 0) {
+            bounds.desplazar(Math.max(-velocidad, Math.min(velocidad, distancia)), 0);
+        }
+
+        // Clamp: no salir por el borde izquierdo
+        if (bounds.izquierda < 0) {
+            bounds.desplazarA(0, bounds.arriba);
+        }
+        // Clamp: no salir por el borde derecho
+        if (bounds.derecha > anchoMundo) {
+            bounds.desplazarA(anchoMundo - bounds.ancho(), bounds.arriba);
+        }
+    }
+
+    // --- Guardado (PartidaGuardada) ---
+    static final int BYTES_GUARDADOS = 6 * 4;
+
+    void guardar(ByteBuffer destino) {
+        destino.putInt(bounds.izquierda);
+        destino.putInt(bounds.arriba);
+        destino.putInt(bounds.ancho());
+        destino.putInt(bounds.alto());
+        destino.putInt(velocidad);
+        destino.putInt(izquierdaAnterior);
+    }
+
+    void restaurar(ByteBuffer origen) {
+        colocar(origen.getInt(), origen.getInt(), origen.getInt(), origen.getInt(), origen.getInt());
+        izquierdaAnterior = origen.getInt();
+    }
+
+    public Limites getBounds() {
+        return bounds;
+    }
+
+    public int getVelocidad() {
+        return velocidad;
+    }
+
+    public int getIzquierdaAnterior() {
+        return izquierdaAnterior;
+    }
+}
\ No newline at end of file
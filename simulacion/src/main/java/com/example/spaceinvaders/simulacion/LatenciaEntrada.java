@@ -0,0 +1,93 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * LatenciaEntrada: mide la latencia de cada evento de entrada desde que se
+ * produce hasta que se presenta el primer frame que ya lo incluye
+ * ("input-to-photon", salvo la latencia fija del compositor y el panel).
+ *
+ * Los eventos aplicados en un tick quedan pendientes hasta el siguiente
+ * presentado(). Para no guardar cada instante basta con la suma, el recuento
+ * y el mas antiguo: la latencia total de los pendientes es
+ * n * ahora - suma(instantes) y la mayor es ahora - masAntiguo.
+ *
+ * Con simulacion y dibujo en hilos distintos, los pendientes viajan en cada
+ * Instantanea (traspasarPendientes) hasta la medida del hilo de render, que
+ * es quien llama a presentado(). Cada objeto se usa desde un solo hilo a la vez.
+ */
+public final class LatenciaEntrada {
+
+    // --- Aplicados y aun no presentados ---
+    private int pendientes;
+    private long sumaInstantes;
+    private long masAntiguo;
+
+    // --- Acumulados ---
+    private long muestras;
+    private long sumaLatencias;
+    private long maximaNanos;
+    private long ultimaMaximaNanos;
+
+    void aplicada(long instanteNanos) {
+        sumarPendientes(1, instanteNanos, instanteNanos);
+    }
+
+    private void sumarPendientes(int n, long suma, long antiguo) {
+        if (pendientes == 0 || antiguo < masAntiguo) {
+            masAntiguo = antiguo;
+        }
+        pendientes += n;
+        sumaInstantes += suma;
+    }
+
+    /** Mueve los eventos pendientes de presentar a otra medida. */
+    public void traspasarPendientes(LatenciaEntrada destino) {
+        if (pendientes == 0) return;
+        destino.sumarPendientes(pendientes, sumaInstantes, masAntiguo);
+        descartarPendientes();
+    }
+
+    public void descartarPendientes() {
+        pendientes = 0;
+        sumaInstantes = 0;
+    }
+
+    /**
+     * Cierra la medida de los eventos pendientes: el frame que los refleja se
+     * acaba de presentar en el instante indicado.
+     */
+    public void presentado(long ahoraNanos) {
+        if (pendientes == 0) return;
+        muestras += pendientes;
+        sumaLatencias += pendientes * ahoraNanos - sumaInstantes;
+        ultimaMaximaNanos = ahoraNanos - masAntiguo;
+        if (ultimaMaximaNanos > maximaNanos) {
+            maximaNanos = ultimaMaximaNanos;
+        }
+        descartarPendientes();
+    }
+
+    public void reiniciar() {
+        descartarPendientes();
+        muestras = 0;
+        sumaLatencias = 0;
+        maximaNanos = 0;
+        ultimaMaximaNanos = 0;
+    }
+
+    public long getMuestras() {
+        return muestras;
+    }
+
+    public long getMediaNanos() {
+        return muestras == 0 ? 0 : sumaLatencias / muestras;
+    }
+
+    public long getMaximaNanos() {
+        return maximaNanos;
+    }
+
+    /** Latencia del evento mas antiguo del ultimo frame que presento entrada. */
+    public long getUltimaMaximaNanos() {
+        return ultimaMaximaNanos;
+    }
+}
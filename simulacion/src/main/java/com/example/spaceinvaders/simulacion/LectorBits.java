@@ -0,0 +1,77 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * LectorBits: lee lo que escribio un EscritorBits, campo a campo y en el
+ * mismo orden, sobre un array prestado. Un paquete truncado o danado no lee
+ * fuera del array: falla con IllegalArgumentException. No reserva memoria.
+ */
+public final class LectorBits {
+
+    private byte[] datos;
+    private int longitud;
+    private int posicion; // siguiente byte por cargar
+    private long acumulador;
+    private int disponibles; // bits cargados y aun no leidos
+
+    /** Empieza a leer los primeros longitud bytes de origen. */
+    public void reiniciar(byte[] origen, int longitud) {
+        datos = origen;
+        this.longitud = longitud;
+        posicion = 0;
+        acumulador = 0;
+        disponibles = 0;
+    }
+
+    /** n bits (0 <= n <= 64) como natural. */
+    public long leer(int n) {
+        if (n > 32) {
+            long alto = leer32(n - 32) & 0xFFFF_FFFFL;
+            return (alto << 32) | (leer32(32) & 0xFFFF_FFFFL);
+        }
+        return leer32(n) & 0xFFFF_FFFFL;
+    }
+
+    private int leer32(int n) {
+        if (n == 0) return 0;
+        while (disponibles < n) {
+            if (posicion >= longitud) {
+                throw new IllegalArgumentException("Paquete truncado");
+            }
+            acumulador = (acumulador << 8) | (datos[posicion++] & 0xFF);
+            disponibles += 8;
+        }
+        disponibles -= n;
+        return (int) (acumulador >>> disponibles) & (int) (-1L >>> (64 - n));
+    }
+
+    public boolean leerBooleano() {
+        return leer32(1) != 0;
+    }
+
+    /** Natural en Exp-Golomb (EscritorBits.escribirNatural). */
+    public long leerNatural() {
+        int ceros = 0;
+        while (leer32(1) == 0) {
+            if (++ceros > 62) {
+                throw new IllegalArgumentException("Natural no valido");
+            }
+        }
+        long x = (1L << ceros) | leer(ceros);
+        return x - 1;
+    }
+
+    /** Entero con signo en zigzag (EscritorBits.escribirEntero). */
+    public long leerEntero() {
+        long z = leerNatural();
+        return (z >>> 1) ^ -(z & 1);
+    }
+
+    /** leerEntero() que debe caber en un int. */
+    public int leerInt() {
+        long v = leerEntero();
+        if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Entero fuera de rango: " + v);
+        }
+        return (int) v;
+    }
+}
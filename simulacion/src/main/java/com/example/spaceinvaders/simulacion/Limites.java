@@ -0,0 +1,57 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * Limites: Bounding Box entera (equivalente a android.graphics.Rect) sin
+ * dependencias de Android, para que la simulacion pueda ejecutarse en una JVM.
+ * Como Rect, el borde derecho e inferior quedan fuera del area.
+ */
+public final class Limites {
+
+    public int izquierda;
+    public int arriba;
+    public int derecha;
+    public int abajo;
+
+    public Limites(int izquierda, int arriba, int derecha, int abajo) {
+        set(izquierda, arriba, derecha, abajo);
+    }
+
+    public void set(int izquierda, int arriba, int derecha, int abajo) {
+        this.izquierda = izquierda;
+        this.arriba = arriba;
+        this.derecha = derecha;
+        this.abajo = abajo;
+    }
+
+    public int ancho() {
+        return derecha - izquierda;
+    }
+
+    public int alto() {
+        return abajo - arriba;
+    }
+
+    public int centroX() {
+        return (izquierda + derecha) >> 1;
+    }
+
+    /**
+     * Desplaza la caja la cantidad indicada en X e Y.
+     */
+    public void desplazar(int dx, int dy) {
+        izquierda += dx;
+        derecha += dx;
+        arriba += dy;
+        abajo += dy;
+    }
+
+    /**
+     * Coloca la esquina superior izquierda en (x, y) conservando el tamanio.
+     */
+    public void desplazarA(int x, int y) {
+        derecha += x - izquierda;
+        abajo += y - arriba;
+        izquierda = x;
+        arriba = y;
+    }
+}
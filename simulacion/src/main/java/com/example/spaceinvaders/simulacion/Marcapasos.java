@@ -0,0 +1,35 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * Marcapasos: decide cuando empieza cada frame del bucle de juego.
+ * En el dispositivo lo implementa un Choreographer (un frame por vsync);
+ * en la JVM, MarcapasosSintetico avanza un reloj ficticio sin esperar.
+ * Los instantes devueltos usan la misma base que System.nanoTime().
+ */
+public interface Marcapasos {
+
+    /**
+     * Bloquea el hilo llamante hasta el siguiente frame.
+     *
+     * @return instante del frame en nanosegundos.
+     * @throws InterruptedException si se interrumpe el hilo mientras espera.
+     */
+    long esperarFrame() throws InterruptedException;
+
+    /**
+     * Periodo de refresco actual en nanosegundos (16.6 ms a 60 Hz, 8.3 ms a 120 Hz).
+     */
+    long getPeriodoNanos();
+
+    /**
+     * Empieza a generar frames. Llamar de nuevo sin detener no tiene efecto.
+     */
+    default void iniciar() {
+    }
+
+    /**
+     * Deja de generar frames y despierta a quien este esperando en esperarFrame().
+     */
+    default void detener() {
+    }
+}
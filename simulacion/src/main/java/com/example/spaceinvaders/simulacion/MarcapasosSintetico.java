@@ -0,0 +1,27 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * MarcapasosSintetico: reloj ficticio para ejecutar el bucle de juego sin pantalla.
+ * Cada llamada a esperarFrame() devuelve inmediatamente el instante del frame
+ * siguiente, como si la pantalla refrescara exactamente a la frecuencia indicada.
+ */
+public final class MarcapasosSintetico implements Marcapasos {
+
+    private final long periodoNanos;
+    private long instante;
+
+    public MarcapasosSintetico(float frecuenciaHz) {
+        this.periodoNanos = (long) (1_000_000_000L / frecuenciaHz);
+    }
+
+    @Override
+    public long esperarFrame() {
+        instante += periodoNanos;
+        return instante;
+    }
+
+    @Override
+    public long getPeriodoNanos() {
+        return periodoNanos;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * MotorLotes: juega tandas enormes de partidas con el bot de EjecutorHeadless
+ * repartidas entre todos los nucleos (ForkJoinPool), para ajustar el
+ * equilibrio del juego barriendo intervalos, rafagas y cuadriculas.
+ *
+ * Las tareas no comparten nada mutable: cada tramo de partidas crea su
+ * propia Simulacion y su propio GeneradorOleadas a partir del texto (que es
+ * inmutable) y anota en su propio ResultadoLote; los resultados se juntan al
+ * volver de cada fork. La partida n usa la semilla base + n, igual que
+ * EjecutorHeadless, asi que el resultado no depende del numero de hilos ni
+ * del reparto y coincide con el de una ejecucion secuencial.
+ *
+ * Uso: MotorLotes [partidas] [ancho] [alto] [semilla] [hilos] [oleadas...]
+ * (cada argumento de oleadas es una variante del barrido: un nombre como en
+ * EjecutorHeadless o una descripcion de GeneradorOleadas con ';' como salto
+ * de linea, p. ej. "4x7 mover=24 disparo=48")
+ */
+public final class MotorLotes {
+
+    /** Tramos por hilo: suficientes para que el robo de tareas equilibre la carga. */
+    private static final int TRAMOS_POR_HILO = 8;
+
+    private final ForkJoinPool pool;
+
+    /** Un motor con un hilo por nucleo disponible. */
+    public MotorLotes() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MotorLotes(int hilos) {
+        pool = new ForkJoinPool(hilos);
+    }
+
+    /**
+     * Juega las partidas [0, partidas) con las oleadas descritas y devuelve
+     * sus estadisticas. Bloquea hasta que terminan todas.
+     *
+     * @param oleadas  texto de un GeneradorOleadas (getTexto()).
+     */
+    public ResultadoLote ejecutar(int ancho, int alto, String oleadas, long semillaBase, int partidas) {
+        GeneradorOleadas.leer(oleadas); // un texto invalido falla aqui y no en un hilo del pool
+        int tramo = Math.max(1, partidas / (pool.getParallelism() * TRAMOS_POR_HILO));
+        return pool.invoke(new Tramo(ancho, alto, oleadas, semillaBase, 0, partidas, tramo));
+    }
+
+    /**
+     * Un barrido: las mismas partidas (mismas semillas) con cada variante de
+     * oleadas, una tras otra y cada una en paralelo.
+     */
+    public ResultadoLote[] barrer(int ancho, int alto, String[] variantes, long semillaBase, int partidas) {
+        ResultadoLote[] resultados = new ResultadoLote[variantes.length];
+        for (int i = 0; i < variantes.length; i++) {
+            resultados[i] = ejecutar(ancho, alto, variantes[i], semillaBase, partidas);
+        }
+        return resultados;
+    }
+
+    public int getHilos() {
+        return pool.getParallelism();
+    }
+
+    /** Libera los hilos del pool; el motor no se puede volver a usar. */
+    public void cerrar() {
+        pool.shutdown();
+    }
+
+    /** Partidas [desde, hasta): se parten por la mitad hasta bajar del tramo. */
+    private static final class Tramo extends RecursiveTask<ResultadoLote> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int ancho;
+        private final int alto;
+        private final String oleadas;
+        private final long semillaBase;
+        private final int desde;
+        private final int hasta;
+        private final int tramo;
+
+        Tramo(int ancho, int alto, String oleadas, long semillaBase, int desde, int hasta, int tramo) {
+            this.ancho = ancho;
+            this.alto = alto;
+            this.oleadas = oleadas;
+            this.semillaBase = semillaBase;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.tramo = tramo;
+        }
+
+        @Override
+        protected ResultadoLote compute() {
+            if (hasta - desde <= tramo) {
+                return jugar();
+            }
+            int mitad = (desde + hasta) >>> 1;
+            Tramo izquierda = new Tramo(ancho, alto, oleadas, semillaBase, desde, mitad, tramo);
+            Tramo derecha = new Tramo(ancho, alto, oleadas, semillaBase, mitad, hasta, tramo);
+            izquierda.fork();
+            ResultadoLote resultado = derecha.compute();
+            resultado.sumar(izquierda.join());
+            return resultado;
+        }
+
+        private ResultadoLote jugar() {
+            EjecutorHeadless ejecutor = new EjecutorHeadless(ancho, alto, semillaBase + desde,
+                    GeneradorOleadas.leer(oleadas));
+            ejecutor.getSimulacion().getPerfilador().setActivo(false);
+            ResultadoLote resultado = new ResultadoLote();
+            for (int n = desde; n < hasta; n++) {
+                long pasos = ejecutor.jugarPartida();
+                resultado.anotar(ejecutor.getSimulacion(), pasos);
+            }
+            return resultado;
+        }
+    }
+
+    public static void main(String[] args) {
+        int partidas = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int ancho = args.length > 1 ? Integer.parseInt(args[1]) : 1080;
+        int alto = args.length > 2 ? Integer.parseInt(args[2]) : 2340;
+        long semilla = args.length > 3 ? Long.parseLong(args[3]) : Simulacion.SEMILLA_POR_DEFECTO;
+        int hilos = args.length > 4 && !args[4].equals("-") ? Integer.parseInt(args[4])
+                : Runtime.getRuntime().availableProcessors();
+        int numVariantes = Math.max(1, args.length - 5);
+        String[] variantes = new String[numVariantes];
+        for (int i = 0; i < numVariantes; i++) {
+            String nombre = args.length > 5 + i ? args[5 + i] : "clasica";
+            variantes[i] = EjecutorHeadless.elegirOleadas(nombre).getTexto();
+        }
+
+        MotorLotes motor = new MotorLotes(hilos);
+        System.out.printf("Partidas por variante: %d (%dx%d, %d hilos)%n", partidas, ancho, alto, hilos);
+        try {
+            for (String variante : variantes) {
+                long inicio = System.nanoTime();
+                ResultadoLote resultado = motor.ejecutar(ancho, alto, variante, semilla, partidas);
+                double segundos = (System.nanoTime() - inicio) / 1e9;
+                System.out.printf("[%s]%n  %s%n  %.2f s (%.0f partidas/s, %.0f ticks/s)%n",
+                        variante.replace('\n', ';'), resultado.describir(), segundos,
+                        partidas / segundos, resultado.getTicksTotales() / segundos);
+            }
+        } finally {
+            motor.cerrar();
+        }
+    }
+}
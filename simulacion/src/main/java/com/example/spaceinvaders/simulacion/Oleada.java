@@ -0,0 +1,73 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * Oleada: definicion inmutable de una oleada de invasores. Cuadricula de
+ * filas x columnas, patron opcional de huecos y ritmo: cada cuantos ticks
+ * se mueve el bloque, cada cuantos dispara y cuantos disparos por rafaga.
+ * Las crea GeneradorOleadas a partir de su texto.
+ */
+public final class Oleada {
+
+    private final int filas;
+    private final int columnas;
+    private final int intervaloMovimiento;
+    private final int intervaloDisparo;
+    private final int rafaga;
+    // Bit (fila * columnas + col) a 1 si la celda empieza ocupada; null = todas
+    private final long[] patron;
+
+    Oleada(int filas, int columnas, int intervaloMovimiento, int intervaloDisparo, int rafaga, long[] patron) {
+        this.filas = filas;
+        this.columnas = columnas;
+        this.intervaloMovimiento = intervaloMovimiento;
+        this.intervaloDisparo = intervaloDisparo;
+        this.rafaga = rafaga;
+        this.patron = patron;
+    }
+
+    /** La misma cuadricula y patron con otro ritmo (el patron se comparte). */
+    Oleada conRitmo(int intervaloMovimiento, int intervaloDisparo, int rafaga) {
+        return new Oleada(filas, columnas, intervaloMovimiento, intervaloDisparo, rafaga, patron);
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    /** Ticks entre dos pasos del bloque. */
+    public int getIntervaloMovimiento() {
+        return intervaloMovimiento;
+    }
+
+    /** Ticks entre dos rafagas de disparos enemigos. */
+    public int getIntervaloDisparo() {
+        return intervaloDisparo;
+    }
+
+    /** Disparos enemigos por rafaga, cada uno desde un invasor al azar. */
+    public int getRafaga() {
+        return rafaga;
+    }
+
+    public boolean tienePatron() {
+        return patron != null;
+    }
+
+    /** true si la celda indicada empieza con un invasor. */
+    public boolean estaOcupada(int indice) {
+        return patron == null || (patron[indice >>> 6] & (1L << indice)) != 0;
+    }
+
+    public int getInvasores() {
+        if (patron == null) return filas * columnas;
+        int n = 0;
+        for (long palabra : patron) {
+            n += Long.bitCount(palabra);
+        }
+        return n;
+    }
+}
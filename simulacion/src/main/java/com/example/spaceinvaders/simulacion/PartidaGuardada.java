@@ -0,0 +1,60 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * PartidaGuardada: el estado completo de una Simulacion en binario, para
+ * continuar la partida tras la muerte del proceso. A diferencia de una
+ * Repeticion, que vuelve a simular desde el principio, aqui se copia el
+ * estado tal cual, asi que restaurar cuesta lo mismo a los 10 segundos que a
+ * los 10 minutos de partida: unos milisegundos en frio incluso con miles de
+ * invasores, casi todo en reconstruir la rejilla de colisiones.
+ *
+ * Dentro de un SobreBinario (magia "SISV"); la carga, en big-endian y con
+ * todas las coordenadas en unidades del mundo (desde la version 2), los
+ * disparos como Entidades (desde la 3) y la frecuencia de la partida (desde
+ * la 4):
+ * <pre>
+ *   ancho alto frecuencia semilla ticks estadoAleatorio oleadas:(longitud UTF-8)
+ *   numeroOleada temporizadores direccion estado puntuacion objetivoX
+ *   jugador formacion:(geometria + bitset de vivos) entidades:(tipo + componentes)
+ *   grabacion en curso (opcional)
+ * </pre>
+ * La repeticion en curso viaja dentro, de modo que la partida restaurada
+ * sigue grabandose y su repeticion reproduce tambien lo jugado antes.
+ */
+public final class PartidaGuardada {
+
+    static final int MAGIA = ('S' << 24) | ('I' << 16) | ('S' << 8) | 'V';
+    static final byte VERSION = 4;
+
+    private PartidaGuardada() {
+    }
+
+    /**
+     * Fichero completo con el estado actual. Solo con el hilo de la
+     * simulacion parado.
+     */
+    public static byte[] serializar(Simulacion simulacion) {
+        ByteBuffer buffer = SobreBinario.abrir(MAGIA, VERSION, simulacion.bytesEstado());
+        simulacion.guardar(buffer);
+        return SobreBinario.cerrar(buffer);
+    }
+
+    /**
+     * Deja la simulacion en el estado guardado. Un fichero truncado o
+     * corrupto se rechaza por su CRC antes de tocar la simulacion.
+     *
+     * @throws IllegalArgumentException si el fichero esta corrupto o es de otra version.
+     */
+    public static void restaurar(byte[] datos, Simulacion simulacion) {
+        ByteBuffer carga = SobreBinario.leer(datos, MAGIA, VERSION);
+        try {
+            simulacion.restaurar(carga);
+        } catch (BufferUnderflowException e) {
+            // Solo con un fichero de esta version escrito por otro programa
+            throw new IllegalArgumentException("Partida guardada incompleta", e);
+        }
+    }
+}
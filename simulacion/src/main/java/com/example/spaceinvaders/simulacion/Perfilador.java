@@ -0,0 +1,165 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.io.IOException;
+
+/**
+ * Perfilador: mide cuanto dura cada fase de un bucle (un tick, un frame) y
+ * anota contadores como entidades o llamadas de dibujo. Cada fase es un
+ * indice en la tabla de nombres que recibe al construirse.
+ *
+ * La fase 0 es la que envuelve a las demas: cada vez que se cierra cuenta una
+ * muestra y, cada muestrasPorVentana, los percentiles de la ventana pasan al
+ * ResumenPerfil (lo que se dibuja en pantalla) y la ventana vuelve a empezar.
+ * Ademas se acumula un histograma de toda la ejecucion para volcarlo en CSV.
+ *
+ * Medir cuesta dos System.nanoTime() por fase y no reserva memoria. Cada fase
+ * abre y cierra tambien una seccion del Trazador. Desactivado no mide nada
+ * (para ejecuciones por lotes donde ese coste pesa). Lo usa un solo hilo.
+ */
+public final class Perfilador {
+
+    private final String[] fases;
+    private final String[] contadores;
+    private int muestrasPorVentana;
+
+    // --- Por fase ---
+    private final long[] inicio;
+    private final Histograma[] ventana;
+    private final Histograma[] total;
+
+    // --- Por contador ---
+    private final int[] ultimo;
+    private final int[] maximo;
+
+    private final ResumenPerfil resumen;
+    private Trazador trazador = Trazador.NINGUNO;
+    private boolean activo = true;
+
+    public Perfilador(String[] fases, String[] contadores, int muestrasPorVentana) {
+        this.fases = fases;
+        this.contadores = contadores;
+        this.muestrasPorVentana = muestrasPorVentana;
+        inicio = new long[fases.length];
+        ventana = new Histograma[fases.length];
+        total = new Histograma[fases.length];
+        for (int f = 0; f < fases.length; f++) {
+            ventana[f] = new Histograma();
+            total[f] = new Histograma();
+        }
+        ultimo = new int[contadores.length];
+        maximo = new int[contadores.length];
+        resumen = new ResumenPerfil(fases, contadores);
+    }
+
+    /**
+     * Cambia el tamanio de las ventanas siguientes (p. ej. otra frecuencia de
+     * la simulacion). La ventana en curso se cierra al alcanzarlo.
+     */
+    public void setMuestrasPorVentana(int muestrasPorVentana) {
+        this.muestrasPorVentana = muestrasPorVentana;
+    }
+
+    public void setTrazador(Trazador trazador) {
+        this.trazador = trazador;
+    }
+
+    public void setActivo(boolean activo) {
+        this.activo = activo;
+    }
+
+    public boolean isActivo() {
+        return activo;
+    }
+
+    // =====================================================================
+    // MEDIDA
+    // =====================================================================
+
+    public void comenzar(int fase) {
+        if (!activo) return;
+        trazador.comenzar(fases[fase]);
+        inicio[fase] = System.nanoTime();
+    }
+
+    public void terminar(int fase) {
+        if (!activo) return;
+        long nanos = System.nanoTime() - inicio[fase];
+        trazador.terminar();
+        ventana[fase].registrar(nanos);
+        total[fase].registrar(nanos);
+        if (fase == 0 && ventana[0].getCuenta() >= muestrasPorVentana) {
+            cerrarVentana();
+        }
+    }
+
+    public void contar(int contador, int valor) {
+        if (!activo) return;
+        ultimo[contador] = valor;
+        if (valor > maximo[contador]) maximo[contador] = valor;
+    }
+
+    private void cerrarVentana() {
+        for (int f = 0; f < fases.length; f++) {
+            resumen.actualizar(f, ventana[f]);
+            ventana[f].reiniciar();
+        }
+        for (int c = 0; c < contadores.length; c++) {
+            resumen.actualizarContador(c, ultimo[c]);
+        }
+        resumen.publicar();
+    }
+
+    /** Olvida todas las medidas (ventana y total); el resumen publicado se conserva. */
+    public void reiniciar() {
+        for (int f = 0; f < fases.length; f++) {
+            ventana[f].reiniciar();
+            total[f].reiniciar();
+        }
+        for (int c = 0; c < contadores.length; c++) {
+            ultimo[c] = 0;
+            maximo[c] = 0;
+        }
+    }
+
+    // =====================================================================
+    // CONSULTAS Y VOLCADO
+    // =====================================================================
+
+    /** Percentiles de la ultima ventana cerrada. */
+    public ResumenPerfil getResumen() {
+        return resumen;
+    }
+
+    /** Histograma acumulado de una fase desde el ultimo reiniciar(). */
+    public Histograma getTotal(int fase) {
+        return total[fase];
+    }
+
+    public int getMaximoContador(int contador) {
+        return maximo[contador];
+    }
+
+    /**
+     * Vuelca los acumulados en CSV: una fila por fase con sus percentiles en
+     * nanosegundos y una por contador con su ultimo valor y su maximo.
+     */
+    public void escribirCsv(Appendable out) throws IOException {
+        out.append("fase,muestras,media_ns,p50_ns,p95_ns,p99_ns,max_ns\n");
+        for (int f = 0; f < fases.length; f++) {
+            Histograma h = total[f];
+            out.append(fases[f]).append(',')
+                    .append(Long.toString(h.getCuenta())).append(',')
+                    .append(Long.toString(h.getMedia())).append(',')
+                    .append(Long.toString(h.percentil(0.50))).append(',')
+                    .append(Long.toString(h.percentil(0.95))).append(',')
+                    .append(Long.toString(h.percentil(0.99))).append(',')
+                    .append(Long.toString(h.getMaximo())).append('\n');
+        }
+        out.append("contador,ultimo,maximo\n");
+        for (int c = 0; c < contadores.length; c++) {
+            out.append(contadores[c]).append(',')
+                    .append(Integer.toString(ultimo[c])).append(',')
+                    .append(Integer.toString(maximo[c])).append('\n');
+        }
+    }
+}
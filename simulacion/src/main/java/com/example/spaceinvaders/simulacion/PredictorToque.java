@@ -0,0 +1,94 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * PredictorToque: estima donde estara el dedo dentro de un momento a partir
+ * de sus ultimas muestras, para que la nave apunte a donde esta el dedo
+ * cuando el frame llegue a la pantalla y no a donde estaba al tocar.
+ *
+ * La velocidad es la pendiente por minimos cuadrados de las muestras de los
+ * ultimos VENTANA_NANOS, que suaviza el ruido del digitalizador. Para no
+ * pasarse cuando el dedo frena o da la vuelta, se queda con la menor entre
+ * esa pendiente y la del ultimo tramo, y con cero si van en sentidos
+ * opuestos. Un buffer circular fijo: no reserva memoria por muestra.
+ */
+public final class PredictorToque {
+
+    /** Antiguedad maxima de las muestras que cuentan para la velocidad. */
+    public static final long VENTANA_NANOS = 50_000_000L;
+    /** Nunca se predice mas alla de este tiempo, por mucha latencia que haya. */
+    public static final long MAX_HORIZONTE_NANOS = 50_000_000L;
+
+    private static final int CAPACIDAD = 16; // potencia de dos
+
+    private final float[] xs = new float[CAPACIDAD];
+    private final long[] instantes = new long[CAPACIDAD];
+    private int muestras; // total anotadas desde reiniciar(), sin acotar
+
+    /** Olvida las muestras (dedo nuevo). */
+    public void reiniciar() {
+        muestras = 0;
+    }
+
+    /**
+     * Anota una muestra. Las que no avanzan en el tiempo sustituyen a la
+     * anterior: Android repite a veces el instante del evento actual en el
+     * historico.
+     */
+    public void anotar(float x, long instanteNanos) {
+        if (muestras > 0 && instanteNanos <= instantes[(muestras - 1) & (CAPACIDAD - 1)]) {
+            xs[(muestras - 1) & (CAPACIDAD - 1)] = x;
+            return;
+        }
+        int i = muestras & (CAPACIDAD - 1);
+        xs[i] = x;
+        instantes[i] = instanteNanos;
+        muestras++;
+    }
+
+    /** Ultima X anotada, o -1 si no hay ninguna. */
+    public float getUltimaX() {
+        return muestras == 0 ? -1 : xs[(muestras - 1) & (CAPACIDAD - 1)];
+    }
+
+    /** Velocidad estimada en unidades de X por segundo (0 con menos de dos muestras). */
+    public float velocidad() {
+        if (muestras < 2) return 0;
+        int ultima = (muestras - 1) & (CAPACIDAD - 1);
+        long t0 = instantes[ultima];
+
+        // Minimos cuadrados sobre la ventana, con tiempos relativos a la ultima
+        int n = 0;
+        double st = 0, sx = 0, stt = 0, stx = 0;
+        int disponibles = Math.min(muestras, CAPACIDAD);
+        for (int k = 0; k < disponibles; k++) {
+            int i = (muestras - 1 - k) & (CAPACIDAD - 1);
+            long dt = instantes[i] - t0;
+            if (-dt > VENTANA_NANOS) break;
+            double t = dt * 1e-9;
+            st += t;
+            sx += xs[i];
+            stt += t * t;
+            stx += t * xs[i];
+            n++;
+        }
+        if (n < 2) return 0;
+        double denominador = n * stt - st * st;
+        if (denominador <= 0) return 0;
+        double pendiente = (n * stx - st * sx) / denominador;
+
+        int penultima = (muestras - 2) & (CAPACIDAD - 1);
+        double tramo = (xs[ultima] - xs[penultima]) * 1e9 / (t0 - instantes[penultima]);
+        if (pendiente * tramo <= 0) return 0;
+        return (float) (Math.abs(tramo) < Math.abs(pendiente) ? tramo : pendiente);
+    }
+
+    /**
+     * X prevista horizonteNanos despues de la ultima muestra (acotado a
+     * MAX_HORIZONTE_NANOS), o -1 si no hay muestras.
+     */
+    public float predecir(long horizonteNanos) {
+        if (muestras == 0) return -1;
+        long h = Math.max(0, Math.min(horizonteNanos, MAX_HORIZONTE_NANOS));
+        return getUltimaX() + velocidad() * (h * 1e-9f);
+    }
+}
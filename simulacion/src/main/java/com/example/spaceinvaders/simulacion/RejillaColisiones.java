@@ -0,0 +1,242 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.util.Arrays;
+
+/**
+ * RejillaColisiones: fase amplia (broad-phase) de la deteccion de colisiones.
+ * Divide el mundo en celdas cuadradas del tamanio de una celda de la formacion
+ * enemiga (redondeado a potencia de dos, para calcular la celda con un
+ * desplazamiento en lugar de una division) y reparte en ellas las cajas
+ * insertadas. Una consulta solo examina las celdas que toca, asi que el numero
+ * de parejas candidatas crece con la densidad local y no con el producto
+ * disparos x enemigos.
+ *
+ * Uso por tick: limpiar(), insertar() cada entidad, construir() y despues
+ * consultar() tantas veces como haga falta. Las celdas se guardan en formato
+ * compacto (recuento + suma prefija), sin listas por celda, y ningun metodo
+ * reserva memoria una vez que los arrays alcanzan el pico de entidades.
+ * Las cajas que sobresalen del mundo se asignan a las celdas del borde.
+ */
+public final class RejillaColisiones {
+
+    // --- Categorias (bits) para filtrar consultas ---
+    public static final int JUGADOR = 1;
+    public static final int ENEMIGO = 1 << 1;
+    public static final int DISPARO_JUGADOR = 1 << 2;
+    public static final int DISPARO_ENEMIGO = 1 << 3;
+    public static final int ESCUDO = 1 << 4;
+
+    // --- Geometria de la rejilla ---
+    private int origenX;
+    private int origenY;
+    private int desplazamiento; // log2 del tamanio de celda
+    private int columnas;
+    private int filas;
+
+    // --- Entradas insertadas este tick ---
+    private int[] id;
+    private int[] categoria;
+    private int[] izq;
+    private int[] arr;
+    private int[] der;
+    private int[] abj;
+    private int[] celdaIzq; // rango de celdas de cada entrada, calculado al insertar
+    private int[] celdaDer;
+    private int[] celdaArr;
+    private int[] celdaAbj;
+    private int entradas;
+
+    // --- Celdas: inicioCelda[c]..inicioCelda[c + 1] indexa contenido[] ---
+    private int[] inicioCelda = new int[1];
+    private int[] contenido = new int[0];
+
+    // --- Consultas: resultado y marcas para no repetir entradas ---
+    private int[] resultado = new int[16];
+    private int[] marca;
+    private int consultaActual;
+
+    public RejillaColisiones(int capacidadInicial) {
+        id = new int[capacidadInicial];
+        categoria = new int[capacidadInicial];
+        izq = new int[capacidadInicial];
+        arr = new int[capacidadInicial];
+        der = new int[capacidadInicial];
+        abj = new int[capacidadInicial];
+        celdaIzq = new int[capacidadInicial];
+        celdaDer = new int[capacidadInicial];
+        celdaArr = new int[capacidadInicial];
+        celdaAbj = new int[capacidadInicial];
+        marca = new int[capacidadInicial];
+    }
+
+    /**
+     * Ajusta la rejilla para cubrir un mundo de ancho x alto con celdas de tamCelda.
+     * Solo reserva memoria si el numero de celdas crece.
+     */
+    public void configurar(int origenX, int origenY, int tamCelda, int ancho, int alto) {
+        this.origenX = origenX;
+        this.origenY = origenY;
+        // Potencia de dos mas cercana al tamanio pedido
+        int pot = Integer.highestOneBit(Math.max(1, tamCelda));
+        if (tamCelda - pot > pot / 2) pot <<= 1;
+        this.desplazamiento = Integer.numberOfTrailingZeros(pot);
+        this.columnas = Math.max(1, (ancho + pot - 1) >> desplazamiento);
+        this.filas = Math.max(1, (alto + pot - 1) >> desplazamiento);
+        int celdas = columnas * filas;
+        if (inicioCelda.length < celdas + 1) {
+            inicioCelda = new int[celdas + 1];
+        }
+        limpiar();
+    }
+
+    public void limpiar() {
+        entradas = 0;
+    }
+
+    /**
+     * Anade una caja a la rejilla. Se hace visible en las consultas tras construir().
+     *
+     * @param idEntidad  identificador que devolvera la consulta (p. ej. indice en su lista).
+     * @param cat        categoria de la entidad (JUGADOR, ENEMIGO, ...).
+     */
+    public void insertar(int idEntidad, int cat, int izquierda, int arriba, int derecha, int abajo) {
+        if (entradas == id.length) {
+            crecerEntradas();
+        }
+        int e = entradas++;
+        id[e] = idEntidad;
+        categoria[e] = cat;
+        izq[e] = izquierda;
+        arr[e] = arriba;
+        der[e] = derecha;
+        abj[e] = abajo;
+        celdaIzq[e] = columna(izquierda);
+        celdaDer[e] = columna(derecha - 1);
+        celdaArr[e] = fila(arriba);
+        celdaAbj[e] = fila(abajo - 1);
+    }
+
+    /**
+     * Reparte las entradas en sus celdas (ordenacion por recuento en dos pasadas).
+     */
+    public void construir() {
+        int celdas = columnas * filas;
+        Arrays.fill(inicioCelda, 0, celdas + 1, 0);
+
+        // 1) Contar cuantas entradas caen en cada celda
+        int total = 0;
+        for (int e = 0; e < entradas; e++) {
+            int c0 = celdaIzq[e], c1 = celdaDer[e];
+            for (int f = celdaArr[e]; f <= celdaAbj[e]; f++) {
+                for (int c = c0; c <= c1; c++) {
+                    inicioCelda[f * columnas + c + 1]++;
+                    total++;
+                }
+            }
+        }
+        // 2) Suma prefija: inicioCelda[c] pasa a ser el inicio de la celda c
+        for (int c = 0; c < celdas; c++) {
+            inicioCelda[c + 1] += inicioCelda[c];
+        }
+        if (contenido.length < total) {
+            contenido = new int[Math.max(total, contenido.length * 2)];
+        }
+        // 3) Colocar cada entrada; inicioCelda avanza y luego se restaura
+        for (int e = 0; e < entradas; e++) {
+            int c0 = celdaIzq[e], c1 = celdaDer[e];
+            for (int f = celdaArr[e]; f <= celdaAbj[e]; f++) {
+                for (int c = c0; c <= c1; c++) {
+                    contenido[inicioCelda[f * columnas + c]++] = e;
+                }
+            }
+        }
+        for (int c = celdas; c > 0; c--) {
+            inicioCelda[c] = inicioCelda[c - 1];
+        }
+        inicioCelda[0] = 0;
+    }
+
+    /**
+     * Busca las entradas cuya caja intersecta la dada (misma semantica que
+     * Rect.intersects) y cuya categoria esta en la mascara.
+     * Cada entrada aparece una sola vez aunque ocupe varias celdas.
+     *
+     * @return numero de resultados; se leen con getResultado(k).
+     */
+    public int consultar(int izquierda, int arriba, int derecha, int abajo, int mascara) {
+        if (++consultaActual == 0) {
+            Arrays.fill(marca, 0);
+            consultaActual = 1;
+        }
+        int n = 0;
+        int c0 = columna(izquierda), c1 = columna(derecha - 1);
+        int f0 = fila(arriba), f1 = fila(abajo - 1);
+        for (int f = f0; f <= f1; f++) {
+            for (int c = c0; c <= c1; c++) {
+                int celda = f * columnas + c;
+                for (int k = inicioCelda[celda]; k < inicioCelda[celda + 1]; k++) {
+                    int e = contenido[k];
+                    if (marca[e] == consultaActual || (categoria[e] & mascara) == 0) continue;
+                    marca[e] = consultaActual;
+                    if (izq[e] < derecha && izquierda < der[e] && arr[e] < abajo && arriba < abj[e]) {
+                        if (n == resultado.length) {
+                            resultado = Arrays.copyOf(resultado, n * 2);
+                        }
+                        resultado[n++] = e;
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    /** Entrada k-esima de la ultima consulta. */
+    public int getResultado(int k) {
+        return resultado[k];
+    }
+
+    public int getId(int entrada) {
+        return id[entrada];
+    }
+
+    public int getCategoria(int entrada) {
+        return categoria[entrada];
+    }
+
+    public int getEntradas() {
+        return entradas;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    private int columna(int x) {
+        int c = (x - origenX) >> desplazamiento; // redondea hacia -infinito
+        return c < 0 ? 0 : (c >= columnas ? columnas - 1 : c);
+    }
+
+    private int fila(int y) {
+        int f = (y - origenY) >> desplazamiento;
+        return f < 0 ? 0 : (f >= filas ? filas - 1 : f);
+    }
+
+    private void crecerEntradas() {
+        int capacidad = Math.max(16, id.length * 2);
+        id = Arrays.copyOf(id, capacidad);
+        categoria = Arrays.copyOf(categoria, capacidad);
+        izq = Arrays.copyOf(izq, capacidad);
+        arr = Arrays.copyOf(arr, capacidad);
+        der = Arrays.copyOf(der, capacidad);
+        abj = Arrays.copyOf(abj, capacidad);
+        celdaIzq = Arrays.copyOf(celdaIzq, capacidad);
+        celdaDer = Arrays.copyOf(celdaDer, capacidad);
+        celdaArr = Arrays.copyOf(celdaArr, capacidad);
+        celdaAbj = Arrays.copyOf(celdaAbj, capacidad);
+        marca = Arrays.copyOf(marca, capacidad);
+    }
+}
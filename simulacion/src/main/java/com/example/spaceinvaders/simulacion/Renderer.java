@@ -0,0 +1,71 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * Renderer: destino de dibujo independiente de la plataforma.
+ * La escena (Escena) se describe con primitivas de alto nivel -fondo, sprites
+ * identificados por numero, marcador, panel de perfil y pantalla de fin- y
+ * cada backend decide como convertirlas en llamadas reales (Canvas por
+ * software, Canvas por hardware, OpenGL ES con instancias...). En la JVM se
+ * usa RendererGrabador para contar llamadas sin pantalla.
+ *
+ * Orden de uso por frame: comenzarFrame(); si devuelve true, las primitivas
+ * que hagan falta y despues terminarFrame().
+ */
+public interface Renderer {
+
+    // --- Sprites ---
+    int INVASOR = 0;
+    int NAVE = 1;
+    /** Sprite del primer tipo de Entidades: el del tipo t es ENTIDAD + t. */
+    int ENTIDAD = 2;
+    int DISPARO_JUGADOR = ENTIDAD + Simulacion.DISPARO_JUGADOR;
+    int DISPARO_ENEMIGO = ENTIDAD + Simulacion.DISPARO_ENEMIGO;
+    int NUM_SPRITES = ENTIDAD + Entidades.MAX_TIPOS;
+
+    /**
+     * Prepara el destino para un frame de ancho x alto pixeles.
+     *
+     * @return false si ahora mismo no hay donde dibujar (el frame se omite).
+     */
+    boolean comenzarFrame(int ancho, int alto);
+
+    /**
+     * Indica el tamanio de las entidades en pixeles; el backend regenera sus
+     * sprites solo si ha cambiado. Los arrays (del llamador, no se guardan)
+     * dan el tamanio de cada tipo de Entidades, cuyo sprite es ENTIDAD + tipo.
+     */
+    void prepararSprites(int tamEnemigo, int anchoJugador, int altoJugador,
+                         int numTipos, int[] anchoTipo, int[] altoTipo);
+
+    /** Fondo del espacio con las instrucciones. */
+    void dibujarFondo();
+
+    /**
+     * Dibuja un sprite cuya caja de colision tiene la esquina superior izquierda
+     * en (x, y), en pixeles. Los detalles (antenas, canion) pueden sobresalir
+     * por encima.
+     */
+    void dibujarSprite(int sprite, float x, float y);
+
+    void dibujarPuntuacion(int puntuacion);
+
+    /**
+     * Panel de perfil superpuesto: percentiles por fase de la simulacion y
+     * del dibujo. Solo cambia cuando alguno cierra una ventana (getVersion).
+     */
+    void dibujarPerfil(ResumenPerfil simulacion, ResumenPerfil dibujo);
+
+    /**
+     * Pantalla completa de game over o victoria; sustituye al resto del frame.
+     *
+     * @param record  mejor puntuacion guardada (0 si no hay ninguna).
+     */
+    void dibujarPantallaFin(boolean victoria, int puntuacion, int record);
+
+    /** Presenta el frame. */
+    void terminarFrame();
+
+    /** Libera los recursos del backend; puede volver a usarse despues. */
+    default void liberar() {
+    }
+}
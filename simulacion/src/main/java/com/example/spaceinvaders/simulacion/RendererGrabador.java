@@ -0,0 +1,160 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * RendererGrabador: Renderer sin pantalla que solo cuenta las primitivas
+ * recibidas en el ultimo frame. Sirve para comprobar en la JVM cuantas
+ * llamadas de dibujo genera una escena y que se respeta el orden
+ * comenzarFrame / primitivas / terminarFrame.
+ */
+public final class RendererGrabador implements Renderer {
+
+    private boolean enFrame;
+    private int frames;
+
+    // --- Contadores del ultimo frame ---
+    private int fondos;
+    private final int[] sprites = new int[NUM_SPRITES];
+    private int puntuaciones;
+    private int pantallasFin;
+    private int perfiles;
+    private int ultimaPuntuacion = -1;
+    private int preparacionesSprites;
+    // Ultima posicion dibujada y ultimo tamanio preparado de cada sprite de entidad
+    private final float[] ultimaX = new float[NUM_SPRITES];
+    private final float[] ultimaY = new float[NUM_SPRITES];
+    private final int[] anchoSprite = new int[NUM_SPRITES];
+    private final int[] altoSprite = new int[NUM_SPRITES];
+
+    @Override
+    public boolean comenzarFrame(int ancho, int alto) {
+        if (enFrame) throw new IllegalStateException("Frame sin terminar");
+        enFrame = true;
+        fondos = 0;
+        puntuaciones = 0;
+        pantallasFin = 0;
+        perfiles = 0;
+        for (int i = 0; i < NUM_SPRITES; i++) {
+            sprites[i] = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public void prepararSprites(int tamEnemigo, int anchoJugador, int altoJugador,
+                                int numTipos, int[] anchoTipo, int[] altoTipo) {
+        comprobarFrame();
+        preparacionesSprites++;
+        for (int t = 0; t < numTipos; t++) {
+            anchoSprite[ENTIDAD + t] = anchoTipo[t];
+            altoSprite[ENTIDAD + t] = altoTipo[t];
+        }
+    }
+
+    @Override
+    public void dibujarFondo() {
+        comprobarFrame();
+        fondos++;
+    }
+
+    @Override
+    public void dibujarSprite(int sprite, float x, float y) {
+        comprobarFrame();
+        sprites[sprite]++;
+        ultimaX[sprite] = x;
+        ultimaY[sprite] = y;
+    }
+
+    @Override
+    public void dibujarPuntuacion(int puntuacion) {
+        comprobarFrame();
+        puntuaciones++;
+        ultimaPuntuacion = puntuacion;
+    }
+
+    @Override
+    public void dibujarPerfil(ResumenPerfil simulacion, ResumenPerfil dibujo) {
+        comprobarFrame();
+        perfiles++;
+    }
+
+    @Override
+    public void dibujarPantallaFin(boolean victoria, int puntuacion, int record) {
+        comprobarFrame();
+        pantallasFin++;
+        ultimaPuntuacion = puntuacion;
+    }
+
+    @Override
+    public void terminarFrame() {
+        comprobarFrame();
+        enFrame = false;
+        frames++;
+    }
+
+    private void comprobarFrame() {
+        if (!enFrame) throw new IllegalStateException("Primitiva fuera de comenzarFrame/terminarFrame");
+    }
+
+    // =====================================================================
+    // CONSULTAS
+    // =====================================================================
+
+    /** Primitivas de dibujo del ultimo frame (prepararSprites no cuenta). */
+    public int getLlamadas() {
+        int total = fondos + puntuaciones + pantallasFin + perfiles;
+        for (int i = 0; i < NUM_SPRITES; i++) {
+            total += sprites[i];
+        }
+        return total;
+    }
+
+    public int getSprites(int sprite) {
+        return sprites[sprite];
+    }
+
+    /** Posicion en la que se dibujo por ultima vez el sprite, en pixeles. */
+    public float getUltimaX(int sprite) {
+        return ultimaX[sprite];
+    }
+
+    public float getUltimaY(int sprite) {
+        return ultimaY[sprite];
+    }
+
+    /** Tamanio del sprite de un tipo de entidad en el ultimo prepararSprites. */
+    public int getAnchoSprite(int sprite) {
+        return anchoSprite[sprite];
+    }
+
+    public int getAltoSprite(int sprite) {
+        return altoSprite[sprite];
+    }
+
+    public int getFondos() {
+        return fondos;
+    }
+
+    public int getPuntuaciones() {
+        return puntuaciones;
+    }
+
+    public int getPantallasFin() {
+        return pantallasFin;
+    }
+
+    public int getPerfiles() {
+        return perfiles;
+    }
+
+    public int getUltimaPuntuacion() {
+        return ultimaPuntuacion;
+    }
+
+    public int getPreparacionesSprites() {
+        return preparacionesSprites;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+}
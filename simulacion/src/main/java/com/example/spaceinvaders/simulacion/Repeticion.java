@@ -0,0 +1,224 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Repeticion: una partida grabada. Como la Simulacion es determinista, basta
+ * con los parametros de inicializar() (mundo, frecuencia, oleadas y semilla) y los
+ * eventos de entrada con el tick en que se aplicaron.
+ *
+ * Formato binario (big-endian, enteros sin signo en varint de 7 bits):
+ * <pre>
+ *   "SIRP" version:byte  ancho:varint alto:varint frecuencia:varint
+ *   longitud:varint oleadas:UTF-8  semilla:long
+ *   { deltaTick:varint tipo:byte [valor:float si tipo != SOLTAR] } *
+ *   deltaTick:varint FIN:byte
+ * </pre>
+ * deltaTick es la distancia en ticks al evento anterior, asi que la mayoria
+ * de eventos ocupan 6 bytes (2 un SOLTAR). Los cambios de tamanio de la
+ * pantalla son dos eventos mas (ANCHO y ALTO, en pixeles). El registro FIN
+ * guarda la duracion total de la partida en ticks. Las oleadas son el texto
+ * de su GeneradorOleadas.
+ *
+ * Desde la version 3 el ancho y el alto son los del mundo y las X de la
+ * entrada estan en unidades del mundo, asi que una repeticion se reproduce
+ * igual sea cual sea la pantalla en la que se grabo. Las versiones 1 y 2
+ * estaban en pixeles de pantalla y ya no se pueden reproducir. La version 4
+ * anade los ticks por segundo de la partida; las anteriores se simularon con
+ * colisiones discretas y no reproducirian la misma partida. En la version 5
+ * la nave llega exactamente al dedo (Jugador.moverHacia) y aparece el evento
+ * DISPARAR.
+ */
+public final class Repeticion {
+
+    static final int MAGIA = ('S' << 24) | ('I' << 16) | ('R' << 8) | 'P';
+    static final byte VERSION = 5;
+    static final byte FIN = 0x7F;
+
+    private final int ancho;
+    private final int alto;
+    private final int frecuencia;
+    private final String oleadas;
+    private final long semilla;
+    private final long duracionTicks;
+
+    // --- Eventos (struct-of-arrays, en orden de tick) ---
+    private final long[] ticks;
+    private final byte[] tipos;
+    private final float[] valores;
+
+    private Repeticion(int ancho, int alto, int frecuencia, String oleadas, long semilla, long duracionTicks,
+                       long[] ticks, byte[] tipos, float[] valores) {
+        this.ancho = ancho;
+        this.alto = alto;
+        this.frecuencia = frecuencia;
+        this.oleadas = oleadas;
+        this.semilla = semilla;
+        this.duracionTicks = duracionTicks;
+        this.ticks = ticks;
+        this.tipos = tipos;
+        this.valores = valores;
+    }
+
+    // =====================================================================
+    // LECTURA
+    // =====================================================================
+
+    /**
+     * Decodifica una repeticion completa.
+     *
+     * @throws IllegalArgumentException si los datos no son una repeticion
+     *         valida o estan truncados.
+     */
+    public static Repeticion leer(byte[] datos) {
+        Lector in = new Lector(datos);
+        if (in.entero() != MAGIA) throw new IllegalArgumentException("No es una repeticion");
+        byte version = in.octeto();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Version no soportada: " + version
+                    + (version < 3 ? " (grabada en pixeles de pantalla)"
+                    : version < 4 ? " (colisiones discretas)"
+                    : version < VERSION ? " (nave con zona muerta)" : ""));
+        }
+        int ancho = (int) in.varint();
+        int alto = (int) in.varint();
+        int frecuencia = (int) in.varint();
+        if (frecuencia < Simulacion.FRECUENCIA_MINIMA || frecuencia > Simulacion.FRECUENCIA_MAXIMA) {
+            throw new IllegalArgumentException("Frecuencia no valida: " + frecuencia);
+        }
+        String oleadas = in.texto();
+        long semilla = in.largo();
+
+        // Cada evento ocupa al menos 2 bytes: cota para no redimensionar
+        int max = (datos.length - in.pos) / 2;
+        long[] ticks = new long[max];
+        byte[] tipos = new byte[max];
+        float[] valores = new float[max];
+        int n = 0;
+        long tick = 0;
+        while (true) {
+            tick += in.varint();
+            byte tipo = in.octeto();
+            if (tipo == FIN) break;
+            if (tipo < ColaEntrada.MOVER || tipo > ColaEntrada.DISPARAR) {
+                throw new IllegalArgumentException("Evento desconocido: " + tipo);
+            }
+            ticks[n] = tick;
+            tipos[n] = tipo;
+            valores[n] = tipo == ColaEntrada.SOLTAR ? -1 : Float.intBitsToFloat(in.entero());
+            n++;
+        }
+        return new Repeticion(ancho, alto, frecuencia, oleadas, semilla, tick,
+                Arrays.copyOf(ticks, n), Arrays.copyOf(tipos, n),
+                Arrays.copyOf(valores, n));
+    }
+
+    public static Repeticion leer(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] bloque = new byte[8192];
+        for (int n; (n = in.read(bloque)) > 0; ) {
+            bytes.write(bloque, 0, n);
+        }
+        return leer(bytes.toByteArray());
+    }
+
+    private static final class Lector {
+        private final byte[] datos;
+        private int pos;
+
+        Lector(byte[] datos) {
+            this.datos = datos;
+        }
+
+        byte octeto() {
+            if (pos >= datos.length) throw new IllegalArgumentException("Repeticion truncada");
+            return datos[pos++];
+        }
+
+        int entero() {
+            return (octeto() & 0xFF) << 24 | (octeto() & 0xFF) << 16 | (octeto() & 0xFF) << 8 | (octeto() & 0xFF);
+        }
+
+        long largo() {
+            return (long) entero() << 32 | (entero() & 0xFFFFFFFFL);
+        }
+
+        String texto() {
+            int n = (int) varint();
+            if (n < 0 || n > datos.length - pos) throw new IllegalArgumentException("Repeticion truncada");
+            String s = new String(datos, pos, n, StandardCharsets.UTF_8);
+            pos += n;
+            return s;
+        }
+
+        long varint() {
+            long v = 0;
+            for (int desp = 0; desp < 64; desp += 7) {
+                byte b = octeto();
+                v |= (long) (b & 0x7F) << desp;
+                if (b >= 0) return v;
+            }
+            throw new IllegalArgumentException("Varint demasiado largo");
+        }
+    }
+
+    // =====================================================================
+    // CONSULTAS
+    // =====================================================================
+
+    /** Crea una simulacion inicializada como al empezar la grabacion. */
+    public Simulacion crearSimulacion() {
+        Simulacion sim = new Simulacion();
+        sim.setFrecuencia(frecuencia);
+        sim.inicializar(ancho, alto, GeneradorOleadas.leer(oleadas), semilla);
+        return sim;
+    }
+
+    public int getAncho() {
+        return ancho;
+    }
+
+    public int getAlto() {
+        return alto;
+    }
+
+    /** Ticks por segundo a los que se jugo la partida. */
+    public int getFrecuencia() {
+        return frecuencia;
+    }
+
+    /** Texto del GeneradorOleadas de la partida. */
+    public String getOleadas() {
+        return oleadas;
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /** Ticks que duro la partida grabada. */
+    public long getDuracionTicks() {
+        return duracionTicks;
+    }
+
+    public int getNumEventos() {
+        return ticks.length;
+    }
+
+    /** Tick (desde inicializar) en el que se aplico el evento i. */
+    public long getTick(int i) {
+        return ticks[i];
+    }
+
+    public byte getTipo(int i) {
+        return tipos[i];
+    }
+
+    public float getValor(int i) {
+        return valores[i];
+    }
+}
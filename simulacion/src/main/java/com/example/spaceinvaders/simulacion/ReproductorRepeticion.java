@@ -0,0 +1,111 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * ReproductorRepeticion: vuelve a jugar una Repeticion sin pantalla y sin
+ * esperar al reloj. Cada evento se mete en la cola de entrada de la
+ * simulacion justo antes del tick en que se aplico al grabarlo, asi que la
+ * partida es identica tick a tick a la original.
+ *
+ * Mide el tiempo de cada tick y guarda el mas lento, de modo que un pico
+ * observado en el dispositivo se puede reproducir en el escritorio con la
+ * misma entrada y perfilar tantas veces como haga falta.
+ *
+ * Uso: ReproductorRepeticion fichero.rep [veces]
+ */
+public final class ReproductorRepeticion {
+
+    private final Repeticion repeticion;
+    private Simulacion simulacion;
+
+    // --- Medidas de la ultima reproduccion ---
+    private long nanosTotales;
+    private long nanosTickMasLento;
+    private long tickMasLento;
+
+    public ReproductorRepeticion(Repeticion repeticion) {
+        this.repeticion = repeticion;
+    }
+
+    /**
+     * Reproduce la partida completa desde el principio.
+     *
+     * @return la simulacion en su estado final.
+     */
+    public Simulacion reproducir() {
+        simulacion = repeticion.crearSimulacion();
+        ColaEntrada entrada = simulacion.getEntrada();
+        long duracion = repeticion.getDuracionTicks();
+        int numEventos = repeticion.getNumEventos();
+        nanosTickMasLento = 0;
+        tickMasLento = 0;
+
+        int e = 0;
+        long inicio = System.nanoTime();
+        long anterior = inicio;
+        for (long tick = 0; tick < duracion; tick++) {
+            while (e < numEventos && repeticion.getTick(e) == tick) {
+                entrada.publicar(repeticion.getTipo(e), repeticion.getValor(e), 0);
+                e++;
+            }
+            simulacion.tick();
+            simulacion.getLatencia().descartarPendientes(); // aqui nadie presenta frames
+            long ahora = System.nanoTime();
+            if (ahora - anterior > nanosTickMasLento) {
+                nanosTickMasLento = ahora - anterior;
+                tickMasLento = tick;
+            }
+            anterior = ahora;
+        }
+        nanosTotales = anterior - inicio;
+        return simulacion;
+    }
+
+    public Simulacion getSimulacion() {
+        return simulacion;
+    }
+
+    public long getNanosTotales() {
+        return nanosTotales;
+    }
+
+    public long getNanosTickMasLento() {
+        return nanosTickMasLento;
+    }
+
+    /** Tick de la partida que mas tardo en la ultima reproduccion. */
+    public long getTickMasLento() {
+        return tickMasLento;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: ReproductorRepeticion fichero.rep [veces]");
+            System.exit(2);
+        }
+        Repeticion repeticion;
+        try (InputStream in = new FileInputStream(args[0])) {
+            repeticion = Repeticion.leer(in);
+        }
+        int veces = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        ReproductorRepeticion reproductor = new ReproductorRepeticion(repeticion);
+        long ticks = repeticion.getDuracionTicks();
+        int frecuencia = repeticion.getFrecuencia();
+        System.out.printf("Repeticion: mundo %dx%d a %d Hz, semilla %d, %d eventos, %d ticks (%.1f s)%n",
+                repeticion.getAncho(), repeticion.getAlto(), frecuencia, repeticion.getSemilla(),
+                repeticion.getNumEventos(), ticks, (double) ticks / frecuencia);
+        for (int i = 0; i < veces; i++) {
+            Simulacion sim = reproductor.reproducir();
+            double segundos = reproductor.getNanosTotales() / 1e9;
+            System.out.printf("#%d puntuacion %d, oleada %d, %s, %.2f ms (%.0fx tiempo real), tick mas lento %d: %.1f us%n",
+                    i + 1, sim.getPuntuacion(), sim.getNumeroOleada() + 1,
+                    sim.isVictoria() ? "victoria" : sim.isGameOver() ? "derrota" : "sin terminar",
+                    segundos * 1e3, ticks / segundos / frecuencia,
+                    reproductor.getTickMasLento(), reproductor.getNanosTickMasLento() / 1e3);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * ResultadoLote: estadisticas de una tanda de partidas que se van anotando
+ * una a una sin guardar ninguna: contadores, sumas exactas para las medias y
+ * un Histograma por magnitud para los percentiles. Ocupa lo mismo con diez
+ * partidas que con diez millones.
+ *
+ * Cada tarea de MotorLotes anota en el suyo y al final se juntan con
+ * sumar(), que da el mismo resultado en cualquier orden. No es seguro entre
+ * hilos.
+ */
+public final class ResultadoLote {
+
+    private long partidas;
+    private long victorias;
+    private long oleadasSuperadas;
+    private long sumaTicks;
+    private long sumaPuntuacion;
+
+    private final Histograma ticks = new Histograma();
+    private final Histograma ticksVictoria = new Histograma(); // hasta limpiar la ultima oleada
+    private final Histograma puntuacion = new Histograma();
+
+    /** Anota una partida ya terminada (o cortada por el limite de pasos). */
+    public void anotar(Simulacion sim, long pasos) {
+        partidas++;
+        oleadasSuperadas += sim.isVictoria() ? sim.getNumeroOleada() + 1 : sim.getNumeroOleada();
+        sumaTicks += pasos;
+        sumaPuntuacion += sim.getPuntuacion();
+        ticks.registrar(pasos);
+        puntuacion.registrar(sim.getPuntuacion());
+        if (sim.isVictoria()) {
+            victorias++;
+            ticksVictoria.registrar(pasos);
+        }
+    }
+
+    /** Anade las partidas de otro resultado. */
+    public void sumar(ResultadoLote otro) {
+        partidas += otro.partidas;
+        victorias += otro.victorias;
+        oleadasSuperadas += otro.oleadasSuperadas;
+        sumaTicks += otro.sumaTicks;
+        sumaPuntuacion += otro.sumaPuntuacion;
+        ticks.sumar(otro.ticks);
+        ticksVictoria.sumar(otro.ticksVictoria);
+        puntuacion.sumar(otro.puntuacion);
+    }
+
+    public long getPartidas() {
+        return partidas;
+    }
+
+    public long getVictorias() {
+        return victorias;
+    }
+
+    /** Fraccion de partidas ganadas, entre 0 y 1. */
+    public double getTasaVictorias() {
+        return partidas == 0 ? 0 : (double) victorias / partidas;
+    }
+
+    public long getOleadasSuperadas() {
+        return oleadasSuperadas;
+    }
+
+    public long getTicksTotales() {
+        return sumaTicks;
+    }
+
+    public long getPuntuacionTotal() {
+        return sumaPuntuacion;
+    }
+
+    public double getPuntuacionMedia() {
+        return partidas == 0 ? 0 : (double) sumaPuntuacion / partidas;
+    }
+
+    /** Duracion de todas las partidas, en ticks. */
+    public Histograma getTicks() {
+        return ticks;
+    }
+
+    /** Ticks hasta la victoria, solo de las partidas ganadas. */
+    public Histograma getTicksVictoria() {
+        return ticksVictoria;
+    }
+
+    public Histograma getPuntuacion() {
+        return puntuacion;
+    }
+
+    /** Una linea legible con lo principal (la usa el main de MotorLotes). */
+    public String describir() {
+        return String.format("partidas %d  victorias %.1f%%  oleadas/partida %.2f  "
+                        + "puntos media %.1f p50 %d p90 %d  ticks hasta ganar p50 %d p90 %d",
+                partidas, 100.0 * getTasaVictorias(), partidas == 0 ? 0 : (double) oleadasSuperadas / partidas,
+                getPuntuacionMedia(), puntuacion.percentil(0.5), puntuacion.percentil(0.9),
+                ticksVictoria.percentil(0.5), ticksVictoria.percentil(0.9));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * ResumenPerfil: percentiles de cada fase y valor de cada contador en la
+ * ultima ventana cerrada de un Perfilador. Es lo que se muestra en pantalla:
+ * cambia una vez por ventana (getVersion) y se copia sin reservar memoria,
+ * p. ej. dentro de una Instantanea para llevarlo al hilo de render.
+ */
+public final class ResumenPerfil {
+
+    private static final int P50 = 0;
+    private static final int P95 = 1;
+    private static final int P99 = 2;
+    private static final int MAX = 3;
+    private static final int VALORES_POR_FASE = 4;
+
+    private final String[] fases;
+    private final String[] contadores;
+    private final long[] percentiles;
+    private final int[] valores;
+    private int version;
+
+    public ResumenPerfil(String[] fases, String[] contadores) {
+        this.fases = fases;
+        this.contadores = contadores;
+        this.percentiles = new long[fases.length * VALORES_POR_FASE];
+        this.valores = new int[contadores.length];
+    }
+
+    void actualizar(int fase, Histograma h) {
+        int base = fase * VALORES_POR_FASE;
+        percentiles[base + P50] = h.percentil(0.50);
+        percentiles[base + P95] = h.percentil(0.95);
+        percentiles[base + P99] = h.percentil(0.99);
+        percentiles[base + MAX] = h.getMaximo();
+    }
+
+    void actualizarContador(int contador, int valor) {
+        valores[contador] = valor;
+    }
+
+    void publicar() {
+        version++;
+    }
+
+    /** Copia otro resumen con las mismas fases y contadores. */
+    public void copiar(ResumenPerfil otro) {
+        if (otro.version == version) return;
+        System.arraycopy(otro.percentiles, 0, percentiles, 0, percentiles.length);
+        System.arraycopy(otro.valores, 0, valores, 0, valores.length);
+        version = otro.version;
+    }
+
+    /** Cambia cada vez que se cierra una ventana (0: aun no hay datos). */
+    public int getVersion() {
+        return version;
+    }
+
+    public int getNumFases() {
+        return fases.length;
+    }
+
+    public String getNombreFase(int fase) {
+        return fases[fase];
+    }
+
+    public long getP50(int fase) {
+        return percentiles[fase * VALORES_POR_FASE + P50];
+    }
+
+    public long getP95(int fase) {
+        return percentiles[fase * VALORES_POR_FASE + P95];
+    }
+
+    public long getP99(int fase) {
+        return percentiles[fase * VALORES_POR_FASE + P99];
+    }
+
+    public long getMaximo(int fase) {
+        return percentiles[fase * VALORES_POR_FASE + MAX];
+    }
+
+    public int getNumContadores() {
+        return contadores.length;
+    }
+
+    public String getNombreContador(int contador) {
+        return contadores[contador];
+    }
+
+    public int getContador(int contador) {
+        return valores[contador];
+    }
+}
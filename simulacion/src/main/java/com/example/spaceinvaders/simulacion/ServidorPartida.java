@@ -0,0 +1,107 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * ServidorPartida: ejecuta la Simulacion con autoridad y la retransmite a un
+ * cliente remoto por un Transporte. En cada tick aplica lo que haya llegado
+ * del cliente (confirmaciones y eventos de entrada), avanza la simulacion y
+ * envia la Instantanea resultante codificada como diferencia con la ultima
+ * confirmada (CodificadorInstantaneas).
+ *
+ * El cliente solo puede mover y disparar (MOVER, PULSAR, SOLTAR, DISPARAR, con X en
+ * unidades del mundo): el tamanio del mundo lo decide el servidor y cada
+ * cliente lo dibuja con su propia Vista. No reserva memoria en cada tick.
+ */
+public final class ServidorPartida {
+
+    private final Simulacion simulacion;
+    private final Transporte transporte;
+    private final CodificadorInstantaneas codificador = new CodificadorInstantaneas();
+    private final Instantanea instantanea = new Instantanea();
+    private final LectorBits lector = new LectorBits();
+    private final byte[] paquete;
+
+    private long paquetesDanados;
+    private long demasiadoGrandes;
+
+    public ServidorPartida(Simulacion simulacion, Transporte transporte) {
+        this.simulacion = simulacion;
+        this.transporte = transporte;
+        this.paquete = new byte[transporte.getTamMaximo()];
+    }
+
+    /**
+     * Un tick de la partida: entrada remota, simulacion y envio. Si la
+     * instantanea no cabe en un paquete del Transporte (p. ej. una completa
+     * de una oleada de estres enorme) ese tick no se envia y se cuenta en
+     * getDemasiadoGrandes(); la partida sigue y el cliente conserva la
+     * ultima que recibio.
+     */
+    public void tick() {
+        recibir();
+        simulacion.tick();
+        instantanea.capturar(simulacion, simulacion.getTicks(), System.nanoTime(), false);
+        int longitud;
+        try {
+            longitud = codificador.codificar(instantanea, paquete);
+        } catch (IllegalArgumentException e) {
+            demasiadoGrandes++;
+            return;
+        }
+        transporte.enviar(paquete, longitud);
+    }
+
+    private void recibir() {
+        int longitud;
+        while ((longitud = transporte.recibir(paquete)) >= 0) {
+            try {
+                aplicar(longitud);
+            } catch (IllegalArgumentException e) {
+                // Se ignora el resto del paquete; lo ya aplicado se queda
+                paquetesDanados++;
+            }
+        }
+    }
+
+    /** Paquete de ClientePartida: tick confirmado + 1 (0 = ninguno) y eventos. */
+    private void aplicar(int longitud) {
+        lector.reiniciar(paquete, longitud);
+        long confirmado = lector.leerNatural() - 1;
+        if (confirmado >= 0) {
+            codificador.confirmar(confirmado);
+        }
+        long eventos = lector.leerNatural();
+        ColaEntrada entrada = simulacion.getEntrada();
+        long instante = System.nanoTime();
+        for (long i = 0; i < eventos; i++) {
+            byte tipo = (byte) lector.leer(ClientePartida.BITS_TIPO);
+            int valor = lector.leerInt();
+            if (tipo == ColaEntrada.MOVER || tipo == ColaEntrada.PULSAR
+                    || tipo == ColaEntrada.SOLTAR || tipo == ColaEntrada.DISPARAR) {
+                entrada.publicar(tipo, valor, instante);
+            }
+        }
+    }
+
+    public Simulacion getSimulacion() {
+        return simulacion;
+    }
+
+    /** Ultima instantanea enviada. */
+    public Instantanea getInstantanea() {
+        return instantanea;
+    }
+
+    /** Paquetes y bytes enviados, y cuantos fueron completos. */
+    public CodificadorInstantaneas getCodificador() {
+        return codificador;
+    }
+
+    public long getPaquetesDanados() {
+        return paquetesDanados;
+    }
+
+    /** Ticks que no se enviaron por no caber en un paquete del Transporte. */
+    public long getDemasiadoGrandes() {
+        return demasiadoGrandes;
+    }
+}
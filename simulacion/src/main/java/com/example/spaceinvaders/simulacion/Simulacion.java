@@ -0,0 +1,808 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Simulacion: estado y logica completa de una partida, sin dependencias de Android.
+ * GameView la usa para jugar en el dispositivo y EjecutorHeadless para lanzar
+ * partidas en una JVM normal (perfilado, pruebas de carga y regresion en CI).
+ * La simulacion avanza en ticks de duracion fija (getFrecuencia(), 60 por
+ * segundo salvo que se elija otra con setFrecuencia()) y no lee ningun reloj:
+ * quien la ejecuta decide cuantos ticks corresponden a cada frame. Las
+ * colisiones de los proyectiles son continuas (ColisionBarrida), asi que a
+ * 30 Hz, con el doble de avance por tick, no se atraviesa a nadie.
+ * El azar sale de un generador con semilla, asi que una partida queda
+ * determinada por su semilla, sus oleadas y la entrada de cada tick (Repeticion).
+ * Las oleadas se suceden segun un GeneradorOleadas; la victoria llega al
+ * limpiar la ultima (si la hay).
+ *
+ * Todo ocurre en un mundo virtual en punto fijo: ANCHO_MUNDO unidades de
+ * ancho en cualquier dispositivo y un alto que sigue la proporcion de la
+ * pantalla (altoMundo). Las velocidades y tamanios salen de esas medidas, asi
+ * que una partida cuesta y se juega igual a cualquier resolucion; solo al
+ * dibujar se pasa a pixeles (Vista).
+ *
+ * Todos los metodos se llaman desde un unico hilo (el del juego). Otros hilos,
+ * como el de la UI, solo publican eventos en getEntrada(); se aplican al
+ * principio del siguiente tick.
+ */
+public class Simulacion {
+
+    // --- Capacidad inicial del almacen de entidades (crece si hace falta) ---
+    public static final int CAPACIDAD_INICIAL_DISPAROS = 256;
+
+    // --- Tipos de Entidades, en el orden en que los registra el constructor ---
+    public static final byte DISPARO_JUGADOR = 0;
+    public static final byte DISPARO_ENEMIGO = 1;
+
+    // --- Frecuencia de referencia: los intervalos de las oleadas y las
+    //     velocidades por tick se expresan a esta frecuencia ---
+    public static final int TICKS_POR_SEGUNDO = 60;
+    public static final int FRECUENCIA_MINIMA = 15;
+    public static final int FRECUENCIA_MAXIMA = 240;
+
+    // --- Semilla de las partidas que no indican ninguna (pruebas, benchmarks) ---
+    public static final long SEMILLA_POR_DEFECTO = 0x5EED_1978L;
+
+    // --- Fases y contadores del Perfilador (la fase 0 envuelve el tick entero) ---
+    public static final int FASE_TICK = 0;
+    public static final int FASE_ENTRADA = 1;
+    public static final int FASE_DISPAROS = 2;
+    public static final int FASE_FORMACION = 3;
+    public static final int FASE_COLISIONES = 4;
+    public static final String[] FASES = {"tick", "entrada", "disparos", "formacion", "colisiones"};
+    public static final int CONTADOR_ENEMIGOS = 0;
+    public static final int CONTADOR_DISPAROS = 1;
+    public static final String[] CONTADORES = {"enemigos", "disparos"};
+
+    // --- Capacidad de la cola de entrada (eventos entre dos ticks) ---
+    public static final int CAPACIDAD_ENTRADA = 256;
+
+    // --- Temporizadores por defecto de una oleada (en ticks) ---
+    public static final int INTERVALO_DISPARO_ENEMIGO = 72; // 1200 ms
+    public static final int INTERVALO_MOVIMIENTO_ENEMIGOS = 36; // 600 ms
+
+    // --- Mundo virtual: cada pixel de la pantalla de referencia (1080 de
+    //     ancho) son SUBUNIDADES unidades, asi que no se truncan velocidades
+    //     ni pasos en pantallas pequenias ---
+    public static final int SUBUNIDADES = 16;
+    public static final int ANCHO_MUNDO = 1080 * SUBUNIDADES;
+    // Proporcion de la pantalla de referencia (1080 x 2340), si no hay otra
+    private static final int ALTO_MUNDO_REFERENCIA = 2340 * SUBUNIDADES;
+
+    // Ancho de un proyectil (el alto depende del mundo: altoMundo / 25)
+    public static final int ANCHO_DISPARO = 6 * SUBUNIDADES;
+
+    // --- Ticks por segundo de la partida en curso y de las siguientes ---
+    private int frecuencia = TICKS_POR_SEGUNDO;
+    private int frecuenciaElegida = TICKS_POR_SEGUNDO;
+
+    // --- Dimensiones del mundo en unidades (el alto depende de la proporcion) ---
+    private int anchoMundo;
+    private int altoMundo;
+
+    // --- Entidades del juego (se crean una vez y se reutilizan en cada partida) ---
+    private final Jugador jugador = new Jugador(0, 0, 0, 0);
+    private final Formacion formacion = new Formacion();
+    private final Entidades entidades = new Entidades(CAPACIDAD_INICIAL_DISPAROS);
+
+    // --- Colisiones: rejilla de fase amplia en el espacio local de la formacion ---
+    // Los enemigos no se mueven respecto al origen del bloque, asi que la rejilla
+    // se construye una vez por oleada; las bajas se filtran con formacion.estaVivo().
+    private final RejillaColisiones rejilla = new RejillaColisiones(64);
+
+    // --- Azar y tiempo de la partida: todo lo que hace falta para repetirla ---
+    private final Aleatorio aleatorio = new Aleatorio(SEMILLA_POR_DEFECTO);
+    private long semilla;
+    private long ticks;
+    private GrabadorRepeticion grabador;
+
+    // --- Oleadas: la secuencia y el ritmo de la oleada en curso ---
+    private GeneradorOleadas oleadas = GeneradorOleadas.unica(4, 7);
+    private int numeroOleada;
+    private int intervaloMovimiento;
+    private int intervaloDisparo;
+    private int rafaga;
+
+    private int ticksDesdeDisparoEnemigo;
+    private int ticksDesdeMovimientoEnemigos;
+    private int direccionEnemigos = 1; // 1 = derecha, -1 = izquierda
+
+    // --- Estado del juego ---
+    private boolean gameOver;
+    private boolean victoria;
+    private int puntuacion;
+
+    // --- Partidas terminadas desde que existe la simulacion, y como acabo la ultima ---
+    private int partidasTerminadas;
+    private int puntuacionFinal;
+    private int oleadaFinal;
+
+    // --- Control: coordenada X objetivo de la nave (-1 = sin objetivo) ---
+    private float objetivoX = -1;
+
+    // --- Ancho recibido en un evento ANCHO, a la espera de su ALTO ---
+    private int anchoPendiente;
+
+    // --- Entrada desde otros hilos, drenada al principio de cada tick ---
+    private final ColaEntrada entrada = new ColaEntrada(CAPACIDAD_ENTRADA);
+    private final LatenciaEntrada latencia = new LatenciaEntrada();
+    private final ColaEntrada.Consumidor aplicador = (tipo, valor, instante) -> {
+        if (grabador != null) {
+            grabador.registrar(ticks, tipo, valor);
+        }
+        aplicarEntrada(tipo, valor);
+        latencia.aplicada(instante);
+    };
+
+    // Una ventana de percentiles por segundo de juego (se ajusta a la frecuencia)
+    private final Perfilador perfilador = new Perfilador(FASES, CONTADORES, TICKS_POR_SEGUNDO);
+
+    // Caja auxiliar reutilizada para no reservar memoria en cada tick
+    private final Limites tirador = new Limites(0, 0, 0, 0);
+
+    public Simulacion() {
+        // Un tipo nuevo de entidad es una linea mas aqui (y su constante)
+        entidades.registrarTipo("disparo jugador", Entidades.JUGADOR);
+        entidades.registrarTipo("disparo enemigo", Entidades.ENEMIGO);
+    }
+
+    /**
+     * Inicializa todas las entidades del juego para una pantalla del tamanio
+     * indicado, con la cuadricula clasica de 4 filas x 7 columnas.
+     *
+     * @param ancho  ancho de la pantalla (solo cuenta la proporcion con el alto).
+     * @param alto   alto de la pantalla.
+     */
+    public void inicializar(int ancho, int alto) {
+        inicializar(ancho, alto, 4, 7);
+    }
+
+    /**
+     * Inicializa la partida con una cuadricula de enemigos de filas x cols y
+     * la semilla por defecto.
+     */
+    public void inicializar(int ancho, int alto, int filas, int cols) {
+        inicializar(ancho, alto, filas, cols, SEMILLA_POR_DEFECTO);
+    }
+
+    /**
+     * Inicializa una partida de una sola oleada de filas x cols.
+     *
+     * @param semilla  semilla del generador aleatorio de la partida.
+     */
+    public void inicializar(int ancho, int alto, int filas, int cols, long semilla) {
+        inicializar(ancho, alto, GeneradorOleadas.unica(filas, cols), semilla);
+    }
+
+    /**
+     * Inicializa la partida en la primera oleada del generador indicado.
+     * Pone el contador de ticks a cero y, si hay grabador, empieza una
+     * repeticion nueva con estos parametros.
+     */
+    public void inicializar(int ancho, int alto, GeneradorOleadas oleadas, long semilla) {
+        this.oleadas = oleadas;
+        this.semilla = semilla;
+        this.frecuencia = frecuenciaElegida;
+        perfilador.setMuestrasPorVentana(frecuencia);
+        aleatorio.sembrar(semilla);
+        ticks = 0;
+        int alturaMundo = altoMundo(ancho, alto);
+        if (grabador != null) {
+            grabador.comenzar(ANCHO_MUNDO, alturaMundo, frecuencia, oleadas, semilla);
+        }
+        prepararPartida(ANCHO_MUNDO, alturaMundo);
+    }
+
+    /**
+     * Ticks por segundo de las partidas que empiecen a partir del siguiente
+     * inicializar() (la partida en curso no cambia): 30 ahorra bateria en
+     * dispositivos modestos y el dibujo sigue interpolando a la frecuencia
+     * de la pantalla. Velocidades e intervalos se escalan para que la
+     * partida dure y se juegue igual en segundos.
+     */
+    public void setFrecuencia(int ticksPorSegundo) {
+        if (ticksPorSegundo < FRECUENCIA_MINIMA || ticksPorSegundo > FRECUENCIA_MAXIMA) {
+            throw new IllegalArgumentException("Frecuencia fuera de rango: " + ticksPorSegundo);
+        }
+        frecuenciaElegida = ticksPorSegundo;
+    }
+
+    /** Avance por tick a la frecuencia actual de algo que avanza tanto por tick de referencia. */
+    private int porTick(int porTickReferencia) {
+        return (int) ((long) porTickReferencia * TICKS_POR_SEGUNDO / frecuencia);
+    }
+
+    /** Ticks a la frecuencia actual que duran tanto como los de referencia indicados. */
+    private int ticksEquivalentes(int ticksReferencia) {
+        return Math.max(1, (int) ((long) ticksReferencia * frecuencia / TICKS_POR_SEGUNDO));
+    }
+
+    /**
+     * Alto del mundo, en unidades, para una pantalla de ancho x alto (en
+     * pixeles o en cualquier otra unidad comun): misma proporcion que ella.
+     */
+    public static int altoMundo(int ancho, int alto) {
+        if (ancho <= 0 || alto <= 0) return ALTO_MUNDO_REFERENCIA;
+        return (int) ((long) ANCHO_MUNDO * alto / ancho);
+    }
+
+    /**
+     * Deja la partida como recien empezada reutilizando todas las entidades:
+     * no reserva memoria salvo que la primera oleada no haya cabido nunca en
+     * los arrays ya reservados.
+     */
+    private void prepararPartida(int ancho, int alto) {
+        anchoMundo = ancho;
+        altoMundo = alto;
+
+        colocarJugador(anchoMundo / 2);
+
+        objetivoX = -1;
+        gameOver = false;
+        victoria = false;
+        puntuacion = 0;
+        numeroOleada = 0;
+        prepararOleada(oleadas.get(0));
+    }
+
+    /** Tamanio de cada tipo de entidad en el mundo actual. */
+    private void dimensionarEntidades() {
+        entidades.setTamanio(DISPARO_JUGADOR, ANCHO_DISPARO, altoMundo / 25);
+        entidades.setTamanio(DISPARO_ENEMIGO, ANCHO_DISPARO, altoMundo / 25);
+    }
+
+    /**
+     * Coloca una oleada nueva: limpia los disparos, crea la cuadricula (el
+     * tamanio de cada invasor se ajusta para que quepan todas las columnas),
+     * quita los huecos del patron y reconstruye la rejilla de colisiones.
+     * Solo reserva memoria si la oleada es mayor que todas las anteriores.
+     */
+    private void prepararOleada(Oleada oleada) {
+        int filas = oleada.getFilas();
+        int cols = oleada.getColumnas();
+        entidades.vaciar();
+        dimensionarEntidades();
+
+        // Crear la cuadricula de enemigos
+        int tamEnemigo = tamEnemigo(filas, cols);
+        int espacioH = tamEnemigo + tamEnemigo / 3;
+        int espacioV = tamEnemigo + tamEnemigo / 4;
+        int offsetX = (anchoMundo - (cols * espacioH)) / 2;
+        int offsetY = (int) (altoMundo * 0.08f);
+
+        formacion.configurar(filas, cols, offsetX, offsetY, tamEnemigo, espacioH, espacioV);
+        if (oleada.tienePatron()) {
+            for (int e = 0; e < filas * cols; e++) {
+                if (!oleada.estaOcupada(e)) formacion.eliminar(e);
+            }
+        }
+        construirRejilla();
+
+        intervaloMovimiento = ticksEquivalentes(oleada.getIntervaloMovimiento());
+        intervaloDisparo = ticksEquivalentes(oleada.getIntervaloDisparo());
+        rafaga = oleada.getRafaga();
+        direccionEnemigos = 1;
+        ticksDesdeDisparoEnemigo = 0;
+        ticksDesdeMovimientoEnemigos = 0;
+    }
+
+    /** Lado de un invasor para que la cuadricula quepa en el mundo actual. */
+    private int tamEnemigo(int filas, int cols) {
+        int tam = anchoMundo / (cols + 4);
+        // Con muchas columnas esa proporcion no cabe: el bloque ocupa como mucho el 85% del ancho
+        tam = Math.min(tam, anchoMundo * 85 / 100 * 3 / (4 * cols));
+        // y, en pantallas apaisadas, como mucho el 40% del alto
+        return Math.max(1, Math.min(tam, altoMundo * 40 / 100 * 4 / (5 * filas)));
+    }
+
+    /** Nave centrada en cx, pegada al borde inferior y proporcional al ancho. */
+    private void colocarJugador(int cx) {
+        int tamJugador = anchoMundo / 12;
+        jugador.colocar(cx - tamJugador / 2, altoMundo - tamJugador * 2, tamJugador, tamJugador * 2,
+                porTick(tamJugador / 3));
+    }
+
+    /**
+     * Rejilla local (origen = esquina de la formacion), celdas de una celda de
+     * la formacion. Incluye tambien las celdas vacias: se filtran con estaVivo().
+     */
+    private void construirRejilla() {
+        int filas = formacion.getFilas();
+        int cols = formacion.getColumnas();
+        int tamEnemigo = formacion.getTamEnemigo();
+        int espacioH = formacion.getEspacioH();
+        int espacioV = formacion.getEspacioV();
+        rejilla.configurar(0, 0, espacioH, cols * espacioH, filas * espacioV);
+        for (int fila = 0; fila < filas; fila++) {
+            for (int col = 0; col < cols; col++) {
+                int ex = col * espacioH;
+                int ey = fila * espacioV;
+                rejilla.insertar(fila * cols + col, RejillaColisiones.ENEMIGO,
+                        ex, ey, ex + tamEnemigo, ey + tamEnemigo);
+            }
+        }
+        rejilla.construir();
+    }
+
+    /**
+     * Ajusta la partida en curso a una pantalla de otra proporcion (giro,
+     * pantalla partida) sin reservar memoria: el mundo conserva su ancho y
+     * cambia de alto; la nave, la formacion y los disparos conservan su
+     * posicion relativa y los tamanios se recalculan como al empezar una
+     * oleada. La formacion se mantiene dentro del mundo. Una pantalla con la
+     * misma proporcion y otra resolucion no cambia nada.
+     *
+     * En el dispositivo llega por la cola de entrada (ANCHO y ALTO) para que
+     * quede en la repeticion; llamarlo directamente no se graba.
+     *
+     * @param ancho  ancho de la pantalla (solo cuenta la proporcion con el alto).
+     */
+    public void redimensionar(int ancho, int alto) {
+        if (ancho <= 0 || alto <= 0) return;
+        int altoAhora = altoMundo(ancho, alto);
+        if (altoAhora == altoMundo) return;
+        int altoAntes = altoMundo;
+        altoMundo = altoAhora;
+
+        // El ancho no cambia: solo se escala en vertical
+        colocarJugador(jugador.getBounds().centroX());
+        dimensionarEntidades();
+        entidades.reescalar(anchoMundo, altoAntes, anchoMundo, altoAhora);
+
+        int tamEnemigo = tamEnemigo(formacion.getFilas(), formacion.getColumnas());
+        int espacioH = tamEnemigo + tamEnemigo / 3;
+        int espacioV = tamEnemigo + tamEnemigo / 4;
+        int oy = (int) ((long) formacion.getOrigenY() * altoAhora / altoAntes);
+        formacion.recolocar(formacion.getOrigenX(), oy, tamEnemigo, espacioH, espacioV);
+        // Con otro tamanio de invasor el bloque vivo puede quedar fuera por un lado
+        if (formacion.getVivos() > 0) {
+            if (formacion.izquierdaViva() < 0) {
+                formacion.desplazar(-formacion.izquierdaViva(), 0);
+            } else if (formacion.derechaViva() > anchoMundo) {
+                formacion.desplazar(anchoMundo - formacion.derechaViva(), 0);
+            }
+        }
+        construirRejilla();
+    }
+
+    /**
+     * Avanza la simulacion un tick: primero aplica la entrada pendiente y
+     * despues posiciones, disparos y deteccion de colisiones.
+     * Con la partida terminada solo se atiende la entrada (para reiniciar).
+     * Cada fase se mide con el Perfilador.
+     */
+    public void tick() {
+        perfilador.comenzar(FASE_TICK);
+        boolean enJuego = !gameOver && !victoria;
+        avanzar();
+        if (enJuego && (gameOver || victoria)) {
+            // Se anota aqui porque la puntuacion se pierde en cuanto se reinicia
+            partidasTerminadas++;
+            puntuacionFinal = puntuacion;
+            oleadaFinal = numeroOleada;
+        }
+        perfilador.contar(CONTADOR_ENEMIGOS, formacion.getVivos());
+        perfilador.contar(CONTADOR_DISPAROS, entidades.getCantidad());
+        perfilador.terminar(FASE_TICK);
+    }
+
+    private void avanzar() {
+        perfilador.comenzar(FASE_ENTRADA);
+        entrada.drenar(aplicador);
+        perfilador.terminar(FASE_ENTRADA);
+        ticks++;
+        if (gameOver || victoria) return;
+
+        perfilador.comenzar(FASE_DISPAROS);
+        // Mover jugador hacia la posicion objetivo
+        jugador.guardarPosicionAnterior();
+        if (objetivoX >= 0) {
+            jugador.moverHacia(objetivoX, anchoMundo);
+        }
+
+        // Mover todas las entidades (se descartan tras las colisiones, para
+        // que lo que sale del mundo en este tick aun pueda acertar por el camino)
+        entidades.integrar();
+        perfilador.terminar(FASE_DISPAROS);
+
+        // Mover enemigos en bloque cada cierto numero de ticks
+        perfilador.comenzar(FASE_FORMACION);
+        if (++ticksDesdeMovimientoEnemigos >= intervaloMovimiento) {
+            ticksDesdeMovimientoEnemigos = 0;
+            moverBloqueEnemigos();
+        }
+
+        // Rafaga de disparos enemigos, cada uno desde un invasor vivo al azar
+        if (++ticksDesdeDisparoEnemigo >= intervaloDisparo && formacion.getVivos() > 0) {
+            ticksDesdeDisparoEnemigo = 0;
+            for (int r = 0; r < rafaga; r++) {
+                int indice = formacion.enesimoVivo(aleatorio.siguienteInt(formacion.getVivos()));
+                formacion.limites(indice, tirador);
+                entidades.crearCentrada(DISPARO_ENEMIGO, tirador.centroX(), tirador.abajo, 0,
+                        porTick(altoMundo * 2 / 100));
+            }
+        }
+        perfilador.terminar(FASE_FORMACION);
+
+        perfilador.comenzar(FASE_COLISIONES);
+        // Colision: entidades del jugador vs enemigos
+        colisionarDisparosJugador();
+
+        // Colision: entidades enemigas vs jugador
+        boolean alcanzado = jugadorAlcanzado();
+        entidades.descartarFuera(anchoMundo, altoMundo);
+        perfilador.terminar(FASE_COLISIONES);
+        if (alcanzado) {
+            gameOver = true;
+            return;
+        }
+
+        // Oleada limpia: la siguiente o, si no hay mas, victoria
+        if (formacion.getVivos() == 0) {
+            if (oleadas.hay(numeroOleada + 1)) {
+                numeroOleada++;
+                prepararOleada(oleadas.get(numeroOleada));
+            } else {
+                victoria = true;
+            }
+            return;
+        }
+
+        // Colision: enemigos llegan al jugador (invasion completada), O(1)
+        if (formacion.abajoVivo() >= jugador.getBounds().arriba) {
+            gameOver = true;
+        }
+    }
+
+    /**
+     * Cada entidad de la faccion del jugador consulta las celdas de la
+     * rejilla que cubre el segmento que ha recorrido en este tick, trasladado
+     * al espacio local de la formacion, y acierta al primer enemigo vivo que
+     * se cruza por el camino (ColisionBarrida); a igual instante, al de menor
+     * indice. Los enemigos se toman quietos en su posicion actual.
+     */
+    private void colisionarDisparosJugador() {
+        int ox = formacion.getOrigenX();
+        int oy = formacion.getOrigenY();
+        int cols = formacion.getColumnas();
+        int tam = formacion.getTamEnemigo();
+        int espacioH = formacion.getEspacioH();
+        int espacioV = formacion.getEspacioV();
+
+        int i = 0;
+        while (i < entidades.getCantidad()) {
+            if (entidades.getFaccion(i) != Entidades.JUGADOR) {
+                i++;
+                continue;
+            }
+            int x0 = entidades.getXAnterior(i) - ox;
+            int y0 = entidades.getYAnterior(i) - oy;
+            int dx = entidades.getX(i) - ox - x0;
+            int dy = entidades.getY(i) - oy - y0;
+            int ancho = entidades.getAncho(i);
+            int alto = entidades.getAlto(i);
+            int candidatos = rejilla.consultar(Math.min(x0, x0 + dx), Math.min(y0, y0 + dy),
+                    Math.max(x0, x0 + dx) + ancho, Math.max(y0, y0 + dy) + alto, RejillaColisiones.ENEMIGO);
+            int victima = -1;
+            long primero = ColisionBarrida.SIN_IMPACTO;
+            for (int k = 0; k < candidatos; k++) {
+                int e = rejilla.getId(rejilla.getResultado(k));
+                if (!formacion.estaVivo(e)) continue;
+                int ex = (e % cols) * espacioH;
+                int ey = (e / cols) * espacioV;
+                long t = ColisionBarrida.impacto(x0, y0, ancho, alto, dx, dy, ex, ey, ex + tam, ey + tam);
+                if (t < primero || (t == primero && t != ColisionBarrida.SIN_IMPACTO && e < victima)) {
+                    primero = t;
+                    victima = e;
+                }
+            }
+            if (victima >= 0) {
+                formacion.eliminar(victima);
+                puntuacion += 10;
+                entidades.eliminar(i); // la ultima ocupa el hueco: no se avanza
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Entidades enemigas contra la nave: una sola caja, prueba barrida con el
+     * movimiento relativo (la nave tambien se ha desplazado en este tick).
+     */
+    private boolean jugadorAlcanzado() {
+        Limites nave = jugador.getBounds();
+        int desplazamientoNave = nave.izquierda - jugador.getIzquierdaAnterior();
+        for (int j = 0; j < entidades.getCantidad(); j++) {
+            if (entidades.getFaccion(j) != Entidades.ENEMIGO) continue;
+            int x0 = entidades.getXAnterior(j) + desplazamientoNave;
+            int y0 = entidades.getYAnterior(j);
+            if (ColisionBarrida.impacto(x0, y0, entidades.getAncho(j), entidades.getAlto(j),
+                    entidades.getX(j) - x0, entidades.getY(j) - y0,
+                    nave.izquierda, nave.arriba, nave.derecha, nave.abajo) != ColisionBarrida.SIN_IMPACTO) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Mueve el bloque de enemigos a la derecha o izquierda.
+     * Cuando su extremo vivo toca el borde de la pantalla, el bloque baja y
+     * cambia de direccion. Todo es O(1): solo cambia el origen de la formacion.
+     */
+    private void moverBloqueEnemigos() {
+        int paso = anchoMundo / 30;
+        int dx = paso * direccionEnemigos;
+
+        int nuevaIzquierda = formacion.izquierdaViva() + dx;
+        int nuevaDerecha = formacion.derechaViva() + dx;
+        if (nuevaIzquierda <= 0 || nuevaDerecha >= anchoMundo) {
+            direccionEnemigos *= -1;
+            formacion.desplazar(0, altoMundo / 25);
+        } else {
+            formacion.desplazar(dx, 0);
+        }
+    }
+
+    // =====================================================================
+    // CONTROL
+    // =====================================================================
+
+    /**
+     * Lanza un disparo desde el canion de la nave.
+     */
+    public void disparar() {
+        if (gameOver || victoria) return;
+        int cx = jugador.getBounds().centroX();
+        int cy = jugador.getBounds().arriba;
+        int velDisparo = porTick(altoMundo * 3 / 100);
+        entidades.crearCentrada(DISPARO_JUGADOR, cx, cy, 0, -velDisparo);
+    }
+
+    /**
+     * Fija la coordenada X del mundo hacia la que se mueve la nave (-1 para detenerla).
+     */
+    public void setObjetivoX(float x) {
+        objetivoX = x;
+    }
+
+    /**
+     * Vuelve a empezar desde la primera oleada con el mismo mundo.
+     * El generador aleatorio y el contador de ticks continuan, de modo que
+     * una repeticion con varios reinicios sigue siendo determinista.
+     */
+    public void reiniciar() {
+        prepararPartida(anchoMundo, altoMundo);
+    }
+
+    /**
+     * Graba a partir de ahora cada evento de entrada aplicado (null para dejar
+     * de grabar). La repeticion empieza en el siguiente inicializar().
+     */
+    public void setGrabador(GrabadorRepeticion grabador) {
+        this.grabador = grabador;
+    }
+
+    /**
+     * Aplica un evento drenado de la cola de entrada. Con la partida
+     * terminada solo un toque nuevo reinicia: los arrastres se ignoran, para
+     * no reiniciar en cada evento de un dedo que se sigue moviendo.
+     */
+    private void aplicarEntrada(byte tipo, float valor) {
+        if (tipo == ColaEntrada.SOLTAR) {
+            objetivoX = -1;
+            return;
+        }
+        if (tipo == ColaEntrada.ANCHO) {
+            anchoPendiente = (int) valor;
+            return;
+        }
+        if (tipo == ColaEntrada.ALTO) {
+            if (anchoPendiente > 0) redimensionar(anchoPendiente, (int) valor);
+            return;
+        }
+        if (gameOver || victoria) {
+            if (tipo == ColaEntrada.PULSAR || tipo == ColaEntrada.DISPARAR) {
+                reiniciar();
+            }
+            return;
+        }
+        if (tipo == ColaEntrada.DISPARAR) {
+            disparar();
+            return;
+        }
+        objetivoX = valor;
+        if (tipo == ColaEntrada.PULSAR) {
+            disparar();
+        }
+    }
+
+    // =====================================================================
+    // CONSULTAS (para el renderizado y las pruebas)
+    // =====================================================================
+
+    public boolean terminada() {
+        return gameOver || victoria;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public boolean isVictoria() {
+        return victoria;
+    }
+
+    public int getPuntuacion() {
+        return puntuacion;
+    }
+
+    /** Ancho del mundo en unidades (siempre ANCHO_MUNDO una vez inicializada). */
+    public int getAncho() {
+        return anchoMundo;
+    }
+
+    /** Alto del mundo en unidades. */
+    public int getAlto() {
+        return altoMundo;
+    }
+
+    public Jugador getJugador() {
+        return jugador;
+    }
+
+    public Formacion getFormacion() {
+        return formacion;
+    }
+
+    /** Proyectiles y demas entidades en vuelo. */
+    public Entidades getEntidades() {
+        return entidades;
+    }
+
+    /** Oleada en curso (0 = la primera). */
+    public int getNumeroOleada() {
+        return numeroOleada;
+    }
+
+    public GeneradorOleadas getOleadas() {
+        return oleadas;
+    }
+
+    /**
+     * Partidas que han terminado (derrota o victoria) en esta simulacion; cada
+     * vez que cambia, getPuntuacionFinal() y getOleadaFinal() describen la
+     * ultima aunque ya se haya reiniciado. No se guarda con la partida.
+     */
+    public int getPartidasTerminadas() {
+        return partidasTerminadas;
+    }
+
+    /** Puntuacion con la que termino la ultima partida. */
+    public int getPuntuacionFinal() {
+        return puntuacionFinal;
+    }
+
+    /** Oleada en la que termino la ultima partida (0 = la primera). */
+    public int getOleadaFinal() {
+        return oleadaFinal;
+    }
+
+    /** Ticks ejecutados desde el ultimo inicializar() (incluidos los reinicios). */
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /** Ticks por segundo de la partida en curso. */
+    public int getFrecuencia() {
+        return frecuencia;
+    }
+
+    /** Tiempos por fase de tick; solo se lee desde el hilo de la simulacion. */
+    public Perfilador getPerfilador() {
+        return perfilador;
+    }
+
+    /** Cola por la que otros hilos envian la entrada a la simulacion. */
+    public ColaEntrada getEntrada() {
+        return entrada;
+    }
+
+    /** Latencia desde cada evento de entrada hasta el frame que lo presenta. */
+    public LatenciaEntrada getLatencia() {
+        return latencia;
+    }
+
+    // =====================================================================
+    // GUARDADO (formato y cabecera en PartidaGuardada)
+    // =====================================================================
+
+    /** Bytes que ocupa el estado completo de la partida en guardar(). */
+    int bytesEstado() {
+        int n = 3 * 4 + 3 * 8 + 4 + oleadas.getTextoUtf8().length
+                + 4 * 4 + 1 + 4 + 4 + 4
+                + Jugador.BYTES_GUARDADOS + formacion.bytesGuardados() + entidades.bytesGuardados() + 1;
+        return grabador != null ? n + grabador.bytesGuardados() : n;
+    }
+
+    /**
+     * Escribe todo lo que hace falta para continuar la partida exactamente
+     * donde esta, incluida la grabacion en curso: una repeticion de la
+     * partida restaurada sigue siendo valida desde el principio. Se llama con
+     * el hilo de la simulacion parado.
+     */
+    void guardar(ByteBuffer destino) {
+        destino.putInt(anchoMundo).putInt(altoMundo).putInt(frecuencia);
+        destino.putLong(semilla).putLong(ticks).putLong(aleatorio.getEstado());
+        byte[] texto = oleadas.getTextoUtf8();
+        destino.putInt(texto.length).put(texto);
+        destino.putInt(numeroOleada).putInt(ticksDesdeMovimientoEnemigos)
+                .putInt(ticksDesdeDisparoEnemigo).putInt(direccionEnemigos);
+        destino.put((byte) ((gameOver ? 1 : 0) | (victoria ? 2 : 0)));
+        destino.putInt(puntuacion).putFloat(objetivoX).putInt(anchoPendiente);
+        jugador.guardar(destino);
+        formacion.guardar(destino);
+        entidades.guardar(destino);
+        destino.put((byte) (grabador != null ? 1 : 0));
+        if (grabador != null) {
+            grabador.guardar(destino);
+        }
+    }
+
+    /**
+     * Inverso de guardar(). Reutiliza las entidades y el generador de oleadas
+     * si el texto coincide. Si lo guardado no traia grabacion, el grabador
+     * empieza una nueva (que ya no reproduce la partida desde su inicio).
+     */
+    void restaurar(ByteBuffer origen) {
+        anchoMundo = origen.getInt();
+        altoMundo = origen.getInt();
+        frecuencia = origen.getInt();
+        if (frecuencia < FRECUENCIA_MINIMA || frecuencia > FRECUENCIA_MAXIMA) {
+            throw new IllegalArgumentException("Frecuencia guardada no valida: " + frecuencia);
+        }
+        perfilador.setMuestrasPorVentana(frecuencia);
+        semilla = origen.getLong();
+        ticks = origen.getLong();
+        aleatorio.sembrar(origen.getLong());
+        byte[] texto = new byte[origen.getInt()];
+        origen.get(texto);
+        String descripcion = new String(texto, StandardCharsets.UTF_8);
+        if (!descripcion.equals(oleadas.getTexto())) {
+            oleadas = GeneradorOleadas.leer(descripcion);
+        }
+        numeroOleada = origen.getInt();
+        Oleada oleada = oleadas.get(numeroOleada);
+        intervaloMovimiento = ticksEquivalentes(oleada.getIntervaloMovimiento());
+        intervaloDisparo = ticksEquivalentes(oleada.getIntervaloDisparo());
+        rafaga = oleada.getRafaga();
+        ticksDesdeMovimientoEnemigos = origen.getInt();
+        ticksDesdeDisparoEnemigo = origen.getInt();
+        direccionEnemigos = origen.getInt();
+        byte estado = origen.get();
+        gameOver = (estado & 1) != 0;
+        victoria = (estado & 2) != 0;
+        puntuacion = origen.getInt();
+        objetivoX = origen.getFloat();
+        anchoPendiente = origen.getInt();
+        jugador.restaurar(origen);
+        formacion.restaurar(origen);
+        dimensionarEntidades();
+        entidades.restaurar(origen);
+        construirRejilla();
+        boolean conGrabacion = origen.get() != 0;
+        if (grabador != null && conGrabacion) {
+            grabador.restaurar(origen);
+        } else {
+            if (conGrabacion) GrabadorRepeticion.saltar(origen);
+            if (grabador != null) grabador.comenzar(anchoMundo, altoMundo, frecuencia, oleadas, semilla);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * SobreBinario: cabecera comun de los ficheros que guarda AlmacenPartidas.
+ * <pre>
+ *   magia:int version:byte longitud:int crc32:int carga[longitud]
+ * </pre>
+ * El CRC de la carga detecta ficheros truncados o corruptos antes de tocar
+ * nada: un fichero que no pasa la comprobacion se rechaza entero.
+ */
+final class SobreBinario {
+
+    static final int CABECERA = 4 + 1 + 4 + 4;
+    private static final int POSICION_CRC = 4 + 1 + 4;
+
+    private SobreBinario() {
+    }
+
+    /** Buffer del tamanio exacto, con la cabecera escrita y listo para la carga. */
+    static ByteBuffer abrir(int magia, byte version, int longitudCarga) {
+        ByteBuffer buffer = ByteBuffer.allocate(CABECERA + longitudCarga);
+        buffer.putInt(magia).put(version).putInt(longitudCarga).putInt(0);
+        return buffer;
+    }
+
+    /**
+     * Calcula el CRC de la carga ya escrita y devuelve el fichero completo.
+     *
+     * @throws IllegalStateException si la carga no ocupa lo anunciado en abrir().
+     */
+    static byte[] cerrar(ByteBuffer buffer) {
+        if (buffer.hasRemaining()) {
+            throw new IllegalStateException("Faltan " + buffer.remaining() + " bytes de carga");
+        }
+        byte[] datos = buffer.array();
+        buffer.putInt(POSICION_CRC, crc(datos, CABECERA, datos.length - CABECERA));
+        return datos;
+    }
+
+    /**
+     * Comprueba la cabecera y el CRC.
+     *
+     * @return la carga, de solo lectura y con la posicion al principio.
+     * @throws IllegalArgumentException si no es un fichero valido de este tipo.
+     */
+    static ByteBuffer leer(byte[] datos, int magia, byte version) {
+        if (datos.length < CABECERA) throw new IllegalArgumentException("Fichero truncado");
+        ByteBuffer buffer = ByteBuffer.wrap(datos);
+        if (buffer.getInt() != magia) throw new IllegalArgumentException("No es un fichero de este tipo");
+        byte leida = buffer.get();
+        if (leida != version) throw new IllegalArgumentException("Version no soportada: " + leida);
+        int longitud = buffer.getInt();
+        if (longitud < 0 || longitud != datos.length - CABECERA) {
+            throw new IllegalArgumentException("Longitud incorrecta: " + longitud);
+        }
+        if (buffer.getInt() != crc(datos, CABECERA, longitud)) {
+            throw new IllegalArgumentException("CRC incorrecto");
+        }
+        return buffer.slice().asReadOnlyBuffer();
+    }
+
+    private static int crc(byte[] datos, int desde, int longitud) {
+        CRC32 crc = new CRC32();
+        crc.update(datos, desde, longitud);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.spaceinvaders.simulacion;
+
+import java.nio.ByteBuffer;
+
+/**
+ * TablaRecords: las mejores puntuaciones, de mayor a menor, con la oleada
+ * alcanzada y la fecha. Arrays de tamanio fijo: anotar no reserva memoria.
+ * Se guarda dentro de un SobreBinario (magia "SIHS"). No es segura entre
+ * hilos: AlmacenPartidas la modifica solo en su hilo y publica copias.
+ */
+public final class TablaRecords {
+
+    public static final int CAPACIDAD = 10;
+
+    static final int MAGIA = ('S' << 24) | ('I' << 16) | ('H' << 8) | 'S';
+    static final byte VERSION = 1;
+    private static final int BYTES_POR_ENTRADA = 4 + 4 + 8;
+
+    private final int[] puntuaciones = new int[CAPACIDAD];
+    private final int[] oleadas = new int[CAPACIDAD];
+    private final long[] fechas = new long[CAPACIDAD];
+    private int cantidad;
+
+    /**
+     * Anota una partida si entra en la tabla. A igual puntuacion queda por
+     * debajo de las anteriores. Las partidas sin puntos no se anotan.
+     *
+     * @param oleada       oleada alcanzada (0 = la primera).
+     * @param fechaMillis  fecha de la partida (System.currentTimeMillis()).
+     * @return la posicion en la tabla (0 = la mejor) o -1 si no entra.
+     */
+    public int anotar(int puntuacion, int oleada, long fechaMillis) {
+        if (puntuacion <= 0) return -1;
+        int pos = cantidad;
+        while (pos > 0 && puntuaciones[pos - 1] < puntuacion) {
+            pos--;
+        }
+        if (pos >= CAPACIDAD) return -1;
+        // Desplazar hacia abajo; si la tabla esta llena se pierde la ultima
+        int fin = Math.min(cantidad, CAPACIDAD - 1);
+        System.arraycopy(puntuaciones, pos, puntuaciones, pos + 1, fin - pos);
+        System.arraycopy(oleadas, pos, oleadas, pos + 1, fin - pos);
+        System.arraycopy(fechas, pos, fechas, pos + 1, fin - pos);
+        puntuaciones[pos] = puntuacion;
+        oleadas[pos] = oleada;
+        fechas[pos] = fechaMillis;
+        if (cantidad < CAPACIDAD) cantidad++;
+        return pos;
+    }
+
+    /** Copia el contenido de otra tabla en esta. */
+    public void copiar(TablaRecords otra) {
+        System.arraycopy(otra.puntuaciones, 0, puntuaciones, 0, CAPACIDAD);
+        System.arraycopy(otra.oleadas, 0, oleadas, 0, CAPACIDAD);
+        System.arraycopy(otra.fechas, 0, fechas, 0, CAPACIDAD);
+        cantidad = otra.cantidad;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public int getPuntuacion(int posicion) {
+        return puntuaciones[posicion];
+    }
+
+    public int getOleada(int posicion) {
+        return oleadas[posicion];
+    }
+
+    public long getFecha(int posicion) {
+        return fechas[posicion];
+    }
+
+    /** Mejor puntuacion anotada (0 si la tabla esta vacia). */
+    public int getMejor() {
+        return cantidad > 0 ? puntuaciones[0] : 0;
+    }
+
+    // =====================================================================
+    // GUARDADO
+    // =====================================================================
+
+    public byte[] serializar() {
+        ByteBuffer buffer = SobreBinario.abrir(MAGIA, VERSION, 4 + cantidad * BYTES_POR_ENTRADA);
+        buffer.putInt(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            buffer.putInt(puntuaciones[i]).putInt(oleadas[i]).putLong(fechas[i]);
+        }
+        return SobreBinario.cerrar(buffer);
+    }
+
+    /**
+     * Sustituye el contenido por el de un fichero de serializar().
+     *
+     * @throws IllegalArgumentException si el fichero no es valido (la tabla no cambia).
+     */
+    public void restaurar(byte[] datos) {
+        ByteBuffer carga = SobreBinario.leer(datos, MAGIA, VERSION);
+        int n = carga.getInt();
+        if (n < 0 || n > CAPACIDAD || carga.remaining() != n * BYTES_POR_ENTRADA) {
+            throw new IllegalArgumentException("Tabla de records no valida: " + n + " entradas");
+        }
+        for (int i = 0; i < n; i++) {
+            puntuaciones[i] = carga.getInt();
+            oleadas[i] = carga.getInt();
+            fechas[i] = carga.getLong();
+        }
+        cantidad = n;
+    }
+}
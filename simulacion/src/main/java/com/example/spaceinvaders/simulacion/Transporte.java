@@ -0,0 +1,29 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * Transporte: un extremo de un canal de paquetes entre el servidor de una
+ * partida y un cliente, sin garantias de entrega (como UDP): un paquete
+ * puede perderse, pero nunca llega cortado. ServidorPartida y
+ * ClientePartida solo dependen de esta interfaz; en la JVM y en las pruebas
+ * se usa TransporteLocal.
+ */
+public interface Transporte {
+
+    /**
+     * Envia los primeros longitud bytes de datos; el array se puede reutilizar
+     * al volver.
+     *
+     * @return false si el paquete se ha descartado (cola llena, perdida...).
+     */
+    boolean enviar(byte[] datos, int longitud);
+
+    /**
+     * Copia en destino el siguiente paquete recibido, sin esperar.
+     *
+     * @return su longitud, o -1 si no hay ninguno.
+     */
+    int recibir(byte[] destino);
+
+    /** Tamanio maximo de un paquete en bytes. */
+    int getTamMaximo();
+}
@@ -0,0 +1,99 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * TransporteLocal: dos extremos de Transporte unidos dentro del mismo
+ * proceso (loopback), para pruebas, benchmarks y partidas en la JVM. Cada
+ * sentido es una cola circular de paquetes con huecos reservados al crearla,
+ * asi que enviar y recibir no reservan memoria. Puede perder paquetes de
+ * forma determinista (setPerdida) para probar la codificacion delta.
+ *
+ * No es seguro entre hilos: servidor y cliente se ejecutan en el mismo.
+ */
+public final class TransporteLocal implements Transporte {
+
+    /** Un sentido del canal. */
+    private static final class Cola {
+        final byte[][] paquetes;
+        final int[] longitudes;
+        int primero;
+        int cantidad;
+
+        Cola(int capacidad, int tamMaximo) {
+            paquetes = new byte[capacidad][tamMaximo];
+            longitudes = new int[capacidad];
+        }
+    }
+
+    private final Cola salida;
+    private final Cola entrada;
+    private final int tamMaximo;
+
+    private int perdida; // 0 = ninguna; n = se pierde uno de cada n
+    private long enviados;
+    private long perdidos;
+
+    private TransporteLocal(Cola salida, Cola entrada, int tamMaximo) {
+        this.salida = salida;
+        this.entrada = entrada;
+        this.tamMaximo = tamMaximo;
+    }
+
+    /**
+     * Crea los dos extremos: lo que envia uno lo recibe el otro.
+     *
+     * @param capacidad  paquetes en vuelo por sentido; los que no caben se pierden.
+     */
+    public static TransporteLocal[] crearPar(int capacidad, int tamMaximo) {
+        Cola ida = new Cola(capacidad, tamMaximo);
+        Cola vuelta = new Cola(capacidad, tamMaximo);
+        return new TransporteLocal[]{
+                new TransporteLocal(ida, vuelta, tamMaximo),
+                new TransporteLocal(vuelta, ida, tamMaximo)};
+    }
+
+    /** Pierde uno de cada n paquetes enviados por este extremo (0 = ninguno). */
+    public void setPerdida(int n) {
+        perdida = n;
+    }
+
+    @Override
+    public boolean enviar(byte[] datos, int longitud) {
+        if (longitud > tamMaximo) {
+            throw new IllegalArgumentException("Paquete de " + longitud + " bytes; maximo " + tamMaximo);
+        }
+        enviados++;
+        if ((perdida > 0 && enviados % perdida == 0) || salida.cantidad == salida.paquetes.length) {
+            perdidos++;
+            return false;
+        }
+        int i = (salida.primero + salida.cantidad) % salida.paquetes.length;
+        System.arraycopy(datos, 0, salida.paquetes[i], 0, longitud);
+        salida.longitudes[i] = longitud;
+        salida.cantidad++;
+        return true;
+    }
+
+    @Override
+    public int recibir(byte[] destino) {
+        if (entrada.cantidad == 0) return -1;
+        int i = entrada.primero;
+        int longitud = entrada.longitudes[i];
+        System.arraycopy(entrada.paquetes[i], 0, destino, 0, longitud);
+        entrada.primero = (i + 1) % entrada.paquetes.length;
+        entrada.cantidad--;
+        return longitud;
+    }
+
+    @Override
+    public int getTamMaximo() {
+        return tamMaximo;
+    }
+
+    public long getEnviados() {
+        return enviados;
+    }
+
+    public long getPerdidos() {
+        return perdidos;
+    }
+}
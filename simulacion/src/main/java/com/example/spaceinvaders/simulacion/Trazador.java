@@ -0,0 +1,29 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * Trazador: destino de las secciones que marca el Perfilador, para verlas en
+ * un trazado del sistema. En Android se implementa con android.os.Trace y
+ * las fases aparecen en Perfetto; fuera de Android no se traza nada.
+ * Las secciones se anidan: terminar() cierra la ultima abierta en el hilo.
+ */
+public interface Trazador {
+
+    /** No traza nada. */
+    Trazador NINGUNO = new Trazador() {
+        @Override
+        public void comenzar(String seccion) {
+        }
+
+        @Override
+        public void terminar() {
+        }
+    };
+
+    void comenzar(String seccion);
+
+    void terminar();
+
+    /** Valor de un contador con nombre (p. ej. el nivel de calidad), en su propia pista. */
+    default void contador(String nombre, long valor) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.spaceinvaders.simulacion;
+
+/**
+ * Vista: la unica transformacion entre el mundo de la simulacion (unidades
+ * de punto fijo, ver Simulacion.ANCHO_MUNDO) y los pixeles de la pantalla.
+ * Escala por igual en los dos ejes y centra el mundo; si la proporcion no
+ * coincide (p. ej. durante el tick que tarda en aplicarse un giro) quedan
+ * bandas a los lados o arriba y abajo.
+ *
+ * La usan Escena para dibujar y GameView para llevar los toques al mundo.
+ * Sin pantalla (ancho o alto 0) es la identidad. No reserva memoria.
+ */
+public final class Vista {
+
+    private int anchoMundo;
+    private int altoMundo;
+    private int anchoPantalla;
+    private int altoPantalla;
+
+    private float escala = 1f;
+    private float margenX;
+    private float margenY;
+
+    /**
+     * Ajusta la transformacion; solo recalcula si algo ha cambiado.
+     *
+     * @return true si ha cambiado.
+     */
+    public boolean ajustar(int anchoMundo, int altoMundo, int anchoPantalla, int altoPantalla) {
+        if (anchoMundo == this.anchoMundo && altoMundo == this.altoMundo
+                && anchoPantalla == this.anchoPantalla && altoPantalla == this.altoPantalla) {
+            return false;
+        }
+        this.anchoMundo = anchoMundo;
+        this.altoMundo = altoMundo;
+        this.anchoPantalla = anchoPantalla;
+        this.altoPantalla = altoPantalla;
+        if (anchoMundo <= 0 || altoMundo <= 0 || anchoPantalla <= 0 || altoPantalla <= 0) {
+            escala = 1f;
+            margenX = 0f;
+            margenY = 0f;
+        } else {
+            escala = Math.min((float) anchoPantalla / anchoMundo, (float) altoPantalla / altoMundo);
+            margenX = (anchoPantalla - anchoMundo * escala) / 2f;
+            margenY = (altoPantalla - altoMundo * escala) / 2f;
+        }
+        return true;
+    }
+
+    /** Pixeles por unidad del mundo. */
+    public float getEscala() {
+        return escala;
+    }
+
+    public float xPantalla(float xMundo) {
+        return margenX + xMundo * escala;
+    }
+
+    public float yPantalla(float yMundo) {
+        return margenY + yMundo * escala;
+    }
+
+    /** Longitud en pixeles enteros, al menos 1 (tamanio de los sprites). */
+    public int longitudPantalla(int longitudMundo) {
+        return Math.max(1, Math.round(longitudMundo * escala));
+    }
+
+    public float xMundo(float xPantalla) {
+        return (xPantalla - margenX) / escala;
+    }
+
+    public float yMundo(float yPantalla) {
+        return (yPantalla - margenY) / escala;
+    }
+}
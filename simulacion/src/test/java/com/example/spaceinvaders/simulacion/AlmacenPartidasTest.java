@@ -0,0 +1,113 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class AlmacenPartidasTest {
+
+    @Test
+    public void partidaGuardada_continuaIgualQueLaOriginal() {
+        Simulacion original = new Simulacion();
+        original.setGrabador(new GrabadorRepeticion());
+        original.inicializar(1080, 2340, GeneradorOleadas.campania(), 11);
+        jugar(original, 0, 400);
+
+        GrabadorRepeticion grabador = new GrabadorRepeticion();
+        Simulacion restaurada = new Simulacion();
+        restaurada.setGrabador(grabador);
+        PartidaGuardada.restaurar(PartidaGuardada.serializar(original), restaurada);
+        assertEquals(original.getTicks(), restaurada.getTicks());
+        assertEquals(original.getEntidades().getCantidad(), restaurada.getEntidades().getCantidad());
+
+        // Misma entrada a las dos: mismo resultado tick a tick
+        jugar(original, 400, 1500);
+        jugar(restaurada, 400, 1500);
+        assertEquals(original.getPuntuacion(), restaurada.getPuntuacion());
+        assertEquals(original.getFormacion().getVivos(), restaurada.getFormacion().getVivos());
+        assertEquals(original.getFormacion().getOrigenY(), restaurada.getFormacion().getOrigenY());
+        assertEquals(original.getJugador().getBounds().izquierda, restaurada.getJugador().getBounds().izquierda);
+        assertEquals(original.terminada(), restaurada.terminada());
+
+        // La grabacion siguio dentro: su repeticion reproduce la partida entera
+        Repeticion repeticion = Repeticion.leer(grabador.toByteArray(restaurada.getTicks()));
+        Simulacion reproducida = new ReproductorRepeticion(repeticion).reproducir();
+        assertEquals(restaurada.getPuntuacion(), reproducida.getPuntuacion());
+        assertEquals(restaurada.getFormacion().getVivos(), reproducida.getFormacion().getVivos());
+    }
+
+    @Test
+    public void partidaGuardada_rechazaFicherosDaniados() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        byte[] datos = PartidaGuardada.serializar(sim);
+
+        byte[] corrupto = datos.clone();
+        corrupto[datos.length / 2] ^= 0x10;
+        byte[] truncado = java.util.Arrays.copyOf(datos, datos.length - 3);
+        for (byte[] malo : new byte[][]{corrupto, truncado, new byte[0], new TablaRecords().serializar()}) {
+            try {
+                PartidaGuardada.restaurar(malo, sim);
+                fail("deberia rechazarlo");
+            } catch (IllegalArgumentException esperada) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void records_ordenadosYPersistentesEntreAlmacenes() throws Exception {
+        TablaRecords tabla = new TablaRecords();
+        assertEquals(-1, tabla.anotar(0, 0, 1));
+        assertEquals(0, tabla.anotar(100, 0, 1));
+        assertEquals(0, tabla.anotar(300, 2, 2));
+        assertEquals(2, tabla.anotar(100, 1, 3)); // empate: detras del anterior
+        for (int i = 0; i < TablaRecords.CAPACIDAD; i++) {
+            tabla.anotar(200, 1, 10 + i);
+        }
+        assertEquals(TablaRecords.CAPACIDAD, tabla.getCantidad());
+        assertEquals(300, tabla.getMejor());
+        assertEquals(200, tabla.getPuntuacion(TablaRecords.CAPACIDAD - 1));
+        assertEquals(-1, tabla.anotar(150, 0, 99));
+
+        File directorio = Files.createTempDirectory("almacen").toFile();
+        AlmacenPartidas almacen = new AlmacenPartidas(directorio);
+        assertNull(almacen.leer(AlmacenPartidas.FICHERO_PARTIDA));
+        almacen.anotarPartida(50, 0, 1);
+        almacen.anotarPartida(70, 1, 2);
+        almacen.escribir("prueba.bin", new byte[]{1, 2, 3});
+        assertArrayEquals(new byte[]{1, 2, 3}, almacen.leer("prueba.bin"));
+        assertEquals(70, almacen.getMejorPuntuacion());
+        almacen.cerrar();
+        assertNull(almacen.tomarUltimoError());
+
+        AlmacenPartidas otro = new AlmacenPartidas(directorio);
+        otro.esperar();
+        TablaRecords leidos = otro.getRecords();
+        assertEquals(2, leidos.getCantidad());
+        assertEquals(70, leidos.getPuntuacion(0));
+        assertEquals(1, leidos.getOleada(0));
+        assertEquals(50, leidos.getPuntuacion(1));
+        otro.cerrar();
+
+        // Las escrituras atomicas no dejan temporales
+        for (File f : directorio.listFiles()) {
+            assertFalse(f.getName(), f.getName().endsWith(".tmp"));
+            f.delete();
+        }
+        directorio.delete();
+    }
+
+    /** Bot determinista: persigue la columna central y dispara cada 15 ticks. */
+    private static void jugar(Simulacion sim, int desde, int hasta) {
+        for (int t = desde; t < hasta && !sim.terminada(); t++) {
+            Formacion f = sim.getFormacion();
+            float x = f.centroColumna((t / 120) % f.getColumnas());
+            sim.getEntrada().publicar(t % 15 == 0 ? ColaEntrada.PULSAR : ColaEntrada.MOVER, x, 0);
+            sim.tick();
+        }
+    }
+}
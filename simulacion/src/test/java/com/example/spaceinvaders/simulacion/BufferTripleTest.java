@@ -0,0 +1,45 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BufferTripleTest {
+
+    @Test
+    public void tomar_siempreDevuelveInstantaneasCompletasYCadaVezMasRecientes() throws InterruptedException {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        BufferTriple buffer = new BufferTriple();
+        int total = 50_000;
+
+        Thread productor = new Thread(() -> {
+            for (int t = 0; t < total; t++) {
+                if (sim.terminada()) sim.reiniciar();
+                sim.setObjetivoX(sim.getFormacion().centroColumna(t / 400 % 7));
+                if (t % 10 == 0) sim.disparar();
+                sim.tick();
+                buffer.getEscritura().capturar(sim, t, t, buffer.isEscrituraDescartada());
+                buffer.publicar();
+            }
+        });
+        productor.start();
+
+        long ultimo = -1;
+        boolean coherente = true;
+        while (ultimo < total - 1) {
+            if (!buffer.tomar()) continue;
+            Instantanea inst = buffer.getLectura();
+            // Una lectura a medio escribir romperia la relacion entre puntuacion y bajas
+            if (inst.getTick() < ultimo
+                    || inst.getPuntuacion() != 10 * (inst.getTotalEnemigos() - inst.getVivos())) {
+                coherente = false;
+            }
+            ultimo = inst.getTick();
+        }
+        productor.join();
+
+        assertTrue(coherente);
+        assertFalse(buffer.tomar()); // nada nuevo tras la ultima
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CicloJuegoTest {
+
+    @Test
+    public void estado_seDeduceDeLasCondiciones() {
+        CicloJuego ciclo = new CicloJuego();
+        assertEquals(CicloJuego.SEGUNDO_PLANO, ciclo.getEstado());
+
+        // onResume y surfaceCreated en cualquier orden, tantas veces como lleguen
+        ciclo.setPrimerPlano(true);
+        assertEquals(CicloJuego.PAUSADO, ciclo.getEstado());
+        assertFalse(ciclo.isActivo());
+        ciclo.setSuperficie(true);
+        ciclo.setPrimerPlano(true);
+        assertEquals(CicloJuego.JUGANDO, ciclo.getEstado());
+        assertTrue(ciclo.isActivo());
+
+        ciclo.setFoco(false);
+        assertEquals(CicloJuego.PAUSADO, ciclo.getEstado());
+        assertTrue(ciclo.isActivo());
+        ciclo.setFoco(true);
+        ciclo.setPartidaTerminada(true);
+        assertEquals(CicloJuego.TERMINADO, ciclo.getEstado());
+
+        long version = ciclo.getVersion();
+        ciclo.setPartidaTerminada(true); // sin cambio: no despierta a nadie
+        assertEquals(version, ciclo.getVersion());
+        ciclo.setPrimerPlano(false);
+        assertEquals(CicloJuego.SEGUNDO_PLANO, ciclo.getEstado());
+        assertFalse(ciclo.isActivo());
+    }
+
+    @Test
+    public void partidaTerminada_elHiloAparcaSinDespertaresHastaUnToque() throws Exception {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340, 1, 1);
+        sim.getFormacion().eliminar(0);
+        sim.tick();
+        assertTrue(sim.isVictoria());
+
+        CicloJuego ciclo = new CicloJuego();
+        ciclo.setPrimerPlano(true);
+        ciclo.setSuperficie(true);
+        HiloSimulacion hilo = new HiloSimulacion(sim, new BufferTriple(), 5, ciclo);
+        hilo.iniciar();
+        Thread t = new Thread(hilo, "simulacion");
+        t.start();
+        try {
+            esperarEstado(ciclo, CicloJuego.TERMINADO);
+            Thread.sleep(50); // a que aparque
+
+            // En reposo: ni ticks ni despertares
+            long ticks = sim.getTicks();
+            long despertares = ciclo.getDespertares();
+            Thread.sleep(200);
+            assertEquals(ticks, sim.getTicks());
+            assertEquals(despertares, ciclo.getDespertares());
+            assertEquals(Thread.State.WAITING, t.getState());
+
+            // Un toque lo despierta y reinicia la partida
+            sim.getEntrada().publicar(ColaEntrada.PULSAR, 500, 0);
+            ciclo.notificarEntrada();
+            esperarEstado(ciclo, CicloJuego.JUGANDO);
+            assertFalse(sim.terminada());
+        } finally {
+            hilo.detener();
+            t.join(2000);
+        }
+        assertFalse(t.isAlive());
+    }
+
+    private static void esperarEstado(CicloJuego ciclo, int estado) throws InterruptedException {
+        long limite = System.nanoTime() + 2_000_000_000L;
+        while (ciclo.getEstado() != estado) {
+            assertTrue("Estado " + CicloJuego.NOMBRES[ciclo.getEstado()], System.nanoTime() < limite);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ColaEntradaTest {
+
+    @Test
+    public void drenar_entregaEnOrdenSinPerderEventosEntreHilos() throws InterruptedException {
+        ColaEntrada cola = new ColaEntrada(64);
+        int total = 200_000;
+        Thread productor = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                while (!cola.publicar(ColaEntrada.MOVER, i, i)) {
+                    Thread.yield(); // llena: esperar a que el consumidor drene
+                }
+            }
+        });
+        productor.start();
+
+        long[] siguiente = {0};
+        boolean[] enOrden = {true};
+        ColaEntrada.Consumidor consumidor = (tipo, valor, instante) -> {
+            if (instante != siguiente[0] || valor != instante) enOrden[0] = false;
+            siguiente[0]++;
+        };
+        while (siguiente[0] < total) {
+            cola.drenar(consumidor);
+        }
+        productor.join();
+
+        assertTrue(enOrden[0]);
+        assertEquals(0, cola.getPendientes());
+    }
+
+    @Test
+    public void simulacion_aplicaLaEntradaEnElSiguienteTick() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        ColaEntrada entrada = sim.getEntrada();
+
+        assertTrue(entrada.publicar(ColaEntrada.PULSAR, 300, 1_000));
+        assertEquals(0, sim.getEntidades().getCantidad());
+
+        sim.tick();
+        assertEquals(1, sim.getEntidades().getCantidad());
+        assertEquals(0, entrada.getPendientes());
+
+        sim.getLatencia().presentado(5_000);
+        assertEquals(1, sim.getLatencia().getMuestras());
+        assertEquals(4_000, sim.getLatencia().getMediaNanos());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ColisionBarridaTest {
+
+    @Test
+    public void impacto_encuentraLoQueSeCruzaPorElCamino() {
+        // Caja de 10x10 que sube 100 en un tick; enemigo fino entre medias
+        long escala = ColisionBarrida.escala(0, -100);
+        long t = ColisionBarrida.impacto(0, 100, 10, 10, 0, -100, 0, 40, 10, 50);
+        assertTrue(t > 0 && t < escala);
+        assertEquals(50, t); // toca su borde inferior (50) tras recorrer 50 de 100
+
+        // Al lado: no lo toca
+        assertEquals(ColisionBarrida.SIN_IMPACTO, ColisionBarrida.impacto(0, 100, 10, 10, 0, -100, 10, 40, 20, 50));
+        // Aun no ha llegado: ni lo roza al final del tick
+        assertEquals(ColisionBarrida.SIN_IMPACTO, ColisionBarrida.impacto(0, 100, 10, 10, 0, -40, 0, 40, 10, 50));
+        // Solapado desde el principio
+        assertEquals(0, ColisionBarrida.impacto(0, 45, 10, 10, 0, -100, 0, 40, 10, 50));
+        // En diagonal cruza la esquina
+        assertTrue(ColisionBarrida.impacto(0, 0, 10, 10, 100, 100, 45, 45, 55, 55) < ColisionBarrida.escala(100, 100));
+        assertEquals(ColisionBarrida.SIN_IMPACTO, ColisionBarrida.impacto(0, 0, 10, 10, 100, 0, 45, 45, 55, 55));
+    }
+
+    @Test
+    public void disparoRapido_noAtraviesaLaFormacionYAciertaAlPrimero() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        Formacion f = sim.getFormacion();
+        int col = 3;
+        int ultimaFila = f.getFilas() - 1;
+
+        // Sale justo por debajo del bloque y en un tick acabaria por encima
+        int velocidad = f.abajoVivo() - f.getOrigenY() + 2 * sim.getEntidades().getAltoTipo(Simulacion.DISPARO_JUGADOR);
+        sim.getEntidades().crearCentrada(Simulacion.DISPARO_JUGADOR, f.centroColumna(col), f.abajoVivo() + 1,
+                0, -velocidad);
+        sim.tick();
+
+        assertFalse(f.estaVivo(ultimaFila * f.getColumnas() + col));
+        assertEquals(f.getFilas() * f.getColumnas() - 1, f.getVivos());
+        assertEquals(10, sim.getPuntuacion());
+        assertEquals(0, sim.getEntidades().getCantidad());
+    }
+}
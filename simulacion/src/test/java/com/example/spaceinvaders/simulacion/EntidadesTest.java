@@ -0,0 +1,81 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EntidadesTest {
+
+    private static final byte BALA = 0;
+    private static final byte BOMBA = 1;
+
+    private static Entidades conDosTipos(int capacidad) {
+        Entidades entidades = new Entidades(capacidad);
+        assertEquals(BALA, entidades.registrarTipo("bala", Entidades.JUGADOR));
+        assertEquals(BOMBA, entidades.registrarTipo("bomba", Entidades.ENEMIGO));
+        entidades.setTamanio(BALA, 6, 100);
+        entidades.setTamanio(BOMBA, 6, 100);
+        return entidades;
+    }
+
+    @Test
+    public void eliminar_mueveLaUltimaAlHueco() {
+        Entidades entidades = conDosTipos(4);
+        entidades.crearCentrada(BALA, 100, 1000, 0, -10);
+        entidades.crearCentrada(BOMBA, 200, 1000, 0, 10);
+        entidades.crearCentrada(BALA, 300, 1000, 0, -10);
+
+        entidades.eliminar(0);
+
+        assertEquals(2, entidades.getCantidad());
+        assertEquals(300 - 3, entidades.getX(0));
+        assertEquals(900, entidades.getY(0));
+        assertEquals(Entidades.ENEMIGO, entidades.getFaccion(1));
+        assertEquals(BOMBA, entidades.getTipo(1));
+    }
+
+    @Test
+    public void descartarFuera_eliminaLasQueSalenDelMundo() {
+        Entidades entidades = conDosTipos(2);
+        for (int i = 0; i < 1000; i++) {
+            entidades.crearCentrada(i % 2 == 0 ? BALA : BOMBA, i, 500, 0, i % 2 == 0 ? -100 : 100);
+        }
+        int capacidad = entidades.getCapacidad();
+
+        for (int tick = 0; tick < 10; tick++) {
+            entidades.integrar();
+            entidades.descartarFuera(1000, 1000);
+        }
+
+        assertEquals(0, entidades.getCantidad());
+        // Reutilizar el almacen no vuelve a reservar memoria
+        for (int i = 0; i < 1000; i++) {
+            entidades.crearCentrada(BALA, i, 500, 0, -100);
+        }
+        assertEquals(capacidad, entidades.getCapacidad());
+    }
+
+    @Test
+    public void tipoNuevo_loMuevenLosMismosSistemas() {
+        Entidades entidades = conDosTipos(4);
+        byte ovni = entidades.registrarTipo("ovni", Entidades.ENEMIGO);
+        entidades.setTamanio(ovni, 40, 20);
+        entidades.crear(ovni, 0, 50, 30, 0);
+        entidades.crearCentrada(BALA, 50, 900, 0, -10);
+
+        entidades.integrar();
+        entidades.descartarFuera(100, 1000);
+        assertEquals(30, entidades.getX(0));
+        assertEquals(0, entidades.getXAnterior(0));
+        assertEquals(40, entidades.getAncho(0));
+        assertEquals(790, entidades.getY(1));
+
+        // Sale por la derecha sin que nadie tenga que saber que es un ovni
+        for (int tick = 0; tick < 3; tick++) {
+            entidades.integrar();
+            entidades.descartarFuera(100, 1000);
+        }
+        assertEquals(1, entidades.getCantidad());
+        assertEquals(BALA, entidades.getTipo(0));
+    }
+}
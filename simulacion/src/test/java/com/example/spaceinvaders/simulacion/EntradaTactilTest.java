@@ -0,0 +1,75 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EntradaTactilTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void dedoDeArrastreYDedoDeDisparo() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        EntradaTactil tactil = new EntradaTactil(sim.getEntrada());
+        int objetivo = Simulacion.ANCHO_MUNDO / 4 + 7;
+
+        // El primer dedo dispara al bajar y la nave llega justo a el
+        tactil.abajo(3, objetivo, 0);
+        sim.tick();
+        assertEquals(1, disparosJugador(sim));
+        for (int t = 1; t < 120; t++) {
+            tactil.muestra(objetivo, t * 16 * MS);
+            tactil.mover(t * 16 * MS);
+            sim.tick();
+        }
+        assertEquals(objetivo, sim.getJugador().getBounds().centroX());
+
+        // Un segundo dedo dispara sin llevarse la nave
+        int antes = disparosJugador(sim);
+        tactil.abajo(8, Simulacion.ANCHO_MUNDO - 1, 2000 * MS);
+        sim.tick();
+        assertEquals(antes + 1, disparosJugador(sim));
+        assertEquals(objetivo, sim.getJugador().getBounds().centroX());
+
+        // Soltar el de disparo no detiene el arrastre; soltar el de arrastre si
+        tactil.arriba(8, 2010 * MS);
+        assertEquals(3, tactil.getDedoArrastre());
+        tactil.arriba(3, 2020 * MS);
+        assertEquals(EntradaTactil.NINGUNO, tactil.getDedoArrastre());
+        tactil.mover(2030 * MS);
+        assertEquals(1, sim.getEntrada().getPendientes()); // solo el SOLTAR: sin dedo no hay MOVER
+    }
+
+    @Test
+    public void prediccion_adelantaElArrastreSinPasarseAlFrenar() {
+        PredictorToque p = new PredictorToque();
+        assertEquals(-1, p.predecir(10 * MS), 0f);
+
+        // 2000 unidades/s con muestras cada 4 ms
+        for (int i = 0; i <= 10; i++) {
+            p.anotar(1000 + 8 * i, 4 * i * MS);
+        }
+        assertEquals(2000, p.velocidad(), 1f);
+        assertEquals(1080 + 40, p.predecir(20 * MS), 0.5f);
+        // El horizonte se acota
+        assertEquals(1080 + 2000 * PredictorToque.MAX_HORIZONTE_NANOS / 1e9f, p.predecir(1000 * MS), 0.5f);
+
+        // El dedo se para: no se predice mas alla de donde esta
+        p.anotar(1080, 44 * MS);
+        assertEquals(1080, p.predecir(20 * MS), 0f);
+        // Y si da la vuelta tampoco
+        p.anotar(1070, 48 * MS);
+        assertEquals(1070, p.predecir(20 * MS), 0f);
+    }
+
+    private static int disparosJugador(Simulacion sim) {
+        Entidades e = sim.getEntidades();
+        int n = 0;
+        for (int i = 0; i < e.getCantidad(); i++) {
+            if (e.getTipo(i) == Simulacion.DISPARO_JUGADOR) n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EscenaTest {
+
+    @Test
+    public void dibujar_unaLlamadaPorEntidadVivaMasFondoYMarcador() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        sim.disparar();
+        sim.tick();
+        Instantanea inst = new Instantanea();
+        inst.capturar(sim, 1, 0, false);
+        Escena escena = new Escena();
+        RendererGrabador grabador = new RendererGrabador();
+
+        assertTrue(grabador.comenzarFrame(1080, 2340));
+        int llamadas = escena.dibujar(inst, 0.5f, grabador);
+        grabador.terminarFrame();
+
+        assertEquals(28, grabador.getSprites(Renderer.INVASOR));
+        assertEquals(1, grabador.getSprites(Renderer.NAVE));
+        assertEquals(1, grabador.getSprites(Renderer.DISPARO_JUGADOR));
+        assertEquals(1, grabador.getFondos());
+        assertEquals(1, grabador.getPuntuaciones());
+        assertEquals(28 + 1 + 1 + 2, llamadas);
+        assertEquals(llamadas, grabador.getLlamadas());
+    }
+
+    @Test
+    public void dibujar_otroTipoDeEntidadConSuSpriteSuTamanioYSuXInterpolada() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        Entidades entidades = sim.getEntidades();
+        byte ovni = entidades.registrarTipo("ovni", Entidades.ENEMIGO);
+        entidades.setTamanio(ovni, 2000, 800);
+        int y = sim.getAlto() / 2;
+        entidades.crear(ovni, 1000, y, 600, 0);
+        sim.tick();
+        Instantanea inst = new Instantanea();
+        inst.capturar(sim, 1, 0, false);
+        Escena escena = new Escena(); // sin setPantalla: en unidades del mundo
+        RendererGrabador grabador = new RendererGrabador();
+
+        grabador.comenzarFrame(1080, 2340);
+        escena.dibujar(inst, 0.5f, grabador);
+        grabador.terminarFrame();
+
+        int sprite = Renderer.ENTIDAD + ovni;
+        assertEquals(1, grabador.getSprites(sprite));
+        assertEquals(0, grabador.getSprites(Renderer.DISPARO_JUGADOR));
+        assertEquals(2000, grabador.getAnchoSprite(sprite));
+        assertEquals(800, grabador.getAltoSprite(sprite));
+        // A mitad del tick, a mitad de camino entre 1000 y 1600
+        assertEquals(1300f, grabador.getUltimaX(sprite), 1f);
+        assertEquals(y, grabador.getUltimaY(sprite), 1f);
+    }
+
+    @Test
+    public void dibujar_pasaElMundoAPixelesConUnaSolaEscala() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        sim.tick();
+        Instantanea inst = new Instantanea();
+        inst.capturar(sim, 1, 0, false);
+        Escena escena = new Escena();
+        RendererGrabador grabador = new RendererGrabador();
+
+        // Misma proporcion: el mundo llena la pantalla
+        escena.setPantalla(540, 1170);
+        grabador.comenzarFrame(540, 1170);
+        escena.dibujar(inst, 0f, grabador);
+        grabador.terminarFrame();
+        Vista vista = escena.getVista();
+        assertEquals(540f / Simulacion.ANCHO_MUNDO, vista.getEscala(), 1e-6f);
+        assertEquals(0f, vista.xPantalla(0), 1e-3f);
+        assertEquals(540f, vista.xPantalla(sim.getAncho()), 1e-2f);
+        assertEquals(1170f, vista.yPantalla(sim.getAlto()), 1f);
+        assertEquals(sim.getAncho() / 2f, vista.xMundo(270), 1f);
+
+        // Otra proporcion (antes de que llegue el giro): bandas a los lados
+        escena.setPantalla(2340, 1080);
+        grabador.comenzarFrame(2340, 1080);
+        escena.dibujar(inst, 0f, grabador);
+        grabador.terminarFrame();
+        assertEquals(0f, vista.yPantalla(0), 1e-3f);
+        assertEquals(1080f, vista.yPantalla(sim.getAlto()), 1f);
+        assertEquals(2340f / 2, vista.xPantalla(sim.getAncho() / 2f), 1f);
+    }
+
+    @Test
+    public void dibujar_partidaTerminadaSoloEmiteLaPantallaDeFin() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340, 1, 1);
+        int objetivo = sim.getFormacion().centroColumna(0);
+        for (int i = 0; i < 400 && !sim.terminada(); i++) {
+            sim.setObjetivoX(objetivo);
+            if (i % 20 == 0) sim.disparar();
+            sim.tick();
+        }
+        assertTrue(sim.isVictoria());
+        Instantanea inst = new Instantanea();
+        inst.capturar(sim, 1, 0, false);
+        Escena escena = new Escena();
+        RendererGrabador grabador = new RendererGrabador();
+
+        grabador.comenzarFrame(1080, 2340);
+        assertEquals(1, escena.dibujar(inst, 0f, grabador));
+        grabador.terminarFrame();
+
+        assertEquals(1, grabador.getPantallasFin());
+        assertEquals(1, grabador.getLlamadas());
+        assertEquals(sim.getPuntuacion(), grabador.getUltimaPuntuacion());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FormacionTest {
+
+    @Test
+    public void eliminar_actualizaLosExtremosVivos() {
+        Formacion f = new Formacion();
+        f.configurar(4, 7, 100, 200, 50, 60, 70);
+        assertEquals(100, f.izquierdaViva());
+        assertEquals(100 + 6 * 60 + 50, f.derechaViva());
+        assertEquals(200 + 3 * 70 + 50, f.abajoVivo());
+
+        // Vaciar la columna izquierda y la fila inferior
+        for (int fila = 0; fila < 4; fila++) f.eliminar(fila * 7);
+        for (int col = 0; col < 7; col++) f.eliminar(3 * 7 + col);
+
+        assertEquals(100 + 60, f.izquierdaViva());
+        assertEquals(200 + 2 * 70 + 50, f.abajoVivo());
+        assertEquals(28 - 4 - 6, f.getVivos());
+    }
+
+    @Test
+    public void enesimoVivo_recorreElBitsetEnOrden() {
+        Formacion f = new Formacion();
+        f.configurar(20, 30, 0, 0, 10, 12, 12); // 600 enemigos: varias palabras
+        for (int i = 0; i < 600; i += 2) f.eliminar(i);
+
+        assertEquals(300, f.getVivos());
+        for (int n = 0; n < 300; n++) {
+            assertEquals(2 * n + 1, f.enesimoVivo(n));
+        }
+    }
+
+    @Test
+    public void desplazar_moveLasCajasDerivadas() {
+        Formacion f = new Formacion();
+        f.configurar(2, 2, 0, 0, 10, 20, 30);
+        Limites l = new Limites(0, 0, 0, 0);
+        f.desplazar(5, 7);
+        f.limites(3, l);
+
+        assertEquals(25, l.izquierda);
+        assertEquals(37, l.arriba);
+        assertEquals(10, l.ancho());
+    }
+}
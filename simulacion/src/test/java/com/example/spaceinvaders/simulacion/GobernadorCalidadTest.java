@@ -0,0 +1,80 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GobernadorCalidadTest {
+
+    private static final long PERIODO = 16_666_667L; // 60 Hz
+
+    @Test
+    public void carga_bajaUnNivelPorVentanaYSubeConMargen() {
+        GobernadorCalidad g = new GobernadorCalidad();
+        assertTrue(g.conSuavizado());
+
+        // Frames de 15 ms: una ventana por nivel hasta la media frecuencia
+        for (int nivel = GobernadorCalidad.SIN_SUAVIZADO; nivel <= GobernadorCalidad.MEDIA_FRECUENCIA; nivel++) {
+            ventana(g, 15_000_000L);
+            assertEquals(nivel, g.getNivel());
+            assertEquals(GobernadorCalidad.MOTIVO_CARGA, g.getMotivo());
+        }
+        assertFalse(g.conSuavizado());
+        assertFalse(g.conAntenas());
+        assertEquals(2, g.getDivisorFrames());
+        ventana(g, 15_000_000L);
+        assertEquals(GobernadorCalidad.MEDIA_FRECUENCIA, g.getNivel());
+
+        // Entre un umbral y otro no se mueve; con margen sube de uno en uno
+        for (int i = 0; i < 10; i++) {
+            ventana(g, 11_000_000L);
+        }
+        assertEquals(GobernadorCalidad.MEDIA_FRECUENCIA, g.getNivel());
+        for (int i = 1; i < GobernadorCalidad.VENTANAS_PARA_SUBIR; i++) {
+            ventana(g, 4_000_000L);
+        }
+        assertEquals(GobernadorCalidad.MEDIA_FRECUENCIA, g.getNivel());
+        ventana(g, 4_000_000L);
+        assertEquals(GobernadorCalidad.SIN_ANTENAS, g.getNivel());
+        assertEquals(GobernadorCalidad.MOTIVO_MARGEN, g.getMotivo());
+        assertEquals(1, g.getDivisorFrames());
+
+        // Unos pocos frames lentos sueltos no bajan el nivel
+        for (int i = 0; i < GobernadorCalidad.FRAMES_VENTANA; i++) {
+            g.registrarFrame(i < GobernadorCalidad.FRAMES_JUSTOS_PARA_BAJAR ? 20_000_000L : 4_000_000L, PERIODO);
+        }
+        assertEquals(GobernadorCalidad.SIN_ANTENAS, g.getNivel());
+        assertEquals(4, g.getCambios());
+    }
+
+    @Test
+    public void termico_fijaUnNivelMinimoMientrasDura() {
+        GobernadorCalidad g = new GobernadorCalidad();
+        g.setEstadoTermico(GobernadorCalidad.TERMICO_MODERADO);
+        assertTrue(g.registrarFrame(1_000_000L, PERIODO));
+        assertEquals(GobernadorCalidad.SIN_ANTENAS, g.getNivel());
+        assertEquals(GobernadorCalidad.MOTIVO_TERMICO, g.getMotivo());
+
+        // Aunque sobre margen no sube por debajo del minimo termico
+        for (int i = 0; i < 2 * GobernadorCalidad.VENTANAS_PARA_SUBIR; i++) {
+            ventana(g, 1_000_000L);
+        }
+        assertEquals(GobernadorCalidad.SIN_ANTENAS, g.getNivel());
+
+        g.setEstadoTermico(6); // THERMAL_STATUS_SHUTDOWN
+        assertTrue(g.actualizarNivel());
+        assertEquals(GobernadorCalidad.MEDIA_FRECUENCIA, g.getNivel());
+
+        g.setEstadoTermico(GobernadorCalidad.TERMICO_NINGUNO);
+        assertTrue(g.actualizarNivel());
+        assertEquals(GobernadorCalidad.COMPLETA, g.getNivel());
+        assertEquals(GobernadorCalidad.MOTIVO_TERMICO, g.getMotivo());
+        assertFalse(g.actualizarNivel());
+    }
+
+    private static void ventana(GobernadorCalidad g, long nanosPorFrame) {
+        for (int i = 0; i < GobernadorCalidad.FRAMES_VENTANA; i++) {
+            g.registrarFrame(nanosPorFrame, PERIODO);
+        }
+    }
+}
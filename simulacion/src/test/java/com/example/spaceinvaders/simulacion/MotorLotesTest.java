@@ -0,0 +1,41 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MotorLotesTest {
+
+    @Test
+    public void enParalelo_mismoResultadoQueUnaEjecucionSecuencial() {
+        String oleadas = GeneradorOleadas.unica(3, 5).getTexto();
+        int partidas = 120;
+
+        EjecutorHeadless secuencial = new EjecutorHeadless(1080, 2340, 9, GeneradorOleadas.leer(oleadas));
+        ResultadoLote esperado = new ResultadoLote();
+        for (int i = 0; i < partidas; i++) {
+            long pasos = secuencial.jugarPartida();
+            esperado.anotar(secuencial.getSimulacion(), pasos);
+        }
+
+        MotorLotes motor = new MotorLotes(4);
+        try {
+            ResultadoLote[] barrido = motor.barrer(1080, 2340,
+                    new String[]{oleadas, "3x5 mover=12 disparo=12 rafaga=3"}, 9, partidas);
+            ResultadoLote paralelo = barrido[0];
+            assertEquals(partidas, paralelo.getPartidas());
+            assertEquals(esperado.getVictorias(), paralelo.getVictorias());
+            assertEquals(esperado.getTicksTotales(), paralelo.getTicksTotales());
+            assertEquals(esperado.getPuntuacionTotal(), paralelo.getPuntuacionTotal());
+            assertEquals(esperado.getOleadasSuperadas(), paralelo.getOleadasSuperadas());
+            assertEquals(esperado.getPuntuacion().percentil(0.5), paralelo.getPuntuacion().percentil(0.5));
+            assertEquals(esperado.getTicksVictoria().getMaximo(), paralelo.getTicksVictoria().getMaximo());
+            assertEquals(esperado.getVictorias(), paralelo.getTicksVictoria().getCuenta());
+
+            // Invasores mas rapidos y agresivos: el bot gana menos
+            assertTrue(barrido[1].getTasaVictorias() < paralelo.getTasaVictorias());
+        } finally {
+            motor.cerrar();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OleadasTest {
+
+    @Test
+    public void leer_campaniaConPatronesYVueltasMasRapidas() {
+        GeneradorOleadas g = GeneradorOleadas.campania();
+        assertEquals(28, g.get(0).getInvasores());
+        Oleada conHuecos = g.get(1);
+        assertTrue(conHuecos.tienePatron());
+        assertEquals(45 - 6, conHuecos.getInvasores());
+        assertFalse(conHuecos.estaOcupada(9 + 1));
+        assertEquals(3, g.get(4).getRafaga());
+
+        // "repetir": la sexta es la primera otra vez, mas rapida
+        assertTrue(g.hay(1000));
+        Oleada vuelta = g.get(5);
+        assertEquals(4, vuelta.getFilas());
+        assertEquals(Simulacion.INTERVALO_MOVIMIENTO_ENEMIGOS * 3 / 4, vuelta.getIntervaloMovimiento());
+        assertEquals(2, vuelta.getRafaga());
+        assertSame(vuelta, g.get(5));
+
+        GeneradorOleadas copia = GeneradorOleadas.leer(g.getTexto());
+        assertEquals(g.get(3).getInvasores(), copia.get(3).getInvasores());
+    }
+
+    @Test
+    public void leer_textoNoValidoIndicaLaLinea() {
+        String[] malos = {"", "4x0", "2x2 patron=XX", "2x2 patron=../..", "3x3 velocidad=2", "estres 0", "4x7\nestres 100"};
+        for (String texto : malos) {
+            try {
+                GeneradorOleadas.leer(texto);
+                fail("deberia rechazar: " + texto);
+            } catch (IllegalArgumentException esperada) {
+                // ok
+            }
+        }
+        try {
+            GeneradorOleadas.leer("# comentario\n4x7\n2y3");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Linea 3"));
+        }
+    }
+
+    @Test
+    public void estres_milesDeInvasoresCadaOleadaMasRapida() {
+        GeneradorOleadas g = GeneradorOleadas.estres(5000);
+        Oleada primera = g.get(0);
+        assertTrue(primera.getInvasores() >= 5000);
+        assertTrue(primera.getInvasores() < 5000 + primera.getFilas());
+        assertTrue(primera.getRafaga() > 1);
+        assertTrue(g.get(3).getIntervaloMovimiento() < primera.getIntervaloMovimiento());
+
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340, g, 1);
+        assertEquals(primera.getInvasores(), sim.getFormacion().getVivos());
+        // La formacion cabe en pantalla aunque sea enorme
+        Formacion f = sim.getFormacion();
+        assertTrue(f.getOrigenX() >= 0);
+        assertTrue(f.getOrigenX() + f.getColumnas() * f.getEspacioH() <= sim.getAncho());
+        for (int i = 0; i < 600 && !sim.terminada(); i++) {
+            sim.tick();
+        }
+    }
+
+    @Test
+    public void simulacion_pasaDeOleadaYGanaTrasLaUltima() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340, GeneradorOleadas.leer("1x3\n2x2 patron=X./.X"), 3);
+        assertEquals(3, sim.getFormacion().getVivos());
+
+        vaciarFormacion(sim);
+        sim.tick();
+        assertEquals(1, sim.getNumeroOleada());
+        assertFalse(sim.terminada());
+        assertEquals(2, sim.getFormacion().getVivos());
+        assertEquals(2, sim.getFormacion().getColumnas());
+
+        vaciarFormacion(sim);
+        sim.tick();
+        assertTrue(sim.isVictoria());
+
+        sim.reiniciar();
+        assertEquals(0, sim.getNumeroOleada());
+        assertEquals(3, sim.getFormacion().getVivos());
+    }
+
+    @Test
+    public void repeticion_guardaLasOleadas() {
+        EjecutorHeadless ejecutor = new EjecutorHeadless(1080, 2340, 5, GeneradorOleadas.campania());
+        GrabadorRepeticion grabador = new GrabadorRepeticion();
+        ejecutor.setGrabador(grabador);
+        ejecutor.jugarPartida();
+        Simulacion original = ejecutor.getSimulacion();
+
+        Repeticion repeticion = Repeticion.leer(grabador.toByteArray(original.getTicks()));
+        assertEquals(GeneradorOleadas.CAMPANIA, repeticion.getOleadas());
+        Simulacion copia = new ReproductorRepeticion(repeticion).reproducir();
+        assertEquals(original.getPuntuacion(), copia.getPuntuacion());
+        assertEquals(original.getNumeroOleada(), copia.getNumeroOleada());
+    }
+
+    private static void vaciarFormacion(Simulacion sim) {
+        Formacion f = sim.getFormacion();
+        for (int i = 0; i < f.getTotal(); i++) {
+            if (f.estaVivo(i)) f.eliminar(i);
+        }
+    }
+}
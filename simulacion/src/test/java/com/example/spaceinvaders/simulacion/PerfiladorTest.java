@@ -0,0 +1,66 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PerfiladorTest {
+
+    @Test
+    public void histograma_percentilesConErrorRelativoAcotado() {
+        Histograma h = new Histograma();
+        for (long v = 1; v <= 100_000; v++) {
+            h.registrar(v * 1_000); // 1 us .. 100 ms, uniforme
+        }
+        assertEquals(100_000, h.getCuenta());
+        assertEquals(100_000_000, h.getMaximo());
+        long[][] esperados = {{50, 50_000_000}, {95, 95_000_000}, {99, 99_000_000}};
+        for (long[] e : esperados) {
+            long p = h.percentil(e[0] / 100.0);
+            assertTrue("p" + e[0] + " = " + p, p >= e[1] && p <= e[1] * 1.0625);
+        }
+        assertEquals(h.getMaximo(), h.percentil(1.0));
+
+        h.reiniciar();
+        assertEquals(0, h.percentil(0.5));
+        h.registrar(7);
+        assertEquals(7, h.percentil(0.5)); // valores pequenios: cubeta exacta
+    }
+
+    @Test
+    public void simulacion_publicaUnResumenPorVentanaYVuelcaCsv() throws Exception {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        ResumenPerfil resumen = sim.getPerfilador().getResumen();
+        for (int i = 0; i < Simulacion.TICKS_POR_SEGUNDO - 1; i++) {
+            sim.tick();
+        }
+        assertEquals(0, resumen.getVersion());
+        sim.tick();
+        assertEquals(1, resumen.getVersion());
+        assertEquals(28, resumen.getContador(Simulacion.CONTADOR_ENEMIGOS));
+        for (int f = 0; f < resumen.getNumFases(); f++) {
+            assertTrue(resumen.getP50(f) <= resumen.getP99(f));
+            assertTrue(resumen.getP99(f) <= resumen.getMaximo(f));
+        }
+        // El tick envuelve a las demas fases
+        assertTrue(resumen.getMaximo(Simulacion.FASE_TICK) >= resumen.getMaximo(Simulacion.FASE_ENTRADA));
+
+        StringBuilder csv = new StringBuilder();
+        sim.getPerfilador().escribirCsv(csv);
+        String[] lineas = csv.toString().split("\n");
+        assertEquals(1 + Simulacion.FASES.length + 1 + Simulacion.CONTADORES.length, lineas.length);
+        assertTrue(lineas[1].startsWith("tick," + Simulacion.TICKS_POR_SEGUNDO + ","));
+
+        // A 30 Hz la ventana sigue siendo un segundo de juego
+        sim.setFrecuencia(30);
+        sim.inicializar(1080, 2340);
+        int version = resumen.getVersion();
+        for (int i = 0; i < 29; i++) {
+            sim.tick();
+        }
+        assertEquals(version, resumen.getVersion());
+        sim.tick();
+        assertEquals(version + 1, resumen.getVersion());
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RedTest {
+
+    @Test
+    public void bits_seLeenIgualQueSeEscribieron() {
+        byte[] paquete = new byte[256];
+        EscritorBits e = new EscritorBits();
+        e.reiniciar(paquete);
+        long[] valores = {0, 1, -1, 2, 63, -64, 1_000_000, Integer.MIN_VALUE, Integer.MAX_VALUE, 1L << 40};
+        for (long v : valores) {
+            e.escribirEntero(v);
+            e.escribir(v, 7);
+            e.escribirBooleano(v > 0);
+        }
+        e.escribirNatural(0);
+        e.escribir(0xDEAD_BEEF_CAFEL, 64);
+        int longitud = e.terminar();
+        assertEquals((e.getBits() + 7) / 8, longitud);
+
+        LectorBits l = new LectorBits();
+        l.reiniciar(paquete, longitud);
+        for (long v : valores) {
+            assertEquals(v, l.leerEntero());
+            assertEquals(v & 0x7F, l.leer(7));
+            assertEquals(v > 0, l.leerBooleano());
+        }
+        assertEquals(0, l.leerNatural());
+        assertEquals(0xDEAD_BEEF_CAFEL, l.leer(64));
+
+        // Un paquete cortado no lee fuera
+        l.reiniciar(paquete, 3);
+        try {
+            for (int i = 0; i < 100; i++) l.leerEntero();
+            fail();
+        } catch (IllegalArgumentException esperada) {
+            // ok
+        }
+    }
+
+    @Test
+    public void loopbackConPerdidas_elClienteVeLoMismoQueElServidor() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340, GeneradorOleadas.estres(1200), 7);
+        // Un tipo que no es un disparo: otro tamanio y movimiento horizontal
+        byte ovni = sim.getEntidades().registrarTipo("ovni", Entidades.ENEMIGO);
+        sim.getEntidades().setTamanio(ovni, 2000, 800);
+        sim.getEntidades().crear(ovni, 0, sim.getAlto() / 2, 90, 0);
+        TransporteLocal[] par = TransporteLocal.crearPar(8, 64 * 1024);
+        par[0].setPerdida(5);
+        par[1].setPerdida(7);
+        ServidorPartida servidor = new ServidorPartida(sim, par[0]);
+        ClientePartida cliente = new ClientePartida(par[1]);
+        Instantanea vista = new Instantanea();
+        Aleatorio azar = new Aleatorio(3);
+
+        int recibidas = 0;
+        for (int t = 0; t < 600; t++) {
+            if (t % 10 == 0) {
+                cliente.publicar(ColaEntrada.PULSAR, azar.siguienteInt(Simulacion.ANCHO_MUNDO));
+            }
+            servidor.tick();
+            if (cliente.actualizar(vista, 0)) {
+                recibidas++;
+                assertIguales(servidor.getInstantanea(), vista);
+            }
+        }
+        assertTrue(recibidas > 400);
+        assertTrue(par[0].getPerdidos() > 0);
+        assertTrue(sim.getPartidasTerminadas() + sim.getPuntuacion() > 0); // la entrada remota llega
+
+        // La mayoria va como delta y ocupa mucho menos que una completa
+        CodificadorInstantaneas cod = servidor.getCodificador();
+        assertTrue(cod.getCompletas() < cod.getPaquetes() / 10);
+        byte[] completa = new byte[64 * 1024];
+        int bytesCompleta = new CodificadorInstantaneas().codificar(servidor.getInstantanea(), completa);
+        assertTrue(cod.getBytes() / cod.getPaquetes() * 4 < bytesCompleta);
+    }
+
+    @Test
+    public void paqueteDanadoTrasUnoBueno_seQuedaLaInstantaneaBuena() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        TransporteLocal[] par = TransporteLocal.crearPar(8, 16 * 1024);
+        ServidorPartida servidor = new ServidorPartida(sim, par[0]);
+        ClientePartida cliente = new ClientePartida(par[1]);
+        Instantanea vista = new Instantanea();
+
+        servidor.tick();
+        // Tras el bueno, uno que promete un tick nuevo completo y se corta
+        byte[] danado = new byte[16];
+        EscritorBits e = new EscritorBits();
+        e.reiniciar(danado);
+        e.escribirNatural(1_000_000);
+        e.escribirNatural(0);
+        par[0].enviar(danado, e.terminar());
+
+        assertTrue(cliente.actualizar(vista, 0));
+        assertEquals(1, cliente.getPaquetesDanados());
+        assertIguales(servidor.getInstantanea(), vista);
+    }
+
+    @Test
+    public void instantaneaQueNoCabe_noSeEnviaYLaPartidaSigue() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340, GeneradorOleadas.estres(5000), 7);
+        TransporteLocal[] par = TransporteLocal.crearPar(8, 32); // una completa ocupa ~40
+        ServidorPartida servidor = new ServidorPartida(sim, par[0]);
+        ClientePartida cliente = new ClientePartida(par[1]);
+        Instantanea vista = new Instantanea();
+
+        for (int t = 0; t < 10; t++) {
+            servidor.tick();
+            assertFalse(cliente.actualizar(vista, 0));
+        }
+        assertEquals(10, sim.getTicks());
+        assertEquals(10, servidor.getDemasiadoGrandes());
+        assertEquals(0, servidor.getCodificador().getPaquetes());
+    }
+
+    @Test
+    public void paqueteQueCabeSalvoElUltimoByteAMedias_noSeEnvia() {
+        // 9 bits en un byte: el ultimo bit ya no cabe
+        EscritorBits e = new EscritorBits();
+        e.reiniciar(new byte[1]);
+        e.escribir(0, 8);
+        try {
+            e.escribir(1, 1);
+            fail();
+        } catch (IllegalArgumentException esperada) {
+            // ok
+        }
+
+        // Una completa de la partida clasica en un transporte un byte mas corto
+        Simulacion referencia = new Simulacion();
+        referencia.inicializar(1080, 2340);
+        referencia.tick();
+        Instantanea inst = new Instantanea();
+        inst.capturar(referencia, referencia.getTicks(), 0, false);
+        int longitud = new CodificadorInstantaneas().codificar(inst, new byte[4096]);
+
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        ServidorPartida servidor = new ServidorPartida(sim, TransporteLocal.crearPar(8, longitud - 1)[0]);
+        servidor.tick();
+        assertEquals(1, servidor.getDemasiadoGrandes());
+
+        sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        servidor = new ServidorPartida(sim, TransporteLocal.crearPar(8, longitud)[0]);
+        servidor.tick();
+        assertEquals(0, servidor.getDemasiadoGrandes());
+    }
+
+    private static void assertIguales(Instantanea a, Instantanea b) {
+        assertEquals(a.getTick(), b.getTick());
+        assertEquals(a.isGameOver(), b.isGameOver());
+        assertEquals(a.isVictoria(), b.isVictoria());
+        assertEquals(a.getPuntuacion(), b.getPuntuacion());
+        assertEquals(a.getPartidasTerminadas(), b.getPartidasTerminadas());
+        assertEquals(a.getPuntuacionFinal(), b.getPuntuacionFinal());
+        assertEquals(a.getOleadaFinal(), b.getOleadaFinal());
+        assertEquals(a.getAnchoMundo(), b.getAnchoMundo());
+        assertEquals(a.getAltoMundo(), b.getAltoMundo());
+        assertEquals(a.jugadorIzquierdaInterpolada(0), b.jugadorIzquierdaInterpolada(0), 0f);
+        assertEquals(a.jugadorIzquierdaInterpolada(1), b.jugadorIzquierdaInterpolada(1), 0f);
+        assertEquals(a.getJugadorArriba(), b.getJugadorArriba());
+        assertEquals(a.getJugadorAncho(), b.getJugadorAncho());
+        assertEquals(a.getJugadorAlto(), b.getJugadorAlto());
+        assertEquals(a.getFilas(), b.getFilas());
+        assertEquals(a.getColumnas(), b.getColumnas());
+        assertEquals(a.getOrigenX(), b.getOrigenX());
+        assertEquals(a.getOrigenY(), b.getOrigenY());
+        assertEquals(a.getTamEnemigo(), b.getTamEnemigo());
+        assertEquals(a.getEspacioH(), b.getEspacioH());
+        assertEquals(a.getEspacioV(), b.getEspacioV());
+        assertEquals(a.getVivos(), b.getVivos());
+        for (int i = 0; i < a.getTotalEnemigos(); i++) {
+            assertEquals(a.estaVivo(i), b.estaVivo(i));
+        }
+        assertEquals(a.getNumTipos(), b.getNumTipos());
+        for (int t = 0; t < a.getNumTipos(); t++) {
+            assertEquals(a.getAnchoTipo(t), b.getAnchoTipo(t));
+            assertEquals(a.getAltoTipo(t), b.getAltoTipo(t));
+        }
+        assertEquals(a.getNumEntidades(), b.getNumEntidades());
+        for (int i = 0; i < a.getNumEntidades(); i++) {
+            assertEquals(a.getEntidadTipo(i), b.getEntidadTipo(i));
+            assertEquals(a.getEntidadFaccion(i), b.getEntidadFaccion(i));
+            assertEquals(a.entidadXInterpolada(i, 0), b.entidadXInterpolada(i, 0), 0f);
+            assertEquals(a.entidadXInterpolada(i, 1), b.entidadXInterpolada(i, 1), 0f);
+            assertEquals(a.entidadYInterpolada(i, 0), b.entidadYInterpolada(i, 0), 0f);
+            assertEquals(a.entidadYInterpolada(i, 1), b.entidadYInterpolada(i, 1), 0f);
+        }
+    }
+}
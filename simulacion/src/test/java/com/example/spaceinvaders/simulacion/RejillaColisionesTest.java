@@ -0,0 +1,67 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RejillaColisionesTest {
+
+    @Test
+    public void consultar_coincideConLaFuerzaBruta() {
+        Random random = new Random(42);
+        int ancho = 1080;
+        int alto = 2340;
+        int n = 600; // cientos de invasores, algunos fuera del mundo
+        int[][] cajas = new int[n][];
+        RejillaColisiones rejilla = new RejillaColisiones(8);
+        rejilla.configurar(0, 0, 40, ancho, alto);
+        for (int i = 0; i < n; i++) {
+            int x = random.nextInt(ancho + 200) - 100;
+            int y = random.nextInt(alto + 200) - 100;
+            int w = 1 + random.nextInt(120);
+            int h = 1 + random.nextInt(120);
+            cajas[i] = new int[]{x, y, x + w, y + h};
+            rejilla.insertar(i, RejillaColisiones.ENEMIGO, x, y, x + w, y + h);
+        }
+        rejilla.construir();
+
+        for (int q = 0; q < 500; q++) {
+            int x = random.nextInt(ancho) - 50;
+            int y = random.nextInt(alto) - 50;
+            int x2 = x + 6;
+            int y2 = y + 90;
+            boolean[] esperado = new boolean[n];
+            int totalEsperado = 0;
+            for (int i = 0; i < n; i++) {
+                int[] c = cajas[i];
+                if (c[0] < x2 && x < c[2] && c[1] < y2 && y < c[3]) {
+                    esperado[i] = true;
+                    totalEsperado++;
+                }
+            }
+
+            int encontrados = rejilla.consultar(x, y, x2, y2, RejillaColisiones.ENEMIGO);
+            assertEquals(totalEsperado, encontrados);
+            for (int k = 0; k < encontrados; k++) {
+                assertTrue(esperado[rejilla.getId(rejilla.getResultado(k))]);
+            }
+        }
+    }
+
+    @Test
+    public void consultar_filtraPorCategoria() {
+        RejillaColisiones rejilla = new RejillaColisiones(4);
+        rejilla.configurar(0, 0, 100, 1000, 1000);
+        rejilla.insertar(7, RejillaColisiones.JUGADOR, 0, 0, 50, 50);
+        rejilla.insertar(8, RejillaColisiones.ENEMIGO, 0, 0, 50, 50);
+        rejilla.construir();
+
+        assertEquals(1, rejilla.consultar(10, 10, 20, 20, RejillaColisiones.JUGADOR));
+        assertEquals(7, rejilla.getId(rejilla.getResultado(0)));
+        assertEquals(2, rejilla.consultar(10, 10, 20, 20,
+                RejillaColisiones.JUGADOR | RejillaColisiones.ENEMIGO));
+        assertEquals(0, rejilla.consultar(10, 10, 20, 20, RejillaColisiones.ESCUDO));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RepeticionTest {
+
+    @Test
+    public void reproducir_partidaGrabadaTerminaIgualTickATick() {
+        EjecutorHeadless ejecutor = new EjecutorHeadless(1080, 2340, 42);
+        GrabadorRepeticion grabador = new GrabadorRepeticion();
+        ejecutor.setGrabador(grabador);
+        long pasos = ejecutor.jugarPartida();
+        Simulacion original = ejecutor.getSimulacion();
+
+        Repeticion repeticion = Repeticion.leer(grabador.toByteArray(original.getTicks()));
+        assertEquals(42, repeticion.getSemilla());
+        assertEquals(pasos, repeticion.getDuracionTicks());
+        assertEquals(grabador.getEventos(), repeticion.getNumEventos());
+
+        ReproductorRepeticion reproductor = new ReproductorRepeticion(repeticion);
+        Simulacion copia = reproductor.reproducir();
+        assertEquals(original.getPuntuacion(), copia.getPuntuacion());
+        assertEquals(original.isVictoria(), copia.isVictoria());
+        assertEquals(original.isGameOver(), copia.isGameOver());
+        assertEquals(original.getFormacion().getVivos(), copia.getFormacion().getVivos());
+        assertEquals(original.getJugador().getBounds().izquierda, copia.getJugador().getBounds().izquierda);
+        assertEquals(pasos, copia.getTicks());
+    }
+
+    @Test
+    public void semilla_mismaSemillaMismaPartidaDistintaSemillaOtra() {
+        long[] resultados = new long[3];
+        long[] semillas = {7, 7, 8};
+        for (int i = 0; i < semillas.length; i++) {
+            EjecutorHeadless ejecutor = new EjecutorHeadless(1080, 2340, semillas[i]);
+            long pasos = ejecutor.jugarPartida();
+            resultados[i] = pasos * 100_000 + ejecutor.getSimulacion().getPuntuacion();
+        }
+        assertEquals(resultados[0], resultados[1]);
+
+        Aleatorio a = new Aleatorio(7);
+        Aleatorio b = new Aleatorio(8);
+        boolean distintas = false;
+        for (int i = 0; i < 16; i++) {
+            int x = a.siguienteInt(28);
+            assertTrue(x >= 0 && x < 28);
+            distintas |= x != b.siguienteInt(28);
+        }
+        assertTrue(distintas);
+    }
+}
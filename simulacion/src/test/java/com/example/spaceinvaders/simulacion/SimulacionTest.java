@@ -0,0 +1,208 @@
+package com.example.spaceinvaders.simulacion;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la simulacion en la JVM, sin dispositivo ni emulador.
+ */
+public class SimulacionTest {
+
+    @Test
+    public void inicializar_creaCuadriculaDe4x7() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+
+        assertEquals(28, sim.getFormacion().getVivos());
+        assertEquals(0, sim.getPuntuacion());
+        assertFalse(sim.terminada());
+    }
+
+    @Test
+    public void disparo_destruyeEnemigoYSuma10Puntos() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        // Colocar la nave bajo el primer enemigo y disparar
+        int objetivo = sim.getFormacion().centroColumna(0);
+        for (int i = 0; i < 200 && sim.getPuntuacion() == 0; i++) {
+            sim.setObjetivoX(objetivo);
+            if (i % 20 == 0) sim.disparar();
+            sim.tick();
+        }
+
+        assertEquals(10, sim.getPuntuacion());
+        assertEquals(27, sim.getFormacion().getVivos());
+    }
+
+    @Test
+    public void bucleFijo_cuentaTicksYLimitaLaRecuperacion() {
+        BucleFijo bucle = new BucleFijo(60, 5);
+        long tick = bucle.getNanosPorTick();
+
+        assertEquals(0, bucle.avanzar(0));
+        assertEquals(1, bucle.avanzar(tick + tick / 2));
+        assertEquals(0.5f, bucle.alfa(), 0.01f);
+        assertEquals(2, bucle.avanzar(3 * tick + tick / 2));
+        // Un frame de 1 s no debe convertirse en 60 ticks de recuperacion
+        assertEquals(5, bucle.avanzar(3 * tick + 1_000_000_000L));
+    }
+
+    @Test
+    public void marcapasosSintetico_a120HzProduceUnTickCadaDosFrames() {
+        MarcapasosSintetico marcapasos = new MarcapasosSintetico(120);
+        BucleFijo bucle = new BucleFijo(Simulacion.TICKS_POR_SEGUNDO, 5);
+
+        int ticks = 0;
+        for (int frame = 0; frame <= 120; frame++) {
+            ticks += bucle.avanzar(marcapasos.esperarFrame());
+        }
+        assertEquals(Simulacion.TICKS_POR_SEGUNDO, ticks);
+    }
+
+    @Test
+    public void ejecutorHeadless_terminaTodasLasPartidas() {
+        EjecutorHeadless ejecutor = new EjecutorHeadless(1080, 2340);
+        for (int i = 0; i < 20; i++) {
+            long pasos = ejecutor.jugarPartida();
+            assertTrue(pasos < EjecutorHeadless.MAX_PASOS_POR_PARTIDA);
+            assertTrue(ejecutor.getSimulacion().terminada());
+        }
+        assertEquals(20, ejecutor.getPartidas());
+    }
+
+    @Test
+    public void reiniciarYRedimensionar_noReservanMemoria() {
+        java.lang.management.ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+        if (!(hilos instanceof com.sun.management.ThreadMXBean)) return; // JVM sin la medida
+        com.sun.management.ThreadMXBean medida = (com.sun.management.ThreadMXBean) hilos;
+        long id = Thread.currentThread().getId();
+
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340, GeneradorOleadas.campania(), 1);
+        // Calentamiento: la primera vuelta reserva los arrays de la oleada
+        for (int i = 0; i < 100; i++) {
+            reiniciarYGirar(sim);
+        }
+        long antes = medida.getThreadAllocatedBytes(id);
+        for (int i = 0; i < 1000; i++) {
+            reiniciarYGirar(sim);
+        }
+        long reservados = medida.getThreadAllocatedBytes(id) - antes;
+        // Un solo objeto por reinicio ya sumaria decenas de KB
+        assertTrue("reservados " + reservados + " bytes", reservados < 1024);
+    }
+
+    private static void reiniciarYGirar(Simulacion sim) {
+        sim.disparar();
+        sim.tick();
+        sim.reiniciar();
+        sim.redimensionar(2340, 1080);
+        sim.redimensionar(1080, 2340);
+    }
+
+    @Test
+    public void mundo_igualEnCualquierResolucionConLaMismaProporcion() {
+        long[] pasos = new long[3];
+        int[] puntuaciones = new int[3];
+        int[][] pantallas = {{1080, 2340}, {540, 1170}, {720, 1560}};
+        for (int i = 0; i < pantallas.length; i++) {
+            EjecutorHeadless ejecutor = new EjecutorHeadless(pantallas[i][0], pantallas[i][1], 3,
+                    GeneradorOleadas.campania());
+            pasos[i] = ejecutor.jugarPartida();
+            puntuaciones[i] = ejecutor.getSimulacion().getPuntuacion();
+            assertEquals(Simulacion.ANCHO_MUNDO, ejecutor.getSimulacion().getAncho());
+            assertEquals(2340 * Simulacion.SUBUNIDADES, ejecutor.getSimulacion().getAlto());
+        }
+        assertEquals(pasos[0], pasos[1]);
+        assertEquals(pasos[0], pasos[2]);
+        assertEquals(puntuaciones[0], puntuaciones[1]);
+        assertEquals(puntuaciones[0], puntuaciones[2]);
+
+        // Otra resolucion con la misma proporcion no mueve nada
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        int arriba = sim.getJugador().getBounds().arriba;
+        sim.redimensionar(540, 1170);
+        assertEquals(arriba, sim.getJugador().getBounds().arriba);
+    }
+
+    @Test
+    public void redimensionar_conservaLaPartidaEnProporcion() {
+        int ancho = Simulacion.ANCHO_MUNDO;
+        int altoVertical = Simulacion.altoMundo(1080, 2340);
+        int altoApaisado = Simulacion.altoMundo(2340, 1080);
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340);
+        assertEquals(altoVertical, sim.getAlto());
+        sim.getFormacion().eliminar(0);
+        sim.getFormacion().eliminar(6); // la columna izquierda y la derecha de la fila 0 siguen vivas
+        for (int i = 0; i < 40; i++) {
+            sim.setObjetivoX(ancho * 5 / 6);
+            sim.tick();
+        }
+        sim.disparar();
+        int vivos = sim.getFormacion().getVivos();
+        int puntuacion = sim.getPuntuacion();
+        int centroX = sim.getJugador().getBounds().centroX();
+        float relDisparo = sim.getEntidades().getY(0) / (float) altoVertical;
+
+        // Apaisado: el mundo conserva el ancho y se queda con menos alto
+        sim.redimensionar(2340, 1080);
+        assertEquals(ancho, sim.getAncho());
+        assertEquals(altoApaisado, sim.getAlto());
+        assertEquals(vivos, sim.getFormacion().getVivos());
+        assertEquals(puntuacion, sim.getPuntuacion());
+        Limites nave = sim.getJugador().getBounds();
+        assertEquals(ancho / 12, nave.ancho());
+        assertTrue(nave.abajo <= altoApaisado);
+        assertEquals(centroX, nave.centroX(), 1);
+        assertEquals(relDisparo, sim.getEntidades().getY(0) / (float) altoApaisado, 0.05f);
+        Formacion f = sim.getFormacion();
+        assertTrue(f.izquierdaViva() >= 0);
+        assertTrue(f.derechaViva() <= ancho);
+        assertTrue(f.abajoVivo() < nave.arriba);
+
+        // Por la cola, como llega desde surfaceChanged (en pixeles): ida y vuelta
+        sim.getEntrada().publicar(ColaEntrada.ANCHO, 1080, 0);
+        sim.getEntrada().publicar(ColaEntrada.ALTO, 2340, 0);
+        sim.tick();
+        assertEquals(altoVertical, sim.getAlto());
+        sim.getEntrada().publicar(ColaEntrada.ANCHO, 2340, 0);
+        sim.getEntrada().publicar(ColaEntrada.ALTO, 1080, 0);
+        sim.tick();
+        assertEquals(altoApaisado, sim.getAlto());
+        puntuacion = sim.getPuntuacion();
+
+        // Se sigue jugando con la nueva geometria: un disparo vertical acierta
+        int col = f.getColumnas() / 2;
+        for (int i = 0; i < 200 && sim.getPuntuacion() == puntuacion; i++) {
+            sim.setObjetivoX(f.centroColumna(col));
+            if (i % 15 == 0) sim.disparar();
+            sim.tick();
+        }
+        assertTrue(sim.getPuntuacion() > puntuacion);
+    }
+
+    @Test
+    public void partidaTerminada_soloUnToqueNuevoReinicia() {
+        Simulacion sim = new Simulacion();
+        sim.inicializar(1080, 2340, 1, 1);
+        sim.getFormacion().eliminar(0);
+        sim.tick();
+        assertTrue(sim.isVictoria());
+
+        for (int i = 0; i < 10; i++) {
+            sim.getEntrada().publicar(ColaEntrada.MOVER, 100 + i, 0);
+            sim.tick();
+        }
+        assertTrue(sim.isVictoria());
+
+        sim.getEntrada().publicar(ColaEntrada.PULSAR, 500, 0);
+        sim.tick();
+        assertFalse(sim.terminada());
+        assertEquals(1, sim.getFormacion().getVivos());
+    }
+}